@@ -0,0 +1,65 @@
+#!/bin/sh
+# Records or checks the benchmark baseline of this machine.
+#
+# Usage: ./baselines.sh record [jmh options]
+#        ./baselines.sh compare [threshold-percent] [jmh options]
+#
+# Baselines are machine specific: each machine keeps baselines/<machine>.csv with the scores and
+# baselines/<machine>.txt describing the hardware, JDK and commit they were measured on. The machine name
+# defaults to the short host name and can be set with BASELINE_MACHINE.
+set -e
+cd "$(dirname "$0")"
+
+machine=${BASELINE_MACHINE:-$(hostname -s)}
+baseline=baselines/$machine.csv
+jar=target/benchmarks.jar
+
+if [ ! -f "$jar" ]; then
+    echo "Build the benchmarks first: mvn -f ../pom.xml install -DskipTests && mvn package" >&2
+    exit 2
+fi
+
+describe_machine() {
+    echo "machine: $machine"
+    echo "recorded: $(date -u +%Y-%m-%dT%H:%M:%SZ)"
+    echo "commit: $(git rev-parse --short HEAD 2>/dev/null || echo unknown)"
+    echo "os: $(uname -srm)"
+    if [ -r /proc/cpuinfo ]; then
+        echo "cpu: $(grep -m1 'model name' /proc/cpuinfo | cut -d: -f2- | sed 's/^ *//')"
+    else
+        echo "cpu: $(sysctl -n machdep.cpu.brand_string 2>/dev/null || echo unknown)"
+    fi
+    echo "cores: $(getconf _NPROCESSORS_ONLN)"
+    if [ -r /proc/meminfo ]; then
+        echo "memory: $(grep -m1 MemTotal /proc/meminfo | tr -s ' ' | cut -d' ' -f2-3)"
+    fi
+    echo "java: $(java -version 2>&1 | head -n 1)"
+}
+
+case "$1" in
+record)
+    shift
+    java -jar "$jar" --save "$baseline" "$@"
+    describe_machine > "baselines/$machine.txt"
+    echo "Recorded $baseline; commit it together with baselines/$machine.txt."
+    ;;
+compare)
+    shift
+    threshold=10
+    case "$1" in
+    [0-9]*)
+        threshold=$1
+        shift
+        ;;
+    esac
+    if [ ! -f "$baseline" ]; then
+        echo "No baseline for $machine; run ./baselines.sh record on a quiet machine first." >&2
+        exit 2
+    fi
+    java -jar "$jar" --compare "$baseline" --threshold "$threshold" "$@"
+    ;;
+*)
+    echo "Usage: $0 record [jmh options] | compare [threshold-percent] [jmh options]" >&2
+    exit 2
+    ;;
+esac
@@ -0,0 +1,186 @@
+package sg.edu.nus.se.its.validation.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with allocation profiling and compares them against a stored baseline.
+ *
+ * <p>Usage: {@code java -jar benchmarks.jar [--save <csv>] [--compare <csv>] [--threshold <percent>] [jmh options]}.
+ * Scores are average times, so for both the score and the normalised allocation rate, higher is worse.
+ */
+public class BenchmarkMain {
+    /**
+     * Secondary result reported by the GC profiler for bytes allocated per operation.
+     */
+    private static final String ALLOCATION_KEY = "gc.alloc.rate.norm";
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args the command line arguments
+     * @throws RunnerException if the benchmarks fail
+     * @throws IOException if the baseline cannot be read or written
+     * @throws CommandLineOptionException if the JMH options are invalid
+     */
+    public static void main(String[] args) throws RunnerException, IOException, CommandLineOptionException {
+        Path save = null;
+        Path compare = null;
+        double thresholdPercent = 10;
+        List<String> jmhArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--save":
+                save = Paths.get(args[++i]);
+                break;
+            case "--compare":
+                compare = Paths.get(args[++i]);
+                break;
+            case "--threshold":
+                thresholdPercent = Double.parseDouble(args[++i]);
+                break;
+            default:
+                jmhArgs.add(args[i]);
+                break;
+            }
+        }
+
+        Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(jmhArgs.toArray(new String[0])))
+            .addProfiler(GCProfiler.class)
+            .build();
+        Map<String, double[]> results = summarise(new Runner(options).run());
+
+        if (save != null) {
+            writeBaseline(save, results);
+        }
+        if (compare != null && compareWithBaseline(readBaseline(compare), results, thresholdPercent)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Extracts the score and allocation per operation of each benchmark run.
+     *
+     * @param runResults the JMH results
+     * @return the score and allocation of each benchmark, keyed by benchmark name and parameters
+     */
+    static Map<String, double[]> summarise(Collection<RunResult> runResults) {
+        Map<String, double[]> results = new TreeMap<>();
+        for (RunResult runResult : runResults) {
+            BenchmarkParams params = runResult.getParams();
+            StringBuilder key = new StringBuilder(params.getBenchmark());
+            for (String paramKey : params.getParamsKeys()) {
+                key.append(' ').append(paramKey).append('=').append(params.getParam(paramKey));
+            }
+            Result allocation = runResult.getSecondaryResults().get(ALLOCATION_KEY);
+            results.put(key.toString(), new double[] {
+                runResult.getPrimaryResult().getScore(),
+                allocation == null ? Double.NaN : allocation.getScore()
+            });
+        }
+        return results;
+    }
+
+    /**
+     * Prints the change of every benchmark relative to the baseline.
+     *
+     * @param baseline the baseline results
+     * @param current the current results
+     * @param thresholdPercent the relative increase above which a change is a regression
+     * @return true if any benchmark regressed, false otherwise
+     */
+    static boolean compareWithBaseline(Map<String, double[]> baseline, Map<String, double[]> current,
+        double thresholdPercent) {
+        boolean regressed = false;
+        System.out.println("benchmark\tscore-change%\talloc-change%\tstatus");
+        for (Map.Entry<String, double[]> entry : current.entrySet()) {
+            double[] before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.println(entry.getKey() + "\t-\t-\tNEW");
+                continue;
+            }
+            double scoreChange = percentChange(before[0], entry.getValue()[0]);
+            double allocationChange = percentChange(before[1], entry.getValue()[1]);
+            boolean isRegression = scoreChange > thresholdPercent || allocationChange > thresholdPercent;
+            regressed |= isRegression;
+            System.out.printf("%s\t%+.1f\t%+.1f\t%s%n", entry.getKey(), scoreChange, allocationChange,
+                isRegression ? "REGRESSION" : "OK");
+        }
+        return regressed;
+    }
+
+    /**
+     * Computes the relative change between two values.
+     *
+     * @param before the baseline value
+     * @param after the current value
+     * @return the change in percent, 0 if either value is missing
+     */
+    static double percentChange(double before, double after) {
+        if (Double.isNaN(before) || Double.isNaN(after) || before == 0) {
+            return 0;
+        }
+        return (after - before) / before * 100;
+    }
+
+    /**
+     * Writes results as a baseline file.
+     *
+     * @param file the baseline file
+     * @param results the results
+     * @throws IOException if the file cannot be written
+     */
+    static void writeBaseline(Path file, Map<String, double[]> results) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("benchmark,score,alloc");
+        for (Map.Entry<String, double[]> entry : results.entrySet()) {
+            lines.add(entry.getKey() + "," + entry.getValue()[0] + "," + entry.getValue()[1]);
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a baseline file.
+     *
+     * @param file the baseline file
+     * @return the baseline results
+     * @throws IOException if the file cannot be read
+     */
+    static Map<String, double[]> readBaseline(Path file) throws IOException {
+        Map<String, double[]> baseline = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            int allocationComma = line.lastIndexOf(',');
+            int scoreComma = line.lastIndexOf(',', allocationComma - 1);
+            baseline.put(line.substring(0, scoreComma), new double[] {
+                Double.parseDouble(line.substring(scoreComma + 1, allocationComma)),
+                Double.parseDouble(line.substring(allocationComma + 1))
+            });
+        }
+        return baseline;
+    }
+}
@@ -0,0 +1,46 @@
+package sg.edu.nus.se.its.validation.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.parser.ParserServiceImpl;
+
+/**
+ * Loads the sample programs used by the benchmarks.
+ */
+public class BenchmarkPrograms {
+    private static final ParserServiceImpl parserService = new ParserServiceImpl();
+
+    /**
+     * Directory of the sample programs, overridable with -Dits.programs.
+     */
+    private static final String PROGRAMS_PATH = System.getProperty("its.programs",
+        System.getProperty("user.dir") + "/../../common-tests/basic_test/programs/");
+
+    /**
+     * Parses a sample program.
+     *
+     * @param fileName the path of the program relative to the programs directory
+     * @return the parsed program
+     */
+    public static Program parse(String fileName) {
+        try {
+            return parserService.parse(new File(PROGRAMS_PATH, fileName));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to parse benchmark program " + fileName, e);
+        }
+    }
+
+    /**
+     * Gets the single function of a program.
+     *
+     * @param program the program
+     * @return the function
+     */
+    public static Function onlyFunction(Program program) {
+        return program.getFncs().values().iterator().next();
+    }
+}
@@ -0,0 +1,54 @@
+package sg.edu.nus.se.its.validation.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.z3.Expr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.validation.SolverWrapper;
+
+/**
+ * Measures the symbolic construction of loop-heavy programs, without solving.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@SuppressWarnings("rawtypes")
+public class BuildFunctionBenchmark {
+    @Param({
+        "c/loop/simple_loop.c",
+        "c/loop/loop_unoptimized.c",
+        "c/loop/loop_optimized.c",
+        "c/loop/loop_with_break.c",
+        "c/loop/finite_loop.c"
+    })
+    public String program;
+
+    private SolverWrapper solverWrapper;
+    private Function function;
+
+    @Setup
+    public void setUp() {
+        solverWrapper = new SolverWrapper();
+        function = BenchmarkPrograms.onlyFunction(BenchmarkPrograms.parse(program));
+    }
+
+    @TearDown
+    public void tearDown() {
+        solverWrapper.close();
+    }
+
+    @Benchmark
+    public Expr[] buildFunction() {
+        return solverWrapper.buildOutputs(function);
+    }
+}
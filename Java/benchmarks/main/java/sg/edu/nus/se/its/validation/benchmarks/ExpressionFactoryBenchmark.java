@@ -0,0 +1,59 @@
+package sg.edu.nus.se.its.validation.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import sg.edu.nus.se.its.model.Constant;
+import sg.edu.nus.se.its.model.Expression;
+import sg.edu.nus.se.its.model.Operation;
+import sg.edu.nus.se.its.model.Variable;
+import sg.edu.nus.se.its.validation.ExpressionFactory;
+import sg.edu.nus.se.its.validation.solverexpressions.BaseExpression;
+
+/**
+ * Measures the conversion of model expressions into solver expressions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExpressionFactoryBenchmark {
+    @Param({"1", "4", "8", "12"})
+    public int depth;
+
+    private Expression expression;
+
+    @Setup
+    public void setUp() {
+        expression = balancedTree(depth);
+    }
+
+    /**
+     * Builds a balanced tree of additions with the given depth.
+     *
+     * @param depth the depth of the tree
+     * @return the root of the tree
+     */
+    static Expression balancedTree(int depth) {
+        if (depth == 0) {
+            return new Variable("x", 1);
+        }
+        if (depth == 1) {
+            return new Operation("Add", List.of(new Variable("x", 1), new Constant("1", 1)), 1);
+        }
+        return new Operation("Add", List.of(balancedTree(depth - 1), balancedTree(depth - 1)), 1);
+    }
+
+    @Benchmark
+    public BaseExpression parseExpression() {
+        return ExpressionFactory.parseExpression(expression);
+    }
+}
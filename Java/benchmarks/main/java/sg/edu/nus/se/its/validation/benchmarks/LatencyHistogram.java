@@ -0,0 +1,106 @@
+package sg.edu.nus.se.its.validation.benchmarks;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size, log-bucketed latency histogram with about 5% relative precision,
+ * so it can record any number of samples in constant memory.
+ */
+public class LatencyHistogram {
+    /**
+     * Ratio between the upper bounds of consecutive buckets.
+     */
+    private static final double BUCKET_RATIO = 1.05;
+
+    /**
+     * Enough buckets to cover latencies of over a day in microseconds.
+     */
+    private static final int BUCKETS = 800;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long maxMicros;
+
+    /**
+     * Records a latency.
+     *
+     * @param micros the latency in microseconds
+     */
+    public synchronized void record(long micros) {
+        counts[bucketOf(micros)]++;
+        total++;
+        maxMicros = Math.max(maxMicros, micros);
+    }
+
+    /**
+     * Gets the latency below which the given fraction of samples fall.
+     *
+     * @param quantile the fraction, between 0 and 1
+     * @return the latency in microseconds, 0 if there are no samples
+     */
+    public synchronized long quantileMicros(double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(rank, 1)) {
+                return Math.min(upperBoundOf(i), maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+
+    /**
+     * Gets the largest recorded latency.
+     *
+     * @return the latency in microseconds
+     */
+    public synchronized long maxMicros() {
+        return maxMicros;
+    }
+
+    /**
+     * Gets the number of recorded samples.
+     *
+     * @return the number of samples
+     */
+    public synchronized long count() {
+        return total;
+    }
+
+    /**
+     * Removes all samples.
+     */
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        maxMicros = 0;
+    }
+
+    /**
+     * Finds the bucket of a latency.
+     *
+     * @param micros the latency in microseconds
+     * @return the bucket index
+     */
+    private static int bucketOf(long micros) {
+        if (micros <= 1) {
+            return 0;
+        }
+        int bucket = (int) Math.ceil(Math.log(micros) / Math.log(BUCKET_RATIO));
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /**
+     * Gets the largest latency that falls in a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the latency in microseconds
+     */
+    private static long upperBoundOf(int bucket) {
+        return (long) Math.floor(Math.pow(BUCKET_RATIO, bucket));
+    }
+}
@@ -0,0 +1,406 @@
+package sg.edu.nus.se.its.validation.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.javatuples.Pair;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.PatchValidator;
+import sg.edu.nus.se.its.validation.ValidationResult;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+
+/**
+ * Replays a corpus of (reference, submission) pairs against one shared PatchValidator and reports
+ * throughput, latency percentiles, timeout and error rates, and memory use over time.
+ *
+ * <p>Usage: {@code LoadDriver [--pairs <file> | --generated <n>] [--concurrency <c>] [--rate <per-second>]
+ * [--requests <n>] [--interval <seconds>] [--max-queue <n>] [--soak] [--virtual]}.
+ * The pairs file has one {@code reference|submission} line per pair, with paths relative to the sample
+ * programs directory. Without {@code --rate} the driver runs closed-loop with one request in flight per
+ * worker; with it, requests arrive on a fixed schedule and latency is measured from the scheduled arrival,
+ * so queueing delay is included. {@code --soak} defaults to 100000 requests and measures live heap after a GC.
+ * {@code --virtual} runs the validator in virtual-thread mode. The validator's debug output is off unless
+ * {@code -Dits.validation.debug=true} is given, and whatever the validator prints goes to standard error, so
+ * standard output only holds the report.
+ */
+public class LoadDriver {
+    private final List<Pair<Program, Program>> corpus;
+    private final PatchValidator validator;
+    private final int concurrency;
+    private final double ratePerSecond;
+    private final long requests;
+    private final int maxQueue;
+    private final boolean soak;
+    private final PrintStream out;
+
+    private final LatencyHistogram windowLatencies = new LatencyHistogram();
+    private final LatencyHistogram totalLatencies = new LatencyHistogram();
+    private final AtomicLong windowCompleted = new AtomicLong();
+    private final AtomicLong windowTimeouts = new AtomicLong();
+    private final AtomicLong windowErrors = new AtomicLong();
+    private final AtomicLong totalCompleted = new AtomicLong();
+    private final AtomicLong totalTimeouts = new AtomicLong();
+    private final AtomicLong totalErrors = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final List<double[]> memorySamples = new ArrayList<>();
+
+    /**
+     * Constructs a LoadDriver.
+     *
+     * @param corpus the (reference, submission) pairs, replayed round-robin
+     * @param concurrency the number of validations solved at the same time
+     * @param ratePerSecond the arrival rate, or 0 for closed-loop operation
+     * @param requests the number of requests to send
+     * @param maxQueue the number of waiting requests above which new arrivals are dropped
+     * @param soak whether to measure live heap after a GC in every report
+     * @param virtualThreads whether the validator runs in virtual-thread mode
+     * @param out the stream the report is printed to
+     */
+    public LoadDriver(List<Pair<Program, Program>> corpus, int concurrency, double ratePerSecond,
+        long requests, int maxQueue, boolean soak, boolean virtualThreads, PrintStream out) {
+        this.corpus = corpus;
+        this.validator = new PatchValidator(concurrency, virtualThreads);
+        this.concurrency = concurrency;
+        this.ratePerSecond = ratePerSecond;
+        this.requests = requests;
+        this.maxQueue = maxQueue;
+        this.soak = soak;
+        this.out = out;
+    }
+
+    /**
+     * Runs the load driver.
+     *
+     * @param args the command line arguments
+     * @throws Exception if the corpus cannot be loaded or the run is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        // Read when the validator class is loaded, so set before the first validator is created
+        if (System.getProperty("its.validation.debug") == null) {
+            System.setProperty("its.validation.debug", "false");
+        }
+        Path pairs = null;
+        int generated = 0;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        double rate = 0;
+        long requests = -1;
+        int intervalSeconds = 10;
+        int maxQueue = 10_000;
+        boolean soak = false;
+        boolean virtualThreads = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--pairs":
+                pairs = Paths.get(args[++i]);
+                break;
+            case "--generated":
+                generated = Integer.parseInt(args[++i]);
+                break;
+            case "--concurrency":
+                concurrency = Integer.parseInt(args[++i]);
+                break;
+            case "--rate":
+                rate = Double.parseDouble(args[++i]);
+                break;
+            case "--requests":
+                requests = Long.parseLong(args[++i]);
+                break;
+            case "--interval":
+                intervalSeconds = Integer.parseInt(args[++i]);
+                break;
+            case "--max-queue":
+                maxQueue = Integer.parseInt(args[++i]);
+                break;
+            case "--soak":
+                soak = true;
+                break;
+            case "--virtual":
+                virtualThreads = true;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (requests < 0) {
+            requests = soak ? 100_000 : 1_000;
+        }
+
+        List<Pair<Program, Program>> corpus = pairs != null ? loadPairs(pairs) : generatePairs(Math.max(generated, 16));
+        PrintStream report = System.out;
+        System.setOut(System.err);
+        new LoadDriver(corpus, concurrency, rate, requests, maxQueue, soak, virtualThreads, report)
+            .run(intervalSeconds);
+        System.exit(0);
+    }
+
+    /**
+     * Parses the pairs listed in a file.
+     *
+     * @param file the pairs file
+     * @return the parsed pairs
+     * @throws IOException if the file cannot be read
+     */
+    static List<Pair<Program, Program>> loadPairs(Path file) throws IOException {
+        List<Pair<Program, Program>> corpus = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] files = line.split("\\|");
+            corpus.add(new Pair<>(BenchmarkPrograms.parse(files[0].trim()), BenchmarkPrograms.parse(files[1].trim())));
+        }
+        return corpus;
+    }
+
+    /**
+     * Generates pairs of varied shapes, alternating between equivalent and non-equivalent submissions.
+     *
+     * @param count the number of pairs
+     * @return the generated pairs
+     */
+    static List<Pair<Program, Program>> generatePairs(int count) {
+        String[] axes = {"parameterCount", "loopDepth", "tripCount", "expressionDepth", "arraySize", "outputVolume"};
+        List<Pair<Program, Program>> corpus = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            GeneratorSpec spec = GeneratorSpec.defaults()
+                .with("seed", i)
+                .with(axes[i % axes.length], 1 + i % 4);
+            corpus.add(i % 2 == 0 ? ProgramGenerator.equivalentPair(spec) : ProgramGenerator.nonEquivalentPair(spec));
+        }
+        return corpus;
+    }
+
+    /**
+     * Sends all requests and prints a report line every interval and a summary at the end, then closes the
+     * validator.
+     *
+     * @param intervalSeconds the reporting interval
+     * @throws InterruptedException if interrupted while waiting for the requests
+     */
+    public void run(int intervalSeconds) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long start = System.nanoTime();
+        out.println("elapsed-s,completed,throughput/s,p50-ms,p95-ms,p99-ms,max-ms,timeout%,error%,"
+            + "queued,dropped,heap-mb,rss-mb,threads");
+        reporter.scheduleAtFixedRate(() -> report(start, intervalSeconds), intervalSeconds, intervalSeconds,
+            TimeUnit.SECONDS);
+
+        if (ratePerSecond > 0) {
+            runOpenLoop(workers);
+        } else {
+            runClosedLoop(workers);
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        reporter.shutdown();
+        reporter.awaitTermination(1, TimeUnit.MINUTES);
+        report(start, intervalSeconds);
+        summarise(start);
+        long closeStart = System.nanoTime();
+        validator.close();
+        out.printf("validator closed in %.1fs%n", (System.nanoTime() - closeStart) / 1e9);
+    }
+
+    /**
+     * Sends requests from every worker back to back.
+     *
+     * @param workers the worker threads
+     */
+    private void runClosedLoop(ExecutorService workers) {
+        AtomicLong issued = new AtomicLong();
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(() -> {
+                long index;
+                while ((index = issued.getAndIncrement()) < requests) {
+                    validate(index, System.nanoTime());
+                }
+            });
+        }
+    }
+
+    /**
+     * Sends requests on a fixed arrival schedule, dropping them when too many are waiting.
+     *
+     * @param workers the worker threads
+     */
+    private void runOpenLoop(ExecutorService workers) {
+        long periodNanos = (long) (1_000_000_000L / ratePerSecond);
+        long start = System.nanoTime();
+        for (long index = 0; index < requests; index++) {
+            long arrival = start + index * periodNanos;
+            long delay;
+            while ((delay = arrival - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            if (queued.get() >= maxQueue) {
+                dropped.incrementAndGet();
+                continue;
+            }
+            queued.incrementAndGet();
+            long request = index;
+            workers.submit(() -> {
+                queued.decrementAndGet();
+                validate(request, arrival);
+            });
+        }
+    }
+
+    /**
+     * Validates one pair of the corpus and records the outcome.
+     *
+     * @param index the request number
+     * @param arrivalNanos the time the request arrived
+     */
+    private void validate(long index, long arrivalNanos) {
+        Pair<Program, Program> pair = corpus.get((int) (index % corpus.size()));
+        ValidationResult.Outcome outcome;
+        try {
+            outcome = validator.validate(pair.getValue0(), pair.getValue1()).getOutcome();
+        } catch (RuntimeException e) {
+            outcome = ValidationResult.Outcome.ERROR;
+        }
+        long micros = (System.nanoTime() - arrivalNanos) / 1_000;
+        windowLatencies.record(micros);
+        totalLatencies.record(micros);
+        windowCompleted.incrementAndGet();
+        totalCompleted.incrementAndGet();
+        if (outcome == ValidationResult.Outcome.TIMEOUT) {
+            windowTimeouts.incrementAndGet();
+            totalTimeouts.incrementAndGet();
+        } else if (outcome == ValidationResult.Outcome.ERROR) {
+            windowErrors.incrementAndGet();
+            totalErrors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Prints the statistics of the current window and starts a new one.
+     *
+     * @param start the start time of the run
+     * @param intervalSeconds the reporting interval
+     */
+    private synchronized void report(long start, int intervalSeconds) {
+        long completed = windowCompleted.getAndSet(0);
+        long timeouts = windowTimeouts.getAndSet(0);
+        long errors = windowErrors.getAndSet(0);
+        if (soak) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        double heapMegabytes = (runtime.totalMemory() - runtime.freeMemory()) / 1048576.0;
+        double rssMegabytes = residentSetMegabytes();
+        memorySamples.add(new double[] {totalCompleted.get(), heapMegabytes, rssMegabytes});
+
+        out.printf("%.0f,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.2f,%.2f,%d,%d,%.1f,%.1f,%d%n",
+            (System.nanoTime() - start) / 1e9,
+            completed,
+            completed / (double) intervalSeconds,
+            windowLatencies.quantileMicros(0.50) / 1000.0,
+            windowLatencies.quantileMicros(0.95) / 1000.0,
+            windowLatencies.quantileMicros(0.99) / 1000.0,
+            windowLatencies.maxMicros() / 1000.0,
+            percent(timeouts, completed),
+            percent(errors, completed),
+            queued.get(),
+            dropped.get(),
+            heapMegabytes,
+            rssMegabytes,
+            ManagementFactory.getThreadMXBean().getThreadCount());
+        windowLatencies.reset();
+    }
+
+    /**
+     * Prints the statistics of the whole run, including memory growth per 10k validations.
+     *
+     * @param start the start time of the run
+     */
+    private void summarise(long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long completed = totalCompleted.get();
+        out.println();
+        out.printf("completed %d in %.1fs (%.1f/s), dropped %d%n", completed, seconds, completed / seconds,
+            dropped.get());
+        out.printf("latency ms p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+            totalLatencies.quantileMicros(0.50) / 1000.0,
+            totalLatencies.quantileMicros(0.95) / 1000.0,
+            totalLatencies.quantileMicros(0.99) / 1000.0,
+            totalLatencies.maxMicros() / 1000.0);
+        out.printf("timeouts %.2f%%, errors %.2f%%%n", percent(totalTimeouts.get(), completed),
+            percent(totalErrors.get(), completed));
+        out.printf("heap growth %.2f MB/10k validations, rss growth %.2f MB/10k validations%n",
+            slopePer10k(1), slopePer10k(2));
+    }
+
+    /**
+     * Fits a line through the memory samples against completed validations.
+     *
+     * @param column the memory column, 1 for heap and 2 for resident set
+     * @return the growth in megabytes per 10000 validations
+     */
+    private double slopePer10k(int column) {
+        int n = memorySamples.size();
+        if (n < 2) {
+            return 0;
+        }
+        double meanX = 0;
+        double meanY = 0;
+        for (double[] sample : memorySamples) {
+            meanX += sample[0] / n;
+            meanY += sample[column] / n;
+        }
+        double covariance = 0;
+        double variance = 0;
+        for (double[] sample : memorySamples) {
+            covariance += (sample[0] - meanX) * (sample[column] - meanY);
+            variance += (sample[0] - meanX) * (sample[0] - meanX);
+        }
+        return variance == 0 ? 0 : covariance / variance * 10_000;
+    }
+
+    /**
+     * Reads the resident set size of the process, which includes the native memory used by Z3.
+     *
+     * @return the resident set size in megabytes, or NaN where /proc is not available
+     */
+    static double residentSetMegabytes() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"), StandardCharsets.UTF_8)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) / 1024.0;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not on Linux
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Computes a percentage.
+     *
+     * @param part the part
+     * @param whole the whole
+     * @return the percentage, 0 if the whole is 0
+     */
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : part * 100.0 / whole;
+    }
+}
@@ -0,0 +1,51 @@
+package sg.edu.nus.se.its.validation.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.javatuples.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import sg.edu.nus.se.its.validation.Parameter;
+
+/**
+ * Measures the enumeration of parameter mappings as the number of same-typed parameters grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParameterBenchmark {
+    @Param({"1", "2", "3", "4", "5", "6", "7"})
+    public int parameterCount;
+
+    private HashMap<String, ArrayList<String>> p1ParamMap;
+    private HashMap<String, ArrayList<String>> p2ParamMap;
+
+    @Setup
+    public void setUp() {
+        ArrayList<String> p1Params = new ArrayList<>();
+        ArrayList<String> p2Params = new ArrayList<>();
+        for (int i = 0; i < parameterCount; i++) {
+            p1Params.add("a" + i);
+            p2Params.add("b" + i);
+        }
+        p1ParamMap = new HashMap<>();
+        p1ParamMap.put("int", p1Params);
+        p2ParamMap = new HashMap<>();
+        p2ParamMap.put("int", p2Params);
+    }
+
+    @Benchmark
+    public List<List<Pair<Pair<String, String>, String>>> formMapping() {
+        return Parameter.formMapping(p1ParamMap, p2ParamMap);
+    }
+}
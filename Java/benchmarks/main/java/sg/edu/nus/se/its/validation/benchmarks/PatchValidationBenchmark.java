@@ -0,0 +1,55 @@
+package sg.edu.nus.se.its.validation.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.PatchValidator;
+import sg.edu.nus.se.its.validation.ValidationResult;
+
+/**
+ * Measures end-to-end validation of (reference, submission) pairs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Dits.validation.debug=false")
+public class PatchValidationBenchmark {
+    /**
+     * Pairs of programs, separated by '|'.
+     */
+    @Param({
+        "c/hello_world.c|c/hello_world_1.c",
+        "c/hello_world.c|c/hi.c",
+        "c/loop/simple_loop.c|c/loop/simple_loop_variant.c",
+        "c/loop/loop_unoptimized.c|c/loop/loop_optimized.c",
+        "c/loop/Condition1.c|c/loop/Condition2.c"
+    })
+    public String pair;
+
+    private PatchValidator validator;
+    private Program reference;
+    private Program submission;
+
+    @Setup
+    public void setUp() {
+        String[] files = pair.split("\\|");
+        validator = new PatchValidator();
+        reference = BenchmarkPrograms.parse(files[0]);
+        submission = BenchmarkPrograms.parse(files[1]);
+    }
+
+    @Benchmark
+    public ValidationResult patchValidation() {
+        return validator.validate(reference, submission);
+    }
+}
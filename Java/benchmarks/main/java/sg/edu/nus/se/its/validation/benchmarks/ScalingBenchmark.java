@@ -0,0 +1,64 @@
+package sg.edu.nus.se.its.validation.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.javatuples.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.PatchValidator;
+import sg.edu.nus.se.its.validation.ValidationResult;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+
+/**
+ * Measures validation of generated programs while one axis of the program shape grows,
+ * starting from {@link GeneratorSpec#defaults()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Dits.validation.debug=false")
+public class ScalingBenchmark {
+    @Param({
+        "parameterCount=1", "parameterCount=3", "parameterCount=5",
+        "loopDepth=0", "loopDepth=2", "loopDepth=3",
+        "tripCount=1", "tripCount=16", "tripCount=64",
+        "expressionDepth=1", "expressionDepth=4", "expressionDepth=6",
+        "arraySize=4", "arraySize=32", "arraySize=128",
+        "outputVolume=8", "outputVolume=64",
+        "parameterType=float"
+    })
+    public String axis;
+
+    @Param({"true", "false"})
+    public boolean equivalent;
+
+    private PatchValidator validator;
+    private Program reference;
+    private Program submission;
+
+    @Setup
+    public void setUp() {
+        GeneratorSpec spec = GeneratorSpec.defaults().with(axis);
+        Pair<Program, Program> programs = equivalent
+            ? ProgramGenerator.equivalentPair(spec)
+            : ProgramGenerator.nonEquivalentPair(spec);
+        validator = new PatchValidator();
+        reference = programs.getValue0();
+        submission = programs.getValue1();
+    }
+
+    @Benchmark
+    public ValidationResult patchValidation() {
+        return validator.validate(reference, submission);
+    }
+}
@@ -0,0 +1,85 @@
+package sg.edu.nus.se.its.validation.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.z3.Expr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import sg.edu.nus.se.its.validation.SolverWrapper;
+import sg.edu.nus.se.its.validation.solverexpressions.BaseExpression;
+import sg.edu.nus.se.its.validation.solverexpressions.BinaryExpression;
+import sg.edu.nus.se.its.validation.solverexpressions.NaryExpression;
+import sg.edu.nus.se.its.validation.solverexpressions.TernaryExpression;
+import sg.edu.nus.se.its.validation.solverexpressions.UnaryExpression;
+
+/**
+ * Measures the evaluation of each solver expression node type into Z3 terms.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@SuppressWarnings("rawtypes")
+public class SolverExpressionBenchmark {
+    private final Map<String, String> varRemapping = new HashMap<>();
+    private SolverWrapper solverWrapper;
+
+    private final BaseExpression literal = new BaseExpression("42");
+    private final BaseExpression variable = new BaseExpression("x");
+    private final BaseExpression unary = new UnaryExpression(variable, "USub");
+    private final BaseExpression binary = new BinaryExpression(variable, literal, "Add");
+    private final BaseExpression ternary = new TernaryExpression(
+        new BinaryExpression(variable, literal, "Lt"), variable, literal, "ite");
+    private final BaseExpression nary = new NaryExpression(
+        List.of(variable, literal, new BaseExpression("7"), new BaseExpression("-3")), "max");
+
+    @Setup
+    public void setUp() {
+        solverWrapper = new SolverWrapper();
+        solverWrapper.updateVariable(varRemapping, "x", solverWrapper.getCtx().mkIntConst("x"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        solverWrapper.close();
+    }
+
+    @Benchmark
+    public Expr evaluateLiteral() {
+        return literal.evaluate(solverWrapper, varRemapping);
+    }
+
+    @Benchmark
+    public Expr evaluateVariable() {
+        return variable.evaluate(solverWrapper, varRemapping);
+    }
+
+    @Benchmark
+    public Expr evaluateUnary() {
+        return unary.evaluate(solverWrapper, varRemapping);
+    }
+
+    @Benchmark
+    public Expr evaluateBinary() {
+        return binary.evaluate(solverWrapper, varRemapping);
+    }
+
+    @Benchmark
+    public Expr evaluateTernary() {
+        return ternary.evaluate(solverWrapper, varRemapping);
+    }
+
+    @Benchmark
+    public Expr evaluateNary() {
+        return nary.evaluate(solverWrapper, varRemapping);
+    }
+}
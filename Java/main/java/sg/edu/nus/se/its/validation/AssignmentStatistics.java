@@ -0,0 +1,192 @@
+package sg.edu.nus.se.its.validation;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The AssignmentStatistics class keeps online statistics of the validations of one assignment: how each solver
+ * strategy fared, how long decided validations took, which parameter mappings proved equivalence and how often
+ * a validation was decided without the solver. It is owned by {@link StrategySelector}, which guards it.
+ */
+class AssignmentStatistics {
+    /**
+     * Weight of the newest validation in the running averages.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * Number of recent durations of decided validations kept.
+     */
+    private static final int WINDOW = 64;
+
+    /**
+     * Statistics of one solver strategy.
+     */
+    static class StrategyRecord {
+        int trials;
+        int unknown;
+        int decided;
+        double averageMillis;
+
+        /**
+         * Gets the score of the strategy: its average time, inflated by its rate of inconclusive checks.
+         *
+         * @return The score, lower is better, and infinite if the strategy never decided a validation.
+         */
+        double score() {
+            if (decided == 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return averageMillis * (1 + 4.0 * unknown / trials);
+        }
+    }
+
+    private final Map<SolverStrategy, StrategyRecord> strategies = new EnumMap<>(SolverStrategy.class);
+    private final Map<String, Integer> mappingWins = new LinkedHashMap<>();
+    private final long[] recentMillis = new long[WINDOW];
+    private int decidedCount;
+    private long validations;
+    private long solverFree;
+    private long decisions;
+
+    /**
+     * Records a validation that used the solver.
+     *
+     * @param strategy The strategy of the validation.
+     * @param decided Whether the validation reached a definitive verdict.
+     * @param elapsedMillis The duration of the validation.
+     * @param winningMapping The signature of the mapping that proved equivalence, or null.
+     */
+    void recordSolved(SolverStrategy strategy, boolean decided, long elapsedMillis, String winningMapping) {
+        validations++;
+        StrategyRecord record = strategies.computeIfAbsent(strategy, s -> new StrategyRecord());
+        record.trials++;
+        if (decided) {
+            record.averageMillis = record.decided == 0
+                ? elapsedMillis
+                : (1 - SMOOTHING) * record.averageMillis + SMOOTHING * elapsedMillis;
+            record.decided++;
+            recentMillis[decidedCount % WINDOW] = elapsedMillis;
+            decidedCount++;
+        } else {
+            record.unknown++;
+        }
+        if (winningMapping != null) {
+            mappingWins.merge(winningMapping, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Records a validation decided without the solver.
+     */
+    void recordSolverFree() {
+        validations++;
+        solverFree++;
+    }
+
+    /**
+     * Counts a decision and returns how many were made before it.
+     *
+     * @return The number of earlier decisions.
+     */
+    long nextDecision() {
+        return decisions++;
+    }
+
+    /**
+     * Gets the number of decisions made.
+     *
+     * @return The number of decisions.
+     */
+    long getDecisions() {
+        return decisions;
+    }
+
+    /**
+     * Gets the record of a strategy.
+     *
+     * @param strategy The strategy.
+     * @return The record, or null if the strategy was never tried.
+     */
+    StrategyRecord getRecord(SolverStrategy strategy) {
+        return strategies.get(strategy);
+    }
+
+    /**
+     * Gets the 95th percentile of the recent durations of decided validations.
+     *
+     * @return The percentile in milliseconds, or -1 if there are none.
+     */
+    public long getDecidedP95Millis() {
+        if (decidedCount == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(recentMillis, Math.min(decidedCount, WINDOW));
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(0.95 * sorted.length) - 1];
+    }
+
+    /**
+     * Gets the number of validations that reached a definitive verdict with the solver.
+     *
+     * @return The number of validations.
+     */
+    public int getDecidedCount() {
+        return decidedCount;
+    }
+
+    /**
+     * Gets the signatures of the mappings that proved equivalence, most successful first.
+     *
+     * @return The signatures.
+     */
+    public List<String> getMappingsByWins() {
+        return mappingWins.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the share of validations decided without the solver.
+     *
+     * @return The hit rate between 0 and 1, or 0 if there were no validations.
+     */
+    public double getSolverFreeRate() {
+        return validations == 0 ? 0 : (double) solverFree / validations;
+    }
+
+    /**
+     * Gets the number of validations recorded.
+     *
+     * @return The number of validations.
+     */
+    public long getValidations() {
+        return validations;
+    }
+
+    /**
+     * Returns a summary of the statistics.
+     *
+     * @return a string representation of the statistics
+     */
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(validations).append(" validations, ")
+            .append(String.format("%.0f%%", 100 * getSolverFreeRate())).append(" without solver, p95 ")
+            .append(getDecidedP95Millis()).append(" ms");
+        for (Map.Entry<SolverStrategy, StrategyRecord> entry : strategies.entrySet()) {
+            StrategyRecord record = entry.getValue();
+            summary.append("; ").append(entry.getKey()).append(": ").append(record.trials).append(" tried, ")
+                .append(record.unknown).append(" unknown, ")
+                .append(String.format("%.1f", record.averageMillis)).append(" ms average");
+        }
+        summary.append("; mapping wins ").append(mappingWins);
+        return summary.toString();
+    }
+}
@@ -0,0 +1,206 @@
+package sg.edu.nus.se.its.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.javatuples.Pair;
+
+import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.differential.DifferentialTester;
+
+/**
+ * The DegradingValidator class keeps feedback fast when the solver lane saturates. While the
+ * {@link OverloadPolicy} reports overload, validations are answered by concrete differential testing and
+ * marked provisional, and the full symbolic check is queued and run in the background once the lane has
+ * capacity again. The queue is bounded; a degraded validation that finds it full gets a REJECTED final result.
+ */
+public class DegradingValidator implements AutoCloseable {
+    /**
+     * How often the background recheck looks for capacity (in milliseconds).
+     */
+    private static final long RECHECK_POLL_MILLIS = 50;
+
+    /**
+     * Default number of degraded validations that may wait for their symbolic check.
+     */
+    private static final int DEFAULT_MAX_PENDING_RECHECKS = 1024;
+
+    private final PatchValidator validator;
+    private final OverloadPolicy policy;
+    private final DifferentialTester tester;
+    private final BlockingQueue<Recheck> rechecks;
+    private final Thread rechecker;
+    private final AtomicLong degraded = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * A degraded validation waiting for its symbolic check.
+     */
+    private static class Recheck {
+        private final Program referenceProgram;
+        private final Program fixedProgram;
+        private final CompletableFuture<ValidationResult> result = new CompletableFuture<>();
+
+        private Recheck(Program referenceProgram, Program fixedProgram) {
+            this.referenceProgram = referenceProgram;
+            this.fixedProgram = fixedProgram;
+        }
+    }
+
+    /**
+     * Constructs a DegradingValidator with the default limit on pending rechecks. The validator is not closed
+     * with it.
+     *
+     * @param validator The validator running the symbolic checks.
+     * @param policy The policy deciding when to degrade.
+     * @param tester The tester answering degraded validations.
+     */
+    public DegradingValidator(PatchValidator validator, OverloadPolicy policy, DifferentialTester tester) {
+        this(validator, policy, tester, DEFAULT_MAX_PENDING_RECHECKS);
+    }
+
+    /**
+     * Constructs a DegradingValidator. The validator is not closed with it.
+     *
+     * @param validator The validator running the symbolic checks.
+     * @param policy The policy deciding when to degrade.
+     * @param tester The tester answering degraded validations.
+     * @param maxPendingRechecks Number of degraded validations that may wait for their symbolic check.
+     */
+    public DegradingValidator(PatchValidator validator, OverloadPolicy policy, DifferentialTester tester,
+        int maxPendingRechecks) {
+        if (maxPendingRechecks <= 0) {
+            throw new IllegalArgumentException("The number of pending rechecks must be positive.");
+        }
+        this.rechecks = new ArrayBlockingQueue<>(maxPendingRechecks);
+        this.validator = validator;
+        this.policy = policy;
+        this.tester = tester;
+        this.rechecker = new Thread(this::recheckLoop, "validation-recheck");
+        this.rechecker.setDaemon(true);
+        this.rechecker.start();
+    }
+
+    /**
+     * Validates two programs, symbolically unless the solver lane is overloaded.
+     *
+     * @param referenceProgram Reference program.
+     * @param fixedProgram Fixed program.
+     * @return The result, provisional and escalated if it came from differential testing.
+     */
+    public TieredResult validate(Program referenceProgram, Program fixedProgram) {
+        if (closed) {
+            throw new IllegalStateException("The validator has been closed.");
+        }
+        if (policy.tryBegin()) {
+            ValidationResult result = validateSymbolically(referenceProgram, fixedProgram);
+            return new TieredResult(result, CompletableFuture.completedFuture(result), false);
+        }
+
+        ValidationResult provisional;
+        try {
+            Pair<Function, Function> functions = PatchValidator.extractFunctions(
+                new Pair<>(referenceProgram, fixedProgram));
+            provisional = tester.test(functions.getValue0(), functions.getValue1());
+        } catch (IllegalArgumentException e) {
+            ValidationResult result = ValidationResult.withoutSolver(ValidationResult.Outcome.ERROR, 0);
+            return new TieredResult(result, CompletableFuture.completedFuture(result), false);
+        }
+        degraded.incrementAndGet();
+        Recheck recheck = new Recheck(referenceProgram, fixedProgram);
+        if (!rechecks.offer(recheck)) {
+            // The backlog is full: the provisional result stands alone rather than holding more programs
+            recheck.result.complete(ValidationResult.withoutSolver(ValidationResult.Outcome.REJECTED, 0));
+        } else if (closed) {
+            // close() may have drained the queue before the offer, and nothing would take the recheck anymore
+            rechecks.remove(recheck);
+            recheck.result.complete(ValidationResult.withoutSolver(ValidationResult.Outcome.REJECTED, 0));
+        }
+        return new TieredResult(provisional, recheck.result, true);
+    }
+
+    /**
+     * Validates two programs with the solver, reporting the end of the validation to the policy, which must
+     * have admitted it.
+     *
+     * @param referenceProgram Reference program.
+     * @param fixedProgram Fixed program.
+     * @return The result.
+     */
+    private ValidationResult validateSymbolically(Program referenceProgram, Program fixedProgram) {
+        long start = System.nanoTime();
+        try {
+            return validator.validate(referenceProgram, fixedProgram);
+        } finally {
+            policy.end(SolverWrapper.elapsedMillisSince(start));
+        }
+    }
+
+    /**
+     * Runs the symbolic checks of degraded validations one at a time, whenever the lane has capacity.
+     */
+    private void recheckLoop() {
+        Recheck recheck = null;
+        try {
+            while (!closed) {
+                recheck = rechecks.poll(RECHECK_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (recheck == null) {
+                    continue;
+                }
+                while (!policy.tryBeginDeferred()) {
+                    Thread.sleep(RECHECK_POLL_MILLIS);
+                }
+                recheck.result.complete(validateSymbolically(recheck.referenceProgram, recheck.fixedProgram));
+                recheck = null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (recheck != null) {
+                recheck.result.complete(ValidationResult.withoutSolver(ValidationResult.Outcome.REJECTED, 0));
+            }
+        }
+    }
+
+    /**
+     * Gets the number of validations answered by differential testing.
+     *
+     * @return The number of degraded validations.
+     */
+    public long getDegraded() {
+        return degraded.get();
+    }
+
+    /**
+     * Gets the number of degraded validations still waiting for their symbolic check.
+     *
+     * @return The number of pending rechecks.
+     */
+    public int getPendingRechecks() {
+        return rechecks.size();
+    }
+
+    /**
+     * Stops the background rechecks, completing those still waiting with a REJECTED outcome.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        rechecker.interrupt();
+        try {
+            rechecker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Recheck> waiting = new ArrayList<>();
+        rechecks.drainTo(waiting);
+        for (Recheck recheck : waiting) {
+            recheck.result.complete(ValidationResult.withoutSolver(ValidationResult.Outcome.REJECTED, 0));
+        }
+    }
+}
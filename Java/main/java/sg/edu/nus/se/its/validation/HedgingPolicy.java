@@ -0,0 +1,191 @@
+package sg.edu.nus.se.its.validation;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The HedgingPolicy class decides when a straggling solver check gets a second attempt with another random seed,
+ * and runs those attempts. A check is hedged once it has run longer than the 95th percentile of recent checks of
+ * the same assignment, identified by the fingerprint of the reference function, and only if one of the
+ * hedging threads was idle when the check started, so the extra work is bounded and falls on stragglers only.
+ * A hedging thread stays reserved from then until the check ends, whether or not its attempt ran.
+ */
+public class HedgingPolicy implements AutoCloseable {
+    /**
+     * Number of recent check durations kept per assignment.
+     */
+    private static final int WINDOW = 64;
+
+    /**
+     * Number of durations needed before the percentile of an assignment is trusted.
+     */
+    private static final int MIN_SAMPLES = 16;
+
+    /**
+     * Number of assignments whose durations are kept.
+     */
+    private static final int MAX_ASSIGNMENTS = 1024;
+
+    private final long initialDelayMillis;
+    private final long minDelayMillis;
+    private final ScheduledThreadPoolExecutor hedgers;
+    private final Semaphore idleHedgers;
+    private final Map<String, long[]> durations;
+    private final Map<String, Integer> sampleCounts = new LinkedHashMap<>();
+    private final AtomicInteger seeds = new AtomicInteger();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    /**
+     * Constructs a HedgingPolicy.
+     *
+     * @param maxHedges Number of hedged attempts that may run at the same time, ideally the number of idle cores.
+     * @param initialDelayMillis Delay before hedging a check of an assignment with too few recorded durations.
+     * @param minDelayMillis Delay below which checks are never hedged, whatever the percentile.
+     */
+    public HedgingPolicy(int maxHedges, long initialDelayMillis, long minDelayMillis) {
+        if (maxHedges <= 0 || initialDelayMillis < minDelayMillis || minDelayMillis < 0) {
+            throw new IllegalArgumentException(
+                "Hedges must be positive and the initial delay at least the non-negative minimum delay.");
+        }
+        this.initialDelayMillis = initialDelayMillis;
+        this.minDelayMillis = minDelayMillis;
+        this.hedgers = new ScheduledThreadPoolExecutor(maxHedges, r -> {
+            Thread thread = new Thread(r, "solver-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        hedgers.setRemoveOnCancelPolicy(true);
+        this.idleHedgers = new Semaphore(maxHedges);
+        this.durations = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+                if (size() > MAX_ASSIGNMENTS) {
+                    sampleCounts.remove(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the time after which a check of an assignment is hedged.
+     *
+     * @param assignment The fingerprint of the reference function.
+     * @return The delay in milliseconds.
+     */
+    synchronized long hedgeDelayMillis(String assignment) {
+        long[] recent = durations.get(assignment);
+        int samples = sampleCounts.getOrDefault(assignment, 0);
+        if (recent == null || samples < MIN_SAMPLES) {
+            return initialDelayMillis;
+        }
+        long[] sorted = Arrays.copyOf(recent, Math.min(samples, WINDOW));
+        Arrays.sort(sorted);
+        return Math.max(minDelayMillis, sorted[(int) Math.ceil(0.95 * sorted.length) - 1]);
+    }
+
+    /**
+     * Records how long a check of an assignment took to be decided.
+     *
+     * @param assignment The fingerprint of the reference function.
+     * @param elapsedMillis The duration in milliseconds.
+     */
+    synchronized void record(String assignment, long elapsedMillis) {
+        long[] recent = durations.computeIfAbsent(assignment, key -> new long[WINDOW]);
+        int samples = sampleCounts.getOrDefault(assignment, 0);
+        recent[samples % WINDOW] = elapsedMillis;
+        sampleCounts.put(assignment, samples + 1);
+    }
+
+    /**
+     * Reserves an idle hedging thread for a check, to be given back with {@link #release()} once the check ends.
+     *
+     * @return True if a thread was reserved, false if all are busy or the policy has been closed.
+     */
+    boolean tryReserve() {
+        return isOpen() && idleHedgers.tryAcquire();
+    }
+
+    /**
+     * Gives back a hedging thread reserved with {@link #tryReserve()}.
+     */
+    void release() {
+        idleHedgers.release();
+    }
+
+    /**
+     * Schedules a hedged attempt on a reserved hedging thread.
+     *
+     * @param attempt The attempt.
+     * @param delayMillis The delay before it starts.
+     * @return The future of the attempt, used to cancel it if the check finishes first.
+     */
+    ScheduledFuture<?> schedule(Runnable attempt, long delayMillis) {
+        return hedgers.schedule(attempt, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the random seed of the next hedged attempt, never the default seed 0.
+     *
+     * @return The seed.
+     */
+    int nextSeed() {
+        return (seeds.incrementAndGet() & Integer.MAX_VALUE) | 1;
+    }
+
+    /**
+     * Records that a hedged attempt ran.
+     *
+     * @param won Whether it decided the check before the original attempt.
+     */
+    void recordHedge(boolean won) {
+        hedges.incrementAndGet();
+        if (won) {
+            hedgeWins.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of hedged attempts that ran.
+     *
+     * @return The number of hedges.
+     */
+    public long getHedges() {
+        return hedges.get();
+    }
+
+    /**
+     * Gets the number of hedged attempts that decided their check first.
+     *
+     * @return The number of wins.
+     */
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    /**
+     * Stops the hedging threads. Checks started afterwards are not hedged.
+     */
+    @Override
+    public void close() {
+        hedgers.shutdownNow();
+    }
+
+    /**
+     * Checks whether the policy can still hedge.
+     *
+     * @return True if the policy has not been closed.
+     */
+    boolean isOpen() {
+        return !hedgers.isShutdown();
+    }
+}
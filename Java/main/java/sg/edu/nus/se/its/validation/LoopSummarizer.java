@@ -0,0 +1,386 @@
+package sg.edu.nus.se.its.validation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.javatuples.Pair;
+
+import com.microsoft.z3.ArithExpr;
+import com.microsoft.z3.BoolExpr;
+import com.microsoft.z3.Context;
+import com.microsoft.z3.Expr;
+import com.microsoft.z3.IntExpr;
+import com.microsoft.z3.IntNum;
+import com.microsoft.z3.RealExpr;
+
+import sg.edu.nus.se.its.model.Expression;
+import sg.edu.nus.se.its.model.Operation;
+import sg.edu.nus.se.its.model.Variable;
+
+/**
+ * The LoopSummarizer class replaces counted loops by closed forms while SolverWrapper executes a function, so
+ * that they cost the same whatever their bound, including a symbolic one. A loop qualifies if its header
+ * compares an integer index with a bound using {@code <} or {@code <=}, or the bound with the index using
+ * {@code >} or {@code >=}, its body is a chain of locations without branches leading back to the header, the
+ * body adds a positive constant to the index and leaves the bound unchanged, and every other variable the body
+ * assigns either accumulates a polynomial of degree at most two in the index over loop invariants, or is
+ * overwritten with a value of the index and loop invariants.
+ *
+ * <p>The body is executed once over fresh symbols for the variables it assigns; the resulting terms show the
+ * shape of each update. The trip count is {@code max(0, ceil((bound - start) / step))}, and accumulations are
+ * summed with binomial coefficients of it using their finite differences. A loop that does not qualify is
+ * left unchanged and unrolled as before.
+ */
+final class LoopSummarizer {
+    /**
+     * Largest number of locations of a summarized loop body.
+     */
+    private static final int MAX_BODY_LOCATIONS = 16;
+
+    private final SolverWrapper solverWrapper;
+    private final HashMap<Integer, ArrayList<Pair<String, Expression>>> expressionLists;
+    private final HashMap<Integer, HashMap<Boolean, Integer>> transitions;
+
+    /**
+     * The loop of each header visited so far, null for headers of loops that do not qualify.
+     */
+    private final Map<Integer, Loop> loops = new HashMap<>();
+    private int symbols;
+
+    /**
+     * Constructs a LoopSummarizer for one execution of a function.
+     *
+     * @param solverWrapper The solver wrapper executing the function.
+     * @param expressionLists The expressions of the function by location.
+     * @param transitions The transitions of the function by location.
+     */
+    LoopSummarizer(SolverWrapper solverWrapper,
+        HashMap<Integer, ArrayList<Pair<String, Expression>>> expressionLists,
+        HashMap<Integer, HashMap<Boolean, Integer>> transitions) {
+        this.solverWrapper = solverWrapper;
+        this.expressionLists = expressionLists;
+        this.transitions = transitions;
+    }
+
+    /**
+     * A counted loop, as found in the function.
+     */
+    private static final class Loop {
+        final int exit;
+        final String index;
+        final Expression bound;
+        final boolean strict;
+        final List<Pair<String, Expression>> body;
+        final Set<String> assigned;
+
+        Loop(int exit, String index, Expression bound, boolean strict, List<Pair<String, Expression>> body,
+            Set<String> assigned) {
+            this.exit = exit;
+            this.index = index;
+            this.bound = bound;
+            this.strict = strict;
+            this.body = body;
+            this.assigned = assigned;
+        }
+    }
+
+    /**
+     * Executes the loop starting at a location in closed form, if it qualifies.
+     *
+     * @param loc The location about to be executed.
+     * @param varRemapping The variable remapping map.
+     * @return The location after the loop, with every variable updated as if the loop had run, or null if the
+     *     location is not the header of a loop that qualifies, in which case no variable is changed.
+     */
+    @SuppressWarnings("rawtypes")
+    Integer summarize(int loc, Map<String, String> varRemapping) {
+        if (!loops.containsKey(loc)) {
+            loops.put(loc, find(loc));
+        }
+        Loop loop = loops.get(loc);
+        if (loop == null) {
+            return null;
+        }
+
+        Map<String, Expr> before = new LinkedHashMap<>();
+        for (String name : loop.assigned) {
+            before.put(name, solverWrapper.getVariable(varRemapping, name));
+        }
+        before.put("$cond", solverWrapper.getVariable(varRemapping, "$cond"));
+        Map<String, Expr> after = null;
+        try {
+            after = close(loop, before, varRemapping);
+        } catch (RuntimeException e) {
+            // Updates of unsupported sorts, or unset variables read by the body
+            after = null;
+        }
+        Map<String, Expr> values = after == null ? before : after;
+        for (Map.Entry<String, Expr> value : values.entrySet()) {
+            solverWrapper.updateVariable(varRemapping, value.getKey(), value.getValue());
+        }
+        return after == null ? null : loop.exit;
+    }
+
+    /**
+     * Computes the values of the variables assigned by a loop after it has run.
+     *
+     * @param loop The loop.
+     * @param before The values of the variables before the loop.
+     * @param varRemapping The variable remapping map.
+     * @return The values after the loop, or null if the loop does not qualify.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Map<String, Expr> close(Loop loop, Map<String, Expr> before, Map<String, String> varRemapping) {
+        Context ctx = solverWrapper.getCtx();
+        Expr start = before.get(loop.index);
+        if (!(start instanceof IntExpr)) {
+            return null;
+        }
+        Map<String, Expr> fresh = new HashMap<>();
+        for (String name : loop.assigned) {
+            Expr value = before.get(name);
+            if (value != null) {
+                Expr symbol = ctx.mkConst("loop!" + symbols++ + "!" + name, value.getSort());
+                fresh.put(name, symbol);
+                solverWrapper.updateVariable(varRemapping, name, symbol);
+            }
+        }
+        Set<Expr> freshSymbols = new HashSet<>(fresh.values());
+
+        Expr bound = ExpressionFactory.parseExpression(loop.bound).evaluate(solverWrapper, varRemapping);
+        if (!(bound instanceof IntExpr) || mentions(bound, freshSymbols)) {
+            return null;
+        }
+        for (Pair<String, Expression> assignment : loop.body) {
+            solverWrapper.evaluateExpression(varRemapping, assignment.getValue0(), assignment.getValue1());
+        }
+
+        // The index must grow by a positive constant
+        Expr index = fresh.get(loop.index);
+        Expr step = ctx.mkSub(solverWrapper.getVariable(varRemapping, loop.index), index).simplify();
+        if (!(step instanceof IntNum) || ((IntNum) step).getInt64() <= 0
+            || ((IntNum) step).getInt64() > Integer.MAX_VALUE) {
+            return null;
+        }
+        IntExpr span = (IntExpr) ctx.mkSub(bound, start);
+        IntExpr count = loop.strict
+            ? (IntExpr) ctx.mkDiv(ctx.mkAdd(span, ctx.mkSub(step, ctx.mkInt(1))), step)
+            : (IntExpr) ctx.mkAdd(ctx.mkDiv(span, step), ctx.mkInt(1));
+        IntExpr trips = (IntExpr) ctx.mkITE(ctx.mkGt(count, ctx.mkInt(0)), count, ctx.mkInt(0)).simplify();
+        BoolExpr entered = ctx.mkGt(trips, ctx.mkInt(0));
+
+        Map<String, Expr> after = new LinkedHashMap<>();
+        for (String name : loop.assigned) {
+            Expr updated = solverWrapper.getVariable(varRemapping, name);
+            Expr symbol = fresh.get(name);
+            Expr value;
+            if (name.equals(loop.index)) {
+                value = ctx.mkAdd(start, ctx.mkMul(step, trips));
+            } else if (updated == null) {
+                return null;
+            } else if (symbol == null || !mentions(updated, Set.of(symbol))) {
+                // Overwritten on every iteration: the value of the last one
+                Expr last = updated.substitute(index,
+                    ctx.mkAdd(start, ctx.mkMul(step, ctx.mkSub(trips, ctx.mkInt(1)))));
+                Expr initial = before.get(name) != null ? before.get(name) : ctx.mkConst("NULL", last.getSort());
+                value = ctx.mkITE(entered, last, initial);
+            } else {
+                if (!(updated instanceof ArithExpr)) {
+                    return null;
+                }
+                Expr increment = ctx.mkSub(updated, symbol).simplify();
+                Expr total = sum(increment, index, start, (IntNum) step, trips, freshSymbols);
+                if (total == null) {
+                    return null;
+                }
+                value = ctx.mkAdd(before.get(name), total);
+            }
+            value = value.simplify();
+            if (mentions(value, freshSymbols)) {
+                return null;
+            }
+            after.put(name, value);
+        }
+        // The header's condition was false when the loop left
+        after.put("$cond", ctx.mkFalse());
+        return after;
+    }
+
+    /**
+     * Sums an increment over the iterations of a loop, if it is a polynomial of degree at most two in the index.
+     * With {@code g(k)} the increment on iteration {@code k}, the sum over {@code n} iterations is
+     * {@code n g(0) + C(n, 2) d1 + C(n, 3) d2}, where {@code d1} and {@code d2} are the first and constant second
+     * differences of {@code g} at 0.
+     *
+     * @param increment The increment of one iteration.
+     * @param index The symbol of the index at the start of the iteration.
+     * @param start The value of the index before the loop.
+     * @param step The increment of the index.
+     * @param trips The number of iterations.
+     * @param freshSymbols The symbols the increment must not depend on, besides the index.
+     * @return The sum, or null if the increment is not such a polynomial.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Expr sum(Expr increment, Expr index, Expr start, IntNum step, IntExpr trips, Set<Expr> freshSymbols) {
+        Context ctx = solverWrapper.getCtx();
+        Set<Expr> others = new HashSet<>(freshSymbols);
+        others.remove(index);
+        if (mentions(increment, others)) {
+            return null;
+        }
+        IntExpr k = ctx.mkIntConst("loop!" + symbols++ + "!k");
+        Expr atK = increment.substitute(index, ctx.mkAdd(start, ctx.mkMul(step, k)));
+        Expr first = ctx.mkSub(atK.substitute(k, ctx.mkAdd(k, ctx.mkInt(1))), atK).simplify();
+        Expr second = ctx.mkSub(first.substitute(k, ctx.mkAdd(k, ctx.mkInt(1))), first).simplify();
+        Set<Expr> iteration = Set.of(k);
+        if (mentions(second, iteration)) {
+            return null;
+        }
+
+        Expr pairs = ctx.mkDiv(ctx.mkMul(trips, ctx.mkSub(trips, ctx.mkInt(1))), ctx.mkInt(2));
+        Expr triples = ctx.mkDiv(ctx.mkMul(trips, ctx.mkSub(trips, ctx.mkInt(1)), ctx.mkSub(trips, ctx.mkInt(2))),
+            ctx.mkInt(6));
+        Expr count = trips;
+        if (increment instanceof RealExpr) {
+            count = ctx.mkInt2Real(trips);
+            pairs = ctx.mkInt2Real((IntExpr) pairs);
+            triples = ctx.mkInt2Real((IntExpr) triples);
+        }
+        Expr initial = atK.substitute(k, ctx.mkInt(0));
+        return ctx.mkAdd(ctx.mkMul(count, initial), ctx.mkMul(pairs, first.substitute(k, ctx.mkInt(0))),
+            ctx.mkMul(triples, second));
+    }
+
+    /**
+     * Checks whether a term contains any of a set of symbols.
+     *
+     * @param term The term.
+     * @param symbols The symbols.
+     * @return True if the term contains one of them.
+     */
+    @SuppressWarnings("rawtypes")
+    private static boolean mentions(Expr term, Set<Expr> symbols) {
+        if (symbols.isEmpty()) {
+            return false;
+        }
+        Set<Expr> visited = new HashSet<>();
+        Deque<Expr> pending = new ArrayDeque<>();
+        pending.push(term);
+        while (!pending.isEmpty()) {
+            Expr next = pending.pop();
+            if (!visited.add(next)) {
+                continue;
+            }
+            if (symbols.contains(next)) {
+                return true;
+            }
+            if (next.isApp()) {
+                for (Expr arg : next.getArgs()) {
+                    pending.push(arg);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the counted loop whose header is a location.
+     *
+     * @param header The location.
+     * @return The loop, or null if the location is not the header of a loop that qualifies.
+     */
+    private Loop find(int header) {
+        ArrayList<Pair<String, Expression>> expressions = expressionLists.get(header);
+        HashMap<Boolean, Integer> branches = transitions.get(header);
+        if (expressions == null || expressions.isEmpty() || !expressions.get(0).getValue0().equals("$cond")
+            || branches == null || !branches.containsKey(true) || !branches.containsKey(false)
+            || !(expressions.get(0).getValue1() instanceof Operation)) {
+            return null;
+        }
+
+        // The body is a chain of locations without branches, back to the header
+        List<Pair<String, Expression>> body = new ArrayList<>();
+        Set<Integer> visited = new HashSet<>();
+        int loc = branches.get(true);
+        while (loc != header) {
+            ArrayList<Pair<String, Expression>> locExprs = expressionLists.get(loc);
+            HashMap<Boolean, Integer> transition = transitions.get(loc);
+            if (!visited.add(loc) || visited.size() > MAX_BODY_LOCATIONS || locExprs == null || transition == null
+                || !transition.containsKey(true)
+                || (!locExprs.isEmpty() && locExprs.get(0).getValue0().equals("$cond"))) {
+                return null;
+            }
+            body.addAll(locExprs);
+            loc = transition.get(true);
+        }
+        Set<String> assigned = new LinkedHashSet<>();
+        for (Pair<String, Expression> assignment : body) {
+            // Ranges write variables besides the assigned one
+            Expression expression = assignment.getValue1();
+            if (containsOperation(expression, "range") || containsOperation(expression, "len")) {
+                return null;
+            }
+            assigned.add(assignment.getValue0());
+        }
+
+        Operation condition = (Operation) expressions.get(0).getValue1();
+        if (condition.getArgs().size() != 2) {
+            return null;
+        }
+        Expression left = condition.getArgs().get(0);
+        Expression right = condition.getArgs().get(1);
+        switch (condition.getName()) {
+        case "Lt":
+        case "<":
+            return counted(branches.get(false), left, right, true, body, assigned);
+        case "LtE":
+        case "<=":
+            return counted(branches.get(false), left, right, false, body, assigned);
+        case "Gt":
+        case ">":
+            return counted(branches.get(false), right, left, true, body, assigned);
+        case "GtE":
+        case ">=":
+            return counted(branches.get(false), right, left, false, body, assigned);
+        default:
+            return null;
+        }
+    }
+
+    private static Loop counted(int exit, Expression index, Expression bound, boolean strict,
+        List<Pair<String, Expression>> body, Set<String> assigned) {
+        if (!(index instanceof Variable)) {
+            return null;
+        }
+        String name = ((Variable) index).getName();
+        // The parser service adds an extra ' to the end of variable names
+        if (name.contains("'")) {
+            name = name.substring(0, name.length() - 1);
+        }
+        return assigned.contains(name) ? new Loop(exit, name, bound, strict, body, assigned) : null;
+    }
+
+    private static boolean containsOperation(Expression expression, String name) {
+        if (!(expression instanceof Operation)) {
+            return false;
+        }
+        Operation operation = (Operation) expression;
+        if (operation.getName().equals(name)) {
+            return true;
+        }
+        for (Expression arg : operation.getArgs()) {
+            if (containsOperation(arg, name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,96 @@
+package sg.edu.nus.se.its.validation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.javatuples.Pair;
+
+/**
+ * The MappingHints class orders the candidate parameter mappings of a submission so that the likely one is checked
+ * first. Mappings that proved earlier submissions of the same assignment equivalent come first, as recorded by
+ * {@link StrategySelector} and handed over through {@link StrategyDecision#getMappingOrder()}; the others are
+ * ranked by how many parameters keep their name, then by how many keep their position. Since most correct
+ * submissions of an assignment map their parameters the same way, they are usually decided by the first solver
+ * call instead of after the wrong bijections have been refuted.
+ */
+public final class MappingHints {
+    private MappingHints() {
+    }
+
+    /**
+     * Orders candidate mappings, most likely first. Mappings that rank the same keep their relative order.
+     *
+     * @param mappings The candidate mappings.
+     * @param referenceParams The reference parameter names by type, in declaration order.
+     * @param submissionParams The submission parameter names by type, in declaration order.
+     * @param preferred Signatures from {@link StrategySelector#mappingSignature(List, Map, Map)} of mappings to put
+     *     before all others, best first, e.g. those that won before.
+     * @return The ordered mappings.
+     */
+    public static List<List<Pair<Pair<String, String>, String>>> order(
+        List<List<Pair<Pair<String, String>, String>>> mappings,
+        Map<String, ArrayList<String>> referenceParams,
+        Map<String, ArrayList<String>> submissionParams,
+        List<String> preferred) {
+        // One rank per mapping, compared in order: preferred position, kept names, kept positions
+        int[][] ranks = new int[mappings.size()][];
+        for (int i = 0; i < mappings.size(); i++) {
+            List<Pair<Pair<String, String>, String>> mapping = mappings.get(i);
+            int preferredIndex = preferred.isEmpty()
+                ? -1
+                : preferred.indexOf(StrategySelector.mappingSignature(mapping, referenceParams, submissionParams));
+            ranks[i] = new int[] {
+                preferredIndex < 0 ? preferred.size() : preferredIndex,
+                -keptNames(mapping),
+                -keptPositions(mapping, referenceParams, submissionParams),
+                i,
+            };
+        }
+        return Arrays.stream(ranks)
+            .sorted(Comparator.comparing(rank -> rank, Arrays::compare))
+            .map(rank -> mappings.get(rank[3]))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Counts the parameters a mapping maps to a parameter of the same name.
+     *
+     * @param mapping The mapping.
+     * @return The number of parameters.
+     */
+    private static int keptNames(List<Pair<Pair<String, String>, String>> mapping) {
+        int kept = 0;
+        for (Pair<Pair<String, String>, String> pair : mapping) {
+            if (pair.getValue0().getValue0().equals(pair.getValue0().getValue1())) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Counts the parameters a mapping maps to the parameter at the same position among those of their type.
+     *
+     * @param mapping The mapping.
+     * @param referenceParams The reference parameter names by type, in declaration order.
+     * @param submissionParams The submission parameter names by type, in declaration order.
+     * @return The number of parameters.
+     */
+    private static int keptPositions(List<Pair<Pair<String, String>, String>> mapping,
+        Map<String, ArrayList<String>> referenceParams,
+        Map<String, ArrayList<String>> submissionParams) {
+        int kept = 0;
+        for (Pair<Pair<String, String>, String> pair : mapping) {
+            String type = pair.getValue1();
+            if (referenceParams.get(type).indexOf(pair.getValue0().getValue0())
+                == submissionParams.get(type).indexOf(pair.getValue0().getValue1())) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,203 @@
+package sg.edu.nus.se.its.validation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.javatuples.Pair;
+
+import sg.edu.nus.se.its.model.Constant;
+import sg.edu.nus.se.its.model.Expression;
+import sg.edu.nus.se.its.model.Operation;
+import sg.edu.nus.se.its.model.Variable;
+
+/**
+ * The OutputSlicer class removes the assignments of a function that cannot affect its outputs, so that they are
+ * neither evaluated nor encoded for the solver. An assignment is kept if it defines a variable read by the return
+ * value, the output or a branch condition, directly or through other kept assignments. Since every branch
+ * condition is kept, the sliced function takes the same path through its locations as the original one.
+ *
+ * <p>A location whose first expression assigns {@code $cond} is a branch, of which only the condition is
+ * executed; the other expressions there are removed. A location that assigns {@code $cond} further down is kept
+ * whole, so that slicing never turns it into a branch.
+ *
+ * <p>The slice is flow insensitive: an assignment is kept if its variable is read anywhere, which is safe for
+ * loops and needs no reaching definitions.
+ */
+public final class OutputSlicer {
+    /**
+     * Variables that are always relevant.
+     */
+    private static final List<String> OUTPUTS = List.of("$ret", "$out");
+
+    /**
+     * Variables written by a range and read by len, besides the assigned variable.
+     */
+    private static final List<String> RANGE_VARIABLES = List.of("range_lower", "range_upper", "range_step");
+
+    private OutputSlicer() {
+    }
+
+    /**
+     * Slices the expressions of a function.
+     *
+     * @param locExprs The expressions of the function by location.
+     * @return The relevant expressions by location, with every location kept and expressions in their original
+     *     order, or the given map itself if every expression is relevant.
+     */
+    public static HashMap<Integer, ArrayList<Pair<String, Expression>>> slice(
+        HashMap<Integer, ArrayList<Pair<String, Expression>>> locExprs) {
+        Set<String> relevant = relevantVariables(locExprs);
+        HashMap<Integer, ArrayList<Pair<String, Expression>>> sliced = new HashMap<>();
+        boolean removed = false;
+        for (Map.Entry<Integer, ArrayList<Pair<String, Expression>>> entry : locExprs.entrySet()) {
+            ArrayList<Pair<String, Expression>> expressions = entry.getValue();
+            ArrayList<Pair<String, Expression>> kept;
+            if (isBranch(expressions)) {
+                kept = new ArrayList<>(expressions.subList(0, 1));
+            } else if (assignsCondition(expressions)) {
+                kept = expressions;
+            } else {
+                kept = new ArrayList<>(expressions.size());
+                for (Pair<String, Expression> assignment : expressions) {
+                    if (isRelevant(assignment, relevant)) {
+                        kept.add(assignment);
+                    }
+                }
+            }
+            removed |= kept.size() < expressions.size();
+            sliced.put(entry.getKey(), kept);
+        }
+        return removed ? sliced : locExprs;
+    }
+
+    /**
+     * Computes the variables whose values can affect the outputs or the path taken.
+     *
+     * @param locExprs The expressions of the function by location.
+     * @return The names of the variables.
+     */
+    static Set<String> relevantVariables(HashMap<Integer, ArrayList<Pair<String, Expression>>> locExprs) {
+        // The variables read by the assignments to each variable, and those read by what is always kept
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        Set<String> criteria = new HashSet<>(OUTPUTS);
+        for (ArrayList<Pair<String, Expression>> expressions : locExprs.values()) {
+            if (isBranch(expressions)) {
+                collectReads(expressions.get(0).getValue1(), criteria);
+                continue;
+            }
+            boolean keptWhole = assignsCondition(expressions);
+            for (Pair<String, Expression> assignment : expressions) {
+                Set<String> reads = new HashSet<>();
+                collectReads(assignment.getValue1(), reads);
+                if (keptWhole) {
+                    criteria.addAll(reads);
+                }
+                dependencies.computeIfAbsent(assignment.getValue0(), key -> new HashSet<>()).addAll(reads);
+                if (containsOperation(assignment.getValue1(), "range")) {
+                    for (String rangeVariable : RANGE_VARIABLES) {
+                        dependencies.computeIfAbsent(rangeVariable, key -> new HashSet<>()).addAll(reads);
+                    }
+                }
+            }
+        }
+
+        Set<String> relevant = new HashSet<>(criteria);
+        Deque<String> worklist = new ArrayDeque<>(criteria);
+        while (!worklist.isEmpty()) {
+            for (String read : dependencies.getOrDefault(worklist.pop(), Set.of())) {
+                if (relevant.add(read)) {
+                    worklist.push(read);
+                }
+            }
+        }
+        return relevant;
+    }
+
+    /**
+     * Checks whether a location is a branch, as executed by SolverWrapper.
+     *
+     * @param expressions The expressions of the location.
+     * @return True if the first expression assigns the branch condition.
+     */
+    private static boolean isBranch(List<Pair<String, Expression>> expressions) {
+        return !expressions.isEmpty() && expressions.get(0).getValue0().equals("$cond");
+    }
+
+    private static boolean assignsCondition(List<Pair<String, Expression>> expressions) {
+        return expressions.stream().anyMatch(assignment -> assignment.getValue0().equals("$cond"));
+    }
+
+    /**
+     * Checks whether an assignment defines a relevant variable.
+     *
+     * @param assignment The assigned variable and its expression.
+     * @param relevant The relevant variables.
+     * @return True if the assignment must be kept.
+     */
+    private static boolean isRelevant(Pair<String, Expression> assignment, Set<String> relevant) {
+        if (relevant.contains(assignment.getValue0())) {
+            return true;
+        }
+        return containsOperation(assignment.getValue1(), "range")
+            && RANGE_VARIABLES.stream().anyMatch(relevant::contains);
+    }
+
+    /**
+     * Collects the variables an expression reads, following how
+     * {@link sg.edu.nus.se.its.validation.solverexpressions.BaseExpression} tells variables from literals.
+     *
+     * @param expression The expression.
+     * @param reads The set to add the variable names to.
+     */
+    private static void collectReads(Expression expression, Set<String> reads) {
+        if (expression instanceof Operation) {
+            Operation operation = (Operation) expression;
+            if (operation.getName().equals("len")) {
+                reads.addAll(RANGE_VARIABLES);
+            }
+            for (Expression arg : operation.getArgs()) {
+                collectReads(arg, reads);
+            }
+        } else if (expression instanceof Variable) {
+            addRead(((Variable) expression).getName(), reads);
+        } else if (expression instanceof Constant) {
+            addRead(((Constant) expression).getValue(), reads);
+        }
+    }
+
+    private static void addRead(String value, Set<String> reads) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        char first = value.charAt(0);
+        if (Character.isDigit(first) || first == '-' || value.equalsIgnoreCase("true")
+            || value.equalsIgnoreCase("false") || ExpressionFactory.isReservedKeyword(value)
+            || (value.length() > 1 && first == '"' && value.charAt(value.length() - 1) == '"')) {
+            return;
+        }
+        // The parser service adds an extra ' to the end of variable names
+        reads.add(value.contains("'") ? value.substring(0, value.length() - 1) : value);
+    }
+
+    private static boolean containsOperation(Expression expression, String name) {
+        if (!(expression instanceof Operation)) {
+            return false;
+        }
+        Operation operation = (Operation) expression;
+        if (operation.getName().equals(name)) {
+            return true;
+        }
+        for (Expression arg : operation.getArgs()) {
+            if (containsOperation(arg, name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,109 @@
+package sg.edu.nus.se.its.validation;
+
+/**
+ * The OverloadPolicy class decides when the solver lane is saturated, from the number of validations in flight
+ * and a running average of their latency.
+ */
+public class OverloadPolicy {
+    /**
+     * Weight of the newest validation in the running average of latencies.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    private final int maxInFlight;
+    private final long maxLatencyMillis;
+    private int inFlight;
+    private double averageLatencyMillis;
+
+    /**
+     * Constructs an OverloadPolicy.
+     *
+     * @param maxInFlight Number of validations in flight at which the lane counts as saturated.
+     * @param maxLatencyMillis Average latency (in milliseconds) above which the lane counts as saturated.
+     */
+    public OverloadPolicy(int maxInFlight, long maxLatencyMillis) {
+        if (maxInFlight <= 0 || maxLatencyMillis <= 0) {
+            throw new IllegalArgumentException("Overload thresholds must be positive.");
+        }
+        this.maxInFlight = maxInFlight;
+        this.maxLatencyMillis = maxLatencyMillis;
+    }
+
+    /**
+     * Admits a new validation unless the lane is overloaded, recording its start in the same step so that
+     * concurrent callers cannot all pass the check at once.
+     *
+     * @return True if the validation was admitted and must be ended with {@link #end(long)}, false if it should
+     *     be degraded.
+     */
+    public synchronized boolean tryBegin() {
+        if (isOverloaded()) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Admits a deferred validation if there is room for it, recording its start in the same step.
+     *
+     * @return True if the validation was admitted and must be ended with {@link #end(long)}, false otherwise.
+     * @see #hasCapacity()
+     */
+    public synchronized boolean tryBeginDeferred() {
+        if (!hasCapacity()) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Records the end of a validation.
+     *
+     * @param elapsedMillis The duration of the validation in milliseconds.
+     */
+    public synchronized void end(long elapsedMillis) {
+        inFlight--;
+        averageLatencyMillis = averageLatencyMillis == 0
+            ? elapsedMillis
+            : (1 - SMOOTHING) * averageLatencyMillis + SMOOTHING * elapsedMillis;
+    }
+
+    /**
+     * Checks if new validations should be degraded.
+     *
+     * @return True if too many validations are in flight or they have been too slow lately.
+     */
+    public synchronized boolean isOverloaded() {
+        return inFlight >= maxInFlight || averageLatencyMillis > maxLatencyMillis;
+    }
+
+    /**
+     * Checks if there is room for a deferred validation. Latency is not considered, as only running
+     * validations bring the average back down.
+     *
+     * @return True if fewer validations than the threshold are in flight.
+     */
+    public synchronized boolean hasCapacity() {
+        return inFlight < maxInFlight;
+    }
+
+    /**
+     * Gets the number of validations in flight.
+     *
+     * @return The number of validations.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Gets the running average of the validation latency.
+     *
+     * @return The average in milliseconds, 0 before the first validation.
+     */
+    public synchronized double getAverageLatencyMillis() {
+        return averageLatencyMillis;
+    }
+}
@@ -1,5 +1,6 @@
 package sg.edu.nus.se.its.validation;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -8,27 +9,59 @@ import org.javatuples.Pair;
 import sg.edu.nus.se.its.model.Expression;
 import sg.edu.nus.se.its.model.Function;
 import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.differential.DifferentialTester;
+import sg.edu.nus.se.its.validation.events.ValidationEvent;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Verification module based on program equivalence checking.
  */
-public class PatchValidator{
+public class PatchValidator implements AutoCloseable {
   /**
-   * Wrapper for the solver.
+   * Idle solver wrappers. Each validation leases one, so concurrent validations never share a context.
    */
-  private final SolverWrapper solverWrapper;
+  private final BlockingQueue<SolverWrapper> solverWrappers;
+
+  /**
+   * Every solver wrapper owned by this validator.
+   */
+  private final List<SolverWrapper> allSolverWrappers = new ArrayList<>();
+
+  /**
+   * Number of concrete inputs each candidate mapping is run on before the solver checks the mappings.
+   */
+  private static final int PROBE_SAMPLES = 8;
+
+  /**
+   * Number of blocks after which a concrete run of a mapping probe is abandoned.
+   */
+  private static final int PROBE_MAX_STEPS = 10_000;
+
+  /**
+   * Counter example of the last validation.
+   */
+  private volatile String counterExample = "";
 
   /**
    * Executor service for timeout checking.
    */
-  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final ExecutorService executor;
+
+  /**
+   * Bounded platform pool running the native solver calls in virtual-thread mode, null otherwise.
+   */
+  private final ExecutorService solverExecutor;
 
   /**
    * Timeout for the verification process(in seconds).
@@ -36,24 +69,226 @@ public class PatchValidator{
   private final long TIMEOUT = 60;
 
   /**
-   * Debug flag.
+   * Whether the validator has been closed.
    */
-  public static final boolean DEBUG = true;
+  private volatile boolean closed;
 
   /**
-   * Constructs a new PatchValidator.
+   * Debug flag, on unless -Dits.validation.debug=false is given.
+   */
+  public static final boolean DEBUG = Boolean.parseBoolean(System.getProperty("its.validation.debug", "true"));
+
+  /**
+   * Constructs a new PatchValidator that runs one validation at a time.
    */
   public PatchValidator() {
-    this.solverWrapper = new SolverWrapper();
+    this(1);
+  }
+
+  /**
+   * Constructs a new PatchValidator that can be shared by several threads.
+   *
+   * @param concurrency Maximum number of validations solved at the same time; further ones wait for a solver.
+   */
+  public PatchValidator(int concurrency) {
+    this(concurrency, false);
+  }
+
+  /**
+   * Constructs a new PatchValidator, optionally waiting for solvers on virtual threads. In virtual-thread mode
+   * queued validations only hold a virtual thread, while the native solver calls run on a platform pool no
+   * larger than the number of cores. Virtual threads need JDK 21; on older runtimes the validator falls back
+   * to platform threads.
+   *
+   * @param concurrency Maximum number of validations solved at the same time; further ones wait for a solver.
+   * @param virtualThreads True to run the validations on virtual threads.
+   */
+  public PatchValidator(int concurrency, boolean virtualThreads) {
+    if (concurrency <= 0) {
+      throw new IllegalArgumentException("Concurrency must be positive.");
+    }
+    ExecutorService virtualExecutor = virtualThreads ? newVirtualThreadExecutor() : null;
+    if (virtualExecutor == null) {
+      this.executor = Executors.newCachedThreadPool();
+      this.solverExecutor = null;
+    } else {
+      this.executor = virtualExecutor;
+      this.solverExecutor = Executors.newFixedThreadPool(
+          Math.min(concurrency, Runtime.getRuntime().availableProcessors()));
+    }
+    this.solverWrappers = new ArrayBlockingQueue<>(concurrency);
+    DifferentialTester mappingProbe = new DifferentialTester(PROBE_SAMPLES, 0, PROBE_MAX_STEPS);
+    for (int i = 0; i < concurrency; i++) {
+      SolverWrapper solverWrapper = new SolverWrapper();
+      solverWrapper.setMappingProbe(mappingProbe);
+      allSolverWrappers.add(solverWrapper);
+      solverWrappers.add(solverWrapper);
+    }
+  }
+
+  /**
+   * Sets the recorder for slow or inconclusive solver checks.
+   *
+   * @param slowQueryRecorder The recorder, or null to stop recording.
+   */
+  public void setSlowQueryRecorder(SlowQueryRecorder slowQueryRecorder) {
+    for (SolverWrapper solverWrapper : allSolverWrappers) {
+      solverWrapper.setSlowQueryRecorder(slowQueryRecorder);
+    }
+  }
+
+  /**
+   * Sets when the solver contexts are recycled, keeping native memory bounded in long-running processes.
+   *
+   * @param maxValidations Number of validations after which a context is recycled, 0 to disable.
+   * @param maxMegabytes Z3 memory usage (in megabytes) above which a context is recycled, 0 to disable.
+   */
+  public void setContextRecycling(int maxValidations, double maxMegabytes) {
+    for (SolverWrapper solverWrapper : allSolverWrappers) {
+      solverWrapper.setContextRecycling(maxValidations, maxMegabytes);
+    }
+  }
+
+  /**
+   * Sets whether each validation runs on a solver context of its own, released in bulk when it ends.
+   *
+   * @param scopedValidations True to scope the terms of each validation, false to share the solver contexts.
+   */
+  public void setScopedValidations(boolean scopedValidations) {
+    for (SolverWrapper solverWrapper : allSolverWrappers) {
+      solverWrapper.setScopedValidations(scopedValidations);
+    }
+  }
+
+  /**
+   * Sets the time limit of each solver check, after which the check gives up with an UNKNOWN outcome.
+   *
+   * @param solverTimeoutMillis The time limit in milliseconds, 0 for none.
+   */
+  public void setSolverTimeout(int solverTimeoutMillis) {
+    for (SolverWrapper solverWrapper : allSolverWrappers) {
+      solverWrapper.setSolverTimeout(solverTimeoutMillis);
+    }
+  }
+
+  /**
+   * Sets the policy for hedging straggling solver checks with a second attempt under another random seed.
+   *
+   * @param hedgingPolicy The policy, shared by all solver wrappers, or null to stop hedging.
+   */
+  public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+    for (SolverWrapper solverWrapper : allSolverWrappers) {
+      solverWrapper.setHedgingPolicy(hedgingPolicy);
+    }
+  }
+
+  /**
+   * Sets the selector that picks the solver strategy, time limit and mapping order of each validation from
+   * the statistics of earlier validations of the same assignment.
+   *
+   * @param strategySelector The selector, shared by all solver wrappers, or null to always use the default.
+   */
+  public void setStrategySelector(StrategySelector strategySelector) {
+    for (SolverWrapper solverWrapper : allSolverWrappers) {
+      solverWrapper.setStrategySelector(strategySelector);
+    }
+  }
+
+  /**
+   * Sets the tester that finds, on a few concrete inputs, the parameter mappings under which the programs
+   * disagree, so that the solver checks them after the others. A probe runs by default.
+   *
+   * @param mappingProbe The tester, or null to check the mappings in their hinted order only.
+   */
+  public void setMappingProbe(DifferentialTester mappingProbe) {
+    for (SolverWrapper solverWrapper : allSolverWrappers) {
+      solverWrapper.setMappingProbe(mappingProbe);
+    }
+  }
+
+  /**
+   * Gets the number of parameter mappings refuted on concrete inputs and therefore solved last.
+   *
+   * @return The number of mappings over all solver wrappers.
+   */
+  public long getRefutedMappings() {
+    long refuted = 0;
+    for (SolverWrapper solverWrapper : allSolverWrappers) {
+      refuted += solverWrapper.getRefutedMappings();
+    }
+    return refuted;
   }
 
   /**
-   * Gets the counter example from the solver.
+   * Sets whether functions that are the same program up to renaming and reordering are accepted as equivalent
+   * without the solver. Enabled by default.
+   *
+   * @param structuralMatching True to check the structure first, false to always use the solver.
+   */
+  public void setStructuralMatching(boolean structuralMatching) {
+    for (SolverWrapper solverWrapper : allSolverWrappers) {
+      solverWrapper.setStructuralMatching(structuralMatching);
+    }
+  }
+
+  /**
+   * Gets the number of validations decided by the structural match, without the solver.
+   *
+   * @return The number of validations over all solver wrappers.
+   */
+  public long getStructuralMatches() {
+    long matches = 0;
+    for (SolverWrapper solverWrapper : allSolverWrappers) {
+      matches += solverWrapper.getStructuralMatches();
+    }
+    return matches;
+  }
+
+  /**
+   * Sets whether counted loops are executed in closed form, with a symbolic trip count, rather than unrolled.
+   * Enabled by default.
+   *
+   * @param loopSummaries True to summarize counted loops, false to always unroll them.
+   */
+  public void setLoopSummaries(boolean loopSummaries) {
+    for (SolverWrapper solverWrapper : allSolverWrappers) {
+      solverWrapper.setLoopSummaries(loopSummaries);
+    }
+  }
+
+  /**
+   * Gets the number of loops executed in closed form.
+   *
+   * @return The number of loops over all solver wrappers.
+   */
+  public long getSummarizedLoops() {
+    long loops = 0;
+    for (SolverWrapper solverWrapper : allSolverWrappers) {
+      loops += solverWrapper.getSummarizedLoops();
+    }
+    return loops;
+  }
+
+  /**
+   * Gets the number of times the solver contexts have been recycled.
+   *
+   * @return The number of recycles over all solver wrappers.
+   */
+  public int getContextRecycles() {
+    int recycles = 0;
+    for (SolverWrapper solverWrapper : allSolverWrappers) {
+      recycles += solverWrapper.getContextRecycles();
+    }
+    return recycles;
+  }
+
+  /**
+   * Gets the counter example of the last validation.
    *
    * @return Counter example.
    */
   public String getCounterExample() {
-    return solverWrapper.getCounterExample();
+    return counterExample;
   }
 
   /**
@@ -64,7 +299,40 @@ public class PatchValidator{
    * @return True if the programs are equivalent, false otherwise.
    */
   public boolean patchValidation(Program referenceProgram, Program fixedProgram) {
-    Future<Boolean> future = null;
+    return validate(referenceProgram, fixedProgram).isEquivalent();
+  }
+
+  /**
+   * Checks if two programs are equivalent, reporting the solver statistics and term sizes of the check.
+   *
+   * @param referenceProgram Reference program.
+   * @param fixedProgram Fixed program.
+   * @return Result of the validation.
+   */
+  public ValidationResult validate(Program referenceProgram, Program fixedProgram) {
+    return validate(referenceProgram, fixedProgram, TimeUnit.SECONDS.toMillis(TIMEOUT));
+  }
+
+  /**
+   * Checks if two programs are equivalent within a time budget, which includes the wait for a free solver.
+   *
+   * @param referenceProgram Reference program.
+   * @param fixedProgram Fixed program.
+   * @param timeoutMillis Time after which the validation gives up with a TIMEOUT outcome.
+   * @return Result of the validation.
+   */
+  public ValidationResult validate(Program referenceProgram, Program fixedProgram, long timeoutMillis) {
+    if (closed) {
+      throw new IllegalStateException("The validator has been closed.");
+    }
+    Future<ValidationResult> future = null;
+    ValidationResult result = null;
+    long start = System.nanoTime();
+    long validationId = SolverWrapper.newValidationId();
+    AtomicBoolean timedOut = new AtomicBoolean();
+    AtomicReference<SolverWrapper> leased = new AtomicReference<>();
+    ValidationEvent event = new ValidationEvent();
+    event.begin();
 
     try {
       Pair<Function, Function> functions = extractFunctions(
@@ -72,27 +340,156 @@ public class PatchValidator{
 
       Function f0 = functions.getValue0();
       Function f1 = functions.getValue1();
+      event.referenceFunction = f0.getName();
+      event.submittedFunction = f1.getName();
 
       if (DEBUG) {
         PatchValidator.printExpressions("Reference", f0);
         PatchValidator.printExpressions("Fixed", f1);
       }
 
-      // Define a callable task for checking function equivalence
-      Callable<Boolean> task = () -> solverWrapper.areFunctionsEquivalent(f0, f1);
+      // Define a callable task for checking function equivalence on a leased solver wrapper
+      Callable<ValidationResult> task;
+      if (solverExecutor == null) {
+        task = () -> checkOnLease(solverWrappers.take(), f0, f1, validationId, timedOut, leased);
+      } else {
+        // The virtual thread only waits; the native solve runs on the bounded pool, which returns the wrapper
+        task = () -> {
+          SolverWrapper solverWrapper = solverWrappers.take();
+          Future<ValidationResult> solve;
+          try {
+            solve = solverExecutor.submit(
+                () -> checkOnLease(solverWrapper, f0, f1, validationId, timedOut, leased));
+          } catch (RejectedExecutionException e) {
+            solverWrappers.add(solverWrapper);
+            throw e;
+          }
+          try {
+            return solve.get();
+          } catch (InterruptedException e) {
+            if (solve.cancel(false)) {
+              solverWrappers.add(solverWrapper);
+            }
+            throw e;
+          }
+        };
+      }
 
       // Submit the task to the executor service and get a Future object
       future = executor.submit(task);
 
-      return future.get(TIMEOUT, TimeUnit.SECONDS);
+      result = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
     } catch (TimeoutException e) {
       System.err.println("Timeout occurred while checking function equivalence.");
-      // Attempt to cancel the execution
+      // Attempt to cancel the execution; the solver ignores thread interrupts, so stop it through its context.
+      // The id keeps a wrapper that has moved on to another validation running. A lease that starts after this
+      // point sees the flag and interrupts itself.
       future.cancel(true);
-      return false;
+      timedOut.set(true);
+      SolverWrapper solverWrapper = leased.get();
+      if (solverWrapper != null) {
+        solverWrapper.interrupt(validationId);
+      }
+      result = ValidationResult.withoutSolver(ValidationResult.Outcome.TIMEOUT, 0);
     } catch (Exception e) {
       e.printStackTrace();
-      return false;
+      result = ValidationResult.withoutSolver(ValidationResult.Outcome.ERROR, 0);
+    } finally {
+      if (event.shouldCommit()) {
+        event.validationId = validationId;
+        event.equivalent = result != null && result.isEquivalent();
+        event.timedOut = result != null && result.getOutcome() == ValidationResult.Outcome.TIMEOUT;
+        event.commit();
+      }
+    }
+    counterExample = result.getCounterExample();
+    return result.withElapsedMillis(SolverWrapper.elapsedMillisSince(start));
+  }
+
+  /**
+   * Checks two functions on a leased solver wrapper and returns the wrapper to the pool.
+   *
+   * @param solverWrapper The leased solver wrapper.
+   * @param f0 Reference function.
+   * @param f1 Fixed function.
+   * @param validationId The identifier of the validation.
+   * @param timedOut Whether the validation has timed out.
+   * @param leased Holder for the wrapper while the check runs.
+   * @return Result of the check.
+   */
+  private ValidationResult checkOnLease(SolverWrapper solverWrapper, Function f0, Function f1,
+      long validationId, AtomicBoolean timedOut, AtomicReference<SolverWrapper> leased) {
+    leased.set(solverWrapper);
+    // The timeout sets its flag before reading the lease, so one of the two sides interrupts the wrapper
+    if (timedOut.get()) {
+      solverWrapper.interrupt(validationId);
+    }
+    try {
+      return solverWrapper.checkEquivalence(f0, f1, validationId);
+    } finally {
+      leased.set(null);
+      solverWrappers.add(solverWrapper);
+    }
+  }
+
+  /**
+   * Creates an executor starting a virtual thread per task, if the runtime supports them.
+   *
+   * @return The executor, or null on runtimes without virtual threads.
+   */
+  private static ExecutorService newVirtualThreadExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      System.err.println("Virtual threads are not available on this runtime; using platform threads.");
+      return null;
+    }
+  }
+
+  /**
+   * Waits for the executor services to terminate.
+   *
+   * @param seconds Maximum time to wait for each of them.
+   * @return True if they terminated, false otherwise.
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  private boolean awaitTermination(long seconds) throws InterruptedException {
+    boolean terminated = executor.awaitTermination(seconds, TimeUnit.SECONDS);
+    if (solverExecutor != null) {
+      terminated = solverExecutor.awaitTermination(seconds, TimeUnit.SECONDS) && terminated;
+    }
+    return terminated;
+  }
+
+  /**
+   * Stops the executor threads and closes the solver contexts, interrupting checks that are still running.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    executor.shutdown();
+    if (solverExecutor != null) {
+      solverExecutor.shutdown();
+    }
+    try {
+      if (!awaitTermination(1)) {
+        for (SolverWrapper solverWrapper : allSolverWrappers) {
+          solverWrapper.interrupt(solverWrapper.getValidationId());
+        }
+        if (!awaitTermination(TIMEOUT)) {
+          System.err.println("Validations still running after close; leaving their solver contexts open.");
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    for (SolverWrapper solverWrapper : allSolverWrappers) {
+      solverWrapper.close();
     }
   }
 
@@ -102,7 +499,7 @@ public class PatchValidator{
    * @param programs Programs.
    * @return Pair of functions.
    */
-  private static Pair<Function, Function> extractFunctions(Pair<Program, Program> programs) {
+  public static Pair<Function, Function> extractFunctions(Pair<Program, Program> programs) {
     Program p0 = programs.getValue0();
     Program p1 = programs.getValue1();
 
@@ -0,0 +1,68 @@
+package sg.edu.nus.se.its.validation;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.javatuples.Pair;
+
+import sg.edu.nus.se.its.model.Expression;
+import sg.edu.nus.se.its.model.Function;
+
+/**
+ * The ProgramFingerprint class computes stable identifiers for functions, used to
+ * correlate slow queries, statistics and cached results with the submission that caused them.
+ */
+public class ProgramFingerprint {
+    /**
+     * Computes the fingerprint of a function from its parameters, expressions and transitions.
+     *
+     * @param function The function.
+     * @return The hex encoded SHA-256 fingerprint.
+     */
+    public static String of(Function function) {
+        StringBuilder canonical = new StringBuilder();
+        canonical.append(function.getParams()).append('\n');
+
+        // Location maps are hash based, so iterate them in location order
+        Map<Integer, ArrayList<Pair<String, Expression>>> locExprs = new TreeMap<>(function.getLocexprs());
+        for (Map.Entry<Integer, ArrayList<Pair<String, Expression>>> entry : locExprs.entrySet()) {
+            canonical.append(entry.getKey()).append(':');
+            for (Pair<String, Expression> expression : entry.getValue()) {
+                canonical.append(expression.getValue0()).append('=').append(expression.getValue1()).append(';');
+            }
+            canonical.append('\n');
+        }
+
+        Map<Integer, HashMap<Boolean, Integer>> locTrans = new TreeMap<>(function.getLoctrans());
+        for (Map.Entry<Integer, HashMap<Boolean, Integer>> entry : locTrans.entrySet()) {
+            canonical.append(entry.getKey()).append("->").append(new TreeMap<>(entry.getValue())).append('\n');
+        }
+
+        return sha256(canonical.toString());
+    }
+
+    /**
+     * Hashes a string with SHA-256.
+     *
+     * @param value The string to hash.
+     * @return The hex encoded digest.
+     */
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package sg.edu.nus.se.its.validation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.microsoft.z3.Status;
+
+/**
+ * The SlowQueryRecorder class dumps expensive or inconclusive solver checks as SMT-LIB2 files
+ * into a rotating directory, so they can be replayed offline with {@link SlowQueryReplayer}.
+ */
+public class SlowQueryRecorder {
+    /**
+     * Extension of the dumped queries.
+     */
+    public static final String EXTENSION = ".smt2";
+
+    /**
+     * Directory the queries are written to.
+     */
+    private final Path directory;
+
+    /**
+     * Checks at least this slow (in milliseconds) are recorded.
+     */
+    private final long thresholdMillis;
+
+    /**
+     * Maximum number of files kept in the directory.
+     */
+    private final int maxFiles;
+
+    /**
+     * Sequence number used to keep file names unique and ordered.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Constructs a SlowQueryRecorder.
+     *
+     * @param directory The directory the queries are written to.
+     * @param thresholdMillis Checks at least this slow (in milliseconds) are recorded.
+     * @param maxFiles Maximum number of files kept in the directory; the oldest are deleted first.
+     */
+    public SlowQueryRecorder(Path directory, long thresholdMillis, int maxFiles) {
+        if (maxFiles <= 0) {
+            throw new IllegalArgumentException("At least one file must be kept.");
+        }
+        this.directory = directory;
+        this.thresholdMillis = thresholdMillis;
+        this.maxFiles = maxFiles;
+    }
+
+    /**
+     * Checks if a solver check should be recorded.
+     *
+     * @param status The status returned by the solver.
+     * @param elapsedMillis The duration of the check in milliseconds.
+     * @return True if the check is slow or inconclusive, false otherwise.
+     */
+    public boolean shouldRecord(Status status, long elapsedMillis) {
+        return status == Status.UNKNOWN || elapsedMillis >= thresholdMillis;
+    }
+
+    /**
+     * Writes a solver check to the directory and rotates out the oldest files.
+     *
+     * @param fingerprint The fingerprint of the submitted function.
+     * @param mapping The parameter mapping the check was made under.
+     * @param status The status returned by the solver.
+     * @param elapsedMillis The duration of the check in milliseconds.
+     * @param assertions The asserted formula in SMT-LIB2 format.
+     * @param statistics The solver statistics of the check.
+     * @return The path of the written file.
+     */
+    public synchronized Path record(String fingerprint,
+        String mapping,
+        Status status,
+        long elapsedMillis,
+        String assertions,
+        Map<String, String> statistics) {
+        StringBuilder content = new StringBuilder();
+        content.append("; fingerprint: ").append(fingerprint).append('\n');
+        content.append("; mapping: ").append(mapping).append('\n');
+        content.append("; status: ").append(status).append('\n');
+        content.append("; elapsed-ms: ").append(elapsedMillis).append('\n');
+        for (Map.Entry<String, String> statistic : statistics.entrySet()) {
+            content.append("; stat ").append(statistic.getKey()).append(": ").append(statistic.getValue()).append('\n');
+        }
+        content.append(assertions);
+
+        String fileName = String.format("%d-%06d-%s%s", System.currentTimeMillis(),
+            sequence.incrementAndGet() % 1_000_000, fingerprint.substring(0, Math.min(12, fingerprint.length())), EXTENSION);
+        try {
+            Files.createDirectories(directory);
+            Path file = directory.resolve(fileName);
+            Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+            rotate();
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to record slow query in " + directory, e);
+        }
+    }
+
+    /**
+     * Deletes the oldest recorded queries until at most maxFiles remain.
+     *
+     * @throws IOException If the directory cannot be listed.
+     */
+    private void rotate() throws IOException {
+        List<Path> files = listQueries(directory);
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    /**
+     * Lists the recorded queries in a directory, oldest first.
+     *
+     * @param directory The directory.
+     * @return The recorded queries.
+     * @throws IOException If the directory cannot be listed.
+     */
+    public static List<Path> listQueries(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        // File names start with the recording time, so name order is age order
+        Collections.sort(files);
+        return files;
+    }
+}
@@ -0,0 +1,134 @@
+package sg.edu.nus.se.its.validation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.microsoft.z3.BoolExpr;
+import com.microsoft.z3.Context;
+import com.microsoft.z3.Params;
+import com.microsoft.z3.Solver;
+import com.microsoft.z3.Status;
+
+/**
+ * The SlowQueryReplayer class re-runs queries dumped by {@link SlowQueryRecorder} under
+ * different solver configurations and prints the status and time of each run.
+ *
+ * <p>Usage: {@code SlowQueryReplayer <file-or-directory> [name:key=value,key=value ...]}.
+ * Without configurations, each query is run once with the default solver parameters.
+ */
+public class SlowQueryReplayer {
+    /**
+     * Runs the replayer.
+     *
+     * @param args The query file or directory, followed by the solver configurations.
+     * @throws IOException If the queries cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: SlowQueryReplayer <file-or-directory> [name:key=value,key=value ...]");
+            System.exit(1);
+        }
+
+        Path input = Paths.get(args[0]);
+        List<Path> queries = new ArrayList<>();
+        if (Files.isDirectory(input)) {
+            queries.addAll(SlowQueryRecorder.listQueries(input));
+        } else {
+            queries.add(input);
+        }
+
+        Map<String, Map<String, String>> configurations = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            Map.Entry<String, Map<String, String>> configuration = parseConfiguration(args[i]);
+            configurations.put(configuration.getKey(), configuration.getValue());
+        }
+        if (configurations.isEmpty()) {
+            configurations.put("default", Map.of());
+        }
+
+        System.out.println("query\tconfiguration\tstatus\telapsed-ms");
+        for (Path query : queries) {
+            String smtLib2 = new String(Files.readAllBytes(query), StandardCharsets.UTF_8);
+            for (Map.Entry<String, Map<String, String>> configuration : configurations.entrySet()) {
+                long start = System.nanoTime();
+                Status status = replay(smtLib2, configuration.getValue());
+                long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                System.out.println(query.getFileName() + "\t" + configuration.getKey() + "\t" + status
+                    + "\t" + elapsedMillis);
+            }
+        }
+    }
+
+    /**
+     * Checks a query in a fresh context with the given solver parameters.
+     *
+     * @param smtLib2 The query in SMT-LIB2 format.
+     * @param parameters The solver parameters.
+     * @return The status returned by the solver.
+     */
+    public static Status replay(String smtLib2, Map<String, String> parameters) {
+        try (Context ctx = new Context()) {
+            BoolExpr[] assertions = ctx.parseSMTLIB2String(smtLib2, null, null, null, null);
+            Solver solver = ctx.mkSolver();
+            if (!parameters.isEmpty()) {
+                solver.setParameters(toParams(ctx, parameters));
+            }
+            solver.add(assertions);
+            return solver.check();
+        }
+    }
+
+    /**
+     * Parses a configuration of the form {@code name:key=value,key=value}.
+     *
+     * @param argument The configuration argument.
+     * @return The name of the configuration and its solver parameters.
+     */
+    static Map.Entry<String, Map<String, String>> parseConfiguration(String argument) {
+        int separator = argument.indexOf(':');
+        String name = separator < 0 ? argument : argument.substring(0, separator);
+        Map<String, String> parameters = new LinkedHashMap<>();
+        if (separator >= 0 && separator < argument.length() - 1) {
+            for (String parameter : argument.substring(separator + 1).split(",")) {
+                String[] keyValue = parameter.split("=", 2);
+                if (keyValue.length != 2) {
+                    throw new IllegalArgumentException("Invalid solver parameter: " + parameter);
+                }
+                parameters.put(keyValue[0].trim(), keyValue[1].trim());
+            }
+        }
+        return Map.entry(name, parameters);
+    }
+
+    /**
+     * Converts solver parameters to Z3 params, inferring the type of each value.
+     *
+     * @param ctx The context.
+     * @param parameters The solver parameters.
+     * @return The Z3 params.
+     */
+    static Params toParams(Context ctx, Map<String, String> parameters) {
+        Params params = ctx.mkParams();
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            String key = parameter.getKey();
+            String value = parameter.getValue();
+            if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+                params.add(key, Boolean.parseBoolean(value));
+            } else if (value.matches("\\d+")) {
+                params.add(key, Integer.parseInt(value));
+            } else if (value.matches("\\d*\\.\\d+")) {
+                params.add(key, Double.parseDouble(value));
+            } else {
+                params.add(key, value);
+            }
+        }
+        return params;
+    }
+}
@@ -0,0 +1,103 @@
+package sg.edu.nus.se.its.validation;
+
+import com.microsoft.z3.Statistics;
+
+/**
+ * The SolverStatistics class accumulates the Z3 statistics of the checks made during a validation.
+ */
+public class SolverStatistics {
+    private int checks;
+    private long conflicts;
+    private long decisions;
+    private double maxMemoryMegabytes;
+    private double solverSeconds;
+
+    /**
+     * Adds the statistics of one check.
+     *
+     * @param statistics The statistics reported by the solver after the check.
+     */
+    public void add(Statistics statistics) {
+        checks++;
+        for (Statistics.Entry entry : statistics.getEntries()) {
+            add(entry.Key, entry.isDouble() ? entry.getDoubleValue() : entry.getUIntValue());
+        }
+    }
+
+    /**
+     * Adds a single statistic of one check.
+     *
+     * @param key The Z3 statistic name.
+     * @param value The value of the statistic.
+     */
+    void add(String key, double value) {
+        switch (key) {
+        case "conflicts":
+            conflicts += (long) value;
+            break;
+        case "decisions":
+            decisions += (long) value;
+            break;
+        case "memory":
+        case "max memory":
+            maxMemoryMegabytes = Math.max(maxMemoryMegabytes, value);
+            break;
+        case "time":
+            solverSeconds += value;
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Gets the number of checks made.
+     *
+     * @return The number of checks.
+     */
+    public int getChecks() {
+        return checks;
+    }
+
+    /**
+     * Gets the total number of conflicts over all checks.
+     *
+     * @return The number of conflicts.
+     */
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Gets the total number of decisions over all checks.
+     *
+     * @return The number of decisions.
+     */
+    public long getDecisions() {
+        return decisions;
+    }
+
+    /**
+     * Gets the highest memory usage reported by a check.
+     *
+     * @return The memory usage in megabytes.
+     */
+    public double getMaxMemoryMegabytes() {
+        return maxMemoryMegabytes;
+    }
+
+    /**
+     * Gets the total solver time over all checks.
+     *
+     * @return The solver time in seconds.
+     */
+    public double getSolverSeconds() {
+        return solverSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("checks=%d conflicts=%d decisions=%d memory=%.2fMB time=%.3fs",
+            checks, conflicts, decisions, maxMemoryMegabytes, solverSeconds);
+    }
+}
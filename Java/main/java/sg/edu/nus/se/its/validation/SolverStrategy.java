@@ -0,0 +1,49 @@
+package sg.edu.nus.se.its.validation;
+
+import com.microsoft.z3.Context;
+import com.microsoft.z3.Solver;
+
+/**
+ * The SolverStrategy enum lists the ways a solver can be set up for an equivalence check. Which one is fastest
+ * depends on the shape of the programs, so {@link StrategySelector} picks one per assignment.
+ */
+public enum SolverStrategy {
+    /**
+     * Z3's default solver, which picks its tactics from the logic of the assertions.
+     */
+    DEFAULT {
+        @Override
+        Solver create(Context ctx) {
+            return ctx.mkSolver();
+        }
+    },
+
+    /**
+     * The plain SMT core without preprocessing, cheapest on small queries.
+     */
+    SIMPLE {
+        @Override
+        Solver create(Context ctx) {
+            return ctx.mkSimpleSolver();
+        }
+    },
+
+    /**
+     * Simplification and equation solving before the SMT core, which pays off on long chains of assignments.
+     */
+    PREPROCESSED {
+        @Override
+        Solver create(Context ctx) {
+            return ctx.mkSolver(ctx.andThen(ctx.mkTactic("simplify"), ctx.mkTactic("solve-eqs"),
+                ctx.mkTactic("smt")));
+        }
+    };
+
+    /**
+     * Creates a solver following the strategy.
+     *
+     * @param ctx The context of the solver.
+     * @return The solver.
+     */
+    abstract Solver create(Context ctx);
+}
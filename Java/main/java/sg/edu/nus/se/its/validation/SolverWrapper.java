@@ -1,16 +1,25 @@
 package sg.edu.nus.se.its.validation;
 
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import com.microsoft.z3.BoolExpr;
 import com.microsoft.z3.Context;
 import com.microsoft.z3.Expr;
 import com.microsoft.z3.Model;
+import com.microsoft.z3.Params;
 import com.microsoft.z3.Solver;
+import com.microsoft.z3.Statistics;
 import com.microsoft.z3.Status;
 import com.microsoft.z3.Z3Exception;
 
@@ -18,16 +27,26 @@ import org.javatuples.Pair;
 
 import sg.edu.nus.se.its.model.Expression;
 import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.validation.differential.DifferentialTester;
+import sg.edu.nus.se.its.validation.events.LocationBlockEvent;
+import sg.edu.nus.se.its.validation.events.MappingAttemptEvent;
+import sg.edu.nus.se.its.validation.events.SolverCheckEvent;
 import sg.edu.nus.se.its.validation.solverexpressions.BaseExpression;
+import sg.edu.nus.se.its.validation.solverexpressions.ExpressionSimplifier;
 
 /**
  * The SolverWrapper class provides utility methods for checking the equivalence of two functions.
  */
-public class SolverWrapper {
+public class SolverWrapper implements AutoCloseable {
     /**
-     * The context.
+     * Source of the identifiers attached to the flight recorder events of each validation.
      */
-    private final Context ctx;
+    private static final AtomicLong VALIDATION_IDS = new AtomicLong();
+
+    /**
+     * The context, replaced when it is recycled.
+     */
+    private volatile Context ctx;
 
     /**
      * The variables map.
@@ -35,11 +54,145 @@ public class SolverWrapper {
     @SuppressWarnings("rawtypes")
     private final Map<String, Expr> variables;
 
+    /**
+     * The simplified form of each expression of the function being built, parsed once however often a loop
+     * executes it.
+     */
+    private final Map<Expression, BaseExpression> parsedExpressions = new IdentityHashMap<>();
+
     /**
      * The counter example.
      */
     private String counterExample = "";
 
+    /**
+     * The identifier of the validation using the context, 0 while none is.
+     */
+    private volatile long validationId;
+
+    /**
+     * The identifier of the current (or last) validation.
+     */
+    private volatile long lastValidationId;
+
+    /**
+     * The identifier of the last validation interrupted, kept so that an interrupt arriving before the
+     * validation's checks have started still stops them.
+     */
+    private volatile long cancelledId;
+
+    /**
+     * Guards replacing and closing the context against interrupts from other threads.
+     */
+    private final Object contextLock = new Object();
+
+    /**
+     * Number of validations after which the context is recycled, 0 to never recycle on count.
+     */
+    private int maxValidationsPerContext;
+
+    /**
+     * Z3 memory usage (in megabytes) above which the context is recycled, 0 to never recycle on memory.
+     */
+    private double maxNativeMegabytes;
+
+    /**
+     * Number of validations run on the current context.
+     */
+    private int validationsOnContext;
+
+    /**
+     * Number of times the context has been recycled.
+     */
+    private int contextRecycles;
+
+    /**
+     * Whether the wrapper has been closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Whether each validation runs on a context of its own, closed when the validation ends.
+     */
+    private boolean scopedValidations;
+
+    /**
+     * Time limit of each solver check (in milliseconds), 0 for none.
+     */
+    private int solverTimeoutMillis;
+
+    /**
+     * Recorder for slow or inconclusive checks, or null if they are not recorded.
+     */
+    private SlowQueryRecorder slowQueryRecorder;
+
+    /**
+     * The fingerprint of the submitted function of the current validation, computed on demand.
+     */
+    private String submissionFingerprint;
+
+    /**
+     * Policy for hedging straggling checks, or null if checks are not hedged.
+     */
+    private HedgingPolicy hedgingPolicy;
+
+    /**
+     * The context of hedged attempts, created on first use and only used by one attempt at a time.
+     */
+    private Context hedgeCtx;
+
+    /**
+     * Selector of the strategy of each validation, or null to always use the default strategy.
+     */
+    private StrategySelector strategySelector;
+
+    /**
+     * Tester discarding the mappings refuted on concrete inputs before they reach the solver, or null to check
+     * every mapping symbolically.
+     */
+    private DifferentialTester mappingProbe;
+
+    /**
+     * Number of mappings refuted by the mapping probe and checked last.
+     */
+    private final AtomicLong refutedMappings = new AtomicLong();
+
+    /**
+     * Whether functions that are the same program up to renaming and reordering are accepted without the solver.
+     */
+    private boolean structuralMatching = true;
+
+    /**
+     * Number of validations decided by the structural match.
+     */
+    private final AtomicLong structuralMatches = new AtomicLong();
+
+    /**
+     * Whether counted loops are executed in closed form rather than unrolled.
+     */
+    private boolean loopSummaries = true;
+
+    /**
+     * Number of loops executed in closed form.
+     */
+    private final AtomicLong summarizedLoops = new AtomicLong();
+
+    /**
+     * The fingerprint of the reference function of the current validation, when checks are hedged or the
+     * strategy is selected.
+     */
+    private String assignmentKey;
+
+    /**
+     * The solver strategy of the current validation.
+     */
+    private SolverStrategy strategy = SolverStrategy.DEFAULT;
+
+    /**
+     * Time limit of each solver check of the current validation (in milliseconds), 0 for none.
+     */
+    private int checkTimeoutMillis;
+
     /**
      * Constructs a SolverWrapper with a new context.
      */
@@ -57,6 +210,238 @@ public class SolverWrapper {
         return counterExample;
     }
 
+    /**
+     * Creates a new validation identifier, unique over all solver wrappers.
+     *
+     * @return The identifier.
+     */
+    public static long newValidationId() {
+        return VALIDATION_IDS.incrementAndGet();
+    }
+
+    /**
+     * Gets the identifier of the current (or last) validation, as recorded in the flight recorder events.
+     *
+     * @return The validation identifier.
+     */
+    public long getValidationId() {
+        return lastValidationId;
+    }
+
+    /**
+     * Sets when the context is recycled. Recycling closes the context, releasing all native memory held
+     * by its terms, and replaces it with a fresh one between two validations.
+     *
+     * @param maxValidations Number of validations after which the context is recycled, 0 to disable.
+     * @param maxMegabytes Z3 memory usage (in megabytes) above which the context is recycled, 0 to disable.
+     */
+    public void setContextRecycling(int maxValidations, double maxMegabytes) {
+        if (maxValidations < 0 || maxMegabytes < 0) {
+            throw new IllegalArgumentException("Recycling limits must not be negative.");
+        }
+        this.maxValidationsPerContext = maxValidations;
+        this.maxNativeMegabytes = maxMegabytes;
+    }
+
+    /**
+     * Sets whether each validation runs on a context of its own. Closing that context when the validation
+     * ends releases the native references of all its terms at once instead of leaving them to the garbage
+     * collector, at the cost of creating a context per validation.
+     *
+     * @param scopedValidations True to scope the terms of each validation, false to share the wrapper's context.
+     */
+    public void setScopedValidations(boolean scopedValidations) {
+        this.scopedValidations = scopedValidations;
+    }
+
+    /**
+     * Sets the time limit of each solver check. A check that runs out of time returns UNKNOWN.
+     *
+     * @param solverTimeoutMillis The time limit in milliseconds, 0 for none.
+     */
+    public void setSolverTimeout(int solverTimeoutMillis) {
+        if (solverTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Solver timeout must not be negative.");
+        }
+        this.solverTimeoutMillis = solverTimeoutMillis;
+    }
+
+    /**
+     * Sets the policy for hedging straggling checks. A hedged check gets a second attempt with another random
+     * seed in a separate context, and the first definitive answer wins.
+     *
+     * @param hedgingPolicy The policy, or null to stop hedging.
+     */
+    public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = hedgingPolicy;
+    }
+
+    /**
+     * Sets the selector of the strategy, time limit and mapping order of each validation. A time limit chosen
+     * by the selector only ever shortens the one set with {@link #setSolverTimeout(int)}.
+     *
+     * @param strategySelector The selector, or null to always use the default strategy.
+     */
+    public void setStrategySelector(StrategySelector strategySelector) {
+        this.strategySelector = strategySelector;
+    }
+
+    /**
+     * Sets the tester that runs both functions on a few concrete inputs under each candidate mapping before any
+     * of them is built, so that the mappings whose outputs disagree are solved after the others. Every mapping
+     * is still solved before a validation is NOT_EQUIVALENT.
+     *
+     * @param mappingProbe The tester, or null to check the mappings in their hinted order only.
+     */
+    public void setMappingProbe(DifferentialTester mappingProbe) {
+        this.mappingProbe = mappingProbe;
+    }
+
+    /**
+     * Gets the number of mappings refuted on concrete inputs and therefore solved last.
+     *
+     * @return The number of mappings.
+     */
+    public long getRefutedMappings() {
+        return refutedMappings.get();
+    }
+
+    /**
+     * Sets whether functions that {@link StructuralMatcher} finds to be the same program up to renaming and
+     * reordering are accepted as equivalent without building any solver terms. Enabled by default.
+     *
+     * @param structuralMatching True to check the structure first, false to always use the solver.
+     */
+    public void setStructuralMatching(boolean structuralMatching) {
+        this.structuralMatching = structuralMatching;
+    }
+
+    /**
+     * Gets the number of validations decided by the structural match, without the solver.
+     *
+     * @return The number of validations.
+     */
+    public long getStructuralMatches() {
+        return structuralMatches.get();
+    }
+
+    /**
+     * Sets whether counted loops that {@link LoopSummarizer} recognises are executed in closed form, with a
+     * symbolic trip count, rather than unrolled. Enabled by default.
+     *
+     * @param loopSummaries True to summarize counted loops, false to always unroll them.
+     */
+    public void setLoopSummaries(boolean loopSummaries) {
+        this.loopSummaries = loopSummaries;
+    }
+
+    /**
+     * Gets the number of loops executed in closed form.
+     *
+     * @return The number of loops.
+     */
+    public long getSummarizedLoops() {
+        return summarizedLoops.get();
+    }
+
+    /**
+     * Gets the number of times the context has been recycled.
+     *
+     * @return The number of recycles.
+     */
+    public int getContextRecycles() {
+        return contextRecycles;
+    }
+
+    /**
+     * Closes the current context and replaces it with a fresh one. Terms built before are invalidated.
+     */
+    public void recycleContext() {
+        variables.clear();
+        synchronized (contextLock) {
+            validationId = 0;
+            ctx.close();
+            ctx = new Context();
+            closeHedgeContext();
+        }
+        validationsOnContext = 0;
+        contextRecycles++;
+    }
+
+    /**
+     * Recycles the context after a validation if one of the recycling limits is reached.
+     *
+     * @param statistics The solver statistics of the validation.
+     */
+    private void recycleIfNeeded(SolverStatistics statistics) {
+        validationsOnContext++;
+        boolean tooManyValidations = maxValidationsPerContext > 0 && validationsOnContext >= maxValidationsPerContext;
+        boolean tooMuchMemory = maxNativeMegabytes > 0 && statistics.getMaxMemoryMegabytes() >= maxNativeMegabytes;
+        if (tooManyValidations || tooMuchMemory) {
+            recycleContext();
+        }
+    }
+
+    /**
+     * Interrupts a validation, which then returns UNKNOWN. The interrupt is remembered, so a validation that has
+     * not reached its solver checks yet stops before the first one. Does nothing to other validations.
+     *
+     * @param id The identifier of the validation to interrupt.
+     */
+    public void interrupt(long id) {
+        if (id == 0) {
+            return;
+        }
+        synchronized (contextLock) {
+            cancelledId = id;
+            if (!closed && validationId == id) {
+                ctx.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Checks whether the running validation has been interrupted.
+     *
+     * @return True if it has, false otherwise.
+     */
+    private boolean isCancelled() {
+        long id = validationId;
+        return id != 0 && cancelledId == id;
+    }
+
+    /**
+     * Closes the context, releasing its native memory. The wrapper cannot be used afterwards.
+     */
+    @Override
+    public void close() {
+        synchronized (contextLock) {
+            if (!closed) {
+                closed = true;
+                validationId = 0;
+                variables.clear();
+                ctx.close();
+                closeHedgeContext();
+            }
+        }
+    }
+
+    private void closeHedgeContext() {
+        if (hedgeCtx != null) {
+            hedgeCtx.close();
+            hedgeCtx = null;
+        }
+    }
+
+    /**
+     * Sets the recorder for slow or inconclusive checks.
+     *
+     * @param slowQueryRecorder The recorder, or null to stop recording.
+     */
+    public void setSlowQueryRecorder(SlowQueryRecorder slowQueryRecorder) {
+        this.slowQueryRecorder = slowQueryRecorder;
+    }
+
     /**
      * Gets the context.
      * 
@@ -74,11 +459,12 @@ public class SolverWrapper {
      * @param expression    The expression to evaluate.
      */
     @SuppressWarnings("rawtypes")
-    private void evaluateExpression(
+    void evaluateExpression(
         Map<String, String> varRemapping,
         String lhsVariable,
         Expression expression) {
-        BaseExpression parsedExpression = ExpressionFactory.parseExpression(expression);
+        BaseExpression parsedExpression = parsedExpressions.computeIfAbsent(expression,
+            e -> ExpressionSimplifier.simplify(ExpressionFactory.parseExpression(e)));
         Expr result = parsedExpression.evaluate(this, varRemapping);
         updateVariable(varRemapping, lhsVariable, result);
     }
@@ -139,13 +525,28 @@ public class SolverWrapper {
         Map<String, String> varRemapping,
         List<Pair<String, Expr>> paramsWithIdentifier) {
         initialiseVariables(paramsWithIdentifier, varRemapping);
+        // Assignments that affect neither the outputs nor a branch are never evaluated
+        expressionLists = OutputSlicer.slice(expressionLists);
+        Map<Integer, Integer> visits = new HashMap<>();
         ArrayList<Pair<String, Expression>> initExpressions = expressionLists.get(1);
-        int expressionLoc  = executeLocalExpression(initExpressions, transitions.get(1), varRemapping);
+        int expressionLoc  = executeLocation(1, initExpressions, transitions, varRemapping, visits);
         ArrayList<Pair<String, Expression>> localExpressions = expressionLists.get(expressionLoc);
 
+        LoopSummarizer loopSummarizer = loopSummaries
+            ? new LoopSummarizer(this, expressionLists, transitions) : null;
+
         while (localExpressions != null) {
-            // Execute the local expressions
-            expressionLoc = executeLocalExpression(localExpressions, transitions.get(expressionLoc), varRemapping);
+            if (isCancelled()) {
+                throw new Z3Exception("The validation was interrupted.");
+            }
+            Integer afterLoop = loopSummarizer == null ? null : loopSummarizer.summarize(expressionLoc, varRemapping);
+            if (afterLoop != null) {
+                summarizedLoops.incrementAndGet();
+                expressionLoc = afterLoop;
+            } else {
+                // Execute the local expressions
+                expressionLoc = executeLocation(expressionLoc, localExpressions, transitions, varRemapping, visits);
+            }
             localExpressions = expressionLists.get(expressionLoc);
         }
 
@@ -154,6 +555,36 @@ public class SolverWrapper {
                 .toArray(Expr[]::new);
     }
 
+    /**
+     * Executes the expressions at a location, recording a flight recorder event for the block.
+     *
+     * @param loc The location identifier.
+     * @param expressions The expressions at the location.
+     * @param transitions The expressions' transition map.
+     * @param varRemapping The variable remapping map.
+     * @param visits The number of times each location has been executed so far.
+     * @return Integer indicating the next expression location to evaluate.
+     */
+    private int executeLocation(
+        int loc,
+        ArrayList<Pair<String, Expression>> expressions,
+        HashMap<Integer, HashMap<Boolean, Integer>> transitions,
+        Map<String, String> varRemapping,
+        Map<Integer, Integer> visits) {
+        int iteration = visits.merge(loc, 1, Integer::sum);
+        LocationBlockEvent event = new LocationBlockEvent();
+        event.begin();
+        int nextLoc = executeLocalExpression(expressions, transitions.get(loc), varRemapping);
+        if (event.shouldCommit()) {
+            event.validationId = validationId;
+            event.locationId = loc;
+            event.iteration = iteration;
+            event.expressionCount = expressions.size();
+            event.commit();
+        }
+        return nextLoc;
+    }
+
     /**
      * Executes a list of local expressions, evaluating them and returning an integer result based on a transition map.
      * Handles conditional expressions when present.
@@ -204,10 +635,47 @@ public class SolverWrapper {
      * @param p2 The second function.
      * @return True if the functions are equivalent, false otherwise.
      */
-    @SuppressWarnings("rawtypes")
     public boolean areFunctionsEquivalent(Function p1, Function p2) {
+        return checkEquivalence(p1, p2).isEquivalent();
+    }
+
+    /**
+     * Checks if two functions are equivalent, reporting the solver statistics and term sizes of the check.
+     *
+     * @param p1 The first function.
+     * @param p2 The second function.
+     * @return The result of the check.
+     */
+    public ValidationResult checkEquivalence(Function p1, Function p2) {
+        return checkEquivalence(p1, p2, newValidationId());
+    }
+
+    /**
+     * Checks if two functions are equivalent under an identifier obtained beforehand, so that the caller can
+     * interrupt this validation, and only this one, through {@link #interrupt(long)} while it runs.
+     *
+     * @param p1 The first function.
+     * @param p2 The second function.
+     * @param id The identifier of the validation, from {@link #newValidationId()}.
+     * @return The result of the check.
+     */
+    @SuppressWarnings("rawtypes")
+    public ValidationResult checkEquivalence(Function p1, Function p2, long id) {
+        long start = System.nanoTime();
+        lastValidationId = id;
         if (p1 == null || p2 == null) {
-            return false;
+            return ValidationResult.withoutSolver(ValidationResult.Outcome.NOT_EQUIVALENT, 0);
+        }
+        submissionFingerprint = null;
+        counterExample = "";
+        assignmentKey = hedgingPolicy == null && strategySelector == null ? null : ProgramFingerprint.of(p1);
+        StrategyDecision decision = strategySelector == null ? null : strategySelector.decide(assignmentKey);
+        strategy = decision == null ? SolverStrategy.DEFAULT : decision.getStrategy();
+        checkTimeoutMillis = solverTimeoutMillis;
+        if (decision != null && decision.getSolverTimeoutMillis() > 0) {
+            checkTimeoutMillis = checkTimeoutMillis == 0
+                ? decision.getSolverTimeoutMillis()
+                : Math.min(checkTimeoutMillis, decision.getSolverTimeoutMillis());
         }
 
         List<Pair<String, String>> p1Params = p1.getParams();
@@ -224,27 +692,212 @@ public class SolverWrapper {
         HashMap<String, ArrayList<String>> p2ParamMap = new HashMap<>();
         boolean canMapParams = Parameter.canMap(p1Params, p2Params, p1ParamMap, p2ParamMap);
         if (!canMapParams) {
-            return false;
+            if (strategySelector != null) {
+                strategySelector.recordSolverFree(assignmentKey);
+            }
+            return ValidationResult.withoutSolver(ValidationResult.Outcome.NOT_EQUIVALENT, elapsedMillisSince(start));
+        }
+        if (structuralMatching && StructuralMatcher.isomorphic(p1, p2)) {
+            structuralMatches.incrementAndGet();
+            if (strategySelector != null) {
+                strategySelector.recordSolverFree(assignmentKey);
+            }
+            return ValidationResult.withoutSolver(ValidationResult.Outcome.EQUIVALENT, elapsedMillisSince(start));
         }
 
+        SolverStatistics statistics = new SolverStatistics();
+        TermMetrics referenceTerms = TermMetrics.EMPTY;
+        TermMetrics submissionTerms = TermMetrics.EMPTY;
+        ValidationResult.Outcome outcome = ValidationResult.Outcome.NOT_EQUIVALENT;
         List<List<Pair<Pair<String, String>, String>>> mappingsWithType = Parameter.formMapping(p1ParamMap, p2ParamMap);
-        for (List<Pair<Pair<String, String>, String>> mapping : mappingsWithType) {
-            Parameter.ParamsInformation paramsInformation = Parameter.getParamsInformation(mapping, this);
-            Expr[] funcA = buildFunction(p1LocExprs,
-                p1Transitions,
-                new HashMap<>(),
-                paramsInformation.paramsWithIdentifier);
-            Expr[] funcB = buildFunction(p2LocExprs,
-                p2Transitions,
-                paramsInformation.p2VarRemapping,
-                paramsInformation.paramsWithIdentifier);
-
-            if (solve(funcA, funcB, paramsInformation.params)) {
-                return true;
+        boolean severalMappings = mappingsWithType.size() > 1;
+        if (severalMappings) {
+            // Mappings that won for earlier submissions of the assignment first, then the most similar ones
+            mappingsWithType = MappingHints.order(mappingsWithType, p1ParamMap, p2ParamMap,
+                decision == null ? List.of() : decision.getMappingOrder());
+            if (mappingProbe != null) {
+                List<List<Pair<Pair<String, String>, String>>> refuted =
+                    mappingProbe.refuted(p1, p2, p1ParamMap, mappingsWithType);
+                refutedMappings.addAndGet(refuted.size());
+                // The concrete runs follow other branches than the terms, so refuted mappings are only demoted
+                List<List<Pair<Pair<String, String>, String>>> ordered = new ArrayList<>(mappingsWithType);
+                ordered.removeAll(refuted);
+                ordered.addAll(refuted);
+                mappingsWithType = ordered;
+            }
+        }
+        String winningMapping = null;
+        int mappingIndex = 0;
+        // In scoped mode every term of this validation lives in its own context, released in bulk at the end
+        boolean scoped = scopedValidations;
+        Context wrapperCtx = ctx;
+        synchronized (contextLock) {
+            if (scoped) {
+                ctx = new Context();
+            }
+            validationId = id;
+        }
+        try {
+            // Both functions are built once over parameters of their own; a mapping then only substitutes the
+            // reference's parameters for the submission's in the submission terms
+            Parameter.ParamsInformation referenceParams = null;
+            Parameter.ParamsInformation submissionParams = null;
+            Expr[] funcA = null;
+            Expr[] funcB = null;
+            if (!mappingsWithType.isEmpty()) {
+                referenceParams = Parameter.getParamsInformation(sideOf(mappingsWithType.get(0), true), this);
+                funcA = buildFunction(p1LocExprs,
+                    p1Transitions,
+                    new HashMap<>(),
+                    referenceParams.paramsWithIdentifier);
+                submissionParams = Parameter.getParamsInformation(sideOf(mappingsWithType.get(0), false), this);
+                funcB = buildFunction(p2LocExprs,
+                    p2Transitions,
+                    submissionParams.p2VarRemapping,
+                    submissionParams.paramsWithIdentifier);
+                referenceTerms = TermMetrics.of(funcA);
+                submissionTerms = TermMetrics.of(funcB);
+            }
+            for (List<Pair<Pair<String, String>, String>> mapping : mappingsWithType) {
+                MappingAttemptEvent event = new MappingAttemptEvent();
+                event.begin();
+                Expr[] mappedFuncB = substitute(funcB, mapping, referenceParams, submissionParams);
+
+                ValidationResult.Outcome mappingOutcome = solve(funcA, mappedFuncB, referenceParams.params,
+                    p2, mapping, statistics);
+                mappingIndex++;
+                if (event.shouldCommit()) {
+                    event.validationId = validationId;
+                    event.mappingIndex = mappingIndex - 1;
+                    event.mapping = mapping.toString();
+                    event.equivalent = mappingOutcome == ValidationResult.Outcome.EQUIVALENT;
+                    event.commit();
+                }
+                if (mappingOutcome == ValidationResult.Outcome.EQUIVALENT) {
+                    outcome = mappingOutcome;
+                    winningMapping = StrategySelector.mappingSignature(mapping, p1ParamMap, p2ParamMap);
+                    break;
+                } else if (mappingOutcome == ValidationResult.Outcome.UNKNOWN) {
+                    outcome = mappingOutcome;
+                    if (isCancelled()) {
+                        break;
+                    }
+                }
+            }
+        } catch (Z3Exception e) {
+            if (!isCancelled()) {
+                throw e;
+            }
+            outcome = ValidationResult.Outcome.UNKNOWN;
+        } finally {
+            variables.clear();
+            parsedExpressions.clear();
+            // A late interrupt must not reach the context once it is closed or handed to the next validation
+            synchronized (contextLock) {
+                validationId = 0;
+                if (scoped) {
+                    ctx.close();
+                    ctx = wrapperCtx;
+                    // The hedge context only holds copies of this validation's terms
+                    closeHedgeContext();
+                }
             }
         }
 
-        return false;
+        recycleIfNeeded(statistics);
+        long elapsedMillis = elapsedMillisSince(start);
+        if (decision != null) {
+            strategySelector.recordSolved(assignmentKey, decision, outcome, elapsedMillis, winningMapping);
+        }
+        return new ValidationResult(outcome, counterExample, mappingIndex, statistics,
+            referenceTerms, submissionTerms, elapsedMillis);
+    }
+
+    /**
+     * Gets one side of a parameter mapping, mapping each parameter of that side to itself.
+     *
+     * @param mapping The mapping.
+     * @param reference True for the reference side, false for the submission side.
+     * @return The identity mapping over the parameters of the side, in the order of the mapping.
+     */
+    private static List<Pair<Pair<String, String>, String>> sideOf(
+        List<Pair<Pair<String, String>, String>> mapping,
+        boolean reference) {
+        List<Pair<Pair<String, String>, String>> side = new ArrayList<>(mapping.size());
+        for (Pair<Pair<String, String>, String> pair : mapping) {
+            String name = reference ? pair.getValue0().getValue0() : pair.getValue0().getValue1();
+            side.add(new Pair<>(new Pair<>(name, name), pair.getValue1()));
+        }
+        return side;
+    }
+
+    /**
+     * Applies a parameter mapping to the output terms of the submission.
+     *
+     * @param funcB The output terms of the submission, over its own parameters.
+     * @param mapping The mapping.
+     * @param referenceParams The parameters the reference terms were built over.
+     * @param submissionParams The parameters the submission terms were built over.
+     * @return The output terms of the submission over the mapped reference parameters.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Expr[] substitute(Expr[] funcB,
+        List<Pair<Pair<String, String>, String>> mapping,
+        Parameter.ParamsInformation referenceParams,
+        Parameter.ParamsInformation submissionParams) {
+        Map<String, Expr> referenceConstants = new HashMap<>();
+        for (Pair<String, Expr> param : referenceParams.paramsWithIdentifier) {
+            referenceConstants.put(param.getValue0(), param.getValue1());
+        }
+        Map<String, Expr> submissionConstants = new HashMap<>();
+        for (Pair<String, Expr> param : submissionParams.paramsWithIdentifier) {
+            submissionConstants.put(param.getValue0(), param.getValue1());
+        }
+        Expr[] from = new Expr[mapping.size()];
+        Expr[] to = new Expr[mapping.size()];
+        for (int i = 0; i < mapping.size(); i++) {
+            Pair<String, String> names = mapping.get(i).getValue0();
+            from[i] = submissionConstants.get(names.getValue1());
+            to[i] = referenceConstants.get(names.getValue0());
+        }
+        Expr[] mapped = new Expr[funcB.length];
+        for (int i = 0; i < funcB.length; i++) {
+            mapped[i] = funcB[i].substitute(from, to);
+        }
+        return mapped;
+    }
+
+    /**
+     * Builds the output terms of a single function over its own parameters.
+     *
+     * @param function The function.
+     * @return The array of output expressions ($ret and $out).
+     */
+    @SuppressWarnings("rawtypes")
+    public Expr[] buildOutputs(Function function) {
+        HashMap<String, ArrayList<String>> paramMap = new HashMap<>();
+        Parameter.canMap(function.getParams(), function.getParams(), paramMap, new HashMap<>());
+        List<Pair<Pair<String, String>, String>> identity = new ArrayList<>();
+        for (Map.Entry<String, ArrayList<String>> entry : paramMap.entrySet()) {
+            for (String param : entry.getValue()) {
+                identity.add(new Pair<>(new Pair<>(param, param), entry.getKey()));
+            }
+        }
+        Parameter.ParamsInformation paramsInformation = Parameter.getParamsInformation(identity, this);
+        return buildFunction(function.getLocexprs(),
+            function.getLoctrans(),
+            new HashMap<>(),
+            paramsInformation.paramsWithIdentifier);
+    }
+
+    /**
+     * Computes the milliseconds elapsed since the given time.
+     *
+     * @param startNanos The start time, as returned by System.nanoTime().
+     * @return The elapsed time in milliseconds.
+     */
+    public static long elapsedMillisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
     }
 
     /**
@@ -257,6 +910,7 @@ public class SolverWrapper {
     private void initialiseVariables(List<Pair<String, Expr>> paramsWithIdentifier,
         Map<String, String> varRemapping) {
         variables.clear();
+        parsedExpressions.clear();
         for (Pair<String, Expr> param : paramsWithIdentifier) {
             String paramName = param.getValue0();
             variables.put(paramName, param.getValue1());
@@ -271,50 +925,134 @@ public class SolverWrapper {
      * @param funcA The first function.
      * @param funcB The second function.
      * @param params The parameters of the functions.
-     * @return True if the functions are equivalent, false otherwise.
+     * @param submission The submitted function, used to identify recorded slow queries.
+     * @param mapping The parameter mapping, used to identify recorded slow queries.
+     * @param statistics The accumulator for the statistics of each check.
+     * @return EQUIVALENT if the functions are equivalent, UNKNOWN if the solver gave up,
+     *     NOT_EQUIVALENT otherwise.
      */
     @SuppressWarnings({ "rawtypes", "unchecked" })
-    private boolean solve(
+    private ValidationResult.Outcome solve(
         Expr[] funcA,
         Expr[] funcB,
-        Expr[] params) {
+        Expr[] params,
+        Function submission,
+        List<Pair<Pair<String, String>, String>> mapping,
+        SolverStatistics statistics) {
             try {
 
                 for (int i = 0; i < funcA.length; i++) {
+                    // An interrupt that arrived before this check started would be lost by the solver
+                    if (isCancelled()) {
+                        return ValidationResult.Outcome.UNKNOWN;
+                    }
                     BoolExpr notEquivalent = ctx.mkNot(ctx.mkEq(funcA[i], funcB[i]));
-                    Solver solver = ctx.mkSolver();
+                    Solver solver = strategy.create(ctx);
+                    if (checkTimeoutMillis > 0) {
+                        Params solverParams = ctx.mkParams();
+                        solverParams.add("timeout", checkTimeoutMillis);
+                        solver.setParameters(solverParams);
+                    }
                     solver.add(notEquivalent);
 
-                    Status status = solver.check();
+                    SolverCheckEvent event = new SolverCheckEvent();
+                    event.begin();
+                    long start = System.nanoTime();
+                    HedgedAttempt hedge = null;
+                    Status status;
+                    long hedgeDelayMillis = hedgingPolicy == null ? 0 : hedgingPolicy.hedgeDelayMillis(assignmentKey);
+                    // A hedge that could only start once the check has timed out is not worth copying the terms for
+                    if (hedgingPolicy != null && (checkTimeoutMillis == 0 || hedgeDelayMillis < checkTimeoutMillis)
+                        && hedgingPolicy.tryReserve()) {
+                        try {
+                            hedge = new HedgedAttempt(notEquivalent, params);
+                            status = hedge.race(solver, hedgeDelayMillis);
+                        } finally {
+                            hedgingPolicy.release();
+                        }
+                    } else {
+                        status = solver.check();
+                    }
+                    long elapsedMillis = elapsedMillisSince(start);
+                    statistics.add(solver.getStatistics());
+                    if (hedge != null && hedge.statistics != null) {
+                        statistics.add(hedge.statistics);
+                    }
+                    if (event.shouldCommit()) {
+                        event.validationId = validationId;
+                        event.outputIndex = i;
+                        event.status = status.toString();
+                        event.assertionSize = TermMetrics.dagSize(notEquivalent);
+                        event.commit();
+                    }
+                    if (slowQueryRecorder != null && slowQueryRecorder.shouldRecord(status, elapsedMillis)) {
+                        recordSlowQuery(solver, status, elapsedMillis, submission, mapping);
+                    }
                     if (status == Status.SATISFIABLE) {
-                        findCounterExample(solver, params);
+                        if (hedge != null && hedge.won) {
+                            counterExample = hedge.counterExample;
+                        } else {
+                            counterExample = describeCounterExample(solver.getModel(), params);
+                        }
                         System.out.println(counterExample);
-                        return false;
+                        return ValidationResult.Outcome.NOT_EQUIVALENT;
                     } else if (status == Status.UNKNOWN) {
                         System.out.println("Unknown conclusion when testing for equivalence");
-                        return false;
+                        return ValidationResult.Outcome.UNKNOWN;
                     }
                 }
 
                 System.out.println("The functions are equivalent for all inputs.");
-                return true;
+                return ValidationResult.Outcome.EQUIVALENT;
 
             } catch (Z3Exception ignored) {
+                if (isCancelled()) {
+                    return ValidationResult.Outcome.UNKNOWN;
+                }
                 System.err.println("The two programs do not align.");
             }
-            return false;
+            return ValidationResult.Outcome.NOT_EQUIVALENT;
     }
 
 
     /**
-     * Finds a counter example for the functions.
+     * Dumps a slow or inconclusive check with the slow query recorder.
      *
-     * @param solver The solver.
-     * @param params The parameters of the functions.
+     * @param solver The solver holding the checked assertion.
+     * @param status The status returned by the solver.
+     * @param elapsedMillis The duration of the check in milliseconds.
+     * @param submission The submitted function.
+     * @param mapping The parameter mapping.
+     */
+    private void recordSlowQuery(Solver solver,
+        Status status,
+        long elapsedMillis,
+        Function submission,
+        List<Pair<Pair<String, String>, String>> mapping) {
+        if (submissionFingerprint == null) {
+            submissionFingerprint = ProgramFingerprint.of(submission);
+        }
+        Map<String, String> statistics = new LinkedHashMap<>();
+        for (Statistics.Entry entry : solver.getStatistics().getEntries()) {
+            statistics.put(entry.Key, entry.getValueString());
+        }
+        try {
+            slowQueryRecorder.record(submissionFingerprint, mapping.toString(), status, elapsedMillis,
+                solver.toString(), statistics);
+        } catch (UncheckedIOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Describes a counter example for the functions.
+     *
+     * @param model The model of the solver.
+     * @param params The parameters of the functions, in the context of the model.
+     * @return The value of each parameter.
      */
     @SuppressWarnings({"rawtypes", "unchecked"})
-    private void findCounterExample(Solver solver, Expr[] params) {
-        Model model = solver.getModel();
+    private static String describeCounterExample(Model model, Expr[] params) {
         StringBuilder counterExampleTemp = new StringBuilder();
         // Store the specific values of the arguments that caused the functions to be different
         for (Expr param : params) {
@@ -326,7 +1064,143 @@ public class SolverWrapper {
             }
         }
 
-        counterExample = counterExampleTemp.toString();
+        return counterExampleTemp.toString();
+    }
+
+    /**
+     * A check raced against a hedged attempt, created only once a hedging thread has been reserved for it. The
+     * assertion is copied into the hedge context before the check starts, so that during the race each context
+     * is only used by its own thread, apart from interrupts. If
+     * the check outlives the policy's delay, the attempt runs it again with another random seed, and whichever
+     * attempt reaches a definitive answer first interrupts the other.
+     */
+    @SuppressWarnings("rawtypes")
+    private class HedgedAttempt {
+        private final Context target;
+        private final BoolExpr assertion;
+        private final Expr[] params;
+        private final int seed;
+        private boolean checkDone;
+        private boolean started;
+        private boolean stopped;
+        private boolean won;
+        private Status status;
+        private String counterExample;
+        private Statistics statistics;
+
+        private HedgedAttempt(BoolExpr notEquivalent, Expr[] checkParams) {
+            if (hedgeCtx == null) {
+                hedgeCtx = new Context();
+            }
+            this.target = hedgeCtx;
+            this.assertion = (BoolExpr) notEquivalent.translate(target);
+            this.params = new Expr[checkParams.length];
+            for (int i = 0; i < checkParams.length; i++) {
+                params[i] = checkParams[i].translate(target);
+            }
+            this.seed = hedgingPolicy.nextSeed();
+        }
+
+        /**
+         * Runs the check, hedging it if it straggles.
+         *
+         * @param solver The solver of the check.
+         * @param delayMillis The time after which the check is hedged.
+         * @return The status of whichever attempt won.
+         */
+        private Status race(Solver solver, long delayMillis) {
+            Context checkCtx = ctx;
+            ScheduledFuture<?> launch;
+            try {
+                launch = hedgingPolicy.schedule(() -> run(checkCtx), delayMillis);
+            } catch (RejectedExecutionException e) {
+                return solver.check();
+            }
+
+            long start = System.nanoTime();
+            Status checkStatus = solver.check();
+            long elapsedMillis = elapsedMillisSince(start);
+            launch.cancel(false);
+            awaitStopped();
+            if (won) {
+                hedgingPolicy.record(assignmentKey, elapsedMillis);
+                return status;
+            }
+            if (checkStatus != Status.UNKNOWN) {
+                hedgingPolicy.record(assignmentKey, elapsedMillis);
+            }
+            return checkStatus;
+        }
+
+        /**
+         * Runs the hedged attempt, unless the check has finished already.
+         *
+         * @param checkCtx The context of the check, interrupted if the attempt wins.
+         */
+        private void run(Context checkCtx) {
+            synchronized (this) {
+                if (checkDone) {
+                    return;
+                }
+                started = true;
+            }
+            boolean attemptWon = false;
+            try {
+                Solver solver = strategy.create(target);
+                Params solverParams = target.mkParams();
+                solverParams.add("random_seed", seed);
+                if (checkTimeoutMillis > 0) {
+                    solverParams.add("timeout", checkTimeoutMillis);
+                }
+                solver.setParameters(solverParams);
+                solver.add(assertion);
+                Status attemptStatus = solver.check();
+                String attemptCounterExample = attemptStatus == Status.SATISFIABLE
+                    ? describeCounterExample(solver.getModel(), params)
+                    : "";
+                synchronized (this) {
+                    statistics = solver.getStatistics();
+                    if (attemptStatus != Status.UNKNOWN && !checkDone) {
+                        won = true;
+                        attemptWon = true;
+                        status = attemptStatus;
+                        counterExample = attemptCounterExample;
+                        checkCtx.interrupt();
+                    }
+                }
+            } catch (Z3Exception e) {
+                System.err.println("Hedged check failed: " + e.getMessage());
+            } finally {
+                hedgingPolicy.recordHedge(attemptWon);
+                synchronized (this) {
+                    stopped = true;
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Marks the check finished and waits until the hedged attempt, if it started, has stopped using its
+         * context. A running attempt is interrupted unless it has won.
+         */
+        private synchronized void awaitStopped() {
+            checkDone = true;
+            boolean interrupted = false;
+            while (started && !stopped) {
+                if (!won) {
+                    // Repeated, as an interrupt before the attempt's check has started is lost
+                    target.interrupt();
+                }
+                try {
+                    wait(10);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     /**
@@ -0,0 +1,81 @@
+package sg.edu.nus.se.its.validation;
+
+import java.util.List;
+
+/**
+ * The StrategyDecision class holds how the next validation of an assignment is run: the solver strategy, the time
+ * limit of each check and the parameter mappings to try first. Decisions are made by {@link StrategySelector}
+ * and can also be set by hand with {@link StrategySelector#setOverride(String, StrategyDecision)}.
+ */
+public class StrategyDecision {
+    private final SolverStrategy strategy;
+    private final int solverTimeoutMillis;
+    private final List<String> mappingOrder;
+    private final String reason;
+
+    /**
+     * Constructs a StrategyDecision.
+     *
+     * @param strategy The solver strategy.
+     * @param solverTimeoutMillis The time limit of each check in milliseconds, 0 to keep the validator's own.
+     * @param mappingOrder The signatures of the mappings to try first, best first.
+     * @param reason Why the decision was made.
+     */
+    public StrategyDecision(SolverStrategy strategy, int solverTimeoutMillis, List<String> mappingOrder,
+        String reason) {
+        if (strategy == null || solverTimeoutMillis < 0) {
+            throw new IllegalArgumentException("A decision needs a strategy and a non-negative timeout.");
+        }
+        this.strategy = strategy;
+        this.solverTimeoutMillis = solverTimeoutMillis;
+        this.mappingOrder = List.copyOf(mappingOrder);
+        this.reason = reason;
+    }
+
+    /**
+     * Gets the solver strategy.
+     *
+     * @return The strategy.
+     */
+    public SolverStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Gets the time limit of each check.
+     *
+     * @return The time limit in milliseconds, 0 to keep the validator's own.
+     */
+    public int getSolverTimeoutMillis() {
+        return solverTimeoutMillis;
+    }
+
+    /**
+     * Gets the signatures of the mappings to try first.
+     *
+     * @return The signatures, best first.
+     */
+    public List<String> getMappingOrder() {
+        return mappingOrder;
+    }
+
+    /**
+     * Gets why the decision was made.
+     *
+     * @return The reason.
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Returns a string representation of the decision.
+     *
+     * @return a string representation of the decision
+     */
+    @Override
+    public String toString() {
+        return strategy + " timeout=" + (solverTimeoutMillis == 0 ? "default" : solverTimeoutMillis + "ms")
+            + " mappings=" + mappingOrder + " (" + reason + ")";
+    }
+}
@@ -0,0 +1,250 @@
+package sg.edu.nus.se.its.validation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.javatuples.Pair;
+
+/**
+ * The StrategySelector class chooses how each validation is run from what worked for earlier submissions of the
+ * same assignment, identified by the fingerprint of the reference function. Every strategy is tried a few times
+ * first; afterwards the one with the best average time and fewest inconclusive checks is used, with an
+ * occasional trial of the others in case the submissions change. Once enough validations are decided, the check
+ * time limit follows their 95th percentile, and mappings that proved equivalence before are tried first.
+ *
+ * <p>Decisions can be inspected with {@link #peek(String)} and {@link #describe(String)}, and replaced by hand
+ * with {@link #setOverride(String, StrategyDecision)}.
+ */
+public class StrategySelector {
+    /**
+     * Number of times each strategy is tried before the results are trusted.
+     */
+    private static final int EXPLORATION_TRIALS = 3;
+
+    /**
+     * Every this many decisions, the least tried strategy is used instead of the best one.
+     */
+    private static final int EXPLORE_EVERY = 16;
+
+    /**
+     * Number of decided validations needed before the time limit is chosen.
+     */
+    private static final int MIN_TIMEOUT_SAMPLES = 16;
+
+    /**
+     * Factor between the 95th percentile of decided validations and the chosen time limit.
+     */
+    private static final int TIMEOUT_FACTOR = 4;
+
+    /**
+     * Number of assignments whose statistics are kept.
+     */
+    private static final int MAX_ASSIGNMENTS = 1024;
+
+    private final int minTimeoutMillis;
+    private final int maxTimeoutMillis;
+    private final Map<String, AssignmentStatistics> statistics;
+    private final Map<String, StrategyDecision> overrides = new HashMap<>();
+
+    /**
+     * Constructs a StrategySelector.
+     *
+     * @param minTimeoutMillis The lowest time limit of a check the selector may choose.
+     * @param maxTimeoutMillis The highest time limit of a check the selector may choose, 0 to never choose one.
+     */
+    public StrategySelector(int minTimeoutMillis, int maxTimeoutMillis) {
+        if (minTimeoutMillis < 0 || (maxTimeoutMillis > 0 && maxTimeoutMillis < minTimeoutMillis)) {
+            throw new IllegalArgumentException("Time limits must not be negative and the maximum not below the minimum.");
+        }
+        this.minTimeoutMillis = minTimeoutMillis;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+        this.statistics = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AssignmentStatistics> eldest) {
+                return size() > MAX_ASSIGNMENTS;
+            }
+        };
+    }
+
+    /**
+     * Decides how the next validation of an assignment is run.
+     *
+     * @param assignment The fingerprint of the reference function.
+     * @return The decision.
+     */
+    synchronized StrategyDecision decide(String assignment) {
+        StrategyDecision override = overrides.get(assignment);
+        if (override != null) {
+            return override;
+        }
+        AssignmentStatistics stats = statistics.computeIfAbsent(assignment, key -> new AssignmentStatistics());
+        return decide(stats, stats.nextDecision());
+    }
+
+    /**
+     * Shows the decision the next validation of an assignment would get, without counting it.
+     *
+     * @param assignment The fingerprint of the reference function.
+     * @return The decision.
+     */
+    public synchronized StrategyDecision peek(String assignment) {
+        StrategyDecision override = overrides.get(assignment);
+        if (override != null) {
+            return override;
+        }
+        AssignmentStatistics stats = statistics.get(assignment);
+        if (stats == null) {
+            stats = new AssignmentStatistics();
+        }
+        return decide(stats, stats.getDecisions());
+    }
+
+    /**
+     * Makes a decision from the statistics of an assignment.
+     *
+     * @param stats The statistics.
+     * @param index The number of decisions made for the assignment before this one.
+     * @return The decision.
+     */
+    private StrategyDecision decide(AssignmentStatistics stats, long index) {
+        SolverStrategy leastTried = null;
+        int fewestTrials = Integer.MAX_VALUE;
+        SolverStrategy best = null;
+        double bestScore = Double.POSITIVE_INFINITY;
+        for (SolverStrategy strategy : SolverStrategy.values()) {
+            AssignmentStatistics.StrategyRecord record = stats.getRecord(strategy);
+            int trials = record == null ? 0 : record.trials;
+            if (trials < fewestTrials) {
+                fewestTrials = trials;
+                leastTried = strategy;
+            }
+            if (record != null && record.score() < bestScore) {
+                bestScore = record.score();
+                best = strategy;
+            }
+        }
+
+        SolverStrategy strategy;
+        String reason;
+        if (fewestTrials < EXPLORATION_TRIALS || best == null) {
+            strategy = leastTried;
+            reason = "exploring " + leastTried + " (" + fewestTrials + " of " + EXPLORATION_TRIALS + " trials)";
+        } else if (index % EXPLORE_EVERY == EXPLORE_EVERY - 1 && leastTried != best) {
+            strategy = leastTried;
+            reason = "re-trying " + leastTried + " after " + fewestTrials + " trials";
+        } else {
+            strategy = best;
+            reason = String.format("%s best at %.1f ms average", best, stats.getRecord(best).averageMillis);
+        }
+
+        int timeoutMillis = 0;
+        if (maxTimeoutMillis > 0 && stats.getDecidedCount() >= MIN_TIMEOUT_SAMPLES) {
+            long scaled = TIMEOUT_FACTOR * stats.getDecidedP95Millis();
+            timeoutMillis = (int) Math.max(minTimeoutMillis, Math.min(maxTimeoutMillis, scaled));
+            reason += ", timeout " + TIMEOUT_FACTOR + "x p95 of " + stats.getDecidedP95Millis() + " ms";
+        }
+        return new StrategyDecision(strategy, timeoutMillis, stats.getMappingsByWins(), reason);
+    }
+
+    /**
+     * Records the validation of an assignment.
+     *
+     * @param assignment The fingerprint of the reference function.
+     * @param decision The decision the validation was run with.
+     * @param outcome The outcome.
+     * @param elapsedMillis The duration of the validation.
+     * @param winningMapping The signature of the mapping that proved equivalence, or null.
+     */
+    synchronized void recordSolved(String assignment,
+        StrategyDecision decision,
+        ValidationResult.Outcome outcome,
+        long elapsedMillis,
+        String winningMapping) {
+        boolean decided = outcome == ValidationResult.Outcome.EQUIVALENT
+            || outcome == ValidationResult.Outcome.NOT_EQUIVALENT;
+        statistics.computeIfAbsent(assignment, key -> new AssignmentStatistics())
+            .recordSolved(decision.getStrategy(), decided, elapsedMillis, winningMapping);
+    }
+
+    /**
+     * Records a validation of an assignment decided without the solver.
+     *
+     * @param assignment The fingerprint of the reference function.
+     */
+    synchronized void recordSolverFree(String assignment) {
+        statistics.computeIfAbsent(assignment, key -> new AssignmentStatistics()).recordSolverFree();
+    }
+
+    /**
+     * Replaces the decisions for an assignment by a fixed one. Statistics keep being recorded meanwhile.
+     *
+     * @param assignment The fingerprint of the reference function.
+     * @param decision The decision, or null to let the selector decide again.
+     */
+    public synchronized void setOverride(String assignment, StrategyDecision decision) {
+        if (decision == null) {
+            overrides.remove(assignment);
+        } else {
+            overrides.put(assignment, decision);
+        }
+    }
+
+    /**
+     * Describes the statistics recorded for an assignment.
+     *
+     * @param assignment The fingerprint of the reference function.
+     * @return The description, or null if nothing was recorded.
+     */
+    public synchronized String describe(String assignment) {
+        AssignmentStatistics stats = statistics.get(assignment);
+        return stats == null ? null : stats.toString();
+    }
+
+    /**
+     * Gets the assignments with recorded statistics.
+     *
+     * @return The fingerprints of their reference functions, least recently used first.
+     */
+    public synchronized List<String> getAssignments() {
+        return new ArrayList<>(statistics.keySet());
+    }
+
+    /**
+     * Describes a parameter mapping by positions instead of names, so that it carries over between submissions
+     * that name their parameters differently: for each type, the position among the submission's parameters of
+     * that type of the parameter mapped to each of the reference's, in order.
+     *
+     * @param mapping The mapping.
+     * @param referenceParams The reference parameter names by type, in declaration order.
+     * @param submissionParams The submission parameter names by type, in declaration order.
+     * @return The signature, e.g. {@code int:1,0;double:0}.
+     */
+    public static String mappingSignature(List<Pair<Pair<String, String>, String>> mapping,
+        Map<String, ArrayList<String>> referenceParams,
+        Map<String, ArrayList<String>> submissionParams) {
+        Map<String, int[]> positions = new TreeMap<>();
+        for (Pair<Pair<String, String>, String> pair : mapping) {
+            String type = pair.getValue1();
+            List<String> referenceOfType = referenceParams.get(type);
+            int[] typePositions = positions.computeIfAbsent(type, key -> new int[referenceOfType.size()]);
+            typePositions[referenceOfType.indexOf(pair.getValue0().getValue0())] =
+                submissionParams.get(type).indexOf(pair.getValue0().getValue1());
+        }
+        StringBuilder signature = new StringBuilder();
+        for (Map.Entry<String, int[]> entry : positions.entrySet()) {
+            if (signature.length() > 0) {
+                signature.append(';');
+            }
+            signature.append(entry.getKey()).append(':');
+            int[] typePositions = entry.getValue();
+            for (int i = 0; i < typePositions.length; i++) {
+                signature.append(i == 0 ? "" : ",").append(typePositions[i]);
+            }
+        }
+        return signature.toString();
+    }
+}
@@ -0,0 +1,579 @@
+package sg.edu.nus.se.its.validation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.javatuples.Pair;
+
+import sg.edu.nus.se.its.model.Constant;
+import sg.edu.nus.se.its.model.Expression;
+import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.model.Operation;
+import sg.edu.nus.se.its.model.Variable;
+
+/**
+ * The StructuralMatcher class decides that two functions are equivalent without the solver when they are the
+ * same program up to the names of their variables, the numbering of their locations, the order of independent
+ * assignments within a location and the order of the operands of commutative operators.
+ *
+ * <p>Both functions are first sliced with {@link OutputSlicer}. Each location is then put in a normal form that
+ * maps every variable it assigns to an expression over the values at the start of the location, which makes
+ * the order of independent assignments irrelevant. The locations of the two functions are walked together from
+ * the entry, pairing the assignments and growing a bijection between their variables; parameters only pair with
+ * parameters of the same type, and the return value, output and branch condition with themselves.
+ *
+ * <p>The check is conservative: it gives up, leaving the functions to the solver, on loops, arrays, strings
+ * produced by the program, operators it does not know, very large expressions, and ambiguities it cannot settle
+ * quickly. Loops are left out because a loop that never ends must still time out rather than be accepted.
+ */
+public final class StructuralMatcher {
+    /**
+     * Largest expression, in nodes, of an assignment in normal form.
+     */
+    private static final int MAX_TERM_SIZE = 1000;
+
+    /**
+     * Largest number of expression comparisons of one check.
+     */
+    private static final int MAX_STEPS = 100_000;
+
+    /**
+     * Parameter types whose values the validator models.
+     */
+    private static final Set<String> PARAMETER_TYPES = Set.of("int", "float", "double", "bool");
+
+    /**
+     * Variables that are only ever paired with themselves.
+     */
+    private static final Set<String> SPECIAL_VARIABLES = Set.of("$ret", "$out", "$cond");
+
+    /**
+     * Operators of the normal form that do not depend on the order of their operands.
+     */
+    private static final Set<String> COMMUTATIVE = Set.of("Add", "Mult", "Eq", "NotEq", "And", "Or");
+
+    /**
+     * Normal operator names by the number of operands and the operator names they stand for.
+     */
+    private static final Map<String, String> OPERATORS = new HashMap<>();
+
+    static {
+        for (String operator : List.of("USub", "-")) {
+            OPERATORS.put("1:" + operator, "USub");
+        }
+        OPERATORS.put("1:abs", "abs");
+        for (String operator : List.of("Not", "!")) {
+            OPERATORS.put("1:" + operator, "Not");
+        }
+        String[][] binary = {
+            {"Add", "Add", "AssAdd", "+"},
+            {"Sub", "Sub", "-"},
+            {"Mult", "Mult", "*"},
+            {"Div", "Div", "/", "FloorDiv"},
+            {"Pow", "Pow", "pow"},
+            {"Mod", "Mod", "%"},
+            {"Gt", "Gt", ">"},
+            {"GtE", "GtE", ">="},
+            {"Lt", "Lt", "<"},
+            {"LtE", "LtE", "<="},
+            {"Eq", "Eq", "=="},
+            {"NotEq", "!="},
+            {"And", "And", "&&"},
+            {"Or", "Or", "||"},
+        };
+        for (String[] aliases : binary) {
+            for (int i = 1; i < aliases.length; i++) {
+                OPERATORS.put("2:" + aliases[i], aliases[0]);
+            }
+        }
+        OPERATORS.put("3:ite", "ite");
+    }
+
+    private StructuralMatcher() {
+    }
+
+    /**
+     * Checks whether two functions are the same program up to renaming and reordering.
+     *
+     * @param reference The reference function.
+     * @param submission The submitted function.
+     * @return True if the functions are equivalent, false if they are not or the check gave up.
+     */
+    public static boolean isomorphic(Function reference, Function submission) {
+        NormalForm referenceForm = NormalForm.of(reference);
+        if (referenceForm == null) {
+            return false;
+        }
+        NormalForm submissionForm = NormalForm.of(submission);
+        return submissionForm != null && new Matcher(referenceForm, submissionForm).match();
+    }
+
+    /**
+     * An expression in normal form: a variable or literal, or an operator applied to operands.
+     */
+    private static final class Term {
+        final String operator;
+        final String leaf;
+        final boolean variable;
+        final List<Term> operands;
+        final int size;
+        /**
+         * The expression with variables replaced by their kind and commutative operands sorted, which any
+         * matching expression shares.
+         */
+        final String shape;
+
+        private Term(String operator, String leaf, boolean variable, List<Term> operands, int size, String shape) {
+            this.operator = operator;
+            this.leaf = leaf;
+            this.variable = variable;
+            this.operands = operands;
+            this.size = size;
+            this.shape = shape;
+        }
+
+        static Term variable(String name, String kind) {
+            return new Term(null, name, true, List.of(), 1, kind);
+        }
+
+        static Term literal(String value) {
+            return new Term(null, value, false, List.of(), 1, "#" + value);
+        }
+
+        static Term operation(String operator, List<Term> operands) {
+            int size = 1;
+            List<String> shapes = new ArrayList<>(operands.size());
+            for (Term operand : operands) {
+                size += operand.size;
+                shapes.add(operand.shape);
+            }
+            if (COMMUTATIVE.contains(operator)) {
+                shapes.sort(Comparator.naturalOrder());
+            }
+            return new Term(operator, null, false, operands, size, operator + "(" + String.join(",", shapes) + ")");
+        }
+    }
+
+    /**
+     * A location in normal form.
+     */
+    private static final class Block {
+        final boolean conditional;
+        final List<Pair<String, Term>> assignments;
+        final List<Integer> successors;
+
+        Block(boolean conditional, List<Pair<String, Term>> assignments, List<Integer> successors) {
+            this.conditional = conditional;
+            this.assignments = assignments;
+            this.successors = successors;
+        }
+    }
+
+    /**
+     * A function with every reachable location in normal form.
+     */
+    private static final class NormalForm {
+        final Map<String, String> parameterTypes = new HashMap<>();
+        final Map<Integer, Block> blocks = new HashMap<>();
+        private final Set<String> assignedVariables = new HashSet<>();
+        private final Set<String> readVariables = new HashSet<>();
+
+        /**
+         * Puts a function in normal form.
+         *
+         * @param function The function.
+         * @return The normal form, or null if the function is outside what the check handles.
+         */
+        static NormalForm of(Function function) {
+            NormalForm form = new NormalForm();
+            for (Pair<String, String> param : function.getParams()) {
+                if (!PARAMETER_TYPES.contains(param.getValue1())) {
+                    return null;
+                }
+                form.parameterTypes.put(param.getValue0(), param.getValue1());
+            }
+            HashMap<Integer, ArrayList<Pair<String, Expression>>> locExprs = OutputSlicer.slice(function.getLocexprs());
+            if (!locExprs.containsKey(1) || !form.addBlocks(locExprs, function.getLoctrans())) {
+                return null;
+            }
+            // A local that is never assigned has no value in the solver
+            for (String name : form.readVariables) {
+                if (kind(name, form).equals("local") && !form.assignedVariables.contains(name)) {
+                    return null;
+                }
+            }
+            return form;
+        }
+
+        /**
+         * Adds the locations reachable from the entry, in depth-first order.
+         *
+         * @param locExprs The expressions by location.
+         * @param transitions The transitions by location.
+         * @return False if a location cannot be handled or the locations form a loop.
+         */
+        private boolean addBlocks(HashMap<Integer, ArrayList<Pair<String, Expression>>> locExprs,
+            HashMap<Integer, HashMap<Boolean, Integer>> transitions) {
+            Set<Integer> onPath = new HashSet<>();
+            Deque<Pair<Integer, Boolean>> stack = new ArrayDeque<>();
+            stack.push(new Pair<>(1, false));
+            while (!stack.isEmpty()) {
+                Pair<Integer, Boolean> top = stack.pop();
+                int loc = top.getValue0();
+                if (top.getValue1()) {
+                    onPath.remove(loc);
+                    continue;
+                }
+                if (onPath.contains(loc)) {
+                    return false;
+                }
+                if (blocks.containsKey(loc)) {
+                    continue;
+                }
+                Block block = toBlock(locExprs.get(loc), transitions.get(loc), locExprs);
+                if (block == null) {
+                    return false;
+                }
+                blocks.put(loc, block);
+                onPath.add(loc);
+                stack.push(new Pair<>(loc, true));
+                for (Integer successor : block.successors) {
+                    if (successor != null) {
+                        stack.push(new Pair<>(successor, false));
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Puts a location in normal form, following how SolverWrapper executes it.
+         *
+         * @param expressions The expressions of the location.
+         * @param transition The transitions of the location.
+         * @param locExprs The expressions by location, to tell successors from the exit.
+         * @return The block, or null if the location cannot be handled.
+         */
+        private Block toBlock(ArrayList<Pair<String, Expression>> expressions,
+            HashMap<Boolean, Integer> transition,
+            HashMap<Integer, ArrayList<Pair<String, Expression>>> locExprs) {
+            if (transition == null) {
+                return null;
+            }
+            boolean conditional = !expressions.isEmpty() && expressions.get(0).getValue0().equals("$cond");
+            Map<String, Term> values = new LinkedHashMap<>();
+            List<Integer> successors = new ArrayList<>();
+            if (conditional) {
+                // Only the condition of a branching location is executed
+                Term condition = toTerm(expressions.get(0).getValue1(), values);
+                if (condition == null || !transition.containsKey(true) || !transition.containsKey(false)) {
+                    return null;
+                }
+                values.put("$cond", condition);
+                successors.add(transition.get(true));
+                successors.add(transition.get(false));
+            } else {
+                for (Pair<String, Expression> expression : expressions) {
+                    Term value = toTerm(expression.getValue1(), values);
+                    if (value == null) {
+                        return null;
+                    }
+                    values.put(expression.getValue0(), value);
+                }
+                if (!transition.isEmpty() && !transition.containsKey(true)) {
+                    return null;
+                }
+                successors.add(transition.isEmpty() ? null : transition.get(true));
+            }
+            // The walk stops at a location without expressions
+            successors.replaceAll(successor -> successor != null && locExprs.containsKey(successor) ? successor : null);
+
+            List<Pair<String, Term>> assignments = new ArrayList<>();
+            for (Map.Entry<String, Term> value : values.entrySet()) {
+                if (value.getValue().size > MAX_TERM_SIZE) {
+                    return null;
+                }
+                assignedVariables.add(value.getKey());
+                assignments.add(new Pair<>(value.getKey(), value.getValue()));
+            }
+            return new Block(conditional, assignments, successors);
+        }
+
+        /**
+         * Converts an expression to normal form, substituting the values assigned earlier in the location.
+         *
+         * @param expression The expression.
+         * @param values The values assigned so far in the location.
+         * @return The term, or null if the expression cannot be handled.
+         */
+        private Term toTerm(Expression expression, Map<String, Term> values) {
+            if (expression instanceof Operation) {
+                Operation operation = (Operation) expression;
+                String operator = OPERATORS.get(operation.getArgs().size() + ":" + operation.getName());
+                if (operator == null) {
+                    return null;
+                }
+                List<Term> operands = new ArrayList<>(operation.getArgs().size());
+                for (Expression arg : operation.getArgs()) {
+                    Term operand = toTerm(arg, values);
+                    if (operand == null) {
+                        return null;
+                    }
+                    operands.add(operand);
+                }
+                // a > b is b < a
+                if (operator.equals("Gt") || operator.equals("GtE")) {
+                    operator = operator.equals("Gt") ? "Lt" : "LtE";
+                    operands = List.of(operands.get(1), operands.get(0));
+                }
+                Term term = Term.operation(operator, operands);
+                return term.size > MAX_TERM_SIZE ? null : term;
+            } else if (expression instanceof Variable) {
+                return read(((Variable) expression).getName(), values);
+            } else if (expression instanceof Constant) {
+                String value = ((Constant) expression).getValue();
+                if (value == null || value.isEmpty() || ExpressionFactory.isReservedKeyword(value)) {
+                    return null;
+                }
+                char first = value.charAt(0);
+                if (Character.isDigit(first) || first == '-') {
+                    return isNumber(value) ? Term.literal(value) : null;
+                } else if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+                    return Term.literal(value.toLowerCase());
+                } else if (first == '"') {
+                    return null;
+                }
+                return read(value, values);
+            }
+            return null;
+        }
+
+        private Term read(String name, Map<String, Term> values) {
+            // The parser service adds an extra ' to the end of variable names
+            if (name.contains("'")) {
+                name = name.substring(0, name.length() - 1);
+            }
+            Term value = values.get(name);
+            if (value != null) {
+                return value;
+            }
+            readVariables.add(name);
+            return Term.variable(name, kind(name, this));
+        }
+
+        private static boolean isNumber(String value) {
+            if (value.contains(".")) {
+                return value.matches("-?\\d+\\.\\d+");
+            }
+            try {
+                Integer.parseInt(value);
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Gets what a variable may be paired with.
+     *
+     * @param name The variable name.
+     * @param form The function the variable belongs to.
+     * @return The kind of the variable.
+     */
+    private static String kind(String name, NormalForm form) {
+        if (SPECIAL_VARIABLES.contains(name)) {
+            return name;
+        }
+        String type = form.parameterTypes.get(name);
+        return type == null ? "local" : "param:" + type;
+    }
+
+    /**
+     * Walks two functions in normal form together, pairing their locations, assignments and variables.
+     */
+    private static final class Matcher {
+        private final NormalForm reference;
+        private final NormalForm submission;
+        private final Map<String, String> forward = new HashMap<>();
+        private final Map<String, String> backward = new HashMap<>();
+        private final Deque<String> trail = new ArrayDeque<>();
+        private int steps;
+
+        Matcher(NormalForm reference, NormalForm submission) {
+            this.reference = reference;
+            this.submission = submission;
+        }
+
+        boolean match() {
+            if (reference.blocks.size() != submission.blocks.size()) {
+                return false;
+            }
+            Map<Integer, Integer> locations = new HashMap<>();
+            Set<Integer> pairedSubmission = new HashSet<>();
+            Deque<Pair<Integer, Integer>> pending = new ArrayDeque<>();
+            pending.push(new Pair<>(1, 1));
+            while (!pending.isEmpty()) {
+                Pair<Integer, Integer> pair = pending.pop();
+                Integer paired = locations.get(pair.getValue0());
+                if (paired != null) {
+                    if (!paired.equals(pair.getValue1())) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (!pairedSubmission.add(pair.getValue1())) {
+                    return false;
+                }
+                locations.put(pair.getValue0(), pair.getValue1());
+
+                Block referenceBlock = reference.blocks.get(pair.getValue0());
+                Block submissionBlock = submission.blocks.get(pair.getValue1());
+                if (referenceBlock.conditional != submissionBlock.conditional
+                    || !matchAssignments(referenceBlock.assignments, submissionBlock.assignments)) {
+                    return false;
+                }
+                for (int i = 0; i < referenceBlock.successors.size(); i++) {
+                    Integer referenceNext = referenceBlock.successors.get(i);
+                    Integer submissionNext = submissionBlock.successors.get(i);
+                    if ((referenceNext == null) != (submissionNext == null)) {
+                        return false;
+                    }
+                    if (referenceNext != null) {
+                        pending.push(new Pair<>(referenceNext, submissionNext));
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Pairs the assignments of two locations, in any order. The first pairing found is kept.
+         *
+         * @param referenceAssignments The assignments of the reference location.
+         * @param submissionAssignments The assignments of the submission location.
+         * @return True if every assignment was paired.
+         */
+        private boolean matchAssignments(List<Pair<String, Term>> referenceAssignments,
+            List<Pair<String, Term>> submissionAssignments) {
+            if (referenceAssignments.size() != submissionAssignments.size()) {
+                return false;
+            }
+            List<String> referenceShapes = shapes(referenceAssignments, reference);
+            List<String> submissionShapes = shapes(submissionAssignments, submission);
+            if (!referenceShapes.stream().sorted().collect(Collectors.toList())
+                .equals(submissionShapes.stream().sorted().collect(Collectors.toList()))) {
+                return false;
+            }
+            return matchAssignments(referenceAssignments, submissionAssignments, referenceShapes, submissionShapes,
+                0, new boolean[submissionAssignments.size()]);
+        }
+
+        private boolean matchAssignments(List<Pair<String, Term>> referenceAssignments,
+            List<Pair<String, Term>> submissionAssignments,
+            List<String> referenceShapes,
+            List<String> submissionShapes,
+            int index,
+            boolean[] used) {
+            if (index == referenceAssignments.size()) {
+                return true;
+            }
+            Pair<String, Term> assignment = referenceAssignments.get(index);
+            for (int i = 0; i < submissionAssignments.size(); i++) {
+                if (used[i] || !referenceShapes.get(index).equals(submissionShapes.get(i))) {
+                    continue;
+                }
+                int mark = trail.size();
+                Pair<String, Term> candidate = submissionAssignments.get(i);
+                if (bind(assignment.getValue0(), candidate.getValue0())
+                    && matchTerms(assignment.getValue1(), candidate.getValue1())) {
+                    used[i] = true;
+                    if (matchAssignments(referenceAssignments, submissionAssignments, referenceShapes,
+                        submissionShapes, index + 1, used)) {
+                        return true;
+                    }
+                    used[i] = false;
+                }
+                undo(mark);
+            }
+            return false;
+        }
+
+        private static List<String> shapes(List<Pair<String, Term>> assignments, NormalForm form) {
+            return assignments.stream()
+                .map(assignment -> kind(assignment.getValue0(), form) + "=" + assignment.getValue1().shape)
+                .collect(Collectors.toList());
+        }
+
+        /**
+         * Checks whether two terms are equal under the variable bijection, extending it as needed.
+         *
+         * @param left The reference term.
+         * @param right The submission term.
+         * @return True if the terms match; the bijection is then extended, otherwise it may be partly extended.
+         */
+        private boolean matchTerms(Term left, Term right) {
+            if (++steps > MAX_STEPS || !left.shape.equals(right.shape)) {
+                return false;
+            }
+            if (left.operator == null) {
+                return left.variable ? bind(left.leaf, right.leaf) : left.leaf.equals(right.leaf);
+            }
+            if (COMMUTATIVE.contains(left.operator)) {
+                Term left0 = left.operands.get(0);
+                Term left1 = left.operands.get(1);
+                Term right0 = right.operands.get(0);
+                Term right1 = right.operands.get(1);
+                int mark = trail.size();
+                if (left0.shape.equals(right0.shape) && matchTerms(left0, right0) && matchTerms(left1, right1)) {
+                    return true;
+                }
+                undo(mark);
+                return left0.shape.equals(right1.shape) && matchTerms(left0, right1) && matchTerms(left1, right0);
+            }
+            for (int i = 0; i < left.operands.size(); i++) {
+                if (!matchTerms(left.operands.get(i), right.operands.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Pairs two variables, unless either is already paired with another one or their kinds differ.
+         *
+         * @param referenceName The reference variable.
+         * @param submissionName The submission variable.
+         * @return True if the variables are paired with each other.
+         */
+        private boolean bind(String referenceName, String submissionName) {
+            String paired = forward.get(referenceName);
+            if (paired != null) {
+                return paired.equals(submissionName);
+            }
+            if (backward.containsKey(submissionName)
+                || !kind(referenceName, reference).equals(kind(submissionName, submission))) {
+                return false;
+            }
+            forward.put(referenceName, submissionName);
+            backward.put(submissionName, referenceName);
+            trail.push(referenceName);
+            return true;
+        }
+
+        private void undo(int mark) {
+            while (trail.size() > mark) {
+                backward.remove(forward.remove(trail.pop()));
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package sg.edu.nus.se.its.validation;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.microsoft.z3.Expr;
+
+/**
+ * The TermMetrics class describes the size of the terms built for a function's outputs.
+ */
+public class TermMetrics {
+    /**
+     * Metrics of a validation that built no terms.
+     */
+    public static final TermMetrics EMPTY = new TermMetrics(0, 0, new TreeMap<>());
+
+    private final int dagSize;
+    private final long treeSize;
+    private final Map<String, Integer> operatorCounts;
+
+    /**
+     * Constructs a TermMetrics.
+     *
+     * @param dagSize The number of distinct nodes.
+     * @param treeSize The number of nodes when shared sub-terms are counted once per occurrence.
+     * @param operatorCounts The number of distinct nodes per operator.
+     */
+    public TermMetrics(int dagSize, long treeSize, Map<String, Integer> operatorCounts) {
+        this.dagSize = dagSize;
+        this.treeSize = treeSize;
+        this.operatorCounts = operatorCounts;
+    }
+
+    /**
+     * Measures the given terms, sharing common sub-terms between them.
+     *
+     * @param terms The terms, null entries are ignored.
+     * @return The metrics of the terms.
+     */
+    @SuppressWarnings("rawtypes")
+    public static TermMetrics of(Expr... terms) {
+        Map<Integer, Long> treeSizes = new HashMap<>();
+        Map<String, Integer> operatorCounts = new TreeMap<>();
+        long treeSize = 0;
+        for (Expr term : terms) {
+            if (term != null) {
+                treeSize = saturatedAdd(treeSize, treeSize(term, treeSizes, operatorCounts));
+            }
+        }
+        return new TermMetrics(treeSizes.size(), treeSize, operatorCounts);
+    }
+
+    /**
+     * Counts the distinct nodes of a term.
+     *
+     * @param term The term.
+     * @return The number of distinct nodes in the term.
+     */
+    @SuppressWarnings("rawtypes")
+    public static int dagSize(Expr term) {
+        return of(term).getDagSize();
+    }
+
+    /**
+     * Computes the tree size of a term iteratively, memoising the size of every visited node.
+     *
+     * @param root The term.
+     * @param treeSizes The tree size of each visited node, keyed by node id.
+     * @param operatorCounts The number of distinct nodes per operator.
+     * @return The tree size of the term.
+     */
+    @SuppressWarnings("rawtypes")
+    private static long treeSize(Expr root, Map<Integer, Long> treeSizes, Map<String, Integer> operatorCounts) {
+        ArrayDeque<Expr> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Expr current = pending.peek();
+            if (treeSizes.containsKey(current.getId())) {
+                pending.pop();
+                continue;
+            }
+            Expr[] args = current.isApp() ? current.getArgs() : new Expr[0];
+            boolean ready = true;
+            for (Expr arg : args) {
+                if (!treeSizes.containsKey(arg.getId())) {
+                    pending.push(arg);
+                    ready = false;
+                }
+            }
+            if (ready) {
+                pending.pop();
+                long size = 1;
+                for (Expr arg : args) {
+                    size = saturatedAdd(size, treeSizes.get(arg.getId()));
+                }
+                treeSizes.put(current.getId(), size);
+                if (args.length > 0) {
+                    operatorCounts.merge(current.getFuncDecl().getName().toString(), 1, Integer::sum);
+                }
+            }
+        }
+        return treeSizes.get(root.getId());
+    }
+
+    /**
+     * Adds two sizes, saturating instead of overflowing on exponentially shared terms.
+     *
+     * @param a The first size.
+     * @param b The second size.
+     * @return The sum, or Long.MAX_VALUE on overflow.
+     */
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    /**
+     * Gets the number of distinct nodes.
+     *
+     * @return The DAG size.
+     */
+    public int getDagSize() {
+        return dagSize;
+    }
+
+    /**
+     * Gets the number of nodes when shared sub-terms are counted once per occurrence.
+     *
+     * @return The tree size.
+     */
+    public long getTreeSize() {
+        return treeSize;
+    }
+
+    /**
+     * Gets the number of distinct nodes per operator, e.g. {@code store} or {@code str.replace}.
+     *
+     * @return The operator counts.
+     */
+    public Map<String, Integer> getOperatorCounts() {
+        return operatorCounts;
+    }
+
+    @Override
+    public String toString() {
+        return "dag=" + dagSize + " tree=" + treeSize + " operators=" + operatorCounts;
+    }
+}
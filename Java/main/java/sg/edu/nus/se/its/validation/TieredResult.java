@@ -0,0 +1,66 @@
+package sg.edu.nus.se.its.validation;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The TieredResult class holds the first, quickly available result of a validation and the future of the
+ * final verdict, which is the quick result itself unless the validation was escalated to a later, full check
+ * (by {@link TieredValidator} or {@link DegradingValidator}).
+ */
+public class TieredResult {
+    private final ValidationResult quickResult;
+    private final CompletableFuture<ValidationResult> finalResult;
+    private final boolean escalated;
+
+    /**
+     * Constructs a TieredResult.
+     *
+     * @param quickResult The result of the quick pass.
+     * @param finalResult The future of the final verdict.
+     * @param escalated Whether the validation was escalated to a later check.
+     */
+    public TieredResult(ValidationResult quickResult,
+        CompletableFuture<ValidationResult> finalResult,
+        boolean escalated) {
+        this.quickResult = quickResult;
+        this.finalResult = finalResult;
+        this.escalated = escalated;
+    }
+
+    /**
+     * Gets the result of the quick pass.
+     *
+     * @return The quick result.
+     */
+    public ValidationResult getQuickResult() {
+        return quickResult;
+    }
+
+    /**
+     * Gets the future of the final verdict. Callbacks can be attached with {@code thenAccept}.
+     *
+     * @return The final result.
+     */
+    public CompletableFuture<ValidationResult> getFinalResult() {
+        return finalResult;
+    }
+
+    /**
+     * Checks if the validation was escalated to a later check.
+     *
+     * @return True if the final verdict comes from a later check, false otherwise.
+     */
+    public boolean isEscalated() {
+        return escalated;
+    }
+
+    /**
+     * Returns a string representation of the tiered result.
+     *
+     * @return a string representation of the tiered result
+     */
+    @Override
+    public String toString() {
+        return quickResult + (escalated ? ", escalated" : "");
+    }
+}
@@ -0,0 +1,100 @@
+package sg.edu.nus.se.its.validation;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import sg.edu.nus.se.its.model.Program;
+
+/**
+ * The TieredValidator class validates in two passes. Every validation first runs with a small time budget;
+ * those that come back UNKNOWN or run out of time are escalated to a slow lane with a large budget and a
+ * validator and worker pool of its own, so hard submissions do not hold up the easy ones.
+ */
+public class TieredValidator implements AutoCloseable {
+    private final PatchValidator quickValidator;
+    private final PatchValidator slowValidator;
+    private final ExecutorService slowLane;
+    private final long quickBudgetMillis;
+    private final long slowBudgetMillis;
+    private final AtomicLong escalated = new AtomicLong();
+    private final AtomicLong pendingEscalations = new AtomicLong();
+
+    /**
+     * Constructs a TieredValidator.
+     *
+     * @param quickConcurrency Maximum number of quick passes solved at the same time.
+     * @param quickBudgetMillis Time budget of a quick pass (in milliseconds).
+     * @param slowConcurrency Maximum number of escalated validations solved at the same time.
+     * @param slowBudgetMillis Time budget of an escalated validation (in milliseconds).
+     */
+    public TieredValidator(int quickConcurrency, long quickBudgetMillis, int slowConcurrency, long slowBudgetMillis) {
+        if (quickBudgetMillis <= 0 || slowBudgetMillis < quickBudgetMillis || quickBudgetMillis > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Budgets must be positive, with the slow one at least the quick one.");
+        }
+        this.quickValidator = new PatchValidator(quickConcurrency);
+        this.slowValidator = new PatchValidator(slowConcurrency);
+        // Solver checks give up on their own within the quick budget instead of waiting to be interrupted
+        this.quickValidator.setSolverTimeout((int) quickBudgetMillis);
+        this.slowLane = Executors.newFixedThreadPool(slowConcurrency);
+        this.quickBudgetMillis = quickBudgetMillis;
+        this.slowBudgetMillis = slowBudgetMillis;
+    }
+
+    /**
+     * Validates two programs, escalating the validation if the quick pass is inconclusive.
+     *
+     * @param referenceProgram Reference program.
+     * @param fixedProgram Fixed program.
+     * @return The quick result and the future of the final verdict.
+     */
+    public TieredResult validate(Program referenceProgram, Program fixedProgram) {
+        ValidationResult quickResult = quickValidator.validate(referenceProgram, fixedProgram, quickBudgetMillis);
+        if (quickResult.getOutcome() != ValidationResult.Outcome.UNKNOWN
+            && quickResult.getOutcome() != ValidationResult.Outcome.TIMEOUT) {
+            return new TieredResult(quickResult, CompletableFuture.completedFuture(quickResult), false);
+        }
+
+        escalated.incrementAndGet();
+        pendingEscalations.incrementAndGet();
+        CompletableFuture<ValidationResult> finalResult = CompletableFuture.supplyAsync(
+            () -> slowValidator.validate(referenceProgram, fixedProgram, slowBudgetMillis), slowLane);
+        finalResult.whenComplete((result, failure) -> pendingEscalations.decrementAndGet());
+        return new TieredResult(quickResult, finalResult, true);
+    }
+
+    /**
+     * Gets the number of validations escalated to the slow lane.
+     *
+     * @return The number of escalations.
+     */
+    public long getEscalated() {
+        return escalated.get();
+    }
+
+    /**
+     * Gets the number of escalated validations waiting or running in the slow lane.
+     *
+     * @return The number of pending escalations.
+     */
+    public long getPendingEscalations() {
+        return pendingEscalations.get();
+    }
+
+    /**
+     * Closes both validators, waiting up to one slow budget for the escalated validations to finish.
+     */
+    @Override
+    public void close() {
+        slowLane.shutdown();
+        try {
+            slowLane.awaitTermination(slowBudgetMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        quickValidator.close();
+        slowValidator.close();
+    }
+}
@@ -0,0 +1,188 @@
+package sg.edu.nus.se.its.validation;
+
+/**
+ * The ValidationResult class holds the verdict of a validation together with the solver
+ * statistics and term sizes it was reached with.
+ */
+public class ValidationResult {
+    /**
+     * The possible outcomes of a validation.
+     */
+    public enum Outcome {
+        EQUIVALENT,
+        NOT_EQUIVALENT,
+        UNKNOWN,
+        TIMEOUT,
+        ERROR,
+        REJECTED
+    }
+
+    private final Outcome outcome;
+    private final String counterExample;
+    private final int mappingsTried;
+    private final SolverStatistics statistics;
+    private final TermMetrics referenceTerms;
+    private final TermMetrics submissionTerms;
+    private final long elapsedMillis;
+    private final boolean provisional;
+
+    /**
+     * Constructs a ValidationResult.
+     *
+     * @param outcome The outcome of the validation.
+     * @param counterExample The counter example, empty if there is none.
+     * @param mappingsTried The number of parameter mappings checked.
+     * @param statistics The accumulated solver statistics.
+     * @param referenceTerms The size of the reference function's output terms.
+     * @param submissionTerms The size of the submitted function's output terms.
+     * @param elapsedMillis The duration of the validation in milliseconds.
+     */
+    public ValidationResult(Outcome outcome,
+        String counterExample,
+        int mappingsTried,
+        SolverStatistics statistics,
+        TermMetrics referenceTerms,
+        TermMetrics submissionTerms,
+        long elapsedMillis) {
+        this(outcome, counterExample, mappingsTried, statistics, referenceTerms, submissionTerms, elapsedMillis,
+            false);
+    }
+
+    private ValidationResult(Outcome outcome,
+        String counterExample,
+        int mappingsTried,
+        SolverStatistics statistics,
+        TermMetrics referenceTerms,
+        TermMetrics submissionTerms,
+        long elapsedMillis,
+        boolean provisional) {
+        this.outcome = outcome;
+        this.counterExample = counterExample;
+        this.mappingsTried = mappingsTried;
+        this.statistics = statistics;
+        this.referenceTerms = referenceTerms;
+        this.submissionTerms = submissionTerms;
+        this.elapsedMillis = elapsedMillis;
+        this.provisional = provisional;
+    }
+
+    /**
+     * Creates a result for a validation that did not reach the solver.
+     *
+     * @param outcome The outcome of the validation.
+     * @param elapsedMillis The duration of the validation in milliseconds.
+     * @return The result.
+     */
+    public static ValidationResult withoutSolver(Outcome outcome, long elapsedMillis) {
+        return new ValidationResult(outcome, "", 0, new SolverStatistics(),
+            TermMetrics.EMPTY, TermMetrics.EMPTY, elapsedMillis);
+    }
+
+    /**
+     * Creates a copy of this result with a different duration.
+     *
+     * @param elapsedMillis The duration of the validation in milliseconds.
+     * @return The result.
+     */
+    public ValidationResult withElapsedMillis(long elapsedMillis) {
+        return new ValidationResult(outcome, counterExample, mappingsTried, statistics,
+            referenceTerms, submissionTerms, elapsedMillis, provisional);
+    }
+
+    /**
+     * Creates a copy of this result marked as provisional, i.e. not backed by a proof.
+     *
+     * @return The result.
+     */
+    public ValidationResult asProvisional() {
+        return new ValidationResult(outcome, counterExample, mappingsTried, statistics,
+            referenceTerms, submissionTerms, elapsedMillis, true);
+    }
+
+    /**
+     * Checks if the programs were proven equivalent.
+     *
+     * @return True if the programs are equivalent, false otherwise.
+     */
+    public boolean isEquivalent() {
+        return outcome == Outcome.EQUIVALENT;
+    }
+
+    /**
+     * Checks if the result is provisional, i.e. reached by testing rather than proven by the solver.
+     *
+     * @return True if the result is provisional, false otherwise.
+     */
+    public boolean isProvisional() {
+        return provisional;
+    }
+
+    /**
+     * Gets the outcome of the validation.
+     *
+     * @return The outcome.
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Gets the counter example found by the solver.
+     *
+     * @return The counter example, empty if there is none.
+     */
+    public String getCounterExample() {
+        return counterExample;
+    }
+
+    /**
+     * Gets the number of parameter mappings checked.
+     *
+     * @return The number of mappings.
+     */
+    public int getMappingsTried() {
+        return mappingsTried;
+    }
+
+    /**
+     * Gets the solver statistics accumulated over all checks.
+     *
+     * @return The solver statistics.
+     */
+    public SolverStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Gets the size of the reference function's output terms.
+     *
+     * @return The term metrics.
+     */
+    public TermMetrics getReferenceTerms() {
+        return referenceTerms;
+    }
+
+    /**
+     * Gets the size of the submitted function's output terms.
+     *
+     * @return The term metrics.
+     */
+    public TermMetrics getSubmissionTerms() {
+        return submissionTerms;
+    }
+
+    /**
+     * Gets the duration of the validation.
+     *
+     * @return The duration in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return (provisional ? "provisionally " : "") + outcome + " in " + elapsedMillis + "ms (" + mappingsTried + " mappings, " + statistics
+            + ", reference " + referenceTerms + ", submission " + submissionTerms + ")";
+    }
+}
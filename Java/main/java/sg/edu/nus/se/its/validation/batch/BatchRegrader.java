@@ -0,0 +1,368 @@
+package sg.edu.nus.se.its.validation.batch;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import sg.edu.nus.se.its.validation.PatchValidator;
+import sg.edu.nus.se.its.validation.ValidationResult;
+
+/**
+ * The BatchRegrader class re-validates a batch of submissions listed in a JSONL manifest, one object per line
+ * with the keys {@code assignment}, {@code reference} and {@code submission} (paths relative to the manifest).
+ * The manifest is streamed and validated in parallel, and a verdict line is appended to the output as each
+ * validation completes. Only a bounded window of entries is in memory at any time.
+ *
+ * <p>Progress is checkpointed as the number of leading manifest lines whose verdicts have all been written.
+ * A resumed run skips those lines, and also the lines above the checkpoint whose verdicts are already in the
+ * output, so every entry is written exactly once.
+ *
+ * <p>Usage: {@code BatchRegrader <manifest.jsonl> <verdicts.jsonl> [--concurrency n] [--timeout ms]
+ * [--window n]}. The checkpoint is kept next to the output, in {@code <verdicts.jsonl>.checkpoint}.
+ */
+public class BatchRegrader implements AutoCloseable {
+    /**
+     * Number of entries the watermark advances between two checkpoints.
+     */
+    private static final int CHECKPOINT_INTERVAL = 64;
+
+    /**
+     * Number of parsed reference programs kept, as a re-grade usually shares a few references.
+     */
+    private static final int REFERENCE_CACHE_CAPACITY = 16;
+
+    private final int concurrency;
+    private final int window;
+    private final long timeoutMillis;
+    private final ProgramLoader loader;
+    private final PatchValidator validator;
+    private final ExecutorService workers;
+    private final ProgramLoader references;
+    private final Object checkpointLock = new Object();
+    private long checkpointed;
+
+    /**
+     * Constructs a BatchRegrader that parses the program files.
+     *
+     * @param concurrency The number of validations run at the same time.
+     * @param timeoutMillis The timeout of each validation.
+     */
+    public BatchRegrader(int concurrency, long timeoutMillis) {
+        this(concurrency, concurrency * 8, timeoutMillis, ProgramLoader.parser());
+    }
+
+    /**
+     * Constructs a BatchRegrader.
+     *
+     * @param concurrency The number of validations run at the same time.
+     * @param window The number of entries that may be in progress or completed above the checkpoint.
+     * @param timeoutMillis The timeout of each validation.
+     * @param loader The loader of the program files.
+     */
+    public BatchRegrader(int concurrency, int window, long timeoutMillis, ProgramLoader loader) {
+        if (concurrency <= 0 || window < concurrency || timeoutMillis <= 0) {
+            throw new IllegalArgumentException(
+                "Concurrency and timeout must be positive and the window at least the concurrency.");
+        }
+        this.concurrency = concurrency;
+        this.window = window;
+        this.timeoutMillis = timeoutMillis;
+        this.loader = loader;
+        this.validator = new PatchValidator(concurrency);
+        this.workers = Executors.newFixedThreadPool(concurrency, r -> new Thread(r, "batch-regrader"));
+        this.references = new CachingProgramLoader(loader, REFERENCE_CACHE_CAPACITY);
+    }
+
+    /**
+     * Runs the regrader.
+     *
+     * @param args The manifest and output paths, followed by the options.
+     * @throws IOException If the manifest cannot be read or the verdicts cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BatchRegrader <manifest.jsonl> <verdicts.jsonl> [--concurrency n]"
+                + " [--timeout ms] [--window n]");
+            System.exit(1);
+        }
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        long timeoutMillis = 60_000;
+        Integer window = null;
+        for (int i = 2; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            switch (args[i]) {
+            case "--concurrency":
+                concurrency = Integer.parseInt(args[i + 1]);
+                break;
+            case "--timeout":
+                timeoutMillis = Long.parseLong(args[i + 1]);
+                break;
+            case "--window":
+                window = Integer.parseInt(args[i + 1]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        Path output = Paths.get(args[1]);
+        Path checkpoint = Paths.get(args[1] + ".checkpoint");
+        try (BatchRegrader regrader = new BatchRegrader(concurrency, window == null ? concurrency * 8 : window,
+            timeoutMillis, ProgramLoader.parser())) {
+            long validated = regrader.run(Paths.get(args[0]), output, checkpoint);
+            System.out.println("Validated " + validated + " entries; checkpoint at line "
+                + readCheckpoint(checkpoint) + ".");
+        }
+    }
+
+    /**
+     * Validates the entries of a manifest that have no verdict yet and appends their verdicts to the output.
+     *
+     * @param manifest The manifest.
+     * @param output The verdict file, created if missing.
+     * @param checkpoint The checkpoint file, created if missing.
+     * @return The number of entries validated in this run.
+     * @throws IOException If the manifest cannot be read or the verdicts cannot be written.
+     */
+    public long run(Path manifest, Path output, Path checkpoint) throws IOException {
+        long start = readCheckpoint(checkpoint);
+        Set<Long> written = recoverOutput(output, start);
+        Path base = manifest.toAbsolutePath().getParent();
+        CompletionWatermark watermark = new CompletionWatermark(start, window);
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicLong validated = new AtomicLong();
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        synchronized (checkpointLock) {
+            checkpointed = start;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8);
+            BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            try {
+                long index = 0;
+                for (String line = reader.readLine(); line != null; line = reader.readLine(), index++) {
+                    if (index < start) {
+                        continue;
+                    }
+                    if (!watermark.awaitWindow(index)) {
+                        break;
+                    }
+                    if (written.remove(index) || line.isBlank()) {
+                        advance(watermark, index, checkpoint);
+                        continue;
+                    }
+                    permits.acquire();
+                    long entryIndex = index;
+                    String entry = line;
+                    workers.execute(() -> {
+                        try {
+                            String verdict = grade(entryIndex, entry, base);
+                            synchronized (writer) {
+                                writer.write(verdict);
+                                writer.newLine();
+                                writer.flush();
+                            }
+                            validated.incrementAndGet();
+                            advance(watermark, entryIndex, checkpoint);
+                        } catch (IOException e) {
+                            System.err.println("Cannot write the verdict of line " + entryIndex + ": "
+                                + e.getMessage());
+                            failure.compareAndSet(null, e);
+                            watermark.abort();
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+                permits.acquire(concurrency);
+                permits.release(concurrency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while regrading " + manifest);
+            }
+        }
+        writeCheckpoint(checkpoint, watermark.get());
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return validated.get();
+    }
+
+    /**
+     * Validates one manifest entry.
+     *
+     * @param index The line of the entry in the manifest.
+     * @param line The entry.
+     * @param base The directory relative paths are resolved against.
+     * @return The verdict as a JSON line.
+     */
+    private String grade(long index, String line, Path base) {
+        JsonObject verdict = new JsonObject();
+        verdict.addProperty("line", index);
+        try {
+            JsonObject entry = JsonParser.parseString(line).getAsJsonObject();
+            String assignment = field(entry, "assignment");
+            Path reference = base.resolve(field(entry, "reference"));
+            Path submission = base.resolve(field(entry, "submission"));
+            verdict.addProperty("assignment", assignment);
+            verdict.addProperty("reference", reference.toString());
+            verdict.addProperty("submission", submission.toString());
+
+            ValidationResult result = validator.validate(references.load(reference), loader.load(submission),
+                timeoutMillis);
+            VerdictJson.addTo(verdict, result);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot validate line " + index + ": " + e.getMessage());
+            VerdictJson.addError(verdict, e);
+        }
+        return verdict.toString();
+    }
+
+    /**
+     * Gets a string field of a manifest entry.
+     *
+     * @param entry The entry.
+     * @param name The name of the field.
+     * @return The value of the field.
+     */
+    private static String field(JsonObject entry, String name) {
+        JsonElement value = entry.get(name);
+        if (value == null || !value.isJsonPrimitive()) {
+            throw new IllegalArgumentException("Missing field: " + name);
+        }
+        return value.getAsString();
+    }
+
+    /**
+     * Marks an entry completed and writes a checkpoint every {@value #CHECKPOINT_INTERVAL} entries.
+     *
+     * @param watermark The watermark.
+     * @param index The line of the entry.
+     * @param checkpoint The checkpoint file.
+     * @throws IOException If the checkpoint cannot be written.
+     */
+    private void advance(CompletionWatermark watermark, long index, Path checkpoint) throws IOException {
+        if (!watermark.complete(index)) {
+            return;
+        }
+        synchronized (checkpointLock) {
+            long low = watermark.get();
+            if (low - checkpointed >= CHECKPOINT_INTERVAL) {
+                writeCheckpoint(checkpoint, low);
+                checkpointed = low;
+            }
+        }
+    }
+
+    /**
+     * Reads a checkpoint.
+     *
+     * @param checkpoint The checkpoint file.
+     * @return The number of leading manifest lines done, 0 if there is no checkpoint.
+     * @throws IOException If the checkpoint cannot be read.
+     */
+    static long readCheckpoint(Path checkpoint) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        String content = new String(Files.readAllBytes(checkpoint), StandardCharsets.UTF_8).trim();
+        try {
+            return Long.parseLong(content);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid checkpoint: " + content, e);
+        }
+    }
+
+    /**
+     * Writes a checkpoint, replacing the previous one atomically.
+     *
+     * @param checkpoint The checkpoint file.
+     * @param watermark The number of leading manifest lines done.
+     * @throws IOException If the checkpoint cannot be written.
+     */
+    static void writeCheckpoint(Path checkpoint, long watermark) throws IOException {
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        Files.write(temporary, Long.toString(watermark).getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Drops a verdict line left incomplete by a crash and collects the lines above the checkpoint that already
+     * have a verdict. There are at most a window and a checkpoint interval of them.
+     *
+     * @param output The verdict file.
+     * @param start The checkpoint.
+     * @return The manifest lines at or above the checkpoint with a verdict.
+     * @throws IOException If the verdict file cannot be read or truncated.
+     */
+    static Set<Long> recoverOutput(Path output, long start) throws IOException {
+        Set<Long> written = new HashSet<>();
+        if (!Files.exists(output)) {
+            return written;
+        }
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            while (end > 0) {
+                buffer.clear();
+                channel.read(buffer, end - 1);
+                if (buffer.get(0) == '\n') {
+                    break;
+                }
+                end--;
+            }
+            channel.truncate(end);
+        }
+        try (BufferedReader reader = Files.newBufferedReader(output, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                try {
+                    long index = JsonParser.parseString(line).getAsJsonObject().get("line").getAsLong();
+                    if (index >= start) {
+                        written.add(index);
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping unreadable verdict: " + line);
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Stops the workers and releases the solver contexts.
+     */
+    @Override
+    public void close() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        validator.close();
+    }
+}
@@ -0,0 +1,78 @@
+package sg.edu.nus.se.its.validation.batch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import sg.edu.nus.se.its.model.Program;
+
+/**
+ * The CachingProgramLoader class keeps the most recently loaded programs, so programs shared by many
+ * validations, such as reference solutions, are parsed once. A program is loaded again when its file has been
+ * modified since.
+ */
+public class CachingProgramLoader implements ProgramLoader {
+    private final ProgramLoader loader;
+    private final Map<String, Program> programs;
+
+    /**
+     * Constructs a CachingProgramLoader.
+     *
+     * @param loader The loader of programs not in the cache.
+     * @param capacity The number of programs kept.
+     */
+    public CachingProgramLoader(ProgramLoader loader, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive.");
+        }
+        this.loader = loader;
+        this.programs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Program> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Loads a program, reusing the cached one if its file is unchanged.
+     *
+     * @param path The path of the program file.
+     * @return The program.
+     * @throws IOException If the file cannot be read or parsed.
+     */
+    @Override
+    public Program load(Path path) throws IOException {
+        String key = key(path);
+        synchronized (programs) {
+            Program program = programs.get(key);
+            if (program != null) {
+                return program;
+            }
+        }
+        // Parse outside the lock so a slow file does not hold up hits on other programs
+        Program program = loader.load(path);
+        synchronized (programs) {
+            programs.put(key, program);
+        }
+        return program;
+    }
+
+    /**
+     * Derives the cache key of a file from its path and modification time.
+     *
+     * @param path The path of the file.
+     * @return The key.
+     */
+    private static String key(Path path) {
+        long modified;
+        try {
+            modified = Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            modified = -1;
+        }
+        return path.toAbsolutePath().normalize() + "@" + modified;
+    }
+}
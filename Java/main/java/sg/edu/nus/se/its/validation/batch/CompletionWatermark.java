@@ -0,0 +1,81 @@
+package sg.edu.nus.se.its.validation.batch;
+
+/**
+ * The CompletionWatermark class tracks which entries of a batch have completed when they complete out of order.
+ * The watermark is the number of leading entries that have all completed, so a run resumed from it repeats
+ * nothing below it. Entries are only started within a fixed window above the watermark, which bounds both the
+ * memory used here and the number of completed entries above the watermark.
+ */
+class CompletionWatermark {
+    private final boolean[] completed;
+    private long low;
+    private boolean aborted;
+
+    /**
+     * Constructs a CompletionWatermark.
+     *
+     * @param start The watermark to start from.
+     * @param window The number of entries that may be started above the watermark.
+     */
+    CompletionWatermark(long start, int window) {
+        if (start < 0 || window <= 0) {
+            throw new IllegalArgumentException("The start must not be negative and the window must be positive.");
+        }
+        this.completed = new boolean[window];
+        this.low = start;
+    }
+
+    /**
+     * Waits until an entry lies within the window.
+     *
+     * @param index The index of the entry.
+     * @return True once the entry lies within the window, false if the batch was aborted.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    synchronized boolean awaitWindow(long index) throws InterruptedException {
+        while (!aborted && index >= low + completed.length) {
+            wait();
+        }
+        return !aborted;
+    }
+
+    /**
+     * Aborts the batch, releasing the entries waiting for the window.
+     */
+    synchronized void abort() {
+        aborted = true;
+        notifyAll();
+    }
+
+    /**
+     * Marks an entry completed and advances the watermark over the leading completed entries.
+     *
+     * @param index The index of the entry, which must lie within the window.
+     * @return True if the watermark advanced, false otherwise.
+     */
+    synchronized boolean complete(long index) {
+        if (index < low || index >= low + completed.length) {
+            throw new IllegalArgumentException("Entry " + index + " lies outside the window.");
+        }
+        completed[(int) (index % completed.length)] = true;
+        long before = low;
+        while (completed[(int) (low % completed.length)]) {
+            completed[(int) (low % completed.length)] = false;
+            low++;
+        }
+        if (low == before) {
+            return false;
+        }
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Gets the watermark.
+     *
+     * @return The number of leading entries that have all completed.
+     */
+    synchronized long get() {
+        return low;
+    }
+}
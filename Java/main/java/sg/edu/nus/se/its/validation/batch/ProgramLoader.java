@@ -0,0 +1,32 @@
+package sg.edu.nus.se.its.validation.batch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.parser.ParserServiceImpl;
+
+/**
+ * The ProgramLoader interface turns a program file named in a batch manifest into a program.
+ */
+@FunctionalInterface
+public interface ProgramLoader {
+    /**
+     * Loads a program.
+     *
+     * @param path The path of the program file.
+     * @return The program.
+     * @throws IOException If the file cannot be read or parsed.
+     */
+    Program load(Path path) throws IOException;
+
+    /**
+     * Creates a loader that parses program files with the ITS parser.
+     *
+     * @return The loader.
+     */
+    static ProgramLoader parser() {
+        ParserServiceImpl parserService = new ParserServiceImpl();
+        return path -> parserService.parse(path.toFile());
+    }
+}
@@ -0,0 +1,42 @@
+package sg.edu.nus.se.its.validation.batch;
+
+import com.google.gson.JsonObject;
+
+import sg.edu.nus.se.its.validation.ValidationResult;
+
+/**
+ * The VerdictJson class writes validation results in the JSON form shared by the batch and server front ends.
+ */
+public final class VerdictJson {
+    private VerdictJson() {
+    }
+
+    /**
+     * Adds the fields of a validation result to a JSON object.
+     *
+     * @param json The JSON object.
+     * @param result The validation result.
+     */
+    public static void addTo(JsonObject json, ValidationResult result) {
+        json.addProperty("outcome", result.getOutcome().name());
+        if (result.isProvisional()) {
+            json.addProperty("provisional", true);
+        }
+        json.addProperty("mappingsTried", result.getMappingsTried());
+        json.addProperty("elapsedMillis", result.getElapsedMillis());
+        if (!result.getCounterExample().isEmpty()) {
+            json.addProperty("counterExample", result.getCounterExample());
+        }
+    }
+
+    /**
+     * Adds the fields of a failed validation to a JSON object.
+     *
+     * @param json The JSON object.
+     * @param e The cause of the failure.
+     */
+    public static void addError(JsonObject json, Exception e) {
+        json.addProperty("outcome", ValidationResult.Outcome.ERROR.name());
+        json.addProperty("error", String.valueOf(e.getMessage()));
+    }
+}
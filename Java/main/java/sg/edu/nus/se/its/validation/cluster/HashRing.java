@@ -0,0 +1,135 @@
+package sg.edu.nus.se.its.validation.cluster;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The HashRing class assigns keys to nodes by consistent hashing. Every node is placed on the ring at a number
+ * of virtual points, and a key belongs to the first node clockwise from its own hash. When a node leaves, only
+ * its keys move, spread over the remaining nodes; when it returns, it gets the same keys back.
+ *
+ * @param <T> The type of the nodes, identified by their string form.
+ */
+public class HashRing<T> {
+    private final int virtualNodes;
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+    private final Set<T> nodes = new LinkedHashSet<>();
+
+    /**
+     * Constructs an empty HashRing.
+     *
+     * @param virtualNodes The number of points per node on the ring.
+     */
+    public HashRing(int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("The number of virtual nodes must be positive.");
+        }
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * Adds a node, unless it is on the ring already.
+     *
+     * @param node The node.
+     * @return True if the node was added, false otherwise.
+     */
+    public synchronized boolean add(T node) {
+        if (!nodes.add(node)) {
+            return false;
+        }
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.put(hash(node + "#" + i), node);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a node.
+     *
+     * @param node The node.
+     * @return True if the node was on the ring, false otherwise.
+     */
+    public synchronized boolean remove(T node) {
+        if (!nodes.remove(node)) {
+            return false;
+        }
+        ring.values().removeIf(node::equals);
+        return true;
+    }
+
+    /**
+     * Gets the nodes responsible for a key, in the order to try them: the owner first, then the nodes that would
+     * take over the key if the ones before them left.
+     *
+     * @param key The key.
+     * @return The distinct nodes, empty if the ring is empty.
+     */
+    public synchronized List<T> route(String key) {
+        List<T> route = new ArrayList<>(nodes.size());
+        if (ring.isEmpty()) {
+            return route;
+        }
+        long hash = hash(key);
+        addDistinct(route, ring.tailMap(hash).values());
+        addDistinct(route, ring.headMap(hash).values());
+        return route;
+    }
+
+    /**
+     * Gets the node owning a key.
+     *
+     * @param key The key.
+     * @return The node, or null if the ring is empty.
+     */
+    public synchronized T owner(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, T> entry = ring.ceilingEntry(hash(key));
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+
+    /**
+     * Gets the nodes on the ring.
+     *
+     * @return A copy of the nodes.
+     */
+    public synchronized List<T> getNodes() {
+        return new ArrayList<>(nodes);
+    }
+
+    private void addDistinct(List<T> route, Collection<T> candidates) {
+        for (T node : candidates) {
+            if (route.size() == nodes.size()) {
+                return;
+            }
+            if (!route.contains(node)) {
+                route.add(node);
+            }
+        }
+    }
+
+    /**
+     * Hashes a string onto the ring.
+     *
+     * @param value The string.
+     * @return The first 64 bits of its MD5 digest, which spread well enough and are cheap.
+     */
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package sg.edu.nus.se.its.validation.cluster;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import sg.edu.nus.se.its.validation.server.ValidationServer;
+
+/**
+ * The ValidationCoordinator class spreads validations over several {@link ValidationServer} worker processes,
+ * so no single JVM has to hold all native solver memory. Each request names its assignment, and is routed to
+ * the worker owning the assignment on a consistent {@link HashRing}, so the reference programs of an
+ * assignment stay cached in one worker. Workers that stop answering are taken off the ring, which moves only
+ * their assignments to the other workers, and are put back once their health check passes again. A worker
+ * that is reached but answers too late is only busy: it stays on the ring and the request is not re-posted.
+ *
+ * <p>The coordinator serves the API of the workers on the loopback interface. {@code POST /validations}
+ * additionally requires an {@code "assignment"} field; job identifiers are prefixed with the worker index so
+ * that {@code GET /validations/<id>} reaches the worker holding the job. A {@code "timeoutMillis"} is lowered
+ * to leave the worker time to answer a synchronous request before the coordinator stops waiting.
+ *
+ * <p>Usage: {@code ValidationCoordinator [--port n] [--worker url ...] [--spawn n] [--concurrency n]}.
+ * {@code --spawn} starts local worker processes on the ports following the coordinator's.
+ */
+public class ValidationCoordinator implements AutoCloseable {
+    /**
+     * Number of points per worker on the hash ring.
+     */
+    private static final int VIRTUAL_NODES = 64;
+
+    /**
+     * Interval between two health checks of the workers (in milliseconds).
+     */
+    private static final long HEALTH_INTERVAL_MILLIS = 2_000;
+
+    /**
+     * Separator between the worker index and the worker's own job identifier.
+     */
+    private static final String ID_SEPARATOR = "~";
+
+    /**
+     * Time left to a worker between the end of a synchronous validation and the coordinator's request timeout
+     * (in milliseconds).
+     */
+    private static final long ANSWER_MARGIN_MILLIS = 2_000;
+
+    private final List<URI> workers;
+    private final HashRing<URI> ring = new HashRing<>(VIRTUAL_NODES);
+    private final long requestTimeoutMillis;
+    private final HttpClient client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(2))
+        .build();
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ScheduledExecutorService healthChecks =
+        Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "validation-coordinator-health"));
+    private final AtomicLong failovers = new AtomicLong();
+
+    /**
+     * Constructs and starts a ValidationCoordinator.
+     *
+     * @param port The port, or 0 for any free port.
+     * @param workers The base URLs of the workers.
+     * @param requestTimeoutMillis The time to wait for a worker to answer a request.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ValidationCoordinator(int port, List<URI> workers, long requestTimeoutMillis) throws IOException {
+        if (workers.isEmpty() || requestTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("There must be a worker and the timeout must be positive.");
+        }
+        this.workers = List.copyOf(workers);
+        this.requestTimeoutMillis = requestTimeoutMillis;
+        for (URI worker : workers) {
+            ring.add(worker);
+        }
+        this.handlers = Executors.newCachedThreadPool(r -> new Thread(r, "validation-coordinator"));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(handlers);
+        server.createContext("/validations", this::handleValidations);
+        server.createContext("/health", this::handleHealth);
+        server.start();
+        healthChecks.scheduleWithFixedDelay(this::checkWorkers, HEALTH_INTERVAL_MILLIS, HEALTH_INTERVAL_MILLIS,
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs the coordinator, and the local workers it spawns, until the JVM is stopped.
+     *
+     * @param args The options.
+     * @throws IOException If a port cannot be bound or a worker cannot be started.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        int spawn = 0;
+        int concurrency = 1;
+        List<URI> workers = new ArrayList<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            switch (args[i]) {
+            case "--port":
+                port = Integer.parseInt(args[i + 1]);
+                break;
+            case "--worker":
+                workers.add(URI.create(args[i + 1]));
+                break;
+            case "--spawn":
+                spawn = Integer.parseInt(args[i + 1]);
+                break;
+            case "--concurrency":
+                concurrency = Integer.parseInt(args[i + 1]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        List<Process> processes = new ArrayList<>();
+        for (int i = 1; i <= spawn; i++) {
+            processes.add(startLocalWorker(port + i, concurrency));
+            workers.add(URI.create("http://127.0.0.1:" + (port + i)));
+        }
+        ValidationCoordinator coordinator = new ValidationCoordinator(port, workers, 120_000);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            coordinator.close();
+            processes.forEach(Process::destroy);
+        }));
+        System.out.println("Coordinating " + workers.size() + " workers on http://127.0.0.1:" + coordinator.getPort());
+    }
+
+    /**
+     * Starts a worker process on this machine, with the class path of the coordinator.
+     *
+     * @param port The port of the worker.
+     * @param concurrency The number of validations the worker solves at the same time.
+     * @return The process.
+     * @throws IOException If the process cannot be started.
+     */
+    public static Process startLocalWorker(int port, int concurrency) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+            ValidationServer.class.getName(), "--port", Integer.toString(port),
+            "--concurrency", Integer.toString(concurrency))
+            .inheritIO()
+            .start();
+    }
+
+    /**
+     * Handles the creation and polling of jobs.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the response cannot be sent.
+     */
+    private void handleValidations(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (path.equals("/validations") || path.equals("/validations/")) {
+                if (method.equals("POST")) {
+                    create(exchange);
+                } else {
+                    respondError(exchange, 405, "Use POST to create a validation.");
+                }
+            } else if (method.equals("GET")) {
+                poll(exchange, path.substring("/validations/".length()));
+            } else {
+                respondError(exchange, 405, "Use GET to poll a validation.");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Coordinator request failed: " + e.getMessage());
+            respondError(exchange, 500, String.valueOf(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Forwards a validation to the worker owning its assignment, failing over along the ring.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the request cannot be read or the response cannot be sent.
+     */
+    private void create(HttpExchange exchange) throws IOException {
+        byte[] body;
+        String assignment;
+        try (InputStream in = exchange.getRequestBody()) {
+            JsonObject request = JsonParser.parseString(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                .getAsJsonObject();
+            JsonElement value = request.get("assignment");
+            if (value == null || !value.isJsonPrimitive()) {
+                throw new IllegalArgumentException("Missing field: assignment");
+            }
+            assignment = value.getAsString();
+            clampTimeout(request);
+            body = request.toString().getBytes(StandardCharsets.UTF_8);
+        } catch (RuntimeException e) {
+            respondError(exchange, 400, "Invalid request: " + e.getMessage());
+            return;
+        }
+
+        String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+        for (URI worker : ring.route(assignment)) {
+            HttpRequest.Builder request = HttpRequest.newBuilder(worker.resolve("/validations"))
+                .timeout(Duration.ofMillis(requestTimeoutMillis))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+            if (key != null) {
+                request.header("Idempotency-Key", key);
+            }
+            HttpResponse<String> response;
+            try {
+                response = send(worker, request.build());
+            } catch (HttpTimeoutException e) {
+                // The worker may still be solving the validation, so posting it elsewhere would only duplicate it
+                respondError(exchange, 504, "Worker " + worker + " did not answer in time.");
+                return;
+            }
+            if (response != null) {
+                relay(exchange, worker, response);
+                return;
+            }
+            failovers.incrementAndGet();
+        }
+        respondError(exchange, 503, "No worker is available.");
+    }
+
+    /**
+     * Lowers the timeout of a validation so that a worker answering a synchronous request, which may wait for
+     * the whole timeout, still answers before the coordinator stops waiting.
+     *
+     * @param request The validation request.
+     */
+    private void clampTimeout(JsonObject request) {
+        JsonElement value = request.get("timeoutMillis");
+        if (value == null || !value.isJsonPrimitive()) {
+            return;
+        }
+        long maxTimeoutMillis = Math.max(1, requestTimeoutMillis - ANSWER_MARGIN_MILLIS);
+        if (value.getAsLong() > maxTimeoutMillis) {
+            request.add("timeoutMillis", new JsonPrimitive(maxTimeoutMillis));
+        }
+    }
+
+    /**
+     * Forwards a poll to the worker holding the job.
+     *
+     * @param exchange The exchange.
+     * @param id The job identifier given out by the coordinator.
+     * @throws IOException If the response cannot be sent.
+     */
+    private void poll(HttpExchange exchange, String id) throws IOException {
+        int separator = id.indexOf(ID_SEPARATOR);
+        int index;
+        try {
+            index = Integer.parseInt(id.substring(0, Math.max(separator, 0)));
+        } catch (NumberFormatException e) {
+            index = -1;
+        }
+        if (index < 0 || index >= workers.size()) {
+            respondError(exchange, 404, "Unknown validation.");
+            return;
+        }
+        URI worker = workers.get(index);
+        HttpRequest request = HttpRequest.newBuilder(
+                worker.resolve("/validations/" + id.substring(separator + ID_SEPARATOR.length())))
+            .timeout(Duration.ofMillis(requestTimeoutMillis))
+            .GET()
+            .build();
+        HttpResponse<String> response;
+        try {
+            response = send(worker, request);
+        } catch (HttpTimeoutException e) {
+            respondError(exchange, 504, "Worker " + worker + " did not answer in time.");
+            return;
+        }
+        if (response == null) {
+            respondError(exchange, 503, "The worker holding the validation is unavailable.");
+        } else {
+            relay(exchange, worker, response);
+        }
+    }
+
+    /**
+     * Sends a request to a worker, taking the worker off the ring if it cannot be reached. A worker that accepted
+     * the connection but answers too late is busy rather than gone, so it stays on the ring.
+     *
+     * @param worker The worker.
+     * @param request The request.
+     * @return The response, or null if the worker failed.
+     * @throws HttpTimeoutException If the worker did not answer within the request timeout.
+     */
+    private HttpResponse<String> send(URI worker, HttpRequest request) throws HttpTimeoutException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (HttpConnectTimeoutException e) {
+            leave(worker, e);
+            return null;
+        } catch (HttpTimeoutException e) {
+            throw e;
+        } catch (IOException e) {
+            leave(worker, e);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Takes a worker that cannot be reached off the ring.
+     *
+     * @param worker The worker.
+     * @param cause The failure.
+     */
+    private void leave(URI worker, IOException cause) {
+        if (ring.remove(worker)) {
+            System.err.println("Worker " + worker + " left the ring: " + cause);
+        }
+    }
+
+    /**
+     * Relays a worker's response, qualifying its job identifier with the worker index.
+     *
+     * @param exchange The exchange.
+     * @param worker The worker.
+     * @param response The worker's response.
+     * @throws IOException If the response cannot be sent.
+     */
+    private void relay(HttpExchange exchange, URI worker, HttpResponse<String> response) throws IOException {
+        JsonObject body;
+        try {
+            body = JsonParser.parseString(response.body()).getAsJsonObject();
+        } catch (RuntimeException e) {
+            respondError(exchange, 502, "Invalid response from " + worker);
+            return;
+        }
+        if (body.has("id")) {
+            String id = workers.indexOf(worker) + ID_SEPARATOR + body.get("id").getAsString();
+            body.addProperty("id", id);
+            body.addProperty("worker", worker.toString());
+            exchange.getResponseHeaders().set("Location", "/validations/" + id);
+        }
+        respond(exchange, response.statusCode(), body);
+    }
+
+    /**
+     * Checks the health of every worker, putting the ones that answer on the ring and taking the others off. A
+     * worker that accepts the connection but answers too late is busy with validations, so it stays as it is.
+     */
+    private void checkWorkers() {
+        for (URI worker : workers) {
+            HttpRequest request = HttpRequest.newBuilder(worker.resolve("/health"))
+                .timeout(Duration.ofSeconds(1))
+                .GET()
+                .build();
+            boolean healthy;
+            try {
+                healthy = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+            } catch (HttpConnectTimeoutException e) {
+                healthy = false;
+            } catch (HttpTimeoutException e) {
+                continue;
+            } catch (IOException e) {
+                healthy = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (healthy && ring.add(worker)) {
+                System.err.println("Worker " + worker + " rejoined the ring.");
+            } else if (!healthy && ring.remove(worker)) {
+                System.err.println("Worker " + worker + " left the ring: health check failed.");
+            }
+        }
+    }
+
+    /**
+     * Reports the workers on the ring.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the response cannot be sent.
+     */
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try {
+            List<URI> live = ring.getNodes();
+            JsonArray workerStates = new JsonArray();
+            for (URI worker : workers) {
+                JsonObject state = new JsonObject();
+                state.addProperty("worker", worker.toString());
+                state.addProperty("up", live.contains(worker));
+                workerStates.add(state);
+            }
+            JsonObject health = new JsonObject();
+            health.addProperty("status", live.isEmpty() ? "down" : "up");
+            health.add("workers", workerStates);
+            health.addProperty("failovers", failovers.get());
+            respond(exchange, 200, health);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        JsonObject error = new JsonObject();
+        error.addProperty("error", message);
+        respond(exchange, status, error);
+    }
+
+    private static void respond(HttpExchange exchange, int status, JsonObject body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Gets the port the coordinator listens on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the workers currently on the ring.
+     *
+     * @return The workers.
+     */
+    public List<URI> getLiveWorkers() {
+        return ring.getNodes();
+    }
+
+    /**
+     * Gets the number of times a request moved on to the next worker because its owner failed.
+     *
+     * @return The number of failovers.
+     */
+    public long getFailovers() {
+        return failovers.get();
+    }
+
+    /**
+     * Stops accepting requests and stops the health checks. The workers keep running.
+     */
+    @Override
+    public void close() {
+        healthChecks.shutdownNow();
+        server.stop(1);
+        handlers.shutdown();
+    }
+}
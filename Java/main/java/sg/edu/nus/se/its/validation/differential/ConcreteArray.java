@@ -0,0 +1,116 @@
+package sg.edu.nus.se.its.validation.differential;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+/**
+ * The ConcreteArray class is the concrete counterpart of a Z3 array: an immutable map from integer indices to
+ * values, where indices that were never stored take their value from a default. A store returns a new array,
+ * so arrays behave as values, as they do in the solver.
+ */
+public class ConcreteArray {
+    private final Map<Long, Object> values;
+    private final LongFunction<Object> defaults;
+
+    /**
+     * Constructs a ConcreteArray without stored values.
+     *
+     * @param defaults The values of the indices never stored, or null if reading them is undefined.
+     */
+    public ConcreteArray(LongFunction<Object> defaults) {
+        this(new HashMap<>(), defaults);
+    }
+
+    private ConcreteArray(Map<Long, Object> values, LongFunction<Object> defaults) {
+        this.values = values;
+        this.defaults = defaults;
+    }
+
+    /**
+     * Reads an element.
+     *
+     * @param index The index.
+     * @return The element.
+     * @throws ArithmeticException If the element was never stored and the array has no defaults.
+     */
+    public Object select(long index) {
+        Object value = values.get(index);
+        if (value == null) {
+            if (defaults == null) {
+                throw new ArithmeticException("Read of an unconstrained array element.");
+            }
+            value = defaults.apply(index);
+        }
+        return value;
+    }
+
+    /**
+     * Writes an element.
+     *
+     * @param index The index.
+     * @param value The element.
+     * @return A new array holding the element.
+     */
+    public ConcreteArray store(long index, Object value) {
+        Map<Long, Object> stored = new HashMap<>(values);
+        stored.put(index, value);
+        return new ConcreteArray(stored, defaults);
+    }
+
+    /**
+     * Checks whether two arrays certainly hold the same elements: they share their defaults and agree on every
+     * stored index.
+     *
+     * @param other The other array.
+     * @return True if the arrays are known to be equal, false otherwise.
+     */
+    boolean sameElements(ConcreteArray other) {
+        if (defaults != other.defaults) {
+            return false;
+        }
+        for (Long index : values.keySet()) {
+            if (!DifferentialTester.sameValue(select(index), other.select(index))) {
+                return false;
+            }
+        }
+        for (Long index : other.values.keySet()) {
+            if (!DifferentialTester.sameValue(select(index), other.select(index))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the arrays certainly hold the same elements.
+     *
+     * @param o the object to compare with
+     * @return true if the arrays are known to be equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ConcreteArray && sameElements((ConcreteArray) o);
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(defaults);
+    }
+
+    /**
+     * Returns a string representation of the stored elements.
+     *
+     * @return a string representation of the array
+     */
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}
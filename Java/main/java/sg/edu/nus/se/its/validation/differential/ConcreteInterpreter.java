@@ -0,0 +1,515 @@
+package sg.edu.nus.se.its.validation.differential;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+import org.javatuples.Pair;
+
+import sg.edu.nus.se.its.model.Constant;
+import sg.edu.nus.se.its.model.Expression;
+import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.model.Operation;
+import sg.edu.nus.se.its.model.Variable;
+import sg.edu.nus.se.its.validation.ExpressionFactory;
+
+/**
+ * The ConcreteInterpreter class runs a function on concrete inputs, with the same operator semantics as the
+ * symbolic execution in {@link sg.edu.nus.se.its.validation.SolverWrapper}: integers are mathematical (an
+ * overflow makes the run inconclusive), integer division and modulo are Euclidean, and arrays are values.
+ *
+ * <p>The control flow differs: a run takes the branch its condition selects, whereas the symbolic execution
+ * takes the false branch of every condition it cannot decide. Outputs of a run can therefore differ from the
+ * terms the solver compares, and a disagreement on concrete inputs is not a verdict of the solver.
+ *
+ * <p>Integers are held as {@code Long}, reals as {@code Double}, and arrays as {@link ConcreteArray}.
+ * A run throws an {@link ArithmeticException} when its result is undefined or out of range (division by zero,
+ * overflow, reading an unset variable, running out of steps) and an {@link IllegalArgumentException} when it
+ * uses an unsupported operator; either way the inputs tell nothing about equivalence.
+ */
+public class ConcreteInterpreter {
+    /**
+     * Elements of the arrays created in the programs that were never stored, shared like the solver's
+     * {@code initialised_array} and {@code int_array} constants.
+     */
+    private static final Map<String, LongFunction<Object>> SHARED_DEFAULTS = Map.of(
+        "int", index -> mix(index, 0x1d),
+        "bool", index -> (mix(index, 0x2b) & 1) == 0,
+        "float", index -> mix(index, 0x3f) / 8.0,
+        "double", index -> mix(index, 0x3f) / 8.0,
+        "range", index -> mix(index, 0x47));
+
+    /**
+     * Runs a function.
+     *
+     * @param function The function.
+     * @param arguments The value of each parameter.
+     * @param maxSteps The number of blocks after which the run is abandoned.
+     * @return The values of $ret and $out.
+     */
+    public static Object[] run(Function function, Map<String, Object> arguments, int maxSteps) {
+        Map<String, Object> variables = new HashMap<>(arguments);
+        variables.put("$ret", "");
+        variables.put("$out", "");
+
+        HashMap<Integer, ArrayList<Pair<String, Expression>>> locexprs = function.getLocexprs();
+        HashMap<Integer, HashMap<Boolean, Integer>> loctrans = function.getLoctrans();
+        int loc = 1;
+        ArrayList<Pair<String, Expression>> expressions = locexprs.get(loc);
+        int steps = 0;
+        while (expressions != null) {
+            if (++steps > maxSteps) {
+                throw new ArithmeticException("Step limit reached.");
+            }
+            loc = executeLocation(expressions, loctrans.get(loc), variables);
+            expressions = locexprs.get(loc);
+        }
+        return new Object[] {variables.get("$ret"), variables.get("$out")};
+    }
+
+    /**
+     * Executes the expressions at a location.
+     *
+     * @param expressions The expressions at the location.
+     * @param transition The transitions out of the location.
+     * @param variables The variables.
+     * @return The next location.
+     */
+    private static int executeLocation(ArrayList<Pair<String, Expression>> expressions,
+        HashMap<Boolean, Integer> transition,
+        Map<String, Object> variables) {
+        Integer next;
+        if (!expressions.isEmpty() && expressions.get(0).getValue0().equals("$cond")) {
+            Object cond = evaluate(expressions.get(0).getValue1(), variables);
+            variables.put("$cond", cond);
+            next = transition == null ? null : transition.get(toBoolean(cond));
+        } else {
+            for (Pair<String, Expression> expression : expressions) {
+                variables.put(expression.getValue0(), evaluate(expression.getValue1(), variables));
+            }
+            next = transition == null || transition.isEmpty() ? Integer.valueOf(0) : transition.get(true);
+        }
+        if (next == null) {
+            throw new ArithmeticException("Missing transition.");
+        }
+        return next;
+    }
+
+    /**
+     * Evaluates an expression.
+     *
+     * @param expression The expression.
+     * @param variables The variables.
+     * @return The value.
+     */
+    static Object evaluate(Expression expression, Map<String, Object> variables) {
+        if (expression instanceof Operation) {
+            Operation operation = (Operation) expression;
+            List<Expression> args = operation.getArgs();
+            switch (args.size()) {
+            case 1:
+                return evaluateUnary(operation.getName(), args, variables);
+            case 2:
+                return evaluateBinary(operation.getName(), args, variables);
+            case 3:
+                return evaluateTernary(operation.getName(), args, variables);
+            default:
+                return evaluateNary(operation.getName(), args, variables);
+            }
+        } else if (expression instanceof Variable) {
+            return evaluateBase(((Variable) expression).getName(), variables);
+        } else if (expression instanceof Constant) {
+            return evaluateBase(((Constant) expression).getValue(), variables);
+        }
+        throw new IllegalArgumentException("Invalid expression type");
+    }
+
+    /**
+     * Evaluates a literal or a variable.
+     *
+     * @param value The literal or the variable name.
+     * @param variables The variables.
+     * @return The value.
+     */
+    private static Object evaluateBase(String value, Map<String, Object> variables) {
+        if (Character.isDigit(value.charAt(0)) || value.charAt(0) == '-') {
+            return value.contains(".") ? (Object) Double.parseDouble(value) : (Object) Long.parseLong(value);
+        } else if (value.equalsIgnoreCase("true")) {
+            return true;
+        } else if (value.equalsIgnoreCase("false")) {
+            return false;
+        } else if (ExpressionFactory.isReservedKeyword(value)) {
+            return value;
+        } else if (value.length() > 1 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+            return value.substring(1, value.length() - 1);
+        }
+        Object variable = variables.get(variableName(value));
+        if (variable == null) {
+            throw new ArithmeticException("Read of unset variable " + value + ".");
+        }
+        return variable;
+    }
+
+    /**
+     * Evaluates a unary operation.
+     *
+     * @param operator The operator.
+     * @param args The operand.
+     * @param variables The variables.
+     * @return The value.
+     */
+    private static Object evaluateUnary(String operator, List<Expression> args, Map<String, Object> variables) {
+        switch (operator) {
+        case "USub":
+        case "-": {
+            Object operand = evaluate(args.get(0), variables);
+            return operand instanceof Long ? (Object) Math.negateExact((Long) operand) : (Object) (-toDouble(operand));
+        }
+        case "abs": {
+            Object operand = evaluate(args.get(0), variables);
+            return operand instanceof Long ? (Object) Math.absExact((Long) operand) : (Object) Math.abs(toDouble(operand));
+        }
+        case "Not":
+        case "!":
+            return !toBoolean(evaluate(args.get(0), variables));
+        case "ArrayCreate":
+            return new ConcreteArray(null);
+        default:
+            return evaluateNary(operator, args, variables);
+        }
+    }
+
+    /**
+     * Evaluates a binary operation.
+     *
+     * @param operator The operator.
+     * @param args The operands.
+     * @param variables The variables.
+     * @return The value.
+     */
+    private static Object evaluateBinary(String operator, List<Expression> args, Map<String, Object> variables) {
+        switch (operator) {
+        case "And":
+        case "&&":
+            return toBoolean(evaluate(args.get(0), variables)) && toBoolean(evaluate(args.get(1), variables));
+        case "Or":
+        case "||":
+            return toBoolean(evaluate(args.get(0), variables)) || toBoolean(evaluate(args.get(1), variables));
+        default:
+            break;
+        }
+
+        Object left = evaluate(args.get(0), variables);
+        Object right = evaluate(args.get(1), variables);
+        switch (operator) {
+        case "Add":
+        case "AssAdd":
+        case "+":
+            return bothIntegers(left, right)
+                ? (Object) Math.addExact((Long) left, (Long) right)
+                : (Object) (toDouble(left) + toDouble(right));
+        case "Sub":
+        case "-":
+            return bothIntegers(left, right)
+                ? (Object) Math.subtractExact((Long) left, (Long) right)
+                : (Object) (toDouble(left) - toDouble(right));
+        case "Mult":
+        case "*":
+            return bothIntegers(left, right)
+                ? (Object) Math.multiplyExact((Long) left, (Long) right)
+                : (Object) (toDouble(left) * toDouble(right));
+        case "Div":
+        case "/":
+        case "FloorDiv":
+            if (toDouble(right) == 0) {
+                throw new ArithmeticException("Division by zero.");
+            }
+            return bothIntegers(left, right)
+                ? (Object) euclideanDiv((Long) left, (Long) right)
+                : (Object) (toDouble(left) / toDouble(right));
+        case "Pow":
+        case "pow":
+            return power(left, right);
+        case "Mod":
+        case "%":
+            if (!bothIntegers(left, right)) {
+                throw new IllegalArgumentException("Modulo needs integers.");
+            }
+            if ((Long) right == 0) {
+                throw new ArithmeticException("Division by zero.");
+            }
+            return Math.floorMod((long) (Long) left, Math.absExact((Long) right));
+        case "Gt":
+        case ">":
+            return compare(left, right) > 0;
+        case "GtE":
+        case ">=":
+            return compare(left, right) >= 0;
+        case "Lt":
+        case "<":
+            return compare(left, right) < 0;
+        case "LtE":
+        case "<=":
+            return compare(left, right) <= 0;
+        case "Eq":
+        case "==":
+            return DifferentialTester.sameValue(left, right);
+        case "!=":
+            return !DifferentialTester.sameValue(left, right);
+        case "[]":
+        case "GetElement":
+            return toArray(left).select(toLong(right));
+        case "StrAppend":
+            return toText(left) + toText(right);
+        default:
+            return evaluateNary(operator, args, variables);
+        }
+    }
+
+    /**
+     * Evaluates a ternary operation.
+     *
+     * @param operator The operator.
+     * @param args The operands.
+     * @param variables The variables.
+     * @return The value.
+     */
+    private static Object evaluateTernary(String operator, List<Expression> args, Map<String, Object> variables) {
+        switch (operator) {
+        case "ite":
+            return toBoolean(evaluate(args.get(0), variables))
+                ? evaluate(args.get(1), variables)
+                : evaluate(args.get(2), variables);
+        case "ArrayAssign":
+            return toArray(evaluate(args.get(0), variables))
+                .store(toLong(evaluate(args.get(1), variables)), evaluate(args.get(2), variables));
+        default:
+            return evaluateNary(operator, args, variables);
+        }
+    }
+
+    /**
+     * Evaluates an n-ary operation or library function.
+     *
+     * @param operator The operator.
+     * @param args The operands.
+     * @param variables The variables.
+     * @return The value.
+     */
+    private static Object evaluateNary(String operator, List<Expression> args, Map<String, Object> variables) {
+        if (operator.equals("range")) {
+            return range(args, variables);
+        } else if (operator.equals("len")) {
+            long lower = toLong(variables.get("range_lower"));
+            long upper = toLong(variables.get("range_upper"));
+            long step = toLong(variables.get("range_step"));
+            return (long) Math.ceil((double) (upper - lower) / step);
+        }
+
+        Object[] values = new Object[args.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = evaluate(args.get(i), variables);
+        }
+        switch (operator) {
+        case "max":
+        case "min": {
+            Object result = values[0];
+            for (int i = 1; i < values.length; i++) {
+                int comparison = compare(values[i], result);
+                if (operator.equals("max") ? comparison >= 0 : comparison <= 0) {
+                    result = values[i];
+                }
+            }
+            return result;
+        }
+        case "sum": {
+            Object result = values[0];
+            for (int i = 1; i < values.length; i++) {
+                result = bothIntegers(result, values[i])
+                    ? (Object) Math.addExact((Long) result, (Long) values[i])
+                    : (Object) (toDouble(result) + toDouble(values[i]));
+            }
+            return result;
+        }
+        case "ArrayDeclaration": {
+            String type = toText(values[1]);
+            if (type.equals("char")) {
+                return values[2];
+            }
+            ConcreteArray array = new ConcreteArray(SHARED_DEFAULTS.get(type));
+            for (int i = 2; i < values.length; i++) {
+                array = array.store(i - 2, values[i]);
+            }
+            return array;
+        }
+        case "StrFormat":
+        case "print": {
+            String text = toText(values[0]);
+            for (int i = 1; i < values.length; i++) {
+                int at = text.indexOf("%s");
+                if (at >= 0) {
+                    text = text.substring(0, at) + toText(values[i]) + text.substring(at + 2);
+                }
+            }
+            return text;
+        }
+        default:
+            throw new IllegalArgumentException("Invalid operator: " + operator);
+        }
+    }
+
+    /**
+     * Evaluates a range over integer literals, setting the implicit range variables used by {@code len}.
+     *
+     * @param args The bounds and step.
+     * @param variables The variables.
+     * @return The array of the range's elements.
+     */
+    private static ConcreteArray range(List<Expression> args, Map<String, Object> variables) {
+        long[] bounds = new long[args.size()];
+        for (int i = 0; i < bounds.length; i++) {
+            if (!(args.get(i) instanceof Constant)) {
+                throw new IllegalArgumentException("Range bounds must be literals.");
+            }
+            bounds[i] = Long.parseLong(((Constant) args.get(i)).getValue());
+        }
+        long lower = bounds.length == 1 ? 0 : bounds[0];
+        long upper = bounds.length == 1 ? bounds[0] : bounds[1];
+        long step = bounds.length == 3 ? bounds[2] : 1;
+        if (step <= 0) {
+            throw new ArithmeticException("Unsupported range step.");
+        }
+        variables.put("range_lower", lower);
+        variables.put("range_upper", upper);
+        variables.put("range_step", step);
+
+        ConcreteArray array = new ConcreteArray(SHARED_DEFAULTS.get("range"));
+        long count = 0;
+        for (long i = lower; i < upper; i += step) {
+            array = array.store(count++, i);
+        }
+        return array;
+    }
+
+    /**
+     * Raises a number to a power, exactly for integers with a non-negative exponent. Integer powers are computed
+     * by squaring, so a huge exponent of 0, 1 or -1 takes as few steps as a small one.
+     *
+     * @param base The base.
+     * @param exponent The exponent.
+     * @return The power.
+     */
+    private static Object power(Object base, Object exponent) {
+        if (bothIntegers(base, exponent) && (Long) exponent >= 0) {
+            long result = 1;
+            long square = (Long) base;
+            for (long remaining = (Long) exponent; remaining > 0; remaining >>= 1) {
+                if ((remaining & 1) != 0) {
+                    result = Math.multiplyExact(result, square);
+                }
+                if (remaining > 1) {
+                    square = Math.multiplyExact(square, square);
+                }
+            }
+            return result;
+        }
+        return Math.pow(toDouble(base), toDouble(exponent));
+    }
+
+    /**
+     * Divides two integers so that the remainder is non-negative, as the solver does.
+     *
+     * @param dividend The dividend.
+     * @param divisor The divisor, not zero.
+     * @return The quotient.
+     */
+    private static long euclideanDiv(long dividend, long divisor) {
+        return divisor > 0 ? Math.floorDiv(dividend, divisor) : Math.negateExact(Math.floorDiv(dividend, -divisor));
+    }
+
+    /**
+     * Compares two numbers.
+     *
+     * @param left The left number.
+     * @param right The right number.
+     * @return A negative number, zero or a positive number as the left number is less, equal or greater.
+     */
+    private static int compare(Object left, Object right) {
+        return bothIntegers(left, right)
+            ? Long.compare((Long) left, (Long) right)
+            : Double.compare(toDouble(left), toDouble(right));
+    }
+
+    /**
+     * Strips the quote the parser appends to variable names.
+     *
+     * @param name The variable name.
+     * @return The name without the quote.
+     */
+    private static String variableName(String name) {
+        return name.contains("'") ? name.substring(0, name.length() - 1) : name;
+    }
+
+    private static boolean bothIntegers(Object left, Object right) {
+        return left instanceof Long && right instanceof Long;
+    }
+
+    /**
+     * Converts a value to a truth value, numbers being true when not zero.
+     *
+     * @param value The value.
+     * @return The truth value.
+     */
+    static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof Number) {
+            return ((Number) value).doubleValue() != 0;
+        }
+        throw new IllegalArgumentException("Not a truth value: " + value);
+    }
+
+    private static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        throw new IllegalArgumentException("Not a number: " + value);
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        throw new IllegalArgumentException("Not an integer: " + value);
+    }
+
+    private static String toText(Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        throw new IllegalArgumentException("Not a string: " + value);
+    }
+
+    private static ConcreteArray toArray(Object value) {
+        if (value instanceof ConcreteArray) {
+            return (ConcreteArray) value;
+        }
+        throw new IllegalArgumentException("Not an array: " + value);
+    }
+
+    /**
+     * Mixes an index with a salt into a small pseudo-random integer.
+     *
+     * @param index The index.
+     * @param salt The salt.
+     * @return An integer between -1000 and 1000.
+     */
+    static long mix(long index, long salt) {
+        long z = index * 0x9E3779B97F4A7C15L + salt;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return Math.floorMod(z ^ (z >>> 31), 2001L) - 1000;
+    }
+}
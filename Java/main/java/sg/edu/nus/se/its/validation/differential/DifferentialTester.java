@@ -0,0 +1,301 @@
+package sg.edu.nus.se.its.validation.differential;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import org.javatuples.Pair;
+
+import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.validation.Parameter;
+import sg.edu.nus.se.its.validation.SolverStatistics;
+import sg.edu.nus.se.its.validation.SolverWrapper;
+import sg.edu.nus.se.its.validation.TermMetrics;
+import sg.edu.nus.se.its.validation.ValidationResult;
+
+/**
+ * The DifferentialTester class compares a reference and a submitted function on many concrete inputs instead
+ * of proving them equivalent. A parameter mapping under which the functions disagree on some input is
+ * refuted for certain; agreement on every input is only evidence, so results are marked provisional.
+ */
+public class DifferentialTester {
+    /**
+     * Inputs tried first, as they catch most off-by-one and sign errors.
+     */
+    private static final long[] BOUNDARY_VALUES = {0, 1, -1, 2, -2, 3, 10, -10, 100, -100};
+
+    private final int samples;
+    private final long seed;
+    private final int maxSteps;
+
+    /**
+     * Constructs a DifferentialTester.
+     *
+     * @param samples The number of inputs tried per parameter mapping.
+     * @param seed The seed of the random inputs.
+     * @param maxSteps The number of blocks after which a run is abandoned.
+     */
+    public DifferentialTester(int samples, long seed, int maxSteps) {
+        if (samples <= 0 || maxSteps <= 0) {
+            throw new IllegalArgumentException("Samples and steps must be positive.");
+        }
+        this.samples = samples;
+        this.seed = seed;
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Tests two functions on concrete inputs under every parameter mapping.
+     *
+     * @param reference The reference function.
+     * @param submission The submitted function.
+     * @return A provisional EQUIVALENT result if some mapping agrees on every input that ran, NOT_EQUIVALENT with
+     *     a counter example if every mapping disagrees on some input, and UNKNOWN otherwise.
+     */
+    public ValidationResult test(Function reference, Function submission) {
+        long start = System.nanoTime();
+        HashMap<String, ArrayList<String>> referenceParams = new HashMap<>();
+        HashMap<String, ArrayList<String>> submissionParams = new HashMap<>();
+        if (!Parameter.canMap(reference.getParams(), submission.getParams(), referenceParams, submissionParams)) {
+            return ValidationResult.withoutSolver(ValidationResult.Outcome.NOT_EQUIVALENT, 0).asProvisional();
+        }
+        List<List<Pair<Pair<String, String>, String>>> mappings =
+            Parameter.formMapping(referenceParams, submissionParams);
+        List<Map<String, Object>> inputs = generateInputs(referenceParams);
+
+        String counterExample = null;
+        boolean undecided = false;
+        int mappingsTried = 0;
+        for (List<Pair<Pair<String, String>, String>> mapping : mappings) {
+            mappingsTried++;
+            int ran = 0;
+            Map<String, Object> disagreement = null;
+            for (Map<String, Object> input : inputs) {
+                Boolean agrees = agrees(reference, submission, mapping, input);
+                if (agrees == null) {
+                    continue;
+                }
+                ran++;
+                if (!agrees) {
+                    disagreement = input;
+                    break;
+                }
+            }
+            if (disagreement == null && ran > 0) {
+                return new ValidationResult(ValidationResult.Outcome.EQUIVALENT, "", mappingsTried,
+                    new SolverStatistics(), TermMetrics.EMPTY, TermMetrics.EMPTY,
+                    SolverWrapper.elapsedMillisSince(start))
+                    .asProvisional();
+            } else if (disagreement == null) {
+                undecided = true;
+            } else if (counterExample == null) {
+                counterExample = describe(disagreement);
+            }
+        }
+
+        ValidationResult.Outcome outcome = undecided || counterExample == null
+            ? ValidationResult.Outcome.UNKNOWN
+            : ValidationResult.Outcome.NOT_EQUIVALENT;
+        return new ValidationResult(outcome, counterExample == null ? "" : counterExample, mappingsTried,
+            new SolverStatistics(), TermMetrics.EMPTY, TermMetrics.EMPTY, SolverWrapper.elapsedMillisSince(start))
+            .asProvisional();
+    }
+
+    /**
+     * Finds the parameter mappings under which the functions disagree on some input. A mapping is only refuted on
+     * a disagreement; inputs on which either run is inconclusive are ignored. Since the concrete runs take the
+     * branch a condition really selects, while the symbolic execution follows a fixed branch, a refuted mapping
+     * can still be the one the solver proves, so refuted mappings should be checked last rather than skipped.
+     *
+     * @param reference The reference function.
+     * @param submission The submitted function.
+     * @param referenceParams The reference parameters by type.
+     * @param mappings The candidate parameter mappings.
+     * @return The refuted mappings, in their original order.
+     */
+    public List<List<Pair<Pair<String, String>, String>>> refuted(Function reference,
+        Function submission,
+        Map<String, ArrayList<String>> referenceParams,
+        List<List<Pair<Pair<String, String>, String>>> mappings) {
+        List<Map<String, Object>> inputs = generateInputs(referenceParams);
+        // The reference runs the same way under every mapping, so it runs once per input
+        List<Object[]> expected = new ArrayList<>(inputs.size());
+        for (Map<String, Object> input : inputs) {
+            expected.add(run(reference, input));
+        }
+        List<List<Pair<Pair<String, String>, String>>> refuted = new ArrayList<>();
+        for (List<Pair<Pair<String, String>, String>> mapping : mappings) {
+            for (int i = 0; i < inputs.size(); i++) {
+                if (expected.get(i) != null) {
+                    Object[] actual = run(submission, submissionInput(mapping, inputs.get(i)));
+                    if (actual != null && !sameOutputs(expected.get(i), actual)) {
+                        refuted.add(mapping);
+                        break;
+                    }
+                }
+            }
+        }
+        return refuted;
+    }
+
+    /**
+     * Runs both functions on one input.
+     *
+     * @param reference The reference function.
+     * @param submission The submitted function.
+     * @param mapping The parameter mapping.
+     * @param input The value of each reference parameter.
+     * @return Whether the outputs agree, or null if either run is inconclusive.
+     */
+    private Boolean agrees(Function reference,
+        Function submission,
+        List<Pair<Pair<String, String>, String>> mapping,
+        Map<String, Object> input) {
+        Object[] expected = run(reference, input);
+        Object[] actual = expected == null ? null : run(submission, submissionInput(mapping, input));
+        if (actual == null) {
+            return null;
+        }
+        return sameOutputs(expected, actual);
+    }
+
+    /**
+     * Runs a function on one input.
+     *
+     * @param function The function.
+     * @param input The value of each parameter.
+     * @return The outputs, or null if the run is inconclusive.
+     */
+    private Object[] run(Function function, Map<String, Object> input) {
+        try {
+            return ConcreteInterpreter.run(function, input, maxSteps);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Renames an input of the reference to the parameters of the submission.
+     *
+     * @param mapping The parameter mapping.
+     * @param input The value of each reference parameter.
+     * @return The value of each submission parameter.
+     */
+    private static Map<String, Object> submissionInput(List<Pair<Pair<String, String>, String>> mapping,
+        Map<String, Object> input) {
+        Map<String, Object> submissionInput = new HashMap<>();
+        for (Pair<Pair<String, String>, String> pair : mapping) {
+            submissionInput.put(pair.getValue0().getValue1(), input.get(pair.getValue0().getValue0()));
+        }
+        return submissionInput;
+    }
+
+    /**
+     * Checks whether two runs produced the same outputs.
+     *
+     * @param expected The outputs of the reference.
+     * @param actual The outputs of the submission.
+     * @return True if every output is equal, false otherwise.
+     */
+    private static boolean sameOutputs(Object[] expected, Object[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            if (!sameValue(expected[i], actual[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Generates the inputs shared by every mapping: boundary values for the first half, at most one per boundary
+     * value, and random values for the rest.
+     *
+     * @param referenceParams The reference parameters by type.
+     * @return The value of each reference parameter, per input.
+     */
+    private List<Map<String, Object>> generateInputs(Map<String, ArrayList<String>> referenceParams) {
+        Random random = new Random(seed);
+        List<Map<String, Object>> inputs = new ArrayList<>(samples);
+        int boundaryInputs = Math.min(BOUNDARY_VALUES.length, (samples + 1) / 2);
+        for (int i = 0; i < samples; i++) {
+            Map<String, Object> input = new LinkedHashMap<>();
+            int position = 0;
+            for (Map.Entry<String, ArrayList<String>> entry : referenceParams.entrySet()) {
+                for (String name : entry.getValue()) {
+                    long number = i < boundaryInputs
+                        ? BOUNDARY_VALUES[(i + position) % BOUNDARY_VALUES.length]
+                        : random.nextInt(2001) - 1000;
+                    input.put(name, value(entry.getKey(), number, random));
+                    position++;
+                }
+            }
+            inputs.add(input);
+        }
+        return inputs;
+    }
+
+    /**
+     * Creates a parameter value of a type.
+     *
+     * @param type The parameter type.
+     * @param number The number the value is derived from.
+     * @param random The source of array contents.
+     * @return The value.
+     */
+    private static Object value(String type, long number, Random random) {
+        switch (type) {
+        case "bool":
+            return number % 2 != 0;
+        case "float":
+        case "double":
+            return number + random.nextInt(8) / 8.0;
+        case "int_array":
+        case "bool_array":
+        case "float_array":
+        case "double_array": {
+            long salt = random.nextLong();
+            String elementType = type.substring(0, type.length() - "_array".length());
+            return new ConcreteArray(index -> value(elementType, ConcreteInterpreter.mix(index, salt),
+                new Random(index ^ salt)));
+        }
+        default:
+            return number;
+        }
+    }
+
+    /**
+     * Describes an input in the format of the solver's counter examples.
+     *
+     * @param input The value of each reference parameter.
+     * @return The counter example.
+     */
+    private static String describe(Map<String, Object> input) {
+        StringBuilder counterExample = new StringBuilder();
+        for (Map.Entry<String, Object> entry : input.entrySet()) {
+            counterExample.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+        }
+        return counterExample.toString();
+    }
+
+    /**
+     * Checks whether two concrete values are equal, comparing numbers by value.
+     *
+     * @param left The left value.
+     * @param right The right value.
+     * @return True if the values are equal, false otherwise.
+     */
+    static boolean sameValue(Object left, Object right) {
+        if (left instanceof Long && right instanceof Long) {
+            return left.equals(right);
+        } else if (left instanceof Number && right instanceof Number) {
+            double l = ((Number) left).doubleValue();
+            double r = ((Number) right).doubleValue();
+            return Math.abs(l - r) <= 1e-9 * Math.max(1, Math.max(Math.abs(l), Math.abs(r)));
+        }
+        return Objects.equals(left, right);
+    }
+}
@@ -0,0 +1,33 @@
+package sg.edu.nus.se.its.validation.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event emitted for every location block executed while building a function.
+ */
+@Name("sg.edu.nus.se.its.validation.LocationBlock")
+@Label("Location Block")
+@Category({"ITS", "Validation"})
+@Description("Symbolic execution of the expressions at one location")
+@Enabled(false)
+@StackTrace(false)
+public class LocationBlockEvent extends Event {
+    @Label("Validation Id")
+    public long validationId;
+
+    @Label("Location Id")
+    public int locationId;
+
+    @Label("Iteration")
+    @Description("Number of times this location has been executed in the current function")
+    public int iteration;
+
+    @Label("Expression Count")
+    public int expressionCount;
+}
@@ -0,0 +1,32 @@
+package sg.edu.nus.se.its.validation.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event emitted for every parameter mapping tried during a validation.
+ */
+@Name("sg.edu.nus.se.its.validation.MappingAttempt")
+@Label("Mapping Attempt")
+@Category({"ITS", "Validation"})
+@Description("Construction and checking of both functions under one parameter mapping")
+@Enabled(false)
+@StackTrace(false)
+public class MappingAttemptEvent extends Event {
+    @Label("Validation Id")
+    public long validationId;
+
+    @Label("Mapping Index")
+    public int mappingIndex;
+
+    @Label("Mapping")
+    public String mapping;
+
+    @Label("Equivalent")
+    public boolean equivalent;
+}
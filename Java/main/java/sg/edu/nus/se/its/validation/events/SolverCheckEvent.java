@@ -0,0 +1,34 @@
+package sg.edu.nus.se.its.validation.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event emitted for every solver check performed by the SolverWrapper.
+ */
+@Name("sg.edu.nus.se.its.validation.SolverCheck")
+@Label("Solver Check")
+@Category({"ITS", "Validation"})
+@Description("A single Z3 check of a non-equivalence assertion")
+@Enabled(false)
+@StackTrace(false)
+public class SolverCheckEvent extends Event {
+    @Label("Validation Id")
+    public long validationId;
+
+    @Label("Output Index")
+    @Description("Index of the compared output (0 for $ret, 1 for $out)")
+    public int outputIndex;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Assertion Size")
+    @Description("Number of distinct nodes in the asserted term")
+    public int assertionSize;
+}
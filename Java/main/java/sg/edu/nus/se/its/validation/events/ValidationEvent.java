@@ -0,0 +1,35 @@
+package sg.edu.nus.se.its.validation.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event emitted for every validation handled by the PatchValidator.
+ */
+@Name("sg.edu.nus.se.its.validation.Validation")
+@Label("Validation")
+@Category({"ITS", "Validation"})
+@Description("A full equivalence check between a reference and a submitted program")
+@Enabled(false)
+@StackTrace(false)
+public class ValidationEvent extends Event {
+    @Label("Validation Id")
+    public long validationId;
+
+    @Label("Reference Function")
+    public String referenceFunction;
+
+    @Label("Submitted Function")
+    public String submittedFunction;
+
+    @Label("Equivalent")
+    public boolean equivalent;
+
+    @Label("Timed Out")
+    public boolean timedOut;
+}
@@ -0,0 +1,209 @@
+package sg.edu.nus.se.its.validation.generator;
+
+/**
+ * The GeneratorSpec class describes the shape of the programs built by {@link ProgramGenerator}.
+ * Each axis can be varied independently with {@link #with(String, int)} to chart how validation scales.
+ */
+public class GeneratorSpec {
+    private final int parameterCount;
+    private final String parameterType;
+    private final int loopDepth;
+    private final int tripCount;
+    private final int expressionDepth;
+    private final int arraySize;
+    private final int outputVolume;
+    private final long seed;
+
+    /**
+     * Constructs a GeneratorSpec.
+     *
+     * @param parameterCount The number of parameters of the function.
+     * @param parameterType The type of every parameter: int, float or double.
+     * @param loopDepth The nesting depth of the loops, 0 for straight-line code.
+     * @param tripCount The number of iterations of every loop.
+     * @param expressionDepth The depth of the expression accumulated in the innermost block.
+     * @param arraySize The number of elements of the local array, 0 for none.
+     * @param outputVolume The number of strings appended to the output.
+     * @param seed The seed of the random choices.
+     */
+    public GeneratorSpec(int parameterCount,
+        String parameterType,
+        int loopDepth,
+        int tripCount,
+        int expressionDepth,
+        int arraySize,
+        int outputVolume,
+        long seed) {
+        if (parameterCount < 0 || loopDepth < 0 || tripCount < 0 || expressionDepth < 0
+            || arraySize < 0 || outputVolume < 0) {
+            throw new IllegalArgumentException("Generator sizes must not be negative.");
+        }
+        if (!parameterType.equals("int") && !parameterType.equals("float") && !parameterType.equals("double")) {
+            throw new IllegalArgumentException("Unsupported parameter type: " + parameterType);
+        }
+        this.parameterCount = parameterCount;
+        this.parameterType = parameterType;
+        this.loopDepth = loopDepth;
+        this.tripCount = tripCount;
+        this.expressionDepth = expressionDepth;
+        this.arraySize = arraySize;
+        this.outputVolume = outputVolume;
+        this.seed = seed;
+    }
+
+    /**
+     * Gets a small specification comparable to the hand-written test programs.
+     *
+     * @return The default specification.
+     */
+    public static GeneratorSpec defaults() {
+        return new GeneratorSpec(2, "int", 1, 4, 2, 0, 1, 42);
+    }
+
+    /**
+     * Creates a copy of this specification with one integer axis changed.
+     *
+     * @param axis The name of the axis, e.g. "loopDepth".
+     * @param value The new value of the axis.
+     * @return The new specification.
+     */
+    public GeneratorSpec with(String axis, int value) {
+        switch (axis) {
+        case "parameterCount":
+            return new GeneratorSpec(value, parameterType, loopDepth, tripCount, expressionDepth, arraySize,
+                outputVolume, seed);
+        case "loopDepth":
+            return new GeneratorSpec(parameterCount, parameterType, value, tripCount, expressionDepth, arraySize,
+                outputVolume, seed);
+        case "tripCount":
+            return new GeneratorSpec(parameterCount, parameterType, loopDepth, value, expressionDepth, arraySize,
+                outputVolume, seed);
+        case "expressionDepth":
+            return new GeneratorSpec(parameterCount, parameterType, loopDepth, tripCount, value, arraySize,
+                outputVolume, seed);
+        case "arraySize":
+            return new GeneratorSpec(parameterCount, parameterType, loopDepth, tripCount, expressionDepth, value,
+                outputVolume, seed);
+        case "outputVolume":
+            return new GeneratorSpec(parameterCount, parameterType, loopDepth, tripCount, expressionDepth, arraySize,
+                value, seed);
+        case "seed":
+            return new GeneratorSpec(parameterCount, parameterType, loopDepth, tripCount, expressionDepth, arraySize,
+                outputVolume, value);
+        default:
+            throw new IllegalArgumentException("Unknown generator axis: " + axis);
+        }
+    }
+
+    /**
+     * Creates a copy of this specification with a different parameter type.
+     *
+     * @param type The type of every parameter: int, float or double.
+     * @return The new specification.
+     */
+    public GeneratorSpec withParameterType(String type) {
+        return new GeneratorSpec(parameterCount, type, loopDepth, tripCount, expressionDepth, arraySize,
+            outputVolume, seed);
+    }
+
+    /**
+     * Parses a specification change of the form {@code axis=value} and applies it to this specification.
+     *
+     * @param assignment The change, e.g. "tripCount=64" or "parameterType=float".
+     * @return The new specification.
+     */
+    public GeneratorSpec with(String assignment) {
+        String[] axisValue = assignment.split("=", 2);
+        if (axisValue.length != 2) {
+            throw new IllegalArgumentException("Expected axis=value but got: " + assignment);
+        }
+        if (axisValue[0].equals("parameterType")) {
+            return withParameterType(axisValue[1]);
+        }
+        return with(axisValue[0], Integer.parseInt(axisValue[1]));
+    }
+
+    /**
+     * Gets the parameter count.
+     *
+     * @return The parameter count.
+     */
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * Gets the parameter type.
+     *
+     * @return The parameter type.
+     */
+    public String getParameterType() {
+        return parameterType;
+    }
+
+    /**
+     * Gets the loop depth.
+     *
+     * @return The loop depth.
+     */
+    public int getLoopDepth() {
+        return loopDepth;
+    }
+
+    /**
+     * Gets the trip count.
+     *
+     * @return The trip count.
+     */
+    public int getTripCount() {
+        return tripCount;
+    }
+
+    /**
+     * Gets the expression depth.
+     *
+     * @return The expression depth.
+     */
+    public int getExpressionDepth() {
+        return expressionDepth;
+    }
+
+    /**
+     * Gets the array size.
+     *
+     * @return The array size.
+     */
+    public int getArraySize() {
+        return arraySize;
+    }
+
+    /**
+     * Gets the output volume.
+     *
+     * @return The output volume.
+     */
+    public int getOutputVolume() {
+        return outputVolume;
+    }
+
+    /**
+     * Gets the seed.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns a string representation of the specification.
+     *
+     * @return a string representation of the specification
+     */
+    @Override
+    public String toString() {
+        return "parameterCount=" + parameterCount + " parameterType=" + parameterType + " loopDepth=" + loopDepth
+            + " tripCount=" + tripCount + " expressionDepth=" + expressionDepth + " arraySize=" + arraySize
+            + " outputVolume=" + outputVolume + " seed=" + seed;
+    }
+}
@@ -0,0 +1,321 @@
+package sg.edu.nus.se.its.validation.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.javatuples.Pair;
+
+import sg.edu.nus.se.its.model.Constant;
+import sg.edu.nus.se.its.model.Expression;
+import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.model.Operation;
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.model.Variable;
+
+/**
+ * The ProgramGenerator class builds synthetic single-function programs directly as models,
+ * together with equivalent and non-equivalent variants, for scaling and stress benchmarks.
+ *
+ * <p>The generated function initialises an accumulator (and optionally a local array), runs
+ * {@code loopDepth} nested counted loops of {@code tripCount} iterations each, adds a random
+ * expression over the parameters to the accumulator in the innermost block, and finally returns
+ * the accumulator and appends {@code outputVolume} strings to the output.
+ */
+public class ProgramGenerator {
+    /**
+     * The kinds of program generated for a specification.
+     */
+    public enum Variant {
+        /**
+         * The reference program.
+         */
+        REFERENCE,
+        /**
+         * The reference with renamed variables, reordered parameters and swapped commutative operands.
+         */
+        EQUIVALENT,
+        /**
+         * The equivalent variant with an off-by-one return value.
+         */
+        NOT_EQUIVALENT
+    }
+
+    /**
+     * Name of the generated function.
+     */
+    private static final String FUNCTION_NAME = "generated";
+
+    private final GeneratorSpec spec;
+    private final Variant variant;
+    private final Random random;
+    private final String prefix;
+    private final HashMap<Integer, ArrayList<Pair<String, Expression>>> locExprs = new HashMap<>();
+    private final HashMap<Integer, HashMap<Boolean, Integer>> locTrans = new HashMap<>();
+    private final List<String> loopIndices = new ArrayList<>();
+    private int nextLoc = 1;
+
+    /**
+     * Constructs a ProgramGenerator for one program.
+     *
+     * @param spec The specification of the program.
+     * @param variant The variant of the program.
+     */
+    private ProgramGenerator(GeneratorSpec spec, Variant variant) {
+        this.spec = spec;
+        this.variant = variant;
+        // Every variant draws the same random choices, so they share their structure
+        this.random = new Random(spec.getSeed());
+        this.prefix = variant == Variant.REFERENCE ? "" : "s_";
+    }
+
+    /**
+     * Generates a program.
+     *
+     * @param spec The specification of the program.
+     * @param variant The variant of the program.
+     * @return The program.
+     */
+    public static Program generate(GeneratorSpec spec, Variant variant) {
+        return new ProgramGenerator(spec, variant).build();
+    }
+
+    /**
+     * Generates a reference program and an equivalent submission.
+     *
+     * @param spec The specification of the programs.
+     * @return The reference and the submission.
+     */
+    public static Pair<Program, Program> equivalentPair(GeneratorSpec spec) {
+        return new Pair<>(generate(spec, Variant.REFERENCE), generate(spec, Variant.EQUIVALENT));
+    }
+
+    /**
+     * Generates a reference program and a non-equivalent submission.
+     *
+     * @param spec The specification of the programs.
+     * @return The reference and the submission.
+     */
+    public static Pair<Program, Program> nonEquivalentPair(GeneratorSpec spec) {
+        return new Pair<>(generate(spec, Variant.REFERENCE), generate(spec, Variant.NOT_EQUIVALENT));
+    }
+
+    /**
+     * Builds the program.
+     *
+     * @return The program.
+     */
+    private Program build() {
+        List<Pair<String, String>> params = new ArrayList<>();
+        for (int i = 0; i < spec.getParameterCount(); i++) {
+            params.add(new Pair<>(name("p" + i), spec.getParameterType()));
+        }
+        if (variant != Variant.REFERENCE) {
+            Collections.reverse(params);
+        }
+
+        int initLoc = newLoc();
+        ArrayList<Pair<String, Expression>> init = locExprs.get(initLoc);
+        init.add(new Pair<>(name("acc"), constant(0)));
+        if (spec.getArraySize() > 0) {
+            String array = name("arr");
+            init.add(new Pair<>(array, op("ArrayCreate", new Constant(Integer.toString(spec.getArraySize()), 0))));
+            for (int i = 0; i < spec.getArraySize(); i++) {
+                init.add(new Pair<>(array, op("ArrayAssign", var(array), intConstant(i), constant(i + 1))));
+            }
+        }
+
+        int exitLoc = newLoc();
+        ArrayList<Pair<String, Expression>> exit = locExprs.get(exitLoc);
+        Expression result = var(name("acc"));
+        if (variant == Variant.NOT_EQUIVALENT) {
+            result = op("Add", result, constant(1));
+        }
+        exit.add(new Pair<>("$ret", result));
+        for (int i = 0; i < spec.getOutputVolume(); i++) {
+            exit.add(new Pair<>("$out", op("StrAppend", var("$out"), new Constant("\"line " + i + "\\n\"", 0))));
+        }
+
+        transition(initLoc, emitLoops(0, exitLoc));
+
+        Function function = new Function(FUNCTION_NAME, params, spec.getParameterType());
+        function.getLocexprs().putAll(locExprs);
+        function.getLoctrans().putAll(locTrans);
+        Program program = new Program();
+        program.getFncs().put(FUNCTION_NAME, function);
+        return program;
+    }
+
+    /**
+     * Emits the loop at the given nesting level, or the innermost block below the last level.
+     *
+     * @param level The nesting level.
+     * @param exitLoc The location executed after the loop.
+     * @return The entry location of the emitted code.
+     */
+    private int emitLoops(int level, int exitLoc) {
+        if (level == spec.getLoopDepth()) {
+            int bodyLoc = newLoc();
+            Expression addend = randomExpression(spec.getExpressionDepth());
+            if (spec.getArraySize() > 0) {
+                int index = random.nextInt(spec.getArraySize());
+                addend = commutative("Add", addend, op("GetElement", var(name("arr")), intConstant(index)));
+            }
+            locExprs.get(bodyLoc).add(new Pair<>(name("acc"), commutative("Add", var(name("acc")), addend)));
+            transition(bodyLoc, exitLoc);
+            return bodyLoc;
+        }
+
+        String index = name("i" + level);
+        int initLoc = newLoc();
+        int condLoc = newLoc();
+        int stepLoc = newLoc();
+        locExprs.get(initLoc).add(new Pair<>(index, intConstant(0)));
+        transition(initLoc, condLoc);
+
+        loopIndices.add(index);
+        int bodyLoc = emitLoops(level + 1, stepLoc);
+        loopIndices.remove(loopIndices.size() - 1);
+
+        locExprs.get(condLoc).add(new Pair<>("$cond", op("Lt", var(index), intConstant(spec.getTripCount()))));
+        HashMap<Boolean, Integer> branches = new HashMap<>();
+        branches.put(true, bodyLoc);
+        branches.put(false, exitLoc);
+        locTrans.put(condLoc, branches);
+
+        locExprs.get(stepLoc).add(new Pair<>(index, op("Add", var(index), intConstant(1))));
+        transition(stepLoc, condLoc);
+        return initLoc;
+    }
+
+    /**
+     * Builds a random arithmetic expression over the parameters, loop indices and constants.
+     *
+     * @param depth The depth of the expression.
+     * @return The expression.
+     */
+    private Expression randomExpression(int depth) {
+        if (depth == 0) {
+            return randomLeaf();
+        }
+        Expression left = randomExpression(depth - 1);
+        Expression right = randomExpression(depth - 1);
+        switch (random.nextInt(3)) {
+        case 0:
+            return commutative("Add", left, right);
+        case 1:
+            return op("Sub", left, right);
+        default:
+            return commutative("Mult", left, right);
+        }
+    }
+
+    /**
+     * Picks a random parameter, loop index or constant.
+     *
+     * @return The leaf expression.
+     */
+    private Expression randomLeaf() {
+        // Loop indices are integers, so they only mix with integer parameters
+        boolean useIndices = spec.getParameterType().equals("int") && !loopIndices.isEmpty();
+        int choices = spec.getParameterCount() + (useIndices ? loopIndices.size() : 0) + 1;
+        int choice = random.nextInt(choices);
+        if (choice < spec.getParameterCount()) {
+            return var(name("p" + choice));
+        }
+        choice -= spec.getParameterCount();
+        if (useIndices && choice < loopIndices.size()) {
+            return var(loopIndices.get(choice));
+        }
+        return constant(random.nextInt(9) + 1);
+    }
+
+    /**
+     * Builds a commutative operation, swapping its operands in the variants.
+     *
+     * @param name The name of the operation.
+     * @param left The left operand.
+     * @param right The right operand.
+     * @return The operation.
+     */
+    private Expression commutative(String name, Expression left, Expression right) {
+        return variant == Variant.REFERENCE ? op(name, left, right) : op(name, right, left);
+    }
+
+    /**
+     * Names a variable for the current variant.
+     *
+     * @param name The name in the reference program.
+     * @return The name in the current variant.
+     */
+    private String name(String name) {
+        return prefix + name;
+    }
+
+    /**
+     * Allocates a new location with no expressions and no transitions.
+     *
+     * @return The location.
+     */
+    private int newLoc() {
+        int loc = nextLoc++;
+        locExprs.put(loc, new ArrayList<>());
+        locTrans.put(loc, new HashMap<>());
+        return loc;
+    }
+
+    /**
+     * Adds an unconditional transition.
+     *
+     * @param from The source location.
+     * @param to The target location.
+     */
+    private void transition(int from, int to) {
+        locTrans.get(from).put(true, to);
+    }
+
+    /**
+     * Builds a constant of the parameter type.
+     *
+     * @param value The value.
+     * @return The constant.
+     */
+    private Expression constant(int value) {
+        return spec.getParameterType().equals("int")
+            ? intConstant(value)
+            : new Constant(value + ".0", 0);
+    }
+
+    /**
+     * Builds an integer constant.
+     *
+     * @param value The value.
+     * @return The constant.
+     */
+    private static Expression intConstant(int value) {
+        return new Constant(Integer.toString(value), 0);
+    }
+
+    /**
+     * Builds a variable reference.
+     *
+     * @param name The name of the variable.
+     * @return The variable.
+     */
+    private static Expression var(String name) {
+        return new Variable(name, 0);
+    }
+
+    /**
+     * Builds an operation.
+     *
+     * @param name The name of the operation.
+     * @param args The arguments of the operation.
+     * @return The operation.
+     */
+    private static Expression op(String name, Expression... args) {
+        return new Operation(name, List.of(args), 0);
+    }
+}
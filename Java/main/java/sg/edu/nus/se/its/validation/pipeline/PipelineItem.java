@@ -0,0 +1,42 @@
+package sg.edu.nus.se.its.validation.pipeline;
+
+import java.util.concurrent.CompletableFuture;
+
+import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.ValidationResult;
+
+/**
+ * A validation travelling through the stages of a {@link ValidationPipeline}. Each stage fills in its part;
+ * once a result is set, later stages pass the item on untouched until it is published.
+ */
+class PipelineItem {
+    final Program referenceProgram;
+    final Program fixedProgram;
+    final CompletableFuture<ValidationResult> future = new CompletableFuture<>();
+    final long startNanos = System.nanoTime();
+    Function reference;
+    Function submission;
+    String cacheKey;
+    ValidationResult result;
+
+    /**
+     * Constructs a PipelineItem.
+     *
+     * @param referenceProgram Reference program.
+     * @param fixedProgram Fixed program.
+     */
+    PipelineItem(Program referenceProgram, Program fixedProgram) {
+        this.referenceProgram = referenceProgram;
+        this.fixedProgram = fixedProgram;
+    }
+
+    /**
+     * Checks if the item still needs to be validated.
+     *
+     * @return True if no stage has set a result yet.
+     */
+    boolean isPending() {
+        return result == null;
+    }
+}
@@ -0,0 +1,158 @@
+package sg.edu.nus.se.its.validation.pipeline;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import sg.edu.nus.se.its.validation.ValidationResult;
+
+/**
+ * One stage of a {@link ValidationPipeline}. The stage requests at most as many items from upstream as it has
+ * workers, applies its action on its own worker threads, and publishes each item into a bounded buffer for
+ * the next stage. A worker blocks while that buffer is full and requests no further item meanwhile, which is
+ * how back-pressure travels upstream.
+ */
+class PipelineStage extends SubmissionPublisher<PipelineItem> implements Flow.Processor<PipelineItem, PipelineItem> {
+    private final String name;
+    private final int parallelism;
+    private final Consumer<PipelineItem> action;
+    private final ExecutorService workers;
+    private final ExecutorService delivery;
+    private final Object lock = new Object();
+    private Flow.Subscription subscription;
+    private int running;
+    private boolean upstreamDone;
+    private long processed;
+
+    /**
+     * Constructs a PipelineStage.
+     *
+     * @param name The name of the stage, used for its threads.
+     * @param parallelism The number of worker threads.
+     * @param bufferCapacity The capacity of the buffer towards the next stage.
+     * @param action The work done on each item still pending.
+     */
+    PipelineStage(String name, int parallelism, int bufferCapacity, Consumer<PipelineItem> action) {
+        this(name, parallelism, bufferCapacity, action,
+            Executors.newSingleThreadExecutor(r -> new Thread(r, name + "-delivery")));
+    }
+
+    private PipelineStage(String name, int parallelism, int bufferCapacity, Consumer<PipelineItem> action,
+        ExecutorService delivery) {
+        // Deliveries get a thread of their own so they can proceed while every worker is blocked on the buffer
+        super(delivery, bufferCapacity);
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Stage parallelism must be positive.");
+        }
+        this.name = name;
+        this.parallelism = parallelism;
+        this.action = action;
+        this.delivery = delivery;
+        this.workers = Executors.newFixedThreadPool(parallelism, r -> new Thread(r, name));
+    }
+
+    /**
+     * Starts requesting items, one per worker.
+     *
+     * @param subscription The subscription to the previous stage.
+     */
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(parallelism);
+    }
+
+    /**
+     * Hands an item to a worker.
+     *
+     * @param item The item.
+     */
+    @Override
+    public void onNext(PipelineItem item) {
+        synchronized (lock) {
+            running++;
+        }
+        workers.execute(() -> process(item));
+    }
+
+    /**
+     * Applies the action to an item, passes it on and requests the next one.
+     *
+     * @param item The item.
+     */
+    private void process(PipelineItem item) {
+        try {
+            if (item.isPending()) {
+                action.accept(item);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Stage " + name + " failed: " + e.getMessage());
+            item.result = ValidationResult.withoutSolver(ValidationResult.Outcome.ERROR,
+                (System.nanoTime() - item.startNanos) / 1_000_000);
+        }
+        submit(item);
+        boolean finished;
+        synchronized (lock) {
+            running--;
+            processed++;
+            finished = upstreamDone && running == 0;
+        }
+        if (finished) {
+            close();
+        } else {
+            subscription.request(1);
+        }
+    }
+
+    /**
+     * Fails the remaining items of the pipeline.
+     *
+     * @param throwable The failure of the previous stage.
+     */
+    @Override
+    public void onError(Throwable throwable) {
+        closeExceptionally(throwable);
+    }
+
+    /**
+     * Closes the stage once the items in progress have been passed on.
+     */
+    @Override
+    public void onComplete() {
+        boolean finished;
+        synchronized (lock) {
+            upstreamDone = true;
+            finished = running == 0;
+        }
+        if (finished) {
+            close();
+        }
+    }
+
+    /**
+     * Gets the number of items the stage has passed on.
+     *
+     * @return The number of items.
+     */
+    long getProcessed() {
+        synchronized (lock) {
+            return processed;
+        }
+    }
+
+    /**
+     * Stops the stage's threads after the pipeline has drained.
+     *
+     * @param timeoutMillis The time to wait for them.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    void shutdown(long timeoutMillis) throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        delivery.shutdown();
+        delivery.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+}
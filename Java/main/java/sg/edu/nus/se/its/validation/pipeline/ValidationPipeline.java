@@ -0,0 +1,205 @@
+package sg.edu.nus.se.its.validation.pipeline;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import org.javatuples.Pair;
+
+import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.PatchValidator;
+import sg.edu.nus.se.its.validation.ProgramFingerprint;
+import sg.edu.nus.se.its.validation.ValidationResult;
+
+/**
+ * The ValidationPipeline class runs validations through a chain of {@link java.util.concurrent.Flow} stages:
+ * function extraction and fingerprinting, verdict cache lookup, solving, and publication of the result.
+ * Every stage has its own threads and a bounded buffer, so the light stages never wait behind the solver,
+ * and a saturated solver stage fills the buffers back to the intake, where submissions then block.
+ */
+public class ValidationPipeline implements AutoCloseable {
+    /**
+     * Time to wait for the pipeline to drain on close (in milliseconds).
+     */
+    private static final long DRAIN_TIMEOUT_MILLIS = 120_000;
+
+    private final ExecutorService intakeDelivery =
+        Executors.newSingleThreadExecutor(r -> new Thread(r, "validation-intake"));
+    private final SubmissionPublisher<PipelineItem> intake;
+    private final PipelineStage extractStage;
+    private final PipelineStage lookupStage;
+    private final PipelineStage solveStage;
+    private final PatchValidator validator;
+    private final VerdictCache cache;
+    private final CountDownLatch drained = new CountDownLatch(1);
+    private volatile boolean closed;
+
+    /**
+     * Constructs a ValidationPipeline.
+     *
+     * @param solverConcurrency The number of validations solved at the same time.
+     * @param bufferCapacity The capacity of the buffer in front of each stage.
+     * @param cacheCapacity The number of verdicts cached.
+     */
+    public ValidationPipeline(int solverConcurrency, int bufferCapacity, int cacheCapacity) {
+        this.validator = new PatchValidator(solverConcurrency);
+        this.cache = new VerdictCache(cacheCapacity);
+        this.intake = new SubmissionPublisher<>(intakeDelivery, bufferCapacity);
+        this.extractStage = new PipelineStage("validation-extract", 1, bufferCapacity, ValidationPipeline::extract);
+        this.lookupStage = new PipelineStage("validation-lookup", 1, bufferCapacity, this::lookUp);
+        this.solveStage = new PipelineStage("validation-solve", solverConcurrency, bufferCapacity, this::solve);
+
+        intake.subscribe(extractStage);
+        extractStage.subscribe(lookupStage);
+        lookupStage.subscribe(solveStage);
+        solveStage.subscribe(new Publication());
+    }
+
+    /**
+     * Submits a validation, blocking while the intake buffer is full.
+     *
+     * @param referenceProgram Reference program.
+     * @param fixedProgram Fixed program.
+     * @return The future result of the validation.
+     */
+    public CompletableFuture<ValidationResult> submit(Program referenceProgram, Program fixedProgram) {
+        checkOpen();
+        PipelineItem item = new PipelineItem(referenceProgram, fixedProgram);
+        intake.submit(item);
+        return item.future;
+    }
+
+    /**
+     * Submits a validation, waiting at most the given time for room in the intake buffer.
+     *
+     * @param referenceProgram Reference program.
+     * @param fixedProgram Fixed program.
+     * @param timeoutMillis The time to wait for room.
+     * @return The future result of the validation, completed with a REJECTED outcome if there was no room.
+     */
+    public CompletableFuture<ValidationResult> offer(Program referenceProgram, Program fixedProgram,
+        long timeoutMillis) {
+        checkOpen();
+        PipelineItem item = new PipelineItem(referenceProgram, fixedProgram);
+        intake.offer(item, timeoutMillis, TimeUnit.MILLISECONDS, (subscriber, dropped) -> {
+            dropped.future.complete(ValidationResult.withoutSolver(ValidationResult.Outcome.REJECTED, 0));
+            return false;
+        });
+        return item.future;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The pipeline has been closed.");
+        }
+    }
+
+    /**
+     * Extracts the functions of an item and derives its cache key from their fingerprints.
+     *
+     * @param item The item.
+     */
+    private static void extract(PipelineItem item) {
+        Pair<Function, Function> functions = PatchValidator.extractFunctions(
+            new Pair<>(item.referenceProgram, item.fixedProgram));
+        item.reference = functions.getValue0();
+        item.submission = functions.getValue1();
+        item.cacheKey = ProgramFingerprint.of(item.reference) + ":" + ProgramFingerprint.of(item.submission);
+    }
+
+    /**
+     * Resolves an item from the verdict cache if it was validated before.
+     *
+     * @param item The item.
+     */
+    private void lookUp(PipelineItem item) {
+        item.result = cache.get(item.cacheKey);
+    }
+
+    /**
+     * Validates an item with the solver and caches the verdict.
+     *
+     * @param item The item.
+     */
+    private void solve(PipelineItem item) {
+        item.result = validator.validate(item.referenceProgram, item.fixedProgram);
+        cache.put(item.cacheKey, item.result);
+    }
+
+    /**
+     * The last stage, completing the future of each item.
+     */
+    private class Publication implements Flow.Subscriber<PipelineItem> {
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(PipelineItem item) {
+            long elapsedMillis = (System.nanoTime() - item.startNanos) / 1_000_000;
+            item.future.complete(item.result.withElapsedMillis(elapsedMillis));
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            System.err.println("Validation pipeline failed: " + throwable.getMessage());
+            drained.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            drained.countDown();
+        }
+    }
+
+    /**
+     * Gets the verdict cache of the pipeline.
+     *
+     * @return The verdict cache.
+     */
+    public VerdictCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Gets the number of validations that have passed the solve stage, whether solved or found in the cache.
+     *
+     * @return The number of validations.
+     */
+    public long getSolveStageProcessed() {
+        return solveStage.getProcessed();
+    }
+
+    /**
+     * Stops the intake, waits for the validations in the pipeline to be published and releases the threads
+     * and solver contexts.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        intake.close();
+        try {
+            drained.await(DRAIN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            intakeDelivery.shutdown();
+            for (PipelineStage stage : new PipelineStage[] {extractStage, lookupStage, solveStage}) {
+                stage.shutdown(DRAIN_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        validator.close();
+    }
+}
@@ -0,0 +1,81 @@
+package sg.edu.nus.se.its.validation.pipeline;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import sg.edu.nus.se.its.validation.ValidationResult;
+
+/**
+ * The VerdictCache class remembers the definitive verdicts of recent validations, keyed by the fingerprints
+ * of the two functions, and evicts the least recently used ones beyond its capacity.
+ */
+public class VerdictCache {
+    private final Map<String, ValidationResult> verdicts;
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructs a VerdictCache.
+     *
+     * @param capacity The number of verdicts kept.
+     */
+    public VerdictCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive.");
+        }
+        this.verdicts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ValidationResult> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the verdict cached for a key.
+     *
+     * @param key The key.
+     * @return The verdict, or null if there is none.
+     */
+    public synchronized ValidationResult get(String key) {
+        ValidationResult verdict = verdicts.get(key);
+        if (verdict == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return verdict;
+    }
+
+    /**
+     * Caches a verdict if it is definitive, i.e. proven equivalent or not equivalent.
+     *
+     * @param key The key.
+     * @param verdict The verdict.
+     */
+    public synchronized void put(String key, ValidationResult verdict) {
+        ValidationResult.Outcome outcome = verdict.getOutcome();
+        if (!verdict.isProvisional()
+            && (outcome == ValidationResult.Outcome.EQUIVALENT || outcome == ValidationResult.Outcome.NOT_EQUIVALENT)) {
+            verdicts.put(key, verdict);
+        }
+    }
+
+    /**
+     * Gets the number of lookups that found a verdict.
+     *
+     * @return The number of hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that found no verdict.
+     *
+     * @return The number of misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,139 @@
+package sg.edu.nus.se.its.validation.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The FairQueue class orders waiting items by priority class first and then round-robin across the keys
+ * within a class, so one busy assignment cannot starve the others. It is not thread safe.
+ *
+ * @param <T> The type of the queued items.
+ */
+class FairQueue<T> {
+    /**
+     * Per priority class, the waiting items of each key. The first key is served next.
+     */
+    private final Map<Priority, LinkedHashMap<String, ArrayDeque<T>>> queues = new EnumMap<>(Priority.class);
+
+    private int size;
+
+    /**
+     * Constructs an empty FairQueue.
+     */
+    FairQueue() {
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Adds an item behind the other items of its key.
+     *
+     * @param priority The priority class of the item.
+     * @param key The key the item is shared fairly by.
+     * @param item The item.
+     */
+    void add(Priority priority, String key, T item) {
+        queues.get(priority).computeIfAbsent(key, k -> new ArrayDeque<>()).addLast(item);
+        size++;
+    }
+
+    /**
+     * Removes the next item: the oldest item of the next key in the most urgent non-empty class.
+     *
+     * @return The item, or null if the queue is empty.
+     */
+    T poll() {
+        for (LinkedHashMap<String, ArrayDeque<T>> keys : queues.values()) {
+            Iterator<Map.Entry<String, ArrayDeque<T>>> iterator = keys.entrySet().iterator();
+            if (iterator.hasNext()) {
+                Map.Entry<String, ArrayDeque<T>> next = iterator.next();
+                iterator.remove();
+                T item = next.getValue().pollFirst();
+                if (!next.getValue().isEmpty()) {
+                    // Re-inserting moves the key behind the others of its class
+                    keys.put(next.getKey(), next.getValue());
+                }
+                size--;
+                return item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the newest item of the key with the most waiting items in the least urgent class that is
+     * less urgent than the given one, making room for a more urgent item.
+     *
+     * @param priority The priority class of the item that needs room.
+     * @return The removed item, or null if no less urgent item is waiting.
+     */
+    T evictLessUrgentThan(Priority priority) {
+        Priority[] priorities = Priority.values();
+        for (int i = priorities.length - 1; i > priority.ordinal(); i--) {
+            LinkedHashMap<String, ArrayDeque<T>> keys = queues.get(priorities[i]);
+            String longest = null;
+            for (Map.Entry<String, ArrayDeque<T>> entry : keys.entrySet()) {
+                if (longest == null || entry.getValue().size() > keys.get(longest).size()) {
+                    longest = entry.getKey();
+                }
+            }
+            if (longest != null) {
+                ArrayDeque<T> items = keys.get(longest);
+                T item = items.pollLast();
+                if (items.isEmpty()) {
+                    keys.remove(longest);
+                }
+                size--;
+                return item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts the items that are served before a new item of the given priority class.
+     *
+     * @param priority The priority class.
+     * @return The number of items of that class or a more urgent one.
+     */
+    int countAtOrAbove(Priority priority) {
+        int count = 0;
+        for (Map.Entry<Priority, LinkedHashMap<String, ArrayDeque<T>>> entry : queues.entrySet()) {
+            if (entry.getKey().ordinal() <= priority.ordinal()) {
+                for (ArrayDeque<T> items : entry.getValue().values()) {
+                    count += items.size();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Removes all items.
+     *
+     * @return The removed items, in the order they would have been served.
+     */
+    List<T> drain() {
+        List<T> items = new ArrayList<>(size);
+        T item;
+        while ((item = poll()) != null) {
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Gets the number of waiting items.
+     *
+     * @return The number of items.
+     */
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,11 @@
+package sg.edu.nus.se.its.validation.scheduler;
+
+/**
+ * The priority classes of validation requests, from most to least urgent.
+ * A request is only dispatched when no request of a more urgent class is waiting.
+ */
+public enum Priority {
+    INTERACTIVE,
+    EXAM,
+    BATCH
+}
@@ -0,0 +1,95 @@
+package sg.edu.nus.se.its.validation.scheduler;
+
+import java.time.Instant;
+
+import sg.edu.nus.se.its.model.Program;
+
+/**
+ * The ValidationRequest class describes one validation submitted to a {@link ValidationScheduler}.
+ */
+public class ValidationRequest {
+    private final String assignmentId;
+    private final Priority priority;
+    private final Instant deadline;
+    private final Program referenceProgram;
+    private final Program submittedProgram;
+
+    /**
+     * Constructs a ValidationRequest.
+     *
+     * @param assignmentId The key requests are shared fairly by, e.g. an assignment or course identifier.
+     * @param priority The priority class of the request.
+     * @param deadline The time by which the verdict is needed, or null if there is none.
+     * @param referenceProgram The reference program.
+     * @param submittedProgram The submitted program.
+     */
+    public ValidationRequest(String assignmentId,
+        Priority priority,
+        Instant deadline,
+        Program referenceProgram,
+        Program submittedProgram) {
+        if (assignmentId == null || priority == null) {
+            throw new IllegalArgumentException("A request needs an assignment and a priority.");
+        }
+        this.assignmentId = assignmentId;
+        this.priority = priority;
+        this.deadline = deadline;
+        this.referenceProgram = referenceProgram;
+        this.submittedProgram = submittedProgram;
+    }
+
+    /**
+     * Gets the key requests are shared fairly by.
+     *
+     * @return The assignment identifier.
+     */
+    public String getAssignmentId() {
+        return assignmentId;
+    }
+
+    /**
+     * Gets the priority class of the request.
+     *
+     * @return The priority.
+     */
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Gets the time by which the verdict is needed.
+     *
+     * @return The deadline, or null if there is none.
+     */
+    public Instant getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Gets the reference program.
+     *
+     * @return The reference program.
+     */
+    public Program getReferenceProgram() {
+        return referenceProgram;
+    }
+
+    /**
+     * Gets the submitted program.
+     *
+     * @return The submitted program.
+     */
+    public Program getSubmittedProgram() {
+        return submittedProgram;
+    }
+
+    /**
+     * Returns a string representation of the request.
+     *
+     * @return a string representation of the request
+     */
+    @Override
+    public String toString() {
+        return priority + " request for " + assignmentId + (deadline == null ? "" : " due " + deadline);
+    }
+}
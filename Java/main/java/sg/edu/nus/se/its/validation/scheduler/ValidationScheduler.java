@@ -0,0 +1,245 @@
+package sg.edu.nus.se.its.validation.scheduler;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import sg.edu.nus.se.its.validation.PatchValidator;
+import sg.edu.nus.se.its.validation.ValidationResult;
+
+/**
+ * The ValidationScheduler class queues validation requests in front of a {@link PatchValidator}.
+ * Requests are served by priority class and round-robin across assignments within a class. A request is
+ * rejected up front when the queue is full of requests at least as urgent, or when the estimated wait
+ * means its deadline cannot be met; a request that is admitted runs with the time left before its
+ * deadline as its timeout.
+ */
+public class ValidationScheduler implements AutoCloseable {
+    /**
+     * Weight of the newest validation in the running average of validation times.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * Timeout of requests without a deadline (in milliseconds).
+     */
+    private static final long DEFAULT_TIMEOUT_MILLIS = 60_000;
+
+    private final PatchValidator validator;
+    private final int workers;
+    private final int maxQueued;
+    private final ExecutorService dispatchers;
+    private final FairQueue<Pending> queue = new FairQueue<>();
+
+    /**
+     * Number of validations running.
+     */
+    private int running;
+
+    /**
+     * Running average of the validation time (in milliseconds), 0 before the first validation.
+     */
+    private double averageMillis;
+
+    /**
+     * Number of rejected requests.
+     */
+    private long rejected;
+
+    private boolean closed;
+
+    /**
+     * A request waiting in the queue together with the future of its result.
+     */
+    private static class Pending {
+        private final ValidationRequest request;
+        private final CompletableFuture<ValidationResult> result = new CompletableFuture<>();
+
+        private Pending(ValidationRequest request) {
+            this.request = request;
+        }
+    }
+
+    /**
+     * Constructs a ValidationScheduler. The validator is not closed with the scheduler.
+     *
+     * @param validator The validator running the requests, built for at least {@code workers} validations.
+     * @param workers The number of requests validated at the same time.
+     * @param maxQueued The number of waiting requests above which new ones are rejected.
+     */
+    public ValidationScheduler(PatchValidator validator, int workers, int maxQueued) {
+        if (validator == null || workers <= 0 || maxQueued <= 0) {
+            throw new IllegalArgumentException("A scheduler needs a validator and positive worker and queue sizes.");
+        }
+        this.validator = validator;
+        this.workers = workers;
+        this.maxQueued = maxQueued;
+        this.dispatchers = Executors.newFixedThreadPool(workers);
+    }
+
+    /**
+     * Submits a request. The returned future completes with a REJECTED outcome if the request is not admitted,
+     * is pushed out of the queue by a more urgent one, or is still waiting when its deadline passes.
+     *
+     * @param request The request.
+     * @return The future result of the request.
+     */
+    public CompletableFuture<ValidationResult> submit(ValidationRequest request) {
+        Pending pending = new Pending(request);
+        Pending evicted = null;
+        boolean admitted = false;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The scheduler has been closed.");
+            }
+            if (canMeetDeadline(request)) {
+                if (queue.size() >= maxQueued) {
+                    evicted = queue.evictLessUrgentThan(request.getPriority());
+                }
+                if (queue.size() < maxQueued) {
+                    queue.add(request.getPriority(), request.getAssignmentId(), pending);
+                    admitted = true;
+                }
+            }
+        }
+
+        reject(evicted);
+        if (admitted) {
+            // Every dispatch serves whichever request is next at that moment, not necessarily this one
+            dispatchers.execute(this::dispatchNext);
+        } else {
+            reject(pending);
+        }
+        return pending.result;
+    }
+
+    /**
+     * Checks whether a request can be validated before its deadline, given the requests served before it.
+     *
+     * @param request The request.
+     * @return True if the deadline can be met or there is none, false otherwise.
+     */
+    private boolean canMeetDeadline(ValidationRequest request) {
+        if (request.getDeadline() == null) {
+            return true;
+        }
+        long ahead = running + queue.countAtOrAbove(request.getPriority());
+        double waitMillis = ahead < workers ? 0 : (ahead - workers + 1) * averageMillis / workers;
+        long expectedEnd = System.currentTimeMillis() + (long) (waitMillis + averageMillis);
+        return expectedEnd <= request.getDeadline().toEpochMilli();
+    }
+
+    /**
+     * Validates the next request in the queue.
+     */
+    private void dispatchNext() {
+        Pending pending;
+        synchronized (this) {
+            pending = queue.poll();
+            if (pending == null) {
+                return;
+            }
+            running++;
+        }
+
+        ValidationRequest request = pending.request;
+        long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+        if (request.getDeadline() != null) {
+            timeoutMillis = request.getDeadline().toEpochMilli() - System.currentTimeMillis();
+        }
+        ValidationResult result = null;
+        RuntimeException failure = null;
+        try {
+            if (timeoutMillis > 0) {
+                result = validator.validate(request.getReferenceProgram(), request.getSubmittedProgram(),
+                    timeoutMillis);
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            synchronized (this) {
+                running--;
+                if (result != null) {
+                    averageMillis = averageMillis == 0
+                        ? result.getElapsedMillis()
+                        : (1 - SMOOTHING) * averageMillis + SMOOTHING * result.getElapsedMillis();
+                }
+            }
+        }
+
+        if (failure != null) {
+            pending.result.completeExceptionally(failure);
+        } else if (result != null) {
+            pending.result.complete(result);
+        } else {
+            reject(pending);
+        }
+    }
+
+    /**
+     * Completes a request with a REJECTED outcome.
+     *
+     * @param pending The request, or null.
+     */
+    private void reject(Pending pending) {
+        if (pending != null) {
+            synchronized (this) {
+                rejected++;
+            }
+            pending.result.complete(ValidationResult.withoutSolver(ValidationResult.Outcome.REJECTED, 0));
+        }
+    }
+
+    /**
+     * Gets the number of waiting requests.
+     *
+     * @return The number of requests.
+     */
+    public synchronized int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of rejected requests.
+     *
+     * @return The number of requests.
+     */
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Gets the running average of the validation time used for admission control.
+     *
+     * @return The average in milliseconds, 0 before the first validation.
+     */
+    public synchronized double getAverageMillis() {
+        return averageMillis;
+    }
+
+    /**
+     * Rejects the waiting requests and waits for the running ones to finish.
+     */
+    @Override
+    public void close() {
+        List<Pending> waiting;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            waiting = queue.drain();
+        }
+        for (Pending pending : waiting) {
+            reject(pending);
+        }
+        dispatchers.shutdown();
+        try {
+            dispatchers.awaitTermination(DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
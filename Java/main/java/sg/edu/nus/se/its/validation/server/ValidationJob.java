@@ -0,0 +1,45 @@
+package sg.edu.nus.se.its.validation.server;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.gson.JsonObject;
+
+/**
+ * A validation accepted by the {@link ValidationServer}, shared by every retry carrying its idempotency key.
+ */
+class ValidationJob {
+    final String id;
+    final String fingerprint;
+    final URI callback;
+    final CompletableFuture<JsonObject> verdict = new CompletableFuture<>();
+
+    /**
+     * Constructs a ValidationJob.
+     *
+     * @param id The identifier clients poll the job with.
+     * @param fingerprint The request the job was created for, to detect a key reused for another request.
+     * @param callback The URI the verdict is posted to, or null.
+     */
+    ValidationJob(String id, String fingerprint, URI callback) {
+        this.id = id;
+        this.fingerprint = fingerprint;
+        this.callback = callback;
+    }
+
+    /**
+     * Describes the job and, once completed, its verdict.
+     *
+     * @return The JSON description.
+     */
+    JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("id", id);
+        JsonObject result = verdict.getNow(null);
+        json.addProperty("status", result == null ? "pending" : "done");
+        if (result != null) {
+            json.add("verdict", result);
+        }
+        return json;
+    }
+}
@@ -0,0 +1,391 @@
+package sg.edu.nus.se.its.validation.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import sg.edu.nus.se.its.validation.PatchValidator;
+import sg.edu.nus.se.its.validation.batch.CachingProgramLoader;
+import sg.edu.nus.se.its.validation.batch.ProgramLoader;
+import sg.edu.nus.se.its.validation.batch.VerdictJson;
+
+/**
+ * The ValidationServer class is a long-running validation daemon with a JSON API on the loopback interface.
+ * It keeps one {@link PatchValidator}, with its pool of solver contexts, and a cache of parsed reference
+ * programs warm across requests, so a validation pays neither JVM start-up nor Z3 loading.
+ *
+ * <p>{@code POST /validations} takes {@code {"reference": path, "submission": path}} and optionally
+ * {@code "async": true}, {@code "callback": url} and {@code "timeoutMillis"}. A synchronous request answers
+ * 200 with the verdict, or 202 if the validation outlives the timeout; an asynchronous one answers 202 at once.
+ * Either way the job can be polled with {@code GET /validations/<id>}, and a callback URL receives the job as
+ * a POST once it is done. An {@code Idempotency-Key} header makes retries return the job of the first request
+ * instead of solving again; reusing a key for a different request is answered with 409.
+ *
+ * <p>Usage: {@code ValidationServer [--port n] [--concurrency n] [--timeout ms]}.
+ */
+public class ValidationServer implements AutoCloseable {
+    /**
+     * Number of jobs, and of idempotency keys, remembered.
+     */
+    private static final int JOB_CAPACITY = 10_000;
+
+    /**
+     * Number of parsed reference programs kept.
+     */
+    private static final int REFERENCE_CACHE_CAPACITY = 64;
+
+    /**
+     * Time a synchronous request waits beyond the validation timeout before answering 202 (in milliseconds).
+     */
+    private static final long SYNC_GRACE_MILLIS = 1_000;
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ExecutorService solvers;
+    private final PatchValidator validator;
+    private final ProgramLoader loader;
+    private final ProgramLoader references;
+    private final long defaultTimeoutMillis;
+    private final HttpClient callbackClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final Map<String, ValidationJob> jobsById = lruMap();
+    private final Map<String, ValidationJob> jobsByKey = lruMap();
+    private final AtomicLong solved = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Constructs and starts a ValidationServer.
+     *
+     * @param port The port, or 0 for any free port.
+     * @param concurrency The number of validations solved at the same time.
+     * @param defaultTimeoutMillis The timeout of validations that do not set one.
+     * @param loader The loader of the program files.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ValidationServer(int port, int concurrency, long defaultTimeoutMillis, ProgramLoader loader)
+        throws IOException {
+        if (concurrency <= 0 || defaultTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Concurrency and timeout must be positive.");
+        }
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        this.loader = loader;
+        this.references = new CachingProgramLoader(loader, REFERENCE_CACHE_CAPACITY);
+        this.validator = new PatchValidator(concurrency);
+        this.solvers = Executors.newFixedThreadPool(concurrency, r -> new Thread(r, "validation-server-solver"));
+        // Synchronous requests hold a handler thread while they wait, so there are more handlers than solvers
+        this.handlers = Executors.newFixedThreadPool(concurrency * 4, r -> new Thread(r, "validation-server"));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(handlers);
+        server.createContext("/validations", this::handleValidations);
+        server.createContext("/health", this::handleHealth);
+        server.start();
+    }
+
+    private static Map<String, ValidationJob> lruMap() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ValidationJob> eldest) {
+                return size() > JOB_CAPACITY;
+            }
+        };
+    }
+
+    /**
+     * Runs the server until the JVM is stopped.
+     *
+     * @param args The options.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        long timeoutMillis = 60_000;
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            switch (args[i]) {
+            case "--port":
+                port = Integer.parseInt(args[i + 1]);
+                break;
+            case "--concurrency":
+                concurrency = Integer.parseInt(args[i + 1]);
+                break;
+            case "--timeout":
+                timeoutMillis = Long.parseLong(args[i + 1]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        ValidationServer server = new ValidationServer(port, concurrency, timeoutMillis, ProgramLoader.parser());
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("Listening on http://127.0.0.1:" + server.getPort());
+    }
+
+    /**
+     * Handles the creation and polling of jobs.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the response cannot be sent.
+     */
+    private void handleValidations(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (path.equals("/validations") || path.equals("/validations/")) {
+                if (method.equals("POST")) {
+                    create(exchange);
+                } else {
+                    respondError(exchange, 405, "Use POST to create a validation.");
+                }
+            } else if (method.equals("GET")) {
+                ValidationJob job;
+                synchronized (jobsById) {
+                    job = jobsById.get(path.substring("/validations/".length()));
+                }
+                if (job == null) {
+                    respondError(exchange, 404, "Unknown validation.");
+                } else {
+                    respond(exchange, 200, job.toJson());
+                }
+            } else {
+                respondError(exchange, 405, "Use GET to poll a validation.");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Validation request failed: " + e.getMessage());
+            respondError(exchange, 500, String.valueOf(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Creates a job, or finds the one created for an earlier request with the same idempotency key, and answers
+     * with it.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the request cannot be read or the response cannot be sent.
+     */
+    private void create(HttpExchange exchange) throws IOException {
+        String reference;
+        String submission;
+        boolean async;
+        URI callback;
+        long timeoutMillis;
+        try (InputStream body = exchange.getRequestBody()) {
+            JsonObject request = JsonParser.parseString(new String(body.readAllBytes(), StandardCharsets.UTF_8))
+                .getAsJsonObject();
+            reference = field(request, "reference");
+            submission = field(request, "submission");
+            async = request.has("async") && request.get("async").getAsBoolean();
+            callback = request.has("callback") ? URI.create(request.get("callback").getAsString()) : null;
+            timeoutMillis = request.has("timeoutMillis")
+                ? request.get("timeoutMillis").getAsLong()
+                : defaultTimeoutMillis;
+            if (callback != null && !"http".equals(callback.getScheme()) && !"https".equals(callback.getScheme())) {
+                throw new IllegalArgumentException("The callback must be an HTTP URL.");
+            }
+            if (timeoutMillis <= 0) {
+                throw new IllegalArgumentException("The timeout must be positive.");
+            }
+        } catch (RuntimeException e) {
+            respondError(exchange, 400, "Invalid request: " + e.getMessage());
+            return;
+        }
+
+        String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+        String fingerprint = reference + "\n" + submission;
+        ValidationJob job;
+        boolean created = false;
+        synchronized (jobsById) {
+            job = key == null ? null : jobsByKey.get(key);
+            if (job == null) {
+                job = new ValidationJob(UUID.randomUUID().toString(), fingerprint, callback);
+                jobsById.put(job.id, job);
+                if (key != null) {
+                    jobsByKey.put(key, job);
+                }
+                created = true;
+            }
+        }
+        if (!job.fingerprint.equals(fingerprint)) {
+            respondError(exchange, 409, "The idempotency key was used for another validation.");
+            return;
+        }
+        if (created) {
+            ValidationJob newJob = job;
+            solvers.execute(() -> solve(newJob, reference, submission, timeoutMillis));
+        } else {
+            deduplicated.incrementAndGet();
+        }
+
+        exchange.getResponseHeaders().set("Location", "/validations/" + job.id);
+        if (!async) {
+            try {
+                job.verdict.get(timeoutMillis + SYNC_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                // Answered as pending below; the client polls for the verdict
+            }
+        }
+        respond(exchange, !async && job.verdict.isDone() ? 200 : 202, job.toJson());
+    }
+
+    /**
+     * Validates a job and delivers its verdict.
+     *
+     * @param job The job.
+     * @param reference The path of the reference program.
+     * @param submission The path of the submitted program.
+     * @param timeoutMillis The timeout of the validation.
+     */
+    private void solve(ValidationJob job, String reference, String submission, long timeoutMillis) {
+        JsonObject verdict = new JsonObject();
+        try {
+            VerdictJson.addTo(verdict, validator.validate(references.load(Paths.get(reference)),
+                loader.load(Paths.get(submission)), timeoutMillis));
+            solved.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot validate " + submission + ": " + e.getMessage());
+            VerdictJson.addError(verdict, e);
+        }
+        job.verdict.complete(verdict);
+
+        if (job.callback != null) {
+            HttpRequest request = HttpRequest.newBuilder(job.callback)
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(job.toJson().toString()))
+                .build();
+            callbackClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        System.err.println("Callback to " + job.callback + " failed: " + e.getMessage());
+                    }
+                });
+        }
+    }
+
+    /**
+     * Answers a health check.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the response cannot be sent.
+     */
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try {
+            JsonObject health = new JsonObject();
+            health.addProperty("status", "up");
+            health.addProperty("solved", solved.get());
+            health.addProperty("deduplicated", deduplicated.get());
+            respond(exchange, 200, health);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Gets a string field of a request.
+     *
+     * @param request The request.
+     * @param name The name of the field.
+     * @return The value of the field.
+     */
+    private static String field(JsonObject request, String name) {
+        JsonElement value = request.get(name);
+        if (value == null || !value.isJsonPrimitive()) {
+            throw new IllegalArgumentException("Missing field: " + name);
+        }
+        return value.getAsString();
+    }
+
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        JsonObject error = new JsonObject();
+        error.addProperty("error", message);
+        respond(exchange, status, error);
+    }
+
+    private static void respond(HttpExchange exchange, int status, JsonObject body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the number of validations solved, excluding those that failed.
+     *
+     * @return The number of validations.
+     */
+    public long getSolved() {
+        return solved.get();
+    }
+
+    /**
+     * Gets the number of requests answered with the job of an earlier request with the same idempotency key.
+     *
+     * @return The number of requests.
+     */
+    public long getDeduplicated() {
+        return deduplicated.get();
+    }
+
+    /**
+     * Stops accepting requests, finishes the validations in progress and releases the solver contexts.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        server.stop(1);
+        solvers.shutdown();
+        try {
+            solvers.awaitTermination(defaultTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        handlers.shutdown();
+        validator.close();
+    }
+}
@@ -30,6 +30,33 @@ public class BinaryExpression extends BaseExpression {
         this.operator = operator;
     }
 
+    /**
+     * Gets the left operand of the binary expression.
+     *
+     * @return the left operand
+     */
+    public BaseExpression getLeftOperand() {
+        return leftOperand;
+    }
+
+    /**
+     * Gets the right operand of the binary expression.
+     *
+     * @return the right operand
+     */
+    public BaseExpression getRightOperand() {
+        return rightOperand;
+    }
+
+    /**
+     * Gets the operator of the binary expression.
+     *
+     * @return the operator
+     */
+    public String getOperator() {
+        return operator;
+    }
+
     /**
      * Returns a string representation of the binary expression.
      *
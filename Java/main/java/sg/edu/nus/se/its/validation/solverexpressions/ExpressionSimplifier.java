@@ -0,0 +1,327 @@
+package sg.edu.nus.se.its.validation.solverexpressions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Simplifies solver expressions before they are turned into Z3 terms, so that identities and constant
+ * arithmetic common in student code cost no native calls. Integer literals are folded with the semantics of
+ * Z3's integers, identities with the integer literals 0 and 1 are removed, the operands of commutative operators
+ * are put in a canonical order, and double negations of boolean operands are dropped. Rewrites that could change
+ * the sort of a term, such as {@code x * 0} or {@code Not(Not(x))} on a number, are left to the solver.
+ */
+public final class ExpressionSimplifier {
+    private static final Set<String> COMMUTATIVE = Set.of("Add", "+", "Mult", "*", "Eq", "==", "!=",
+        "And", "&&", "Or", "||");
+
+    private static final Set<String> COMPARISONS = Set.of("Gt", ">", "GtE", ">=", "Lt", "<", "LtE", "<=",
+        "Eq", "==", "!=");
+
+    private static final Set<String> CONNECTIVES = Set.of("And", "&&", "Or", "||");
+
+    private static final Set<String> NEGATIONS = Set.of("Not", "!");
+
+    private static final Set<String> MINUSES = Set.of("USub", "-");
+
+    private ExpressionSimplifier() {
+    }
+
+    /**
+     * Simplifies an expression.
+     *
+     * @param expression the expression to simplify
+     * @return the simplified expression, or the expression itself if nothing could be simplified
+     */
+    public static BaseExpression simplify(BaseExpression expression) {
+        if (expression instanceof UnaryExpression) {
+            return simplifyUnary((UnaryExpression) expression);
+        } else if (expression instanceof BinaryExpression) {
+            return simplifyBinary((BinaryExpression) expression);
+        } else if (expression instanceof TernaryExpression) {
+            return simplifyTernary((TernaryExpression) expression);
+        } else if (expression instanceof NaryExpression) {
+            return simplifyNary((NaryExpression) expression);
+        }
+        return expression;
+    }
+
+    private static BaseExpression simplifyUnary(UnaryExpression expression) {
+        BaseExpression operand = simplify(expression.getOperand());
+        String operator = expression.getOperator();
+        if (MINUSES.contains(operator)) {
+            Long value = intValue(operand);
+            if (value != null) {
+                BaseExpression folded = intLiteral(-value);
+                if (folded != null) {
+                    return folded;
+                }
+            }
+            if (operand instanceof UnaryExpression && MINUSES.contains(((UnaryExpression) operand).getOperator())) {
+                return ((UnaryExpression) operand).getOperand();
+            }
+        } else if (NEGATIONS.contains(operator)) {
+            Boolean value = boolValue(operand);
+            if (value != null) {
+                return boolLiteral(!value);
+            }
+            if (operand instanceof UnaryExpression && NEGATIONS.contains(((UnaryExpression) operand).getOperator())
+                && isBoolean(((UnaryExpression) operand).getOperand())) {
+                return ((UnaryExpression) operand).getOperand();
+            }
+        }
+        return operand == expression.getOperand() ? expression : new UnaryExpression(operand, operator);
+    }
+
+    private static BaseExpression simplifyBinary(BinaryExpression expression) {
+        BaseExpression left = simplify(expression.getLeftOperand());
+        BaseExpression right = simplify(expression.getRightOperand());
+        String operator = expression.getOperator();
+
+        Long leftInt = intValue(left);
+        Long rightInt = intValue(right);
+        if (leftInt != null && rightInt != null) {
+            BaseExpression folded = foldIntegers(operator, leftInt, rightInt);
+            if (folded != null) {
+                return folded;
+            }
+        }
+        BaseExpression identity = removeIdentity(operator, left, right, leftInt, rightInt);
+        if (identity != null) {
+            return identity;
+        }
+        if (CONNECTIVES.contains(operator)) {
+            BaseExpression connective = simplifyConnective(operator, left, right);
+            if (connective != null) {
+                return connective;
+            }
+        }
+
+        if (COMMUTATIVE.contains(operator) && left.toString().compareTo(right.toString()) > 0) {
+            return new BinaryExpression(right, left, operator);
+        }
+        if (left == expression.getLeftOperand() && right == expression.getRightOperand()) {
+            return expression;
+        }
+        return new BinaryExpression(left, right, operator);
+    }
+
+    /**
+     * Folds an operation on two integer literals, following Z3's semantics of unbounded integers with
+     * Euclidean division.
+     *
+     * @param operator the operator
+     * @param left the left operand
+     * @param right the right operand
+     * @return the literal result, or null if the operation is not folded
+     */
+    private static BaseExpression foldIntegers(String operator, long left, long right) {
+        switch (operator) {
+        case "Add":
+        case "+":
+            return intLiteral(left + right);
+        case "Sub":
+        case "-":
+            return intLiteral(left - right);
+        case "Mult":
+        case "*":
+            return intLiteral(left * right);
+        case "Div":
+        case "/":
+        case "FloorDiv":
+            return right == 0 ? null : intLiteral(euclideanDiv(left, right));
+        case "Mod":
+        case "%":
+            return right == 0 ? null : intLiteral(left - right * euclideanDiv(left, right));
+        case "Gt":
+        case ">":
+            return boolLiteral(left > right);
+        case "GtE":
+        case ">=":
+            return boolLiteral(left >= right);
+        case "Lt":
+        case "<":
+            return boolLiteral(left < right);
+        case "LtE":
+        case "<=":
+            return boolLiteral(left <= right);
+        case "Eq":
+        case "==":
+            return boolLiteral(left == right);
+        case "!=":
+            return boolLiteral(left != right);
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Removes an operation with an integer identity element, which keeps the sort of the other operand.
+     *
+     * @param operator the operator
+     * @param left the left operand
+     * @param right the right operand
+     * @param leftInt the value of the left operand if it is an integer literal, null otherwise
+     * @param rightInt the value of the right operand if it is an integer literal, null otherwise
+     * @return the remaining operand, or null if there is no identity
+     */
+    private static BaseExpression removeIdentity(String operator, BaseExpression left, BaseExpression right,
+        Long leftInt, Long rightInt) {
+        switch (operator) {
+        case "Add":
+        case "+":
+            if (rightInt != null && rightInt == 0) {
+                return left;
+            }
+            return leftInt != null && leftInt == 0 ? right : null;
+        case "Sub":
+        case "-":
+            return rightInt != null && rightInt == 0 ? left : null;
+        case "Mult":
+        case "*":
+            if (rightInt != null && rightInt == 1) {
+                return left;
+            }
+            return leftInt != null && leftInt == 1 ? right : null;
+        case "Div":
+        case "/":
+        case "FloorDiv":
+            return rightInt != null && rightInt == 1 ? left : null;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Simplifies a conjunction or disjunction with a literal operand. A non-literal operand is only returned on
+     * its own if it is boolean, as the connective would otherwise have compared it with zero.
+     *
+     * @param operator the connective
+     * @param left the left operand
+     * @param right the right operand
+     * @return the simplified expression, or null if it cannot be simplified
+     */
+    private static BaseExpression simplifyConnective(String operator, BaseExpression left, BaseExpression right) {
+        boolean conjunction = operator.equals("And") || operator.equals("&&");
+        Boolean leftBool = boolValue(left);
+        Boolean rightBool = boolValue(right);
+        // false absorbs a conjunction and true a disjunction
+        if ((leftBool != null && leftBool != conjunction) || (rightBool != null && rightBool != conjunction)) {
+            return boolLiteral(!conjunction);
+        }
+        if (leftBool != null && isBoolean(right)) {
+            return right;
+        }
+        if (rightBool != null && isBoolean(left)) {
+            return left;
+        }
+        return null;
+    }
+
+    private static BaseExpression simplifyTernary(TernaryExpression expression) {
+        String operator = expression.getOperator();
+        if (operator.equals("range")) {
+            return expression;
+        }
+        BaseExpression condition = simplify(expression.getConditionExpr());
+        BaseExpression left = simplify(expression.getLeftOperand());
+        BaseExpression right = simplify(expression.getRightOperand());
+        if (operator.equals("ite")) {
+            Boolean value = boolValue(condition);
+            // An unset variable in the else branch is replaced by a placeholder, so it must stay an ite
+            if (Boolean.TRUE.equals(value) || (Boolean.FALSE.equals(value) && !isVariable(right))) {
+                return value ? left : right;
+            }
+        }
+        if (condition == expression.getConditionExpr() && left == expression.getLeftOperand()
+            && right == expression.getRightOperand()) {
+            return expression;
+        }
+        return new TernaryExpression(condition, left, right, operator);
+    }
+
+    private static BaseExpression simplifyNary(NaryExpression expression) {
+        if (expression.getOperator().equals("range")) {
+            return expression;
+        }
+        List<BaseExpression> operands = new ArrayList<>(expression.getOperands().size());
+        boolean changed = false;
+        for (BaseExpression operand : expression.getOperands()) {
+            BaseExpression simplified = simplify(operand);
+            changed |= simplified != operand;
+            operands.add(simplified);
+        }
+        return changed ? new NaryExpression(operands, expression.getOperator()) : expression;
+    }
+
+    /**
+     * Checks whether an expression is known to be boolean without knowing the sorts of variables.
+     *
+     * @param expression the expression
+     * @return true if the expression is a boolean literal, a negation, a comparison or a connective
+     */
+    static boolean isBoolean(BaseExpression expression) {
+        if (boolValue(expression) != null) {
+            return true;
+        } else if (expression instanceof UnaryExpression) {
+            return NEGATIONS.contains(((UnaryExpression) expression).getOperator());
+        } else if (expression instanceof BinaryExpression) {
+            String operator = ((BinaryExpression) expression).getOperator();
+            return COMPARISONS.contains(operator) || CONNECTIVES.contains(operator);
+        }
+        return false;
+    }
+
+    private static boolean isVariable(BaseExpression expression) {
+        return expression.getValue() != null && intValue(expression) == null && boolValue(expression) == null;
+    }
+
+    /**
+     * Gets the value of an integer literal, as evaluated by {@link BaseExpression}.
+     *
+     * @param expression the expression
+     * @return the value, or null if the expression is not an integer literal
+     */
+    static Long intValue(BaseExpression expression) {
+        String value = expression.getValue();
+        if (value == null || !value.matches("-?\\d{1,10}")) {
+            return null;
+        }
+        long parsed = Long.parseLong(value);
+        return parsed < Integer.MIN_VALUE || parsed > Integer.MAX_VALUE ? null : parsed;
+    }
+
+    private static Boolean boolValue(BaseExpression expression) {
+        String value = expression.getValue();
+        if (value == null) {
+            return null;
+        } else if (value.equalsIgnoreCase("true")) {
+            return true;
+        } else if (value.equalsIgnoreCase("false")) {
+            return false;
+        }
+        return null;
+    }
+
+    /**
+     * Creates an integer literal, if {@link BaseExpression} can evaluate it.
+     *
+     * @param value the value
+     * @return the literal, or null if the value is out of range
+     */
+    private static BaseExpression intLiteral(long value) {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return null;
+        }
+        return new BaseExpression(Long.toString(value));
+    }
+
+    private static BaseExpression boolLiteral(boolean value) {
+        return new BaseExpression(Boolean.toString(value));
+    }
+
+    private static long euclideanDiv(long dividend, long divisor) {
+        long quotient = Math.floorDiv(dividend, Math.abs(divisor));
+        return divisor < 0 ? -quotient : quotient;
+    }
+}
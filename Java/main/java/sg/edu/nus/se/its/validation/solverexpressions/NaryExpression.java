@@ -38,6 +38,24 @@ public class NaryExpression extends BaseExpression {
         this.operator = operator;
     }
 
+    /**
+     * Gets the operands of the n-ary expression.
+     *
+     * @return the operands
+     */
+    public List<BaseExpression> getOperands() {
+        return operands;
+    }
+
+    /**
+     * Gets the operator of the n-ary expression.
+     *
+     * @return the operator
+     */
+    public String getOperator() {
+        return operator;
+    }
+
     /**
      * Returns a string representation of the n-ray expression.
      *
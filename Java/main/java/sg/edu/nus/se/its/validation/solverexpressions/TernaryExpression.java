@@ -37,6 +37,42 @@ public class TernaryExpression extends BaseExpression {
         this.operator = operator;
     }
 
+    /**
+     * Gets the condition operand of the ternary expression.
+     *
+     * @return the condition operand
+     */
+    public BaseExpression getConditionExpr() {
+        return conditionExpr;
+    }
+
+    /**
+     * Gets the left operand of the ternary expression.
+     *
+     * @return the left operand
+     */
+    public BaseExpression getLeftOperand() {
+        return leftOperand;
+    }
+
+    /**
+     * Gets the right operand of the ternary expression.
+     *
+     * @return the right operand
+     */
+    public BaseExpression getRightOperand() {
+        return rightOperand;
+    }
+
+    /**
+     * Gets the operator of the ternary expression.
+     *
+     * @return the operator
+     */
+    public String getOperator() {
+        return operator;
+    }
+
     /**
      * Returns a string representation of the ternary expression.
      *
@@ -27,6 +27,24 @@ public class UnaryExpression extends BaseExpression {
         this.operator = operator;
     }
 
+    /**
+     * Gets the operand of the unary expression.
+     *
+     * @return the operand
+     */
+    public BaseExpression getOperand() {
+        return operand;
+    }
+
+    /**
+     * Gets the operator of the unary expression.
+     *
+     * @return the operator
+     */
+    public String getOperator() {
+        return operator;
+    }
+
     /**
      * Returns a string representation of the unary expression.
      * 
@@ -0,0 +1,65 @@
+package sg.edu.nus.se.its.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+
+/**
+ * Unit tests for sharing one PatchValidator between threads.
+ */
+public class ConcurrencyTest {
+    @Test
+    public void testSharedValidatorGivesConsistentVerdicts() throws Exception {
+        try (PatchValidator validator = new PatchValidator(3)) {
+            assertConsistentVerdicts(validator, 6);
+        }
+    }
+
+    @Test
+    public void testVirtualThreadValidatorGivesConsistentVerdicts() throws Exception {
+        try (PatchValidator validator = new PatchValidator(3, true)) {
+            assertConsistentVerdicts(validator, 24);
+        }
+    }
+
+    @Test
+    public void testInvalidConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> new PatchValidator(0));
+    }
+
+    /**
+     * Validates generated pairs from several threads at once and checks every verdict.
+     *
+     * @param validator the shared validator
+     * @param threadCount the number of threads sending validations
+     * @throws Exception if a validation fails
+     */
+    private static void assertConsistentVerdicts(PatchValidator validator, int threadCount) throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(threadCount);
+        List<Future<Boolean>> verdicts = new ArrayList<>();
+        for (int i = 0; i < 2 * threadCount; i++) {
+            GeneratorSpec spec = GeneratorSpec.defaults().with("seed", i);
+            Pair<Program, Program> programs = i % 2 == 0
+                ? ProgramGenerator.equivalentPair(spec)
+                : ProgramGenerator.nonEquivalentPair(spec);
+            verdicts.add(threads.submit(() -> validator.patchValidation(programs.getValue0(), programs.getValue1())));
+        }
+
+        for (int i = 0; i < verdicts.size(); i++) {
+            assertEquals(i % 2 == 0, verdicts.get(i).get());
+        }
+        threads.shutdown();
+    }
+}
@@ -0,0 +1,99 @@
+package sg.edu.nus.se.its.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.differential.DifferentialTester;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+
+/**
+ * Unit tests for the DegradingValidator and OverloadPolicy classes.
+ */
+public class DegradingValidatorTest {
+    @Test
+    public void testSymbolicWhenNotOverloaded() throws Exception {
+        Pair<Program, Program> programs = ProgramGenerator.equivalentPair(GeneratorSpec.defaults());
+        try (PatchValidator validator = new PatchValidator();
+             DegradingValidator degrading = new DegradingValidator(validator, new OverloadPolicy(1, 60_000),
+                 new DifferentialTester(16, 1, 1000))) {
+            TieredResult result = degrading.validate(programs.getValue0(), programs.getValue1());
+
+            assertFalse(result.isEscalated());
+            assertFalse(result.getQuickResult().isProvisional());
+            assertTrue(result.getFinalResult().get().isEquivalent());
+        }
+    }
+
+    @Test
+    public void testProvisionalWhenOverloadedThenRechecked() throws Exception {
+        Pair<Program, Program> programs = ProgramGenerator.nonEquivalentPair(GeneratorSpec.defaults());
+        OverloadPolicy policy = new OverloadPolicy(1, 60_000);
+        try (PatchValidator validator = new PatchValidator();
+             DegradingValidator degrading = new DegradingValidator(validator, policy,
+                 new DifferentialTester(16, 1, 1000))) {
+            // A validation held elsewhere saturates the lane
+            assertTrue(policy.tryBegin());
+            TieredResult result = degrading.validate(programs.getValue0(), programs.getValue1());
+
+            assertTrue(result.isEscalated());
+            assertTrue(result.getQuickResult().isProvisional());
+            assertEquals(ValidationResult.Outcome.NOT_EQUIVALENT, result.getQuickResult().getOutcome());
+            assertEquals(1, degrading.getDegraded());
+
+            policy.end(0);
+            ValidationResult recheck = result.getFinalResult().get();
+            assertEquals(ValidationResult.Outcome.NOT_EQUIVALENT, recheck.getOutcome());
+            assertFalse(recheck.isProvisional());
+        }
+    }
+
+    @Test
+    public void testRecheckBacklogIsBounded() {
+        Pair<Program, Program> programs = ProgramGenerator.nonEquivalentPair(GeneratorSpec.defaults());
+        OverloadPolicy policy = new OverloadPolicy(1, 60_000);
+        try (PatchValidator validator = new PatchValidator();
+             DegradingValidator degrading = new DegradingValidator(validator, policy,
+                 new DifferentialTester(16, 1, 1000), 1)) {
+            assertTrue(policy.tryBegin());
+            // The rechecker holds at most one validation and the queue one more, so the third is rejected
+            int rejected = 0;
+            for (int i = 0; i < 3; i++) {
+                TieredResult result = degrading.validate(programs.getValue0(), programs.getValue1());
+                assertTrue(result.getQuickResult().isProvisional());
+                ValidationResult recheck = result.getFinalResult().getNow(null);
+                if (recheck != null && recheck.getOutcome() == ValidationResult.Outcome.REJECTED) {
+                    rejected++;
+                }
+            }
+            assertTrue(rejected >= 1);
+            assertTrue(degrading.getPendingRechecks() <= 1);
+        }
+    }
+
+    @Test
+    public void testAdmissionIsAtomic() {
+        OverloadPolicy policy = new OverloadPolicy(1, 60_000);
+        assertTrue(policy.tryBegin());
+        assertFalse(policy.tryBegin());
+        assertFalse(policy.tryBeginDeferred());
+        policy.end(0);
+        assertTrue(policy.tryBeginDeferred());
+        assertEquals(1, policy.getInFlight());
+    }
+
+    @Test
+    public void testLatencyOverload() {
+        OverloadPolicy policy = new OverloadPolicy(4, 100);
+        assertFalse(policy.isOverloaded());
+        assertTrue(policy.tryBegin());
+        policy.end(500);
+        assertTrue(policy.isOverloaded());
+        assertTrue(policy.hasCapacity());
+    }
+}
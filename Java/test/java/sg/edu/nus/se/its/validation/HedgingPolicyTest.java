@@ -0,0 +1,92 @@
+package sg.edu.nus.se.its.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+
+/**
+ * Unit tests for the HedgingPolicy class and hedged solver checks.
+ */
+public class HedgingPolicyTest {
+    @Test
+    public void testDelayFollowsPercentileOnceSampled() {
+        try (HedgingPolicy policy = new HedgingPolicy(1, 500, 20)) {
+            for (int i = 1; i < 16; i++) {
+                policy.record("a1", i * 10);
+            }
+            assertEquals(500, policy.hedgeDelayMillis("a1"));
+
+            for (int i = 16; i <= 100; i++) {
+                policy.record("a1", i * 10);
+            }
+            // The last 64 durations are 370..1000 ms, whose 95th percentile is the 61st
+            assertEquals(970, policy.hedgeDelayMillis("a1"));
+            assertEquals(500, policy.hedgeDelayMillis("a2"));
+        }
+    }
+
+    @Test
+    public void testDelayNeverBelowMinimum() {
+        try (HedgingPolicy policy = new HedgingPolicy(1, 500, 20)) {
+            for (int i = 0; i < 32; i++) {
+                policy.record("a1", 1);
+            }
+            assertEquals(20, policy.hedgeDelayMillis("a1"));
+        }
+    }
+
+    @Test
+    public void testSeedsDifferFromDefault() {
+        try (HedgingPolicy policy = new HedgingPolicy(1, 0, 0)) {
+            int first = policy.nextSeed();
+            assertNotEquals(0, first);
+            assertNotEquals(first, policy.nextSeed());
+        }
+    }
+
+    @Test
+    public void testHedgesOnlyOnIdleThreads() {
+        HedgingPolicy policy = new HedgingPolicy(1, 0, 0);
+        assertTrue(policy.tryReserve());
+        assertFalse(policy.tryReserve());
+        policy.release();
+        assertTrue(policy.tryReserve());
+        policy.release();
+        policy.close();
+        assertFalse(policy.tryReserve());
+    }
+
+    @Test
+    public void testHedgedChecksKeepVerdicts() {
+        GeneratorSpec spec = GeneratorSpec.defaults().with("loopDepth", 2).with("tripCount", 10);
+        Pair<Program, Program> equivalent = ProgramGenerator.equivalentPair(spec);
+        Pair<Program, Program> nonEquivalent = ProgramGenerator.nonEquivalentPair(spec);
+        try (HedgingPolicy policy = new HedgingPolicy(2, 0, 0);
+            PatchValidator validator = new PatchValidator(1)) {
+            // Hedge every check straight away, so both attempts race on most of them
+            validator.setHedgingPolicy(policy);
+
+            assertEquals(ValidationResult.Outcome.EQUIVALENT,
+                validator.validate(equivalent.getValue0(), equivalent.getValue1()).getOutcome());
+            ValidationResult refuted = validator.validate(nonEquivalent.getValue0(), nonEquivalent.getValue1());
+            assertEquals(ValidationResult.Outcome.NOT_EQUIVALENT, refuted.getOutcome());
+            assertFalse(refuted.getCounterExample().isEmpty());
+            assertTrue(policy.getHedgeWins() <= policy.getHedges());
+        }
+    }
+
+    @Test
+    public void testInvalidDelays() {
+        assertThrows(IllegalArgumentException.class, () -> new HedgingPolicy(1, 10, 20));
+        assertThrows(IllegalArgumentException.class, () -> new HedgingPolicy(0, 10, 0));
+    }
+}
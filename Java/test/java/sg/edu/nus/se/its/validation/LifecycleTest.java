@@ -0,0 +1,114 @@
+package sg.edu.nus.se.its.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.microsoft.z3.Context;
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+
+/**
+ * Unit tests for closing validators and recycling their solver contexts.
+ */
+public class LifecycleTest {
+    @Test
+    public void testContextRecycledAfterValidations() {
+        try (PatchValidator validator = new PatchValidator()) {
+            validator.setContextRecycling(2, 0);
+            for (int i = 0; i < 5; i++) {
+                Pair<Program, Program> programs = ProgramGenerator.equivalentPair(
+                    GeneratorSpec.defaults().with("seed", i));
+                assertTrue(validator.patchValidation(programs.getValue0(), programs.getValue1()));
+            }
+            assertEquals(2, validator.getContextRecycles());
+        }
+    }
+
+    @Test
+    public void testRecycledWrapperStillValidates() {
+        try (SolverWrapper solverWrapper = new SolverWrapper()) {
+            solverWrapper.recycleContext();
+            Pair<Program, Program> programs = ProgramGenerator.equivalentPair(GeneratorSpec.defaults());
+            assertTrue(solverWrapper.areFunctionsEquivalent(
+                programs.getValue0().getFncs().values().iterator().next(),
+                programs.getValue1().getFncs().values().iterator().next()));
+            assertEquals(1, solverWrapper.getContextRecycles());
+        }
+    }
+
+    @Test
+    public void testScopedValidations() {
+        try (SolverWrapper solverWrapper = new SolverWrapper()) {
+            solverWrapper.setScopedValidations(true);
+            Context wrapperCtx = solverWrapper.getCtx();
+            for (int i = 0; i < 3; i++) {
+                GeneratorSpec spec = GeneratorSpec.defaults().with("seed", i);
+                Pair<Program, Program> equivalent = ProgramGenerator.equivalentPair(spec);
+                Pair<Program, Program> nonEquivalent = ProgramGenerator.nonEquivalentPair(spec);
+                assertTrue(solverWrapper.areFunctionsEquivalent(
+                    equivalent.getValue0().getFncs().values().iterator().next(),
+                    equivalent.getValue1().getFncs().values().iterator().next()));
+                assertFalse(solverWrapper.areFunctionsEquivalent(
+                    nonEquivalent.getValue0().getFncs().values().iterator().next(),
+                    nonEquivalent.getValue1().getFncs().values().iterator().next()));
+            }
+            assertSame(wrapperCtx, solverWrapper.getCtx());
+        }
+    }
+
+    @Test
+    public void testValidateAfterClose() {
+        PatchValidator validator = new PatchValidator();
+        validator.close();
+        validator.close();
+        Pair<Program, Program> programs = ProgramGenerator.equivalentPair(GeneratorSpec.defaults());
+        assertThrows(IllegalStateException.class,
+            () -> validator.validate(programs.getValue0(), programs.getValue1()));
+    }
+
+    @Test
+    public void testValidationUsesReservedId() {
+        try (SolverWrapper solverWrapper = new SolverWrapper()) {
+            long id = SolverWrapper.newValidationId();
+            Pair<Program, Program> programs = ProgramGenerator.equivalentPair(GeneratorSpec.defaults());
+            assertTrue(solverWrapper.checkEquivalence(
+                programs.getValue0().getFncs().values().iterator().next(),
+                programs.getValue1().getFncs().values().iterator().next(), id).isEquivalent());
+            assertEquals(id, solverWrapper.getValidationId());
+            assertTrue(SolverWrapper.newValidationId() > id);
+        }
+    }
+
+    @Test
+    public void testInterruptBeforeValidationStarts() {
+        try (SolverWrapper solverWrapper = new SolverWrapper()) {
+            solverWrapper.setStructuralMatching(false);
+            long id = SolverWrapper.newValidationId();
+            // The timeout fired while the validation was still waiting for this wrapper
+            solverWrapper.interrupt(id);
+            Pair<Program, Program> programs = ProgramGenerator.equivalentPair(GeneratorSpec.defaults());
+            Function reference = programs.getValue0().getFncs().values().iterator().next();
+            Function submission = programs.getValue1().getFncs().values().iterator().next();
+            assertEquals(ValidationResult.Outcome.UNKNOWN,
+                solverWrapper.checkEquivalence(reference, submission, id).getOutcome());
+
+            // Other validations are not affected
+            assertTrue(solverWrapper.checkEquivalence(reference, submission).isEquivalent());
+        }
+    }
+
+    @Test
+    public void testNegativeRecyclingLimit() {
+        try (SolverWrapper solverWrapper = new SolverWrapper()) {
+            assertThrows(IllegalArgumentException.class, () -> solverWrapper.setContextRecycling(-1, 0));
+        }
+    }
+}
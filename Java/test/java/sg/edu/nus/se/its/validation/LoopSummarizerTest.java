@@ -0,0 +1,117 @@
+package sg.edu.nus.se.its.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static sg.edu.nus.se.its.validation.TestHelper.assign;
+import static sg.edu.nus.se.its.validation.TestHelper.constant;
+import static sg.edu.nus.se.its.validation.TestHelper.op;
+import static sg.edu.nus.se.its.validation.TestHelper.var;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Expression;
+import sg.edu.nus.se.its.model.Function;
+
+/**
+ * Unit tests for the LoopSummarizer class.
+ */
+public class LoopSummarizerTest {
+    /**
+     * Builds f(n): i = start; s = 0; while (condition) { body } return s.
+     *
+     * @param start The initial value of i.
+     * @param condition The loop condition.
+     * @param body The assignments of the loop body.
+     * @return The function.
+     */
+    @SafeVarargs
+    private static Function loop(String start, Expression condition, Pair<String, Expression>... body) {
+        Function function = new Function("f", List.of(new Pair<>("n", "int")), "int");
+        function.getLocexprs().put(1, new ArrayList<>(List.of(
+            assign("i", constant(start)),
+            assign("s", constant("0")))));
+        function.getLocexprs().put(2, new ArrayList<>(List.of(assign("$cond", condition))));
+        function.getLocexprs().put(3, new ArrayList<>(List.of(body)));
+        function.getLocexprs().put(4, new ArrayList<>(List.of(assign("$ret", var("s")))));
+        HashMap<Boolean, Integer> next = new HashMap<>();
+        next.put(true, 2);
+        function.getLoctrans().put(1, next);
+        HashMap<Boolean, Integer> branch = new HashMap<>();
+        branch.put(true, 3);
+        branch.put(false, 4);
+        function.getLoctrans().put(2, branch);
+        function.getLoctrans().put(3, next);
+        function.getLoctrans().put(4, new HashMap<>());
+        return function;
+    }
+
+    private static Function returns(Expression value) {
+        Function function = new Function("f", List.of(new Pair<>("n", "int")), "int");
+        function.getLocexprs().put(1, new ArrayList<>(List.of(assign("$ret", value))));
+        function.getLoctrans().put(1, new HashMap<>());
+        return function;
+    }
+
+    @Test
+    public void testSymbolicTripCount() {
+        // while (i < n) { s = s + 2; i = i + 1; } returns 2n for positive n
+        Function counted = loop("0", op("Lt", var("i"), var("n")),
+            assign("s", op("Add", var("s"), constant("2"))),
+            assign("i", op("Add", var("i"), constant("1"))));
+        Function closed = returns(op("ite", op("Gt", var("n"), constant("0")),
+            op("Mult", constant("2"), var("n")), constant("0")));
+        try (SolverWrapper solverWrapper = new SolverWrapper()) {
+            assertEquals(ValidationResult.Outcome.EQUIVALENT,
+                solverWrapper.checkEquivalence(counted, closed).getOutcome());
+            assertEquals(1, solverWrapper.getSummarizedLoops());
+
+            // Unrolled, a symbolic condition leaves the loop at once
+            solverWrapper.setLoopSummaries(false);
+            assertEquals(ValidationResult.Outcome.NOT_EQUIVALENT,
+                solverWrapper.checkEquivalence(counted, closed).getOutcome());
+            assertEquals(1, solverWrapper.getSummarizedLoops());
+        }
+    }
+
+    @Test
+    public void testPolynomialUpdatesAndSteps() {
+        // for (i = 1; 10 >= i; i += 3) s += i * i, over 1, 4, 7 and 10
+        Function squares = loop("1", op(">=", constant("10"), var("i")),
+            assign("s", op("Add", var("s"), op("Mult", var("i"), var("i")))),
+            assign("i", op("Add", var("i"), constant("3"))));
+        // for (i = 0; i < 1000; i++) s += i
+        Function sum = loop("0", op("<", var("i"), constant("1000")),
+            assign("i", op("Add", var("i"), constant("1"))),
+            assign("s", op("Add", var("s"), op("Sub", var("i"), constant("1")))));
+        try (SolverWrapper solverWrapper = new SolverWrapper()) {
+            assertEquals(ValidationResult.Outcome.EQUIVALENT,
+                solverWrapper.checkEquivalence(squares, returns(constant("166"))).getOutcome());
+            assertEquals(ValidationResult.Outcome.EQUIVALENT,
+                solverWrapper.checkEquivalence(sum, returns(constant("499500"))).getOutcome());
+            assertEquals(2, solverWrapper.getSummarizedLoops());
+        }
+    }
+
+    @Test
+    public void testOtherLoopsAreUnrolled() {
+        // The index does not grow by a constant
+        Function doubling = loop("1", op("Lt", var("i"), constant("8")),
+            assign("s", op("Add", var("s"), var("i"))),
+            assign("i", op("Mult", var("i"), constant("2"))));
+        // The update depends on the accumulator itself
+        Function powers = loop("0", op("Lt", var("i"), constant("3")),
+            assign("s", op("Add", op("Mult", var("s"), constant("2")), constant("1"))),
+            assign("i", op("Add", var("i"), constant("1"))));
+        try (SolverWrapper solverWrapper = new SolverWrapper()) {
+            assertEquals(ValidationResult.Outcome.EQUIVALENT,
+                solverWrapper.checkEquivalence(doubling, returns(constant("7"))).getOutcome());
+            assertEquals(ValidationResult.Outcome.EQUIVALENT,
+                solverWrapper.checkEquivalence(powers, returns(constant("7"))).getOutcome());
+            assertEquals(0, solverWrapper.getSummarizedLoops());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package sg.edu.nus.se.its.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+
+/**
+ * Unit tests for the MappingHints class and the order in which mappings are checked.
+ */
+public class MappingHintsTest {
+    private static HashMap<String, ArrayList<String>> params(String... names) {
+        HashMap<String, ArrayList<String>> params = new HashMap<>();
+        params.put("int", new ArrayList<>(List.of(names)));
+        return params;
+    }
+
+    private static List<Pair<Pair<String, String>, String>> mapping(String... pairs) {
+        List<Pair<Pair<String, String>, String>> mapping = new ArrayList<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            mapping.add(new Pair<>(new Pair<>(pairs[i], pairs[i + 1]), "int"));
+        }
+        return mapping;
+    }
+
+    @Test
+    public void testKeptNamesThenPositionsComeFirst() {
+        List<Pair<Pair<String, String>, String>> swapped = mapping("a", "b", "b", "a");
+        List<Pair<Pair<String, String>, String>> identity = mapping("a", "a", "b", "b");
+        assertEquals(List.of(identity, swapped),
+            MappingHints.order(List.of(swapped, identity), params("a", "b"), params("b", "a"), List.of()));
+
+        List<Pair<Pair<String, String>, String>> crossed = mapping("a", "y", "b", "x");
+        List<Pair<Pair<String, String>, String>> positional = mapping("a", "x", "b", "y");
+        assertEquals(List.of(positional, crossed),
+            MappingHints.order(List.of(crossed, positional), params("a", "b"), params("x", "y"), List.of()));
+    }
+
+    @Test
+    public void testPreferredOutrankSimilarity() {
+        List<Pair<Pair<String, String>, String>> crossed = mapping("a", "y", "b", "x");
+        List<Pair<Pair<String, String>, String>> positional = mapping("a", "x", "b", "y");
+        assertEquals(List.of(crossed, positional),
+            MappingHints.order(List.of(positional, crossed), params("a", "b"), params("x", "y"),
+                List.of("int:1,0")));
+        assertEquals(List.of(positional, crossed),
+            MappingHints.order(List.of(crossed, positional), params("a", "b"), params("x", "y"),
+                List.of("int:0,1", "int:1,0")));
+    }
+
+    @Test
+    public void testLearnedMappingIsCheckedFirst() {
+        // The equivalent submission reverses the parameters, so the positional mapping is wrong
+        GeneratorSpec spec = GeneratorSpec.defaults().with("parameterCount", 3);
+        Pair<Program, Program> equivalent = ProgramGenerator.equivalentPair(spec);
+        try (PatchValidator validator = new PatchValidator(1)) {
+            // Wins are recorded in the statistics of the strategy selector
+            validator.setStrategySelector(new StrategySelector(0, 0));
+            ValidationResult first = validator.validate(equivalent.getValue0(), equivalent.getValue1());
+            assertEquals(ValidationResult.Outcome.EQUIVALENT, first.getOutcome());
+            ValidationResult second = validator.validate(equivalent.getValue0(), equivalent.getValue1());
+            assertEquals(ValidationResult.Outcome.EQUIVALENT, second.getOutcome());
+            assertEquals(1, second.getMappingsTried());
+            assertTrue(first.getMappingsTried() >= second.getMappingsTried());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package sg.edu.nus.se.its.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static sg.edu.nus.se.its.validation.TestHelper.assign;
+import static sg.edu.nus.se.its.validation.TestHelper.constant;
+import static sg.edu.nus.se.its.validation.TestHelper.op;
+import static sg.edu.nus.se.its.validation.TestHelper.var;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Expression;
+import sg.edu.nus.se.its.model.Function;
+
+/**
+ * Unit tests for the OutputSlicer class.
+ */
+public class OutputSlicerTest {
+    private static List<String> assigned(ArrayList<Pair<String, Expression>> expressions) {
+        return expressions.stream().map(Pair::getValue0).collect(Collectors.toList());
+    }
+
+    /**
+     * Builds f(n): i = 0; s = 0; debug = 0; tmp = n * 2; while (i < 3) { s = s + n; debug = debug + 1;
+     * i = i + 1; } return s.
+     *
+     * @param returnDebug Whether the function returns the debug counter instead of the sum.
+     * @return The function.
+     */
+    private static Function loop(boolean returnDebug) {
+        Function function = new Function("f", List.of(new Pair<>("n", "int")), "int");
+        function.getLocexprs().put(1, new ArrayList<>(List.of(
+            assign("i", constant("0")),
+            assign("s", constant("0")),
+            assign("debug", constant("0")),
+            assign("tmp", op("Mult", var("n"), constant("2"))))));
+        function.getLocexprs().put(2, new ArrayList<>(List.of(
+            assign("$cond", op("Lt", var("i"), constant("3"))))));
+        function.getLocexprs().put(3, new ArrayList<>(List.of(
+            assign("s", op("Add", var("s"), var("n"))),
+            assign("debug", op("Add", var("debug"), constant("1"))),
+            assign("i", op("Add", var("i"), constant("1"))))));
+        function.getLocexprs().put(4, new ArrayList<>(List.of(
+            assign("$ret", var(returnDebug ? "debug" : "s")))));
+        HashMap<Boolean, Integer> next = new HashMap<>();
+        next.put(true, 2);
+        function.getLoctrans().put(1, next);
+        HashMap<Boolean, Integer> branch = new HashMap<>();
+        branch.put(true, 3);
+        branch.put(false, 4);
+        function.getLoctrans().put(2, branch);
+        function.getLoctrans().put(3, next);
+        function.getLoctrans().put(4, new HashMap<>());
+        return function;
+    }
+
+    @Test
+    public void testRemovesDeadAssignments() {
+        HashMap<Integer, ArrayList<Pair<String, Expression>>> sliced = OutputSlicer.slice(loop(false).getLocexprs());
+        assertEquals(List.of("i", "s"), assigned(sliced.get(1)));
+        assertEquals(List.of("$cond"), assigned(sliced.get(2)));
+        assertEquals(List.of("s", "i"), assigned(sliced.get(3)));
+        assertEquals(List.of("$ret"), assigned(sliced.get(4)));
+    }
+
+    @Test
+    public void testKeepsEverythingTheOutputReads() {
+        HashMap<Integer, ArrayList<Pair<String, Expression>>> sliced = OutputSlicer.slice(loop(true).getLocexprs());
+        assertEquals(List.of("i", "debug"), assigned(sliced.get(1)));
+        assertEquals(List.of("debug", "i"), assigned(sliced.get(3)));
+    }
+
+    @Test
+    public void testKeepsLocationsThatBecomeEmpty() {
+        HashMap<Integer, ArrayList<Pair<String, Expression>>> locExprs = new HashMap<>();
+        locExprs.put(1, new ArrayList<>(List.of(assign("unused", constant("1")))));
+        locExprs.put(2, new ArrayList<>(List.of(assign("$out", constant("\"done\"")))));
+        HashMap<Integer, ArrayList<Pair<String, Expression>>> sliced = OutputSlicer.slice(locExprs);
+        assertEquals(List.of(), sliced.get(1));
+        assertEquals(List.of("$out"), assigned(sliced.get(2)));
+    }
+
+    @Test
+    public void testBranchesStayBranches() {
+        HashMap<Integer, ArrayList<Pair<String, Expression>>> locExprs = new HashMap<>();
+        // Only the condition of a branch is executed
+        locExprs.put(1, new ArrayList<>(List.of(
+            assign("$cond", op("Lt", var("n"), constant("0"))),
+            assign("$ret", var("n")))));
+        // Removing the dead first assignment would turn this location into a branch
+        locExprs.put(2, new ArrayList<>(List.of(
+            assign("unused", var("m")),
+            assign("$cond", var("n")))));
+        locExprs.put(3, new ArrayList<>(List.of(assign("$ret", constant("1")))));
+        HashMap<Integer, ArrayList<Pair<String, Expression>>> sliced = OutputSlicer.slice(locExprs);
+        assertEquals(List.of("$cond"), assigned(sliced.get(1)));
+        assertEquals(List.of("unused", "$cond"), assigned(sliced.get(2)));
+        assertEquals(List.of("$ret"), assigned(sliced.get(3)));
+    }
+
+    @Test
+    public void testUnchangedFunctionIsNotCopied() {
+        Function function = loop(false);
+        function.getLocexprs().get(1).remove(3);
+        function.getLocexprs().get(1).remove(2);
+        function.getLocexprs().get(3).remove(1);
+        assertSame(function.getLocexprs(), OutputSlicer.slice(function.getLocexprs()));
+    }
+
+    @Test
+    public void testPrimedNamesAndRangesAreReads() {
+        HashMap<Integer, ArrayList<Pair<String, Expression>>> locExprs = new HashMap<>();
+        locExprs.put(1, new ArrayList<>(List.of(
+            assign("x", constant("4")),
+            assign("r", op("range", constant("1"), constant("5"))),
+            assign("y", op("len", var("r"))),
+            assign("$ret", op("Add", var("x'"), var("y"))))));
+        assertSame(locExprs, OutputSlicer.slice(locExprs));
+    }
+
+    @Test
+    public void testSlicedValidationKeepsVerdicts() {
+        Function reference = loop(false);
+        Function submission = loop(false);
+        submission.getLocexprs().get(1).set(3, assign("tmp", op("Div", var("n"), constant("0"))));
+        try (SolverWrapper solverWrapper = new SolverWrapper()) {
+            assertEquals(ValidationResult.Outcome.EQUIVALENT,
+                solverWrapper.checkEquivalence(reference, submission).getOutcome());
+            assertEquals(ValidationResult.Outcome.NOT_EQUIVALENT,
+                solverWrapper.checkEquivalence(reference, loop(true)).getOutcome());
+        }
+    }
+}
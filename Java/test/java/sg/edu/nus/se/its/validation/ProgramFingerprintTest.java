@@ -0,0 +1,34 @@
+package sg.edu.nus.se.its.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.model.Program;
+
+public class ProgramFingerprintTest {
+    private static Function firstFunction(String fileName) {
+        Program program = TestHelper.parseLocalProgramFile(fileName);
+        return program.getFncs().values().iterator().next();
+    }
+
+    @Test
+    public void testSameProgramSameFingerprint() {
+        String testFile = "python/arithmetic.py";
+        assertEquals(ProgramFingerprint.of(firstFunction(testFile)),
+            ProgramFingerprint.of(firstFunction(testFile)));
+    }
+
+    @Test
+    public void testDifferentProgramsDifferentFingerprints() {
+        assertNotEquals(ProgramFingerprint.of(firstFunction("c/hello_world.c")),
+            ProgramFingerprint.of(firstFunction("c/hi.c")));
+    }
+
+    @Test
+    public void testFingerprintIsHexSha256() {
+        assertEquals(64, ProgramFingerprint.of(firstFunction("python/arithmetic.py")).length());
+    }
+}
@@ -0,0 +1,75 @@
+package sg.edu.nus.se.its.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import com.microsoft.z3.Status;
+import org.junit.jupiter.api.Test;
+
+public class SlowQueryRecorderTest {
+    private static final String ASSERTIONS = "(declare-fun x () Int)\n(assert (not (= x x)))\n";
+
+    @Test
+    public void testShouldRecord() {
+        SlowQueryRecorder recorder = new SlowQueryRecorder(Path.of("unused"), 100, 1);
+        assertFalse(recorder.shouldRecord(Status.UNSATISFIABLE, 99));
+        assertTrue(recorder.shouldRecord(Status.UNSATISFIABLE, 100));
+        assertTrue(recorder.shouldRecord(Status.UNKNOWN, 0));
+    }
+
+    @Test
+    public void testRecordWritesMetadataAndAssertions() throws IOException {
+        Path directory = Files.createTempDirectory("slow-queries");
+        SlowQueryRecorder recorder = new SlowQueryRecorder(directory, 0, 10);
+
+        Path file = recorder.record("abcdef", "[[a, b], int]", Status.UNKNOWN, 42, ASSERTIONS,
+            Map.of("conflicts", "7"));
+
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertTrue(content.startsWith("; fingerprint: abcdef\n"));
+        assertTrue(content.contains("; mapping: [[a, b], int]\n"));
+        assertTrue(content.contains("; status: UNKNOWN\n"));
+        assertTrue(content.contains("; elapsed-ms: 42\n"));
+        assertTrue(content.contains("; stat conflicts: 7\n"));
+        assertTrue(content.endsWith(ASSERTIONS));
+    }
+
+    @Test
+    public void testRecordRotatesOldestFiles() throws IOException {
+        Path directory = Files.createTempDirectory("slow-queries");
+        SlowQueryRecorder recorder = new SlowQueryRecorder(directory, 0, 2);
+
+        Path first = recorder.record("first", "[]", Status.UNKNOWN, 1, ASSERTIONS, Map.of());
+        Path second = recorder.record("second", "[]", Status.UNKNOWN, 1, ASSERTIONS, Map.of());
+        Path third = recorder.record("third", "[]", Status.UNKNOWN, 1, ASSERTIONS, Map.of());
+
+        List<Path> remaining = SlowQueryRecorder.listQueries(directory);
+        assertEquals(List.of(second, third), remaining);
+        assertFalse(Files.exists(first));
+    }
+
+    @Test
+    public void testInvalidMaxFiles() {
+        assertThrows(IllegalArgumentException.class, () -> new SlowQueryRecorder(Path.of("unused"), 0, 0));
+    }
+
+    @Test
+    public void testParseReplayConfiguration() {
+        Map.Entry<String, Map<String, String>> configuration =
+            SlowQueryReplayer.parseConfiguration("seeded:smt.random_seed=7,timeout=1000");
+        assertEquals("seeded", configuration.getKey());
+        assertEquals(Map.of("smt.random_seed", "7", "timeout", "1000"), configuration.getValue());
+
+        assertEquals(Map.of(), SlowQueryReplayer.parseConfiguration("default").getValue());
+        assertThrows(IllegalArgumentException.class, () -> SlowQueryReplayer.parseConfiguration("bad:seed"));
+    }
+}
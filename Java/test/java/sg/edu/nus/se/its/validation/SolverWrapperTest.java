@@ -5,13 +5,21 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 
 import com.microsoft.z3.Context;
 import com.microsoft.z3.Expr;
+import org.javatuples.Pair;
 import org.junit.jupiter.api.Test;
 
+import sg.edu.nus.se.its.model.Expression;
+import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.model.Operation;
+import sg.edu.nus.se.its.model.Variable;
+
 public class SolverWrapperTest {
     private final SolverWrapper solverWrapper = new SolverWrapper();
     private final Map<String, String> varRemapping = new HashMap<>();
@@ -97,6 +105,38 @@ public class SolverWrapperTest {
         assertFalse(solverWrapper.areFunctionsEquivalent(null, null));
     }
 
+    @Test
+    public void testMappingsSubstituteSwappedNames() {
+        // f(a, b) = a - b against g(b, a) = b - a, which only agrees when the names are swapped
+        Function reference = difference(List.of("a", "b"), "Sub", "a", "b");
+        try (SolverWrapper wrapper = new SolverWrapper()) {
+            // The renamed submissions would otherwise be accepted without building any terms
+            wrapper.setStructuralMatching(false);
+            // Mappings keeping names are tried first, so only the swapped body needs the second mapping
+            ValidationResult kept = wrapper.checkEquivalence(reference,
+                difference(List.of("b", "a"), "Sub", "a", "b"));
+            assertEquals(ValidationResult.Outcome.EQUIVALENT, kept.getOutcome());
+            assertEquals(1, kept.getMappingsTried());
+
+            ValidationResult swapped = wrapper.checkEquivalence(reference,
+                difference(List.of("b", "a"), "Sub", "b", "a"));
+            assertEquals(ValidationResult.Outcome.EQUIVALENT, swapped.getOutcome());
+            assertEquals(2, swapped.getMappingsTried());
+
+            assertEquals(ValidationResult.Outcome.NOT_EQUIVALENT, wrapper.checkEquivalence(reference,
+                difference(List.of("b", "a"), "Add", "a", "b")).getOutcome());
+        }
+    }
+
+    private static Function difference(List<String> params, String operator, String left, String right) {
+        Function function = new Function("f",
+            List.of(new Pair<>(params.get(0), "int"), new Pair<>(params.get(1), "int")), "int");
+        function.getLocexprs().put(1, new ArrayList<>(List.of(new Pair<>("$ret", (Expression) new Operation(
+            operator, List.of(new Variable(left, 0), new Variable(right, 0)), 0)))));
+        function.getLoctrans().put(1, new HashMap<>());
+        return function;
+    }
+
     @Test
     public void testSolverWrapperNotNull() {
         assertNotNull(solverWrapper);
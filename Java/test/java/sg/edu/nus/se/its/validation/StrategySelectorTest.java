@@ -0,0 +1,148 @@
+package sg.edu.nus.se.its.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+
+/**
+ * Unit tests for the StrategySelector class and validations run with selected strategies.
+ */
+public class StrategySelectorTest {
+    private static void run(StrategySelector selector, String assignment, long elapsedMillis,
+        ValidationResult.Outcome outcome) {
+        StrategyDecision decision = selector.decide(assignment);
+        selector.recordSolved(assignment, decision, outcome, elapsedMillis, null);
+    }
+
+    @Test
+    public void testExploresEachStrategyThenPicksFastest() {
+        StrategySelector selector = new StrategySelector(0, 0);
+        List<SolverStrategy> explored = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            StrategyDecision decision = selector.decide("a1");
+            explored.add(decision.getStrategy());
+            long elapsedMillis = decision.getStrategy() == SolverStrategy.SIMPLE ? 5 : 50;
+            selector.recordSolved("a1", decision, ValidationResult.Outcome.EQUIVALENT, elapsedMillis, null);
+        }
+        assertEquals(List.of(SolverStrategy.DEFAULT, SolverStrategy.SIMPLE, SolverStrategy.PREPROCESSED),
+            explored.subList(0, 3));
+        assertEquals(SolverStrategy.SIMPLE, selector.peek("a1").getStrategy());
+        assertEquals(SolverStrategy.SIMPLE, selector.decide("a1").getStrategy());
+        assertEquals(0, selector.decide("a1").getSolverTimeoutMillis());
+    }
+
+    @Test
+    public void testInconclusiveChecksCountAgainstStrategy() {
+        StrategySelector selector = new StrategySelector(0, 0);
+        for (int i = 0; i < 9; i++) {
+            StrategyDecision decision = selector.decide("a1");
+            boolean fastButStuck = decision.getStrategy() == SolverStrategy.SIMPLE;
+            selector.recordSolved("a1", decision,
+                fastButStuck && i > 1 ? ValidationResult.Outcome.UNKNOWN : ValidationResult.Outcome.EQUIVALENT,
+                fastButStuck ? 20 : 30, null);
+        }
+        assertTrue(selector.peek("a1").getStrategy() != SolverStrategy.SIMPLE);
+    }
+
+    @Test
+    public void testTimeoutFollowsPercentileWithinBounds() {
+        StrategySelector selector = new StrategySelector(100, 1000);
+        for (int i = 0; i < 15; i++) {
+            run(selector, "a1", 50, ValidationResult.Outcome.EQUIVALENT);
+        }
+        assertEquals(0, selector.peek("a1").getSolverTimeoutMillis());
+        run(selector, "a1", 50, ValidationResult.Outcome.NOT_EQUIVALENT);
+        assertEquals(200, selector.peek("a1").getSolverTimeoutMillis());
+
+        StrategySelector capped = new StrategySelector(10, 150);
+        StrategySelector floored = new StrategySelector(500, 1000);
+        for (int i = 0; i < 16; i++) {
+            run(capped, "a1", 50, ValidationResult.Outcome.EQUIVALENT);
+            run(floored, "a1", 50, ValidationResult.Outcome.EQUIVALENT);
+        }
+        assertEquals(150, capped.peek("a1").getSolverTimeoutMillis());
+        assertEquals(500, floored.peek("a1").getSolverTimeoutMillis());
+    }
+
+    @Test
+    public void testWinningMappingsComeFirst() {
+        StrategySelector selector = new StrategySelector(0, 0);
+        StrategyDecision decision = selector.decide("a1");
+        selector.recordSolved("a1", decision, ValidationResult.Outcome.EQUIVALENT, 10, "int:1,0");
+        selector.recordSolved("a1", decision, ValidationResult.Outcome.EQUIVALENT, 10, "int:0,1");
+        selector.recordSolved("a1", decision, ValidationResult.Outcome.EQUIVALENT, 10, "int:1,0");
+        assertEquals(List.of("int:1,0", "int:0,1"), selector.peek("a1").getMappingOrder());
+    }
+
+    @Test
+    public void testOverrideAndInspection() {
+        StrategySelector selector = new StrategySelector(0, 0);
+        assertNull(selector.describe("a1"));
+        StrategyDecision manual = new StrategyDecision(SolverStrategy.PREPROCESSED, 300, List.of(), "manual");
+        selector.setOverride("a1", manual);
+        assertEquals(manual, selector.decide("a1"));
+        selector.recordSolverFree("a1");
+        assertNotNull(selector.describe("a1"));
+        assertTrue(selector.describe("a1").contains("100% without solver"));
+
+        selector.setOverride("a1", null);
+        assertEquals(SolverStrategy.DEFAULT, selector.decide("a1").getStrategy());
+        assertEquals(List.of("a1"), selector.getAssignments());
+    }
+
+    @Test
+    public void testMappingSignatureIsPositional() {
+        HashMap<String, ArrayList<String>> reference = new HashMap<>();
+        reference.put("int", new ArrayList<>(List.of("a", "b")));
+        reference.put("double", new ArrayList<>(List.of("c")));
+        HashMap<String, ArrayList<String>> submission = new HashMap<>();
+        submission.put("int", new ArrayList<>(List.of("x", "y")));
+        submission.put("double", new ArrayList<>(List.of("z")));
+        List<Pair<Pair<String, String>, String>> mapping = List.of(
+            new Pair<>(new Pair<>("a", "y"), "int"),
+            new Pair<>(new Pair<>("b", "x"), "int"),
+            new Pair<>(new Pair<>("c", "z"), "double"));
+        assertEquals("double:0;int:1,0", StrategySelector.mappingSignature(mapping, reference, submission));
+    }
+
+    @Test
+    public void testSelectedStrategiesKeepVerdicts() {
+        GeneratorSpec spec = GeneratorSpec.defaults().with("loopDepth", 2).with("tripCount", 10);
+        Pair<Program, Program> equivalent = ProgramGenerator.equivalentPair(spec);
+        Pair<Program, Program> nonEquivalent = ProgramGenerator.nonEquivalentPair(spec);
+        StrategySelector selector = new StrategySelector(100, 5000);
+        try (PatchValidator validator = new PatchValidator(1)) {
+            validator.setStrategySelector(selector);
+            // Enough validations to try every strategy on both pairs
+            for (int i = 0; i < 5; i++) {
+                assertEquals(ValidationResult.Outcome.EQUIVALENT,
+                    validator.validate(equivalent.getValue0(), equivalent.getValue1()).getOutcome());
+                assertEquals(ValidationResult.Outcome.NOT_EQUIVALENT,
+                    validator.validate(nonEquivalent.getValue0(), nonEquivalent.getValue1()).getOutcome());
+            }
+        }
+        assertTrue(selector.getAssignments().size() <= 2);
+        for (String assignment : selector.getAssignments()) {
+            assertTrue(selector.describe(assignment).contains("0% without solver"));
+        }
+    }
+
+    @Test
+    public void testInvalidTimeouts() {
+        assertThrows(IllegalArgumentException.class, () -> new StrategySelector(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new StrategySelector(200, 100));
+    }
+}
@@ -0,0 +1,169 @@
+package sg.edu.nus.se.its.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static sg.edu.nus.se.its.validation.TestHelper.assign;
+import static sg.edu.nus.se.its.validation.TestHelper.constant;
+import static sg.edu.nus.se.its.validation.TestHelper.op;
+import static sg.edu.nus.se.its.validation.TestHelper.var;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Function;
+
+/**
+ * Unit tests for the StructuralMatcher class.
+ */
+public class StructuralMatcherTest {
+    private static Function function(String first, String second) {
+        return new Function("f", List.of(new Pair<>(first, "int"), new Pair<>(second, "int")), "int");
+    }
+
+    private static void branch(Function function, int loc, int whenTrue, int whenFalse) {
+        HashMap<Boolean, Integer> transition = new HashMap<>();
+        transition.put(true, whenTrue);
+        transition.put(false, whenFalse);
+        function.getLoctrans().put(loc, transition);
+    }
+
+    private static void jump(Function function, int loc, int next) {
+        HashMap<Boolean, Integer> transition = new HashMap<>();
+        transition.put(true, next);
+        function.getLoctrans().put(loc, transition);
+    }
+
+    /**
+     * Builds f(a, b): s = a + 1; d = b * 2; if (s > d) return s - d; else return d.
+     *
+     * @return The function.
+     */
+    private static Function reference() {
+        Function function = function("a", "b");
+        function.getLocexprs().put(1, new ArrayList<>(List.of(
+            assign("s", op("Add", var("a"), constant("1"))),
+            assign("d", op("Mult", var("b"), constant("2"))))));
+        function.getLocexprs().put(2, new ArrayList<>(List.of(assign("$cond", op("Gt", var("s"), var("d"))))));
+        function.getLocexprs().put(3, new ArrayList<>(List.of(assign("$ret", op("Sub", var("s"), var("d"))))));
+        function.getLocexprs().put(4, new ArrayList<>(List.of(assign("$ret", var("d")))));
+        jump(function, 1, 2);
+        branch(function, 2, 3, 4);
+        function.getLoctrans().put(3, new HashMap<>());
+        function.getLoctrans().put(4, new HashMap<>());
+        return function;
+    }
+
+    /**
+     * Builds the reference with renamed variables and parameters, independent assignments swapped, commuted
+     * operands, a mirrored comparison, renumbered locations and a dead temporary.
+     *
+     * @param equivalent Whether the function is equivalent, or returns one more on the else branch.
+     * @return The function.
+     */
+    private static Function renamed(boolean equivalent) {
+        Function function = function("y", "x");
+        function.getLocexprs().put(1, new ArrayList<>(List.of(
+            assign("twice", op("*", constant("2"), var("y"))),
+            assign("debug", constant("7")),
+            assign("next", op("+", constant("1"), var("x'"))))));
+        function.getLocexprs().put(5, new ArrayList<>(List.of(assign("$cond", op("<", var("twice"), var("next"))))));
+        function.getLocexprs().put(7, new ArrayList<>(List.of(
+            assign("$ret", equivalent ? var("twice") : op("Add", var("twice"), constant("1"))))));
+        function.getLocexprs().put(6, new ArrayList<>(List.of(assign("$ret", op("-", var("next"), var("twice"))))));
+        jump(function, 1, 5);
+        branch(function, 5, 6, 7);
+        function.getLoctrans().put(6, new HashMap<>());
+        function.getLoctrans().put(7, new HashMap<>());
+        return function;
+    }
+
+    @Test
+    public void testRenamedAndReorderedProgramsMatch() {
+        assertTrue(StructuralMatcher.isomorphic(reference(), renamed(true)));
+        assertTrue(StructuralMatcher.isomorphic(renamed(true), reference()));
+        assertFalse(StructuralMatcher.isomorphic(reference(), renamed(false)));
+    }
+
+    @Test
+    public void testDependentAssignmentsKeepTheirOrder() {
+        Function first = function("a", "b");
+        first.getLocexprs().put(1, new ArrayList<>(List.of(
+            assign("t", var("a")),
+            assign("t", op("Add", var("t"), var("b"))),
+            assign("$ret", var("t")))));
+        first.getLoctrans().put(1, new HashMap<>());
+        Function second = function("a", "b");
+        second.getLocexprs().put(1, new ArrayList<>(List.of(
+            assign("t", op("Add", var("t"), var("b"))),
+            assign("t", var("a")),
+            assign("$ret", var("t")))));
+        second.getLoctrans().put(1, new HashMap<>());
+        assertFalse(StructuralMatcher.isomorphic(first, second));
+
+        // The same values computed in another order are the same location
+        Function third = function("p", "q");
+        third.getLocexprs().put(1, new ArrayList<>(List.of(
+            assign("u", op("Add", var("p"), var("q"))),
+            assign("$ret", var("u")))));
+        third.getLoctrans().put(1, new HashMap<>());
+        assertTrue(StructuralMatcher.isomorphic(first, third));
+    }
+
+    @Test
+    public void testVariablesOnlyPairWithTheirKind() {
+        // A local may not stand for a parameter, nor one variable for two
+        Function parameter = function("a", "b");
+        parameter.getLocexprs().put(1, new ArrayList<>(List.of(assign("$ret", op("Sub", var("a"), var("b"))))));
+        parameter.getLoctrans().put(1, new HashMap<>());
+        Function local = function("a", "b");
+        local.getLocexprs().put(1, new ArrayList<>(List.of(
+            assign("c", constant("1")),
+            assign("$ret", op("Sub", var("a"), var("c"))))));
+        local.getLoctrans().put(1, new HashMap<>());
+        Function same = function("a", "b");
+        same.getLocexprs().put(1, new ArrayList<>(List.of(assign("$ret", op("Sub", var("a"), var("a"))))));
+        same.getLoctrans().put(1, new HashMap<>());
+        assertFalse(StructuralMatcher.isomorphic(parameter, local));
+        assertFalse(StructuralMatcher.isomorphic(parameter, same));
+    }
+
+    @Test
+    public void testLeavesUnhandledProgramsToTheSolver() {
+        Function loop = reference();
+        jump(loop, 3, 2);
+        assertFalse(StructuralMatcher.isomorphic(loop, loop));
+
+        Function output = reference();
+        output.getLocexprs().get(4).add(assign("$out", op("StrFormat", constant("\"%d\""), var("d"))));
+        assertFalse(StructuralMatcher.isomorphic(output, output));
+
+        Function unassigned = function("a", "b");
+        unassigned.getLocexprs().put(1, new ArrayList<>(List.of(assign("$ret", var("missing")))));
+        unassigned.getLoctrans().put(1, new HashMap<>());
+        assertFalse(StructuralMatcher.isomorphic(unassigned, unassigned));
+    }
+
+    @Test
+    public void testMatchSkipsTheSolver() {
+        try (SolverWrapper solverWrapper = new SolverWrapper()) {
+            ValidationResult matched = solverWrapper.checkEquivalence(reference(), renamed(true));
+            assertEquals(ValidationResult.Outcome.EQUIVALENT, matched.getOutcome());
+            assertEquals(0, matched.getMappingsTried());
+            assertEquals(1, solverWrapper.getStructuralMatches());
+
+            assertEquals(ValidationResult.Outcome.NOT_EQUIVALENT,
+                solverWrapper.checkEquivalence(reference(), renamed(false)).getOutcome());
+
+            solverWrapper.setStructuralMatching(false);
+            ValidationResult solved = solverWrapper.checkEquivalence(reference(), renamed(true));
+            assertEquals(ValidationResult.Outcome.EQUIVALENT, solved.getOutcome());
+            assertTrue(solved.getMappingsTried() > 0);
+            assertEquals(1, solverWrapper.getStructuralMatches());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package sg.edu.nus.se.its.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.microsoft.z3.Context;
+import com.microsoft.z3.Expr;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class TermMetricsTest {
+    private final SolverWrapper solverWrapper = new SolverWrapper();
+    private final Context ctx = solverWrapper.getCtx();
+
+    @AfterEach
+    public void closeSolver() {
+        solverWrapper.close();
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testSharedSubtermsCountedOnceInDag() {
+        Expr x = ctx.mkIntConst("x");
+        Expr sum = ctx.mkAdd(x, ctx.mkInt(1));
+        Expr product = ctx.mkMul(sum, sum);
+
+        TermMetrics metrics = TermMetrics.of(product);
+        assertEquals(4, metrics.getDagSize());
+        assertEquals(7, metrics.getTreeSize());
+        assertEquals(Integer.valueOf(1), metrics.getOperatorCounts().get("+"));
+        assertEquals(Integer.valueOf(1), metrics.getOperatorCounts().get("*"));
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testMetricsShareTermsAcrossOutputs() {
+        Expr x = ctx.mkIntConst("x");
+        Expr sum = ctx.mkAdd(x, ctx.mkInt(1));
+
+        TermMetrics metrics = TermMetrics.of(sum, sum, null);
+        assertEquals(3, metrics.getDagSize());
+        assertEquals(6, metrics.getTreeSize());
+        assertEquals(3, TermMetrics.dagSize(sum));
+    }
+}
@@ -2,10 +2,15 @@ package sg.edu.nus.se.its.validation;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 import org.javatuples.Pair;
 
+import sg.edu.nus.se.its.model.Constant;
+import sg.edu.nus.se.its.model.Expression;
+import sg.edu.nus.se.its.model.Operation;
 import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.model.Variable;
 import sg.edu.nus.se.its.parser.ParserServiceImpl;
 
 
@@ -39,10 +44,11 @@ public class TestHelper {
      * @return true if the test passes, false otherwise
      */
     public static boolean runTest(String fileName0, String fileName1) {
-        PatchValidator validator = new PatchValidator();
         Program referenceSolution = TestHelper.parseLocalProgramFile(fileName0);
         Program submittedProgram = TestHelper.parseLocalProgramFile(fileName1);
-        return validator.patchValidation(referenceSolution, submittedProgram);
+        try (PatchValidator validator = new PatchValidator()) {
+            return validator.patchValidation(referenceSolution, submittedProgram);
+        }
     }
 
     /**
@@ -53,11 +59,12 @@ public class TestHelper {
      * @return true if the test passes, false otherwise
      */
     public static boolean runTestReflexive(String fileName0, String fileName1) {
-        PatchValidator validator = new PatchValidator();
         Program referenceSolution = TestHelper.parseLocalProgramFile(fileName0);
         Program submittedProgram = TestHelper.parseLocalProgramFile(fileName1);
-        return (validator.patchValidation(referenceSolution, submittedProgram) &&
-            validator.patchValidation(submittedProgram, referenceSolution));
+        try (PatchValidator validator = new PatchValidator()) {
+            return (validator.patchValidation(referenceSolution, submittedProgram) &&
+                validator.patchValidation(submittedProgram, referenceSolution));
+        }
     }
 
     /**
@@ -68,11 +75,69 @@ public class TestHelper {
      * @return a pair containing the result and counter example
      */
     public static Pair<Boolean, String> runTestWithCounterExample(String fileName0, String fileName1) {
-        PatchValidator validator = new PatchValidator();
         Program referenceSolution = TestHelper.parseLocalProgramFile(fileName0);
         Program submittedProgram = TestHelper.parseLocalProgramFile(fileName1);
-        Boolean result = validator.patchValidation(referenceSolution, submittedProgram);
-        String counterExample = validator.getCounterExample();
-        return new Pair<>(result, counterExample);
+        try (PatchValidator validator = new PatchValidator()) {
+            Boolean result = validator.patchValidation(referenceSolution, submittedProgram);
+            String counterExample = validator.getCounterExample();
+            return new Pair<>(result, counterExample);
+        }
+    }
+
+    /**
+     * Runs a validation with the given file names and returns its full result.
+     *
+     * @param fileName0 the name of the first file
+     * @param fileName1 the name of the second file
+     * @return the result of the validation
+     */
+    public static ValidationResult runValidation(String fileName0, String fileName1) {
+        Program referenceSolution = TestHelper.parseLocalProgramFile(fileName0);
+        Program submittedProgram = TestHelper.parseLocalProgramFile(fileName1);
+        try (PatchValidator validator = new PatchValidator()) {
+            return validator.validate(referenceSolution, submittedProgram);
+        }
+    }
+
+    /**
+     * Creates an assignment of a function location.
+     *
+     * @param variable the assigned variable
+     * @param expression the assigned expression
+     * @return the assignment
+     */
+    public static Pair<String, Expression> assign(String variable, Expression expression) {
+        return new Pair<>(variable, expression);
+    }
+
+    /**
+     * Creates a variable expression.
+     *
+     * @param name the variable name
+     * @return the expression
+     */
+    public static Expression var(String name) {
+        return new Variable(name, 0);
+    }
+
+    /**
+     * Creates a constant expression.
+     *
+     * @param value the constant value
+     * @return the expression
+     */
+    public static Expression constant(String value) {
+        return new Constant(value, 0);
+    }
+
+    /**
+     * Creates an operation expression.
+     *
+     * @param name the operator name
+     * @param args the operands
+     * @return the expression
+     */
+    public static Expression op(String name, Expression... args) {
+        return new Operation(name, List.of(args), 0);
     }
 }
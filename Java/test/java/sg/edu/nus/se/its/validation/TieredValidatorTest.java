@@ -0,0 +1,53 @@
+package sg.edu.nus.se.its.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+
+/**
+ * Unit tests for the TieredValidator class.
+ */
+public class TieredValidatorTest {
+    @Test
+    public void testDecisiveQuickPassNotEscalated() throws Exception {
+        Pair<Program, Program> programs = ProgramGenerator.nonEquivalentPair(GeneratorSpec.defaults());
+        try (TieredValidator validator = new TieredValidator(1, 10_000, 1, 60_000)) {
+            TieredResult result = validator.validate(programs.getValue0(), programs.getValue1());
+
+            assertFalse(result.isEscalated());
+            assertSame(result.getQuickResult(), result.getFinalResult().get());
+            assertEquals(ValidationResult.Outcome.NOT_EQUIVALENT, result.getQuickResult().getOutcome());
+            assertEquals(0, validator.getEscalated());
+        }
+    }
+
+    @Test
+    public void testInconclusiveQuickPassEscalated() throws Exception {
+        GeneratorSpec spec = GeneratorSpec.defaults()
+            .with("loopDepth", 3)
+            .with("tripCount", 40)
+            .with("expressionDepth", 4);
+        Pair<Program, Program> programs = ProgramGenerator.equivalentPair(spec);
+        try (TieredValidator validator = new TieredValidator(1, 1, 1, 60_000)) {
+            TieredResult result = validator.validate(programs.getValue0(), programs.getValue1());
+
+            assertTrue(result.isEscalated());
+            assertEquals(ValidationResult.Outcome.EQUIVALENT, result.getFinalResult().get().getOutcome());
+            assertEquals(1, validator.getEscalated());
+        }
+    }
+
+    @Test
+    public void testInvalidBudgets() {
+        assertThrows(IllegalArgumentException.class, () -> new TieredValidator(1, 100, 1, 10));
+    }
+}
@@ -0,0 +1,53 @@
+package sg.edu.nus.se.its.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class ValidationResultTest {
+    @Test
+    public void testEquivalentResultCarriesStatistics() {
+        ValidationResult result = TestHelper.runValidation("c/hello_world.c", "c/hello_world_1.c");
+        assertEquals(ValidationResult.Outcome.EQUIVALENT, result.getOutcome());
+        assertTrue(result.isEquivalent());
+        assertTrue(result.getMappingsTried() >= 1);
+        assertTrue(result.getStatistics().getChecks() >= 1);
+        assertTrue(result.getReferenceTerms().getDagSize() > 0);
+        assertTrue(result.getSubmissionTerms().getDagSize() > 0);
+    }
+
+    @Test
+    public void testNonEquivalentResult() {
+        ValidationResult result = TestHelper.runValidation("c/hello_world.c", "c/hi.c");
+        assertEquals(ValidationResult.Outcome.NOT_EQUIVALENT, result.getOutcome());
+        assertFalse(result.isEquivalent());
+    }
+
+    @Test
+    public void testNullProgramIsError() {
+        try (PatchValidator validator = new PatchValidator()) {
+            ValidationResult result = validator.validate(null, null);
+            assertEquals(ValidationResult.Outcome.ERROR, result.getOutcome());
+            assertEquals(0, result.getMappingsTried());
+        }
+    }
+
+    @Test
+    public void testSolverStatisticsAccumulate() {
+        SolverStatistics statistics = new SolverStatistics();
+        statistics.add("conflicts", 3);
+        statistics.add("conflicts", 4);
+        statistics.add("decisions", 10);
+        statistics.add("max memory", 12.5);
+        statistics.add("max memory", 2.5);
+        statistics.add("time", 0.25);
+        statistics.add("rlimit count", 1000);
+
+        assertEquals(7, statistics.getConflicts());
+        assertEquals(10, statistics.getDecisions());
+        assertEquals(12.5, statistics.getMaxMemoryMegabytes(), 1e-9);
+        assertEquals(0.25, statistics.getSolverSeconds(), 1e-9);
+    }
+}
@@ -0,0 +1,126 @@
+package sg.edu.nus.se.its.validation.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+
+/**
+ * Unit tests for the BatchRegrader class.
+ */
+public class BatchRegraderTest {
+    private static final String MANIFEST = String.join("\n",
+        "{\"assignment\": \"a1\", \"reference\": \"ref\", \"submission\": \"same\"}",
+        "{\"assignment\": \"a1\", \"reference\": \"ref\", \"submission\": \"different\"}",
+        "",
+        "not json",
+        "{\"assignment\": \"a1\", \"reference\": \"ref\", \"submission\": \"missing\"}",
+        "{\"assignment\": \"a1\", \"reference\": \"ref\", \"submission\": \"same\"}") + "\n";
+
+    /**
+     * Creates a loader serving generated programs by file name.
+     *
+     * @return the loader
+     */
+    private static ProgramLoader generatedPrograms() {
+        Pair<Program, Program> equivalent = ProgramGenerator.equivalentPair(GeneratorSpec.defaults());
+        Pair<Program, Program> nonEquivalent = ProgramGenerator.nonEquivalentPair(GeneratorSpec.defaults());
+        Map<String, Program> programs = new HashMap<>();
+        programs.put("ref", equivalent.getValue0());
+        programs.put("same", equivalent.getValue1());
+        programs.put("different", nonEquivalent.getValue1());
+        return path -> {
+            Program program = programs.get(path.getFileName().toString());
+            if (program == null) {
+                throw new IOException("No such program: " + path);
+            }
+            return program;
+        };
+    }
+
+    /**
+     * Reads the outcome of each manifest line from a verdict file.
+     *
+     * @param output the verdict file
+     * @return the outcome by manifest line
+     * @throws Exception if the file cannot be read
+     */
+    private static Map<Long, String> outcomes(Path output) throws Exception {
+        Map<Long, String> outcomes = new HashMap<>();
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            JsonObject verdict = JsonParser.parseString(line).getAsJsonObject();
+            String previous = outcomes.put(verdict.get("line").getAsLong(), verdict.get("outcome").getAsString());
+            assertNull(previous, "Duplicate verdict: " + line);
+        }
+        return outcomes;
+    }
+
+    @Test
+    public void testVerdictsForEveryEntry() throws Exception {
+        Path directory = Files.createTempDirectory("regrade");
+        Path manifest = Files.write(directory.resolve("manifest.jsonl"), MANIFEST.getBytes(StandardCharsets.UTF_8));
+        Path output = directory.resolve("verdicts.jsonl");
+        Path checkpoint = directory.resolve("verdicts.jsonl.checkpoint");
+
+        try (BatchRegrader regrader = new BatchRegrader(2, 2, 60_000, generatedPrograms())) {
+            assertEquals(5, regrader.run(manifest, output, checkpoint));
+        }
+
+        Map<Long, String> outcomes = outcomes(output);
+        assertEquals(5, outcomes.size());
+        assertEquals("EQUIVALENT", outcomes.get(0L));
+        assertEquals("NOT_EQUIVALENT", outcomes.get(1L));
+        assertEquals("ERROR", outcomes.get(3L));
+        assertEquals("ERROR", outcomes.get(4L));
+        assertEquals("EQUIVALENT", outcomes.get(5L));
+        assertEquals(6, BatchRegrader.readCheckpoint(checkpoint));
+    }
+
+    @Test
+    public void testResumeAfterCrash() throws Exception {
+        Path directory = Files.createTempDirectory("regrade");
+        Path manifest = Files.write(directory.resolve("manifest.jsonl"), MANIFEST.getBytes(StandardCharsets.UTF_8));
+        Path output = directory.resolve("verdicts.jsonl");
+        Path checkpoint = directory.resolve("verdicts.jsonl.checkpoint");
+        // The first run got lines 0 and 1 checkpointed, wrote line 4 out of order and crashed halfway through a line
+        Files.write(output, String.join("\n",
+            "{\"line\":0,\"outcome\":\"EQUIVALENT\"}",
+            "{\"line\":1,\"outcome\":\"NOT_EQUIVALENT\"}",
+            "{\"line\":4,\"outcome\":\"ERROR\"}",
+            "{\"line\":5,\"outc").getBytes(StandardCharsets.UTF_8));
+        BatchRegrader.writeCheckpoint(checkpoint, 2);
+
+        try (BatchRegrader regrader = new BatchRegrader(1, 4, 60_000, generatedPrograms())) {
+            assertEquals(2, regrader.run(manifest, output, checkpoint));
+        }
+
+        Map<Long, String> outcomes = outcomes(output);
+        assertEquals(5, outcomes.size());
+        assertEquals("ERROR", outcomes.get(3L));
+        assertEquals("EQUIVALENT", outcomes.get(5L));
+        assertEquals(6, BatchRegrader.readCheckpoint(checkpoint));
+    }
+
+    @Test
+    public void testWindowSmallerThanConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchRegrader(4, 2, 60_000, path -> null));
+    }
+}
@@ -0,0 +1,52 @@
+package sg.edu.nus.se.its.validation.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the CompletionWatermark class.
+ */
+public class CompletionWatermarkTest {
+    @Test
+    public void testAdvancesOverLeadingCompletedEntries() {
+        CompletionWatermark watermark = new CompletionWatermark(10, 4);
+
+        assertFalse(watermark.complete(12));
+        assertFalse(watermark.complete(11));
+        assertEquals(10, watermark.get());
+        assertTrue(watermark.complete(10));
+        assertEquals(13, watermark.get());
+    }
+
+    @Test
+    public void testEntriesOutsideWindowRejected() {
+        CompletionWatermark watermark = new CompletionWatermark(0, 2);
+
+        assertThrows(IllegalArgumentException.class, () -> watermark.complete(2));
+        watermark.complete(0);
+        watermark.complete(2);
+        assertEquals(1, watermark.get());
+    }
+
+    @Test
+    public void testWaitingEntryReleased() throws Exception {
+        CompletionWatermark watermark = new CompletionWatermark(0, 1);
+        Thread completer = new Thread(() -> watermark.complete(0));
+        completer.start();
+
+        assertTrue(watermark.awaitWindow(1));
+        completer.join();
+    }
+
+    @Test
+    public void testAbortReleasesWaitingEntry() throws Exception {
+        CompletionWatermark watermark = new CompletionWatermark(0, 1);
+        watermark.abort();
+
+        assertFalse(watermark.awaitWindow(5));
+    }
+}
@@ -0,0 +1,86 @@
+package sg.edu.nus.se.its.validation.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the HashRing class.
+ */
+public class HashRingTest {
+    @Test
+    public void testKeysSpreadOverNodes() {
+        HashRing<String> ring = new HashRing<>(64);
+        ring.add("a");
+        ring.add("b");
+        ring.add("c");
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            counts.merge(ring.owner("assignment-" + i), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(count > 500, "Unbalanced ring: " + counts);
+        }
+    }
+
+    @Test
+    public void testOnlyKeysOfRemovedNodeMove() {
+        HashRing<String> ring = new HashRing<>(64);
+        ring.add("a");
+        ring.add("b");
+        ring.add("c");
+        Map<String, String> before = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            before.put("assignment-" + i, ring.owner("assignment-" + i));
+        }
+
+        ring.remove("b");
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            String owner = ring.owner(entry.getKey());
+            if (entry.getValue().equals("b")) {
+                assertFalse(owner.equals("b"));
+            } else {
+                assertEquals(entry.getValue(), owner);
+            }
+        }
+
+        ring.add("b");
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            assertEquals(entry.getValue(), ring.owner(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testRouteStartsWithOwnerAndListsEveryNode() {
+        HashRing<String> ring = new HashRing<>(16);
+        ring.add("a");
+        ring.add("b");
+        ring.add("c");
+        List<String> route = ring.route("assignment-7");
+
+        assertEquals(ring.owner("assignment-7"), route.get(0));
+        assertEquals(3, route.size());
+        assertEquals(3, route.stream().distinct().count());
+
+        ring.remove(route.get(0));
+        assertEquals(route.get(1), ring.owner("assignment-7"));
+    }
+
+    @Test
+    public void testEmptyRing() {
+        HashRing<String> ring = new HashRing<>(4);
+
+        assertNull(ring.owner("assignment"));
+        assertTrue(ring.route("assignment").isEmpty());
+        assertFalse(ring.remove("a"));
+    }
+}
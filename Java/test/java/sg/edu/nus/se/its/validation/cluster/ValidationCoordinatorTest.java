@@ -0,0 +1,214 @@
+package sg.edu.nus.se.its.validation.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpServer;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.batch.ProgramLoader;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+import sg.edu.nus.se.its.validation.server.ValidationServer;
+
+/**
+ * Unit tests for the ValidationCoordinator class.
+ */
+public class ValidationCoordinatorTest {
+    private static final String REQUEST =
+        "{\"assignment\": \"a1\", \"reference\": \"ref\", \"submission\": \"same\"}";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    /**
+     * Creates a loader serving generated programs by file name.
+     *
+     * @return the loader
+     */
+    private static ProgramLoader generatedPrograms() {
+        Pair<Program, Program> equivalent = ProgramGenerator.equivalentPair(GeneratorSpec.defaults());
+        Map<String, Program> programs = new HashMap<>();
+        programs.put("ref", equivalent.getValue0());
+        programs.put("same", equivalent.getValue1());
+        return path -> {
+            Program program = programs.get(path.getFileName().toString());
+            if (program == null) {
+                throw new IOException("No such program: " + path);
+            }
+            return program;
+        };
+    }
+
+    private static URI uri(ValidationServer worker) {
+        return URI.create("http://127.0.0.1:" + worker.getPort());
+    }
+
+    /**
+     * Starts a worker that is healthy but answers only after a delay, like one whose handlers are all busy.
+     *
+     * @param delayMillis the delay before answering a request
+     * @param received the last validation request the worker received
+     * @return the worker
+     * @throws IOException if the port cannot be bound
+     */
+    private static HttpServer slowWorker(long delayMillis, AtomicReference<String> received) throws IOException {
+        HttpServer worker = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        worker.createContext("/health", exchange -> {
+            try {
+                Thread.sleep(delayMillis);
+                exchange.sendResponseHeaders(200, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        worker.createContext("/validations", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                received.set(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                Thread.sleep(delayMillis);
+                byte[] body = "{\"id\": \"1\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(202, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        worker.setExecutor(Executors.newCachedThreadPool());
+        worker.start();
+        return worker;
+    }
+
+    private static URI uri(HttpServer worker) {
+        return URI.create("http://127.0.0.1:" + worker.getAddress().getPort());
+    }
+
+    private JsonObject post(ValidationCoordinator coordinator, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+            URI.create("http://127.0.0.1:" + coordinator.getPort() + "/validations"))
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        return JsonParser.parseString(client.send(request, HttpResponse.BodyHandlers.ofString()).body())
+            .getAsJsonObject();
+    }
+
+    @Test
+    public void testAssignmentRoutedToOneWorker() throws Exception {
+        try (ValidationServer first = new ValidationServer(0, 1, 60_000, generatedPrograms());
+            ValidationServer second = new ValidationServer(0, 1, 60_000, generatedPrograms());
+            ValidationCoordinator coordinator = new ValidationCoordinator(0, List.of(uri(first), uri(second)),
+                60_000)) {
+            JsonObject verdict = post(coordinator, REQUEST);
+            post(coordinator, REQUEST);
+            post(coordinator, REQUEST);
+
+            assertEquals("EQUIVALENT", verdict.getAsJsonObject("verdict").get("outcome").getAsString());
+            assertEquals(3, first.getSolved() + second.getSolved());
+            assertEquals(0, Math.min(first.getSolved(), second.getSolved()));
+
+            HttpRequest poll = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + coordinator.getPort()
+                + "/validations/" + verdict.get("id").getAsString())).GET().build();
+            assertEquals(200, client.send(poll, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+    }
+
+    @Test
+    public void testFailoverWhenOwnerDies() throws Exception {
+        ValidationServer first = new ValidationServer(0, 1, 60_000, generatedPrograms());
+        ValidationServer second = new ValidationServer(0, 1, 60_000, generatedPrograms());
+        try (ValidationCoordinator coordinator = new ValidationCoordinator(0, List.of(uri(first), uri(second)),
+            60_000)) {
+            JsonObject verdict = post(coordinator, REQUEST);
+            ValidationServer owner = verdict.get("worker").getAsString().equals(uri(first).toString())
+                ? first
+                : second;
+            ValidationServer survivor = owner == first ? second : first;
+            owner.close();
+
+            JsonObject failedOver = post(coordinator, REQUEST);
+
+            assertEquals("EQUIVALENT", failedOver.getAsJsonObject("verdict").get("outcome").getAsString());
+            assertEquals(uri(survivor).toString(), failedOver.get("worker").getAsString());
+            assertEquals(1, coordinator.getFailovers());
+            assertFalse(coordinator.getLiveWorkers().contains(uri(owner)));
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    public void testMissingAssignmentRejected() throws Exception {
+        try (ValidationServer worker = new ValidationServer(0, 1, 60_000, generatedPrograms());
+            ValidationCoordinator coordinator = new ValidationCoordinator(0, List.of(uri(worker)), 60_000)) {
+            HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + coordinator.getPort() + "/validations"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"reference\": \"ref\", \"submission\": \"same\"}"))
+                .build();
+
+            assertEquals(400, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+    }
+
+    @Test
+    public void testSlowWorkerIsNotTakenOffTheRing() throws Exception {
+        HttpServer slow = slowWorker(2_000, new AtomicReference<>());
+        try (ValidationCoordinator coordinator = new ValidationCoordinator(0, List.of(uri(slow)), 500)) {
+            HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + coordinator.getPort() + "/validations"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"assignment\": \"a1\"}"))
+                .build();
+
+            assertEquals(504, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertEquals(0, coordinator.getFailovers());
+            assertTrue(coordinator.getLiveWorkers().contains(uri(slow)));
+
+            // The health check times out as well, which must not take the worker off the ring either
+            Thread.sleep(3_500);
+            assertTrue(coordinator.getLiveWorkers().contains(uri(slow)));
+        } finally {
+            slow.stop(0);
+        }
+    }
+
+    @Test
+    public void testTimeoutClampedBelowRequestTimeout() throws Exception {
+        AtomicReference<String> received = new AtomicReference<>();
+        HttpServer worker = slowWorker(0, received);
+        try (ValidationCoordinator coordinator = new ValidationCoordinator(0, List.of(uri(worker)), 10_000)) {
+            post(coordinator, "{\"assignment\": \"a1\", \"timeoutMillis\": 60000}");
+            long forwarded = JsonParser.parseString(received.get()).getAsJsonObject()
+                .get("timeoutMillis").getAsLong();
+            assertTrue(forwarded < 10_000);
+
+            post(coordinator, "{\"assignment\": \"a1\", \"timeoutMillis\": 500}");
+            assertEquals(500, JsonParser.parseString(received.get()).getAsJsonObject()
+                .get("timeoutMillis").getAsLong());
+        } finally {
+            worker.stop(0);
+        }
+    }
+}
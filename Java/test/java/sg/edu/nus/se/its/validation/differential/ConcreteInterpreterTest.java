@@ -0,0 +1,109 @@
+package sg.edu.nus.se.its.validation.differential;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static sg.edu.nus.se.its.validation.TestHelper.constant;
+import static sg.edu.nus.se.its.validation.TestHelper.op;
+import static sg.edu.nus.se.its.validation.TestHelper.var;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Expression;
+import sg.edu.nus.se.its.model.Function;
+
+/**
+ * Unit tests for the ConcreteInterpreter class.
+ */
+public class ConcreteInterpreterTest {
+    @Test
+    public void testEuclideanDivisionAndModulo() {
+        Function function = straightLine(new Pair<>("$ret",
+            op("Add", op("Mult", op("Div", var("x"), constant("2")), constant("10")), op("Mod", var("x"), constant("2")))));
+
+        assertArrayEquals(new Object[] {-39L, ""}, ConcreteInterpreter.run(function, Map.of("x", -7L), 100));
+        assertArrayEquals(new Object[] {31L, ""}, ConcreteInterpreter.run(function, Map.of("x", 7L), 100));
+    }
+
+    @Test
+    public void testLoop() {
+        // s = 0; i = 0; while (i < n) { s = s + i; i = i + 1; } return s;
+        Function function = new Function("sum", List.of(new Pair<>("n", "int")), "int");
+        function.getLocexprs().put(1, block(new Pair<>("s", constant("0")), new Pair<>("i", constant("0"))));
+        function.getLocexprs().put(2, block(new Pair<>("$cond", op("Lt", var("i"), var("n")))));
+        function.getLocexprs().put(3, block(new Pair<>("s", op("Add", var("s"), var("i"))),
+            new Pair<>("i", op("Add", var("i"), constant("1")))));
+        function.getLocexprs().put(4, block(new Pair<>("$ret", var("s"))));
+        function.getLoctrans().put(1, transitions(2, null));
+        function.getLoctrans().put(2, transitions(3, 4));
+        function.getLoctrans().put(3, transitions(2, null));
+        function.getLoctrans().put(4, new HashMap<>());
+
+        assertEquals(45L, ConcreteInterpreter.run(function, Map.of("n", 10L), 100)[0]);
+        assertThrows(ArithmeticException.class, () -> ConcreteInterpreter.run(function, Map.of("n", 1000L), 100));
+    }
+
+    @Test
+    public void testArraysAreValues() {
+        Function function = straightLine(
+            new Pair<>("a", op("ArrayAssign", var("arr"), constant("0"), constant("5"))),
+            new Pair<>("$ret", op("Sub", op("GetElement", var("a"), constant("0")),
+                op("GetElement", var("arr"), constant("0")))));
+        ConcreteArray arr = new ConcreteArray(index -> 2L);
+
+        assertEquals(3L, ConcreteInterpreter.run(function, Map.of("arr", arr), 100)[0]);
+        assertEquals(2L, arr.select(0));
+    }
+
+    @Test
+    public void testUndefinedResultsAreInconclusive() {
+        Function division = straightLine(new Pair<>("$ret", op("Div", var("x"), constant("0"))));
+        Function unset = straightLine(new Pair<>("$ret", var("y")));
+
+        assertThrows(ArithmeticException.class, () -> ConcreteInterpreter.run(division, Map.of("x", 1L), 100));
+        assertThrows(ArithmeticException.class, () -> ConcreteInterpreter.run(unset, Map.of("x", 1L), 100));
+        assertThrows(ArithmeticException.class, () -> ConcreteInterpreter.run(
+            straightLine(new Pair<>("$ret", op("Mult", var("x"), var("x")))), Map.of("x", Long.MAX_VALUE), 100));
+    }
+
+    @Test
+    public void testPowersBySquaring() {
+        Function power = straightLine(new Pair<>("$ret", op("Pow", var("x"), constant("9223372036854775807"))));
+        Function small = straightLine(new Pair<>("$ret", op("Pow", var("x"), constant("13"))));
+
+        // A huge exponent of 0, 1 or -1 finishes at once instead of looping
+        assertEquals(1L, ConcreteInterpreter.run(power, Map.of("x", 1L), 100)[0]);
+        assertEquals(-1L, ConcreteInterpreter.run(power, Map.of("x", -1L), 100)[0]);
+        assertEquals(0L, ConcreteInterpreter.run(power, Map.of("x", 0L), 100)[0]);
+        assertThrows(ArithmeticException.class, () -> ConcreteInterpreter.run(power, Map.of("x", 2L), 100));
+        assertEquals(-1594323L, ConcreteInterpreter.run(small, Map.of("x", -3L), 100)[0]);
+    }
+
+    @SafeVarargs
+    private static Function straightLine(Pair<String, Expression>... expressions) {
+        Function function = new Function("f", List.of(new Pair<>("x", "int")), "int");
+        function.getLocexprs().put(1, block(expressions));
+        function.getLoctrans().put(1, new HashMap<>());
+        return function;
+    }
+
+    @SafeVarargs
+    private static ArrayList<Pair<String, Expression>> block(Pair<String, Expression>... expressions) {
+        return new ArrayList<>(List.of(expressions));
+    }
+
+    private static HashMap<Boolean, Integer> transitions(Integer whenTrue, Integer whenFalse) {
+        HashMap<Boolean, Integer> transitions = new HashMap<>();
+        transitions.put(true, whenTrue);
+        if (whenFalse != null) {
+            transitions.put(false, whenFalse);
+        }
+        return transitions;
+    }
+}
@@ -0,0 +1,157 @@
+package sg.edu.nus.se.its.validation.differential;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static sg.edu.nus.se.its.validation.TestHelper.assign;
+import static sg.edu.nus.se.its.validation.TestHelper.constant;
+import static sg.edu.nus.se.its.validation.TestHelper.op;
+import static sg.edu.nus.se.its.validation.TestHelper.var;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Constant;
+import sg.edu.nus.se.its.model.Expression;
+import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.model.Operation;
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.model.Variable;
+import sg.edu.nus.se.its.validation.Parameter;
+import sg.edu.nus.se.its.validation.PatchValidator;
+import sg.edu.nus.se.its.validation.SolverWrapper;
+import sg.edu.nus.se.its.validation.ValidationResult;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+
+/**
+ * Unit tests for the DifferentialTester class.
+ */
+public class DifferentialTesterTest {
+    private final DifferentialTester tester = new DifferentialTester(64, 1, 10_000);
+
+    @Test
+    public void testEquivalentPrograms() {
+        for (int seed = 0; seed < 5; seed++) {
+            GeneratorSpec spec = GeneratorSpec.defaults().with("seed", seed).with("arraySize", 3);
+            ValidationResult result = test(ProgramGenerator.equivalentPair(spec));
+
+            assertEquals(ValidationResult.Outcome.EQUIVALENT, result.getOutcome());
+            assertTrue(result.isProvisional());
+        }
+    }
+
+    @Test
+    public void testNonEquivalentPrograms() {
+        for (int seed = 0; seed < 5; seed++) {
+            ValidationResult result = test(ProgramGenerator.nonEquivalentPair(
+                GeneratorSpec.defaults().with("seed", seed)));
+
+            assertEquals(ValidationResult.Outcome.NOT_EQUIVALENT, result.getOutcome());
+            assertFalse(result.getCounterExample().isEmpty());
+        }
+    }
+
+    @Test
+    public void testNumbersComparedByValue() {
+        assertTrue(DifferentialTester.sameValue(2L, 2.0));
+        assertFalse(DifferentialTester.sameValue(2L, 3L));
+        assertFalse(DifferentialTester.sameValue(2L, "2"));
+    }
+
+    @Test
+    public void testRefutesDisagreeingMappings() {
+        // f(a, b) = a - b against g(x, y) = y - x: only a -> y, b -> x agrees
+        Function reference = difference("a", "b", "a", "b");
+        Function submission = difference("x", "y", "y", "x");
+        HashMap<String, ArrayList<String>> referenceParams = new HashMap<>();
+        HashMap<String, ArrayList<String>> submissionParams = new HashMap<>();
+        Parameter.canMap(reference.getParams(), submission.getParams(), referenceParams, submissionParams);
+        List<List<Pair<Pair<String, String>, String>>> mappings =
+            Parameter.formMapping(referenceParams, submissionParams);
+        assertEquals(2, mappings.size());
+
+        List<List<Pair<Pair<String, String>, String>>> refuted =
+            tester.refuted(reference, submission, referenceParams, mappings);
+        assertEquals(1, refuted.size());
+        assertTrue(refuted.get(0).contains(new Pair<>(new Pair<>("a", "x"), "int")));
+    }
+
+    @Test
+    public void testInconclusiveRunsRefuteNothing() {
+        // Every run divides by zero, so no mapping can be refuted
+        Function reference = difference("a", "b", "a", "b");
+        reference.getLocexprs().get(1).add(0, new Pair<>("z", new Operation("Div", List.of(
+            new Variable("a", 0), new Constant("0", 0)), 0)));
+        Function submission = difference("x", "y", "y", "x");
+        HashMap<String, ArrayList<String>> referenceParams = new HashMap<>();
+        HashMap<String, ArrayList<String>> submissionParams = new HashMap<>();
+        Parameter.canMap(reference.getParams(), submission.getParams(), referenceParams, submissionParams);
+        List<List<Pair<Pair<String, String>, String>>> mappings =
+            Parameter.formMapping(referenceParams, submissionParams);
+
+        assertEquals(List.of(), tester.refuted(reference, submission, referenceParams, mappings));
+    }
+
+    @Test
+    public void testProbedValidationKeepsVerdicts() {
+        GeneratorSpec spec = GeneratorSpec.defaults().with("parameterCount", 3);
+        Pair<Program, Program> equivalent = ProgramGenerator.equivalentPair(spec);
+        Pair<Program, Program> nonEquivalent = ProgramGenerator.nonEquivalentPair(spec);
+        try (PatchValidator validator = new PatchValidator(1)) {
+            ValidationResult proved = validator.validate(equivalent.getValue0(), equivalent.getValue1());
+            assertEquals(ValidationResult.Outcome.EQUIVALENT, proved.getOutcome());
+            ValidationResult refuted = validator.validate(nonEquivalent.getValue0(), nonEquivalent.getValue1());
+            assertEquals(ValidationResult.Outcome.NOT_EQUIVALENT, refuted.getOutcome());
+            assertFalse(refuted.getCounterExample().isEmpty());
+            assertTrue(validator.getRefutedMappings() > 0);
+        }
+    }
+
+    @Test
+    public void testRefutedMappingsAreStillSolved() {
+        // if (a > 0) return a; else return b, against if (y <= 0) return x; else return y. The symbolic execution
+        // takes both else branches and proves b == y, the mapping the concrete runs refute at a = 3, b = 10.
+        Function reference = choice("a", "b", op("Gt", var("a"), constant("0")), "a", "b");
+        Function submission = choice("x", "y", op("LtE", var("y"), constant("0")), "x", "y");
+        try (SolverWrapper solverWrapper = new SolverWrapper()) {
+            solverWrapper.setStructuralMatching(false);
+            solverWrapper.setMappingProbe(tester);
+            assertEquals(ValidationResult.Outcome.EQUIVALENT,
+                solverWrapper.checkEquivalence(reference, submission).getOutcome());
+            assertEquals(1, solverWrapper.getRefutedMappings());
+        }
+    }
+
+    private static Function choice(String first, String second, Expression condition, String then, String otherwise) {
+        Function function = new Function("f", List.of(new Pair<>(first, "int"), new Pair<>(second, "int")), "int");
+        function.getLocexprs().put(1, new ArrayList<>(List.of(assign("$cond", condition))));
+        function.getLocexprs().put(2, new ArrayList<>(List.of(assign("$ret", var(then)))));
+        function.getLocexprs().put(3, new ArrayList<>(List.of(assign("$ret", var(otherwise)))));
+        HashMap<Boolean, Integer> branch = new HashMap<>();
+        branch.put(true, 2);
+        branch.put(false, 3);
+        function.getLoctrans().put(1, branch);
+        function.getLoctrans().put(2, new HashMap<>());
+        function.getLoctrans().put(3, new HashMap<>());
+        return function;
+    }
+
+    private static Function difference(String first, String second, String minuend, String subtrahend) {
+        Function function = new Function("f", List.of(new Pair<>(first, "int"), new Pair<>(second, "int")), "int");
+        function.getLocexprs().put(1, new ArrayList<>(List.of(new Pair<>("$ret", (Expression) new Operation("Sub",
+            List.of(new Variable(minuend, 0), new Variable(subtrahend, 0)), 0)))));
+        function.getLoctrans().put(1, new HashMap<>());
+        return function;
+    }
+
+    private ValidationResult test(Pair<Program, Program> programs) {
+        Function reference = programs.getValue0().getFncs().values().iterator().next();
+        Function submission = programs.getValue1().getFncs().values().iterator().next();
+        return tester.test(reference, submission);
+    }
+}
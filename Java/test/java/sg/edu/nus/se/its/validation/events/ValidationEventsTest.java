@@ -0,0 +1,46 @@
+package sg.edu.nus.se.its.validation.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.validation.PatchValidator;
+
+public class ValidationEventsTest {
+    @Test
+    public void testEventsDisabledByDefault() {
+        assertFalse(EventType.getEventType(SolverCheckEvent.class).isEnabled());
+        assertFalse(EventType.getEventType(LocationBlockEvent.class).isEnabled());
+        assertFalse(EventType.getEventType(MappingAttemptEvent.class).isEnabled());
+        assertFalse(EventType.getEventType(ValidationEvent.class).isEnabled());
+    }
+
+    @Test
+    public void testValidationEventRecorded() throws IOException {
+        Path dump = Files.createTempFile("validation", ".jfr");
+        try (Recording recording = new Recording();
+             PatchValidator validator = new PatchValidator()) {
+            recording.enable(ValidationEvent.class);
+            recording.start();
+            assertFalse(validator.patchValidation(null, null));
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        Files.delete(dump);
+        assertEquals(1, events.size());
+        assertEquals("sg.edu.nus.se.its.validation.Validation", events.get(0).getEventType().getName());
+        assertFalse(events.get(0).getBoolean("equivalent"));
+    }
+}
@@ -0,0 +1,68 @@
+package sg.edu.nus.se.its.validation.generator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Function;
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.PatchValidator;
+
+public class ProgramGeneratorTest {
+    private static Function onlyFunction(Program program) {
+        return program.getFncs().values().iterator().next();
+    }
+
+    private static boolean validates(Pair<Program, Program> programs) {
+        try (PatchValidator validator = new PatchValidator()) {
+            return validator.patchValidation(programs.getValue0(), programs.getValue1());
+        }
+    }
+
+    @Test
+    public void testGeneratedShape() {
+        GeneratorSpec spec = GeneratorSpec.defaults().with("parameterCount", 3).with("loopDepth", 2);
+        Function function = onlyFunction(ProgramGenerator.generate(spec, ProgramGenerator.Variant.REFERENCE));
+
+        assertEquals(3, function.getParams().size());
+        // init, exit, and init/cond/step per loop plus the innermost body
+        assertEquals(2 + 3 * 2 + 1, function.getLocexprs().size());
+    }
+
+    @Test
+    public void testEquivalentPairValidates() {
+        Pair<Program, Program> programs = ProgramGenerator.equivalentPair(GeneratorSpec.defaults());
+        assertTrue(validates(programs));
+    }
+
+    @Test
+    public void testNonEquivalentPairFails() {
+        Pair<Program, Program> programs = ProgramGenerator.nonEquivalentPair(GeneratorSpec.defaults());
+        assertFalse(validates(programs));
+    }
+
+    @Test
+    public void testArraysAndOutputs() {
+        GeneratorSpec spec = GeneratorSpec.defaults().with("arraySize=4").with("outputVolume=3");
+        Pair<Program, Program> programs = ProgramGenerator.equivalentPair(spec);
+        assertTrue(validates(programs));
+    }
+
+    @Test
+    public void testFloatParameters() {
+        GeneratorSpec spec = GeneratorSpec.defaults().withParameterType("float");
+        Pair<Program, Program> programs = ProgramGenerator.nonEquivalentPair(spec);
+        assertFalse(validates(programs));
+    }
+
+    @Test
+    public void testInvalidSpecifications() {
+        assertThrows(IllegalArgumentException.class, () -> GeneratorSpec.defaults().with("loopDepth", -1));
+        assertThrows(IllegalArgumentException.class, () -> GeneratorSpec.defaults().withParameterType("char"));
+        assertThrows(IllegalArgumentException.class, () -> GeneratorSpec.defaults().with("unknown=1"));
+    }
+}
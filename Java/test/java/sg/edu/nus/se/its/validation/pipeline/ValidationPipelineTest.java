@@ -0,0 +1,66 @@
+package sg.edu.nus.se.its.validation.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.ValidationResult;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+
+/**
+ * Unit tests for the ValidationPipeline class.
+ */
+public class ValidationPipelineTest {
+    @Test
+    public void testVerdictsThroughSmallBuffers() throws Exception {
+        List<CompletableFuture<ValidationResult>> equivalent = new ArrayList<>();
+        List<CompletableFuture<ValidationResult>> nonEquivalent = new ArrayList<>();
+        try (ValidationPipeline pipeline = new ValidationPipeline(2, 1, 16)) {
+            for (int i = 0; i < 4; i++) {
+                GeneratorSpec spec = GeneratorSpec.defaults().with("seed", i);
+                Pair<Program, Program> same = ProgramGenerator.equivalentPair(spec);
+                Pair<Program, Program> different = ProgramGenerator.nonEquivalentPair(spec);
+                equivalent.add(pipeline.submit(same.getValue0(), same.getValue1()));
+                nonEquivalent.add(pipeline.submit(different.getValue0(), different.getValue1()));
+            }
+        }
+        for (CompletableFuture<ValidationResult> future : equivalent) {
+            assertEquals(ValidationResult.Outcome.EQUIVALENT, future.get().getOutcome());
+        }
+        for (CompletableFuture<ValidationResult> future : nonEquivalent) {
+            assertEquals(ValidationResult.Outcome.NOT_EQUIVALENT, future.get().getOutcome());
+        }
+    }
+
+    @Test
+    public void testResubmissionServedFromCache() throws Exception {
+        Pair<Program, Program> programs = ProgramGenerator.equivalentPair(GeneratorSpec.defaults());
+        try (ValidationPipeline pipeline = new ValidationPipeline(1, 4, 16)) {
+            ValidationResult first = pipeline.submit(programs.getValue0(), programs.getValue1()).get();
+            ValidationResult second = pipeline.submit(programs.getValue0(), programs.getValue1()).get();
+
+            assertEquals(ValidationResult.Outcome.EQUIVALENT, first.getOutcome());
+            assertEquals(ValidationResult.Outcome.EQUIVALENT, second.getOutcome());
+            assertEquals(1, pipeline.getCache().getHits());
+            assertEquals(1, pipeline.getCache().getMisses());
+        }
+    }
+
+    @Test
+    public void testSubmitAfterClose() {
+        Pair<Program, Program> programs = ProgramGenerator.equivalentPair(GeneratorSpec.defaults());
+        ValidationPipeline pipeline = new ValidationPipeline(1, 4, 16);
+        pipeline.close();
+
+        assertThrows(IllegalStateException.class,
+            () -> pipeline.submit(programs.getValue0(), programs.getValue1()));
+    }
+}
@@ -0,0 +1,51 @@
+package sg.edu.nus.se.its.validation.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the FairQueue class.
+ */
+public class FairQueueTest {
+    @Test
+    public void testMoreUrgentClassServedFirst() {
+        FairQueue<String> queue = new FairQueue<>();
+        queue.add(Priority.BATCH, "a", "batch");
+        queue.add(Priority.INTERACTIVE, "a", "interactive");
+        queue.add(Priority.EXAM, "a", "exam");
+
+        assertEquals(Arrays.asList("interactive", "exam", "batch"), queue.drain());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testRoundRobinAcrossAssignments() {
+        FairQueue<String> queue = new FairQueue<>();
+        queue.add(Priority.EXAM, "hot", "hot1");
+        queue.add(Priority.EXAM, "hot", "hot2");
+        queue.add(Priority.EXAM, "hot", "hot3");
+        queue.add(Priority.EXAM, "cold", "cold1");
+        queue.add(Priority.EXAM, "other", "other1");
+
+        assertEquals(Arrays.asList("hot1", "cold1", "other1", "hot2", "hot3"), queue.drain());
+    }
+
+    @Test
+    public void testEvictNewestOfBusiestLessUrgentAssignment() {
+        FairQueue<String> queue = new FairQueue<>();
+        queue.add(Priority.BATCH, "a", "a1");
+        queue.add(Priority.BATCH, "b", "b1");
+        queue.add(Priority.BATCH, "b", "b2");
+        queue.add(Priority.EXAM, "c", "c1");
+
+        assertNull(queue.evictLessUrgentThan(Priority.BATCH));
+        assertEquals("b2", queue.evictLessUrgentThan(Priority.INTERACTIVE));
+        assertEquals(3, queue.size());
+        assertEquals(1, queue.countAtOrAbove(Priority.EXAM));
+        assertEquals(3, queue.countAtOrAbove(Priority.BATCH));
+    }
+}
@@ -0,0 +1,75 @@
+package sg.edu.nus.se.its.validation.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.PatchValidator;
+import sg.edu.nus.se.its.validation.ValidationResult;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+
+/**
+ * Unit tests for the ValidationScheduler class.
+ */
+public class ValidationSchedulerTest {
+    @Test
+    public void testVerdictsAcrossPriorities() throws Exception {
+        try (PatchValidator validator = new PatchValidator(2);
+             ValidationScheduler scheduler = new ValidationScheduler(validator, 2, 100)) {
+            List<CompletableFuture<ValidationResult>> results = new ArrayList<>();
+            for (int i = 0; i < 9; i++) {
+                GeneratorSpec spec = GeneratorSpec.defaults().with("seed", i);
+                Pair<Program, Program> programs = i % 2 == 0
+                    ? ProgramGenerator.equivalentPair(spec)
+                    : ProgramGenerator.nonEquivalentPair(spec);
+                results.add(scheduler.submit(new ValidationRequest("assignment" + i % 3,
+                    Priority.values()[i % 3], null, programs.getValue0(), programs.getValue1())));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i % 2 == 0 ? ValidationResult.Outcome.EQUIVALENT : ValidationResult.Outcome.NOT_EQUIVALENT,
+                    results.get(i).get().getOutcome());
+            }
+            assertEquals(0, scheduler.getRejected());
+        }
+    }
+
+    @Test
+    public void testPassedDeadlineRejectedUpFront() throws Exception {
+        Pair<Program, Program> programs = ProgramGenerator.equivalentPair(GeneratorSpec.defaults());
+        try (PatchValidator validator = new PatchValidator();
+             ValidationScheduler scheduler = new ValidationScheduler(validator, 1, 10)) {
+            ValidationResult result = scheduler.submit(new ValidationRequest("a", Priority.INTERACTIVE,
+                Instant.now().minusSeconds(1), programs.getValue0(), programs.getValue1())).get();
+
+            assertEquals(ValidationResult.Outcome.REJECTED, result.getOutcome());
+            assertEquals(1, scheduler.getRejected());
+        }
+    }
+
+    @Test
+    public void testSubmitAfterClose() {
+        Pair<Program, Program> programs = ProgramGenerator.equivalentPair(GeneratorSpec.defaults());
+        try (PatchValidator validator = new PatchValidator()) {
+            ValidationScheduler scheduler = new ValidationScheduler(validator, 1, 10);
+            scheduler.close();
+            assertThrows(IllegalStateException.class, () -> scheduler.submit(new ValidationRequest("a",
+                Priority.BATCH, null, programs.getValue0(), programs.getValue1())));
+        }
+    }
+
+    @Test
+    public void testInvalidRequest() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new ValidationRequest(null, Priority.BATCH, null, null, null));
+    }
+}
@@ -0,0 +1,135 @@
+package sg.edu.nus.se.its.validation.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import sg.edu.nus.se.its.model.Program;
+import sg.edu.nus.se.its.validation.batch.ProgramLoader;
+import sg.edu.nus.se.its.validation.generator.GeneratorSpec;
+import sg.edu.nus.se.its.validation.generator.ProgramGenerator;
+
+/**
+ * Unit tests for the ValidationServer class.
+ */
+public class ValidationServerTest {
+    private static final String EQUIVALENT_REQUEST = "{\"reference\": \"ref\", \"submission\": \"same\"}";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    /**
+     * Creates a loader serving generated programs by file name.
+     *
+     * @return the loader
+     */
+    private static ProgramLoader generatedPrograms() {
+        Pair<Program, Program> equivalent = ProgramGenerator.equivalentPair(GeneratorSpec.defaults());
+        Pair<Program, Program> nonEquivalent = ProgramGenerator.nonEquivalentPair(GeneratorSpec.defaults());
+        Map<String, Program> programs = new HashMap<>();
+        programs.put("ref", equivalent.getValue0());
+        programs.put("same", equivalent.getValue1());
+        programs.put("different", nonEquivalent.getValue1());
+        return path -> {
+            Program program = programs.get(path.getFileName().toString());
+            if (program == null) {
+                throw new IOException("No such program: " + path);
+            }
+            return program;
+        };
+    }
+
+    /**
+     * Posts a validation request.
+     *
+     * @param server the server
+     * @param body the request body
+     * @param key the idempotency key, or null
+     * @return the response
+     * @throws Exception if the request fails
+     */
+    private HttpResponse<String> post(ValidationServer server, String body, String key) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+            URI.create("http://127.0.0.1:" + server.getPort() + "/validations"))
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (key != null) {
+            request.header("Idempotency-Key", key);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static JsonObject json(HttpResponse<String> response) {
+        return JsonParser.parseString(response.body()).getAsJsonObject();
+    }
+
+    @Test
+    public void testSynchronousValidation() throws Exception {
+        try (ValidationServer server = new ValidationServer(0, 2, 60_000, generatedPrograms())) {
+            HttpResponse<String> equivalent = post(server, EQUIVALENT_REQUEST, null);
+            HttpResponse<String> different = post(server,
+                "{\"reference\": \"ref\", \"submission\": \"different\"}", null);
+
+            assertEquals(200, equivalent.statusCode());
+            assertEquals("EQUIVALENT", json(equivalent).getAsJsonObject("verdict").get("outcome").getAsString());
+            assertEquals("NOT_EQUIVALENT",
+                json(different).getAsJsonObject("verdict").get("outcome").getAsString());
+            assertEquals(2, server.getSolved());
+        }
+    }
+
+    @Test
+    public void testRetryWithIdempotencyKeyNotSolvedAgain() throws Exception {
+        try (ValidationServer server = new ValidationServer(0, 1, 60_000, generatedPrograms())) {
+            HttpResponse<String> first = post(server, EQUIVALENT_REQUEST, "attempt-1");
+            HttpResponse<String> retry = post(server, EQUIVALENT_REQUEST, "attempt-1");
+            HttpResponse<String> conflict = post(server,
+                "{\"reference\": \"ref\", \"submission\": \"different\"}", "attempt-1");
+
+            assertEquals(json(first).get("id").getAsString(), json(retry).get("id").getAsString());
+            assertEquals(1, server.getSolved());
+            assertEquals(1, server.getDeduplicated());
+            assertEquals(409, conflict.statusCode());
+        }
+    }
+
+    @Test
+    public void testAsynchronousValidationPolled() throws Exception {
+        try (ValidationServer server = new ValidationServer(0, 1, 60_000, generatedPrograms())) {
+            HttpResponse<String> accepted = post(server,
+                "{\"reference\": \"ref\", \"submission\": \"same\", \"async\": true}", null);
+            assertEquals(202, accepted.statusCode());
+
+            URI location = URI.create("http://127.0.0.1:" + server.getPort()
+                + accepted.headers().firstValue("Location").orElseThrow());
+            JsonObject job;
+            do {
+                Thread.sleep(50);
+                job = json(client.send(HttpRequest.newBuilder(location).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()));
+            } while (job.get("status").getAsString().equals("pending"));
+
+            assertEquals("EQUIVALENT", job.getAsJsonObject("verdict").get("outcome").getAsString());
+        }
+    }
+
+    @Test
+    public void testInvalidRequests() throws Exception {
+        try (ValidationServer server = new ValidationServer(0, 1, 60_000, generatedPrograms())) {
+            assertEquals(400, post(server, "{\"reference\": \"ref\"}", null).statusCode());
+            assertEquals(400, post(server, "not json", null).statusCode());
+            HttpResponse<String> missing = post(server, "{\"reference\": \"ref\", \"submission\": \"none\"}", null);
+            assertEquals("ERROR", json(missing).getAsJsonObject("verdict").get("outcome").getAsString());
+        }
+    }
+}
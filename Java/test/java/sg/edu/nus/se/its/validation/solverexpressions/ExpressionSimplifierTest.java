@@ -0,0 +1,115 @@
+package sg.edu.nus.se.its.validation.solverexpressions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.microsoft.z3.Context;
+import com.microsoft.z3.Expr;
+
+import sg.edu.nus.se.its.validation.SolverWrapper;
+
+public class ExpressionSimplifierTest {
+    private static BaseExpression leaf(String value) {
+        return new BaseExpression(value);
+    }
+
+    private static BaseExpression binary(String operator, BaseExpression left, BaseExpression right) {
+        return new BinaryExpression(left, right, operator);
+    }
+
+    private static String simplified(BaseExpression expression) {
+        return ExpressionSimplifier.simplify(expression).toString();
+    }
+
+    @Test
+    public void testFoldsIntegerArithmetic() {
+        assertEquals("<7>", simplified(binary("Add", leaf("3"), binary("Mult", leaf("2"), leaf("2")))));
+        assertEquals("<-3>", simplified(binary("Div", leaf("7"), leaf("-2"))));
+        assertEquals("<1>", simplified(binary("%", leaf("-7"), leaf("2"))));
+        assertEquals("<true>", simplified(binary("Lt", leaf("1"), leaf("2"))));
+        assertEquals("<false>", simplified(new UnaryExpression(binary("==", leaf("1"), leaf("1")), "Not")));
+    }
+
+    @Test
+    public void testLeavesUnsafeFoldsToSolver() {
+        // Division by zero, results beyond int range and real literals keep their Z3 semantics
+        assertEquals("(<1> Div <0>)", simplified(binary("Div", leaf("1"), leaf("0"))));
+        assertEquals("(<1> Add <2147483647>)", simplified(binary("Add", leaf("2147483647"), leaf("1"))));
+        assertEquals("(<0.5> Add <1.5>)", simplified(binary("Add", leaf("1.5"), leaf("0.5"))));
+        // x * 0 and x + 0.0 could change the sort of x
+        assertEquals("(<0> Mult <x>)", simplified(binary("Mult", leaf("x"), leaf("0"))));
+        assertEquals("(<0.0> Add <x>)", simplified(binary("Add", leaf("x"), leaf("0.0"))));
+    }
+
+    @Test
+    public void testRemovesIdentities() {
+        assertEquals("<x>", simplified(binary("Add", leaf("0"), leaf("x"))));
+        assertEquals("<y>", simplified(binary("Mult", leaf("1"), binary("Sub", leaf("y"), leaf("0")))));
+        assertEquals("<z>", simplified(binary("FloorDiv", leaf("z"), leaf("1"))));
+        assertEquals("<x>", simplified(new UnaryExpression(new UnaryExpression(leaf("x"), "USub"), "-")));
+    }
+
+    @Test
+    public void testDoubleNegationOnlyOfBooleans() {
+        BaseExpression comparison = binary("Gt", leaf("x"), leaf("y"));
+        assertSame(comparison, ExpressionSimplifier.simplify(
+            new UnaryExpression(new UnaryExpression(comparison, "Not"), "!")));
+        assertEquals("(Not (Not <x>))",
+            simplified(new UnaryExpression(new UnaryExpression(leaf("x"), "Not"), "Not")));
+    }
+
+    @Test
+    public void testConnectivesWithLiterals() {
+        BaseExpression comparison = binary("Gt", leaf("x"), leaf("y"));
+        assertEquals("<false>", simplified(binary("And", leaf("x"), leaf("false"))));
+        assertEquals("<true>", simplified(binary("||", leaf("true"), leaf("x"))));
+        assertSame(comparison, ExpressionSimplifier.simplify(binary("And", leaf("true"), comparison)));
+        assertEquals("(<true> And <x>)", simplified(binary("And", leaf("true"), leaf("x"))));
+    }
+
+    @Test
+    public void testNormalizesCommutativeOperands() {
+        assertEquals(simplified(binary("Add", leaf("a"), leaf("b"))), simplified(binary("Add", leaf("b"), leaf("a"))));
+        assertEquals("(<b> Sub <a>)", simplified(binary("Sub", leaf("b"), leaf("a"))));
+    }
+
+    @Test
+    public void testIteWithLiteralCondition() {
+        assertEquals("<a>", simplified(new TernaryExpression(binary("<", leaf("1"), leaf("2")),
+            leaf("a"), leaf("b"), "ite")));
+        assertEquals("<3>", simplified(new TernaryExpression(leaf("false"), leaf("a"),
+            binary("+", leaf("1"), leaf("2")), "ite")));
+        // An unset variable in the else branch needs the placeholder created by the ite
+        assertEquals("(<false> ite <a> <b>)", simplified(new TernaryExpression(leaf("false"), leaf("a"),
+            leaf("b"), "ite")));
+    }
+
+    @Test
+    public void testSimplifiesNaryOperands() {
+        assertEquals("(max <x> <3>)", simplified(new NaryExpression(
+            List.of(leaf("x"), binary("Add", leaf("1"), leaf("2"))), "max")));
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testSimplifiedTermsMatchSolver() {
+        try (SolverWrapper solverWrapper = new SolverWrapper()) {
+            Context ctx = solverWrapper.getCtx();
+            Map<String, String> varRemapping = new HashMap<>();
+            solverWrapper.updateVariable(varRemapping, "x", ctx.mkIntConst("x"));
+            BaseExpression expression = binary("Add", binary("Mult", leaf("1"), leaf("x")),
+                binary("Sub", leaf("10"), leaf("-17")));
+
+            Expr original = expression.evaluate(solverWrapper, varRemapping);
+            Expr simplified = ExpressionSimplifier.simplify(expression).evaluate(solverWrapper, varRemapping);
+            assertTrue(ctx.mkEq(original, simplified).simplify().isTrue());
+        }
+    }
+}